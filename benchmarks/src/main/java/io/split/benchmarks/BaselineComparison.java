@@ -0,0 +1,239 @@
+package io.split.benchmarks;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.ProfilerConfig;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Runs the benchmarks with the GC profiler and compares them against a baseline saved by a previous run, for nightly
+ * jobs to catch regressions:
+ * <pre>
+ * java -cp target/benchmarks.jar io.split.benchmarks.BaselineComparison \
+ *     [--baseline baseline.tsv] [--save baseline.tsv] [--threshold 10] [JMH options, e.g. EvaluatorBenchmark -p shape=regex]
+ * </pre>
+ * A benchmark regresses when its score is more than threshold percent worse than the baseline, beyond the error of
+ * both runs, or when it allocates more than threshold percent (and at least {@value #MIN_ALLOCATION_DELTA} bytes) more
+ * per operation. The process exits with 1 if any benchmark regressed, so the job fails; benchmarks missing from the
+ * baseline are reported but never fail it. Saving after comparing moves the baseline to this run.
+ */
+public final class BaselineComparison {
+
+    static final double DEFAULT_THRESHOLD = 10;
+    static final double MIN_ALLOCATION_DELTA = 8;
+
+    private static final String ALLOCATION = "gc.alloc.rate.norm";
+    private static final String HEADER = "# benchmark\tmode\tscore\terror\tunit\talloc B/op";
+
+    private BaselineComparison() {
+    }
+
+    public static void main(String[] args) throws IOException, RunnerException {
+        Path baseline = null;
+        Path save = null;
+        double threshold = DEFAULT_THRESHOLD;
+        List<String> jmhArgs = new ArrayList<>();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--baseline":
+                        baseline = Paths.get(args[++i]);
+                        break;
+                    case "--save":
+                        save = Paths.get(args[++i]);
+                        break;
+                    case "--threshold":
+                        threshold = Double.parseDouble(args[++i]);
+                        break;
+                    default:
+                        jmhArgs.add(args[i]);
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            System.err.println("Usage: BaselineComparison [--baseline <file>] [--save <file>] [--threshold <percent>] [JMH options]");
+            System.exit(2);
+        }
+
+        CommandLineOptions jmhOptions;
+        try {
+            jmhOptions = new CommandLineOptions(jmhArgs.toArray(new String[0]));
+        } catch (CommandLineOptionException e) {
+            System.err.println("Invalid JMH options: " + e.getMessage());
+            System.exit(2);
+            return;
+        }
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(jmhOptions);
+        if (!hasGcProfiler(jmhOptions.getProfilers())) {
+            options.addProfiler(GCProfiler.class);
+        }
+
+        Map<String, Score> current = scores(new Runner(options.build()).run());
+        boolean regressed = false;
+        if (baseline != null) {
+            regressed = compare(read(baseline), current, threshold);
+        }
+        if (save != null) {
+            write(save, current);
+        }
+        System.exit(regressed ? 1 : 0);
+    }
+
+    private static boolean hasGcProfiler(List<ProfilerConfig> profilers) {
+        for (ProfilerConfig profiler : profilers) {
+            if ("gc".equals(profiler.getKlass()) || GCProfiler.class.getName().equals(profiler.getKlass())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Prints the change of every benchmark against the baseline.
+     *
+     * @return whether any of them regressed.
+     */
+    static boolean compare(Map<String, Score> baseline, Map<String, Score> current, double threshold) {
+        boolean regressed = false;
+        System.out.println();
+        System.out.println("Comparison against baseline, threshold " + threshold + "%:");
+        for (Map.Entry<String, Score> entry : current.entrySet()) {
+            Score now = entry.getValue();
+            Score before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("  NEW        %s %s%n", entry.getKey(), now);
+                continue;
+            }
+            boolean slower = now.worseThan(before, threshold);
+            boolean allocates = now.allocatesMoreThan(before, threshold);
+            regressed |= slower || allocates;
+            System.out.printf("  %-10s %s %+.1f%% score, %s -> %s%n", slower || allocates ? "REGRESSED" : "OK",
+                    entry.getKey(), now.changePercent(before), before, now);
+        }
+        for (String missing : baseline.keySet()) {
+            if (!current.containsKey(missing)) {
+                System.out.printf("  NOT RUN    %s%n", missing);
+            }
+        }
+        return regressed;
+    }
+
+    static Map<String, Score> scores(Collection<RunResult> results) {
+        Map<String, Score> scores = new TreeMap<>();
+        for (RunResult result : results) {
+            StringBuilder name = new StringBuilder(result.getParams().getBenchmark());
+            if (!result.getParams().getParamsKeys().isEmpty()) {
+                Map<String, String> params = new LinkedHashMap<>();
+                for (String key : result.getParams().getParamsKeys()) {
+                    params.put(key, result.getParams().getParam(key));
+                }
+                name.append(params);
+            }
+            Result primary = result.getPrimaryResult();
+            double allocation = Double.NaN;
+            for (Map.Entry<String, Result> secondary : result.getSecondaryResults().entrySet()) {
+                if (secondary.getKey().endsWith(ALLOCATION)) {
+                    allocation = secondary.getValue().getScore();
+                }
+            }
+            scores.put(name.toString(), new Score(result.getParams().getMode(), primary.getScore(),
+                    primary.getScoreError(), primary.getScoreUnit(), allocation));
+        }
+        return scores;
+    }
+
+    static Map<String, Score> read(Path path) throws IOException {
+        Map<String, Score> scores = new TreeMap<>();
+        for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split("\t");
+            if (fields.length != 6) {
+                throw new IOException("Invalid baseline line: " + line);
+            }
+            scores.put(fields[0], new Score(Mode.deepValueOf(fields[1]), Double.parseDouble(fields[2]),
+                    Double.parseDouble(fields[3]), fields[4], Double.parseDouble(fields[5])));
+        }
+        return scores;
+    }
+
+    static void write(Path path, Map<String, Score> scores) throws IOException {
+        List<String> lines = new ArrayList<>(scores.size() + 1);
+        lines.add(HEADER);
+        for (Map.Entry<String, Score> entry : scores.entrySet()) {
+            Score score = entry.getValue();
+            lines.add(entry.getKey() + "\t" + score._mode.shortLabel() + "\t" + score._score + "\t" + score._error
+                    + "\t" + score._unit + "\t" + score._allocation);
+        }
+        Files.write(path, lines, StandardCharsets.UTF_8);
+    }
+
+    static final class Score {
+        private final Mode _mode;
+        private final double _score;
+        private final double _error;
+        private final String _unit;
+        private final double _allocation;
+
+        Score(Mode mode, double score, double error, String unit, double allocation) {
+            _mode = mode;
+            _score = score;
+            _error = Double.isNaN(error) ? 0 : error;
+            _unit = unit;
+            _allocation = allocation;
+        }
+
+        /**
+         * @return how much worse this score is than the baseline, in percent. Negative if it's better.
+         */
+        double changePercent(Score baseline) {
+            double change = (_score - baseline._score) / baseline._score * 100;
+            return _mode == Mode.Throughput ? -change : change;
+        }
+
+        boolean worseThan(Score baseline, double threshold) {
+            return changePercent(baseline) > threshold && Math.abs(_score - baseline._score) > _error + baseline._error;
+        }
+
+        boolean allocatesMoreThan(Score baseline, double threshold) {
+            if (Double.isNaN(_allocation) || Double.isNaN(baseline._allocation)) {
+                return false;
+            }
+            return _allocation - baseline._allocation >= MIN_ALLOCATION_DELTA
+                    && _allocation > baseline._allocation * (1 + threshold / 100);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder bldr = new StringBuilder();
+            bldr.append(String.format("%.3f", _score));
+            bldr.append(" +- ");
+            bldr.append(String.format("%.3f", _error));
+            bldr.append(" ");
+            bldr.append(_unit);
+            if (!Double.isNaN(_allocation)) {
+                bldr.append(String.format(", %.1f B/op", _allocation));
+            }
+            return bldr.toString();
+        }
+    }
+}
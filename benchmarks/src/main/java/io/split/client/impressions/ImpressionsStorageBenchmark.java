@@ -0,0 +1,121 @@
+package io.split.client.impressions;
+
+import io.split.client.dtos.KeyImpression;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Contention between threads tracking impressions and the task flushing them.
+ *
+ * Each group runs N producer threads putting impressions and one consumer draining them in batches, as
+ * ImpressionsManagerImpl does. Compare the "producer" scores across storages at a given number of producers.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Group)
+public class ImpressionsStorageBenchmark {
+
+    private static final int QUEUE_SIZE = 30000;
+    private static final int POP_BATCH = 5000;
+
+    @Param({"linked", "ring", "ring-striped"})
+    public String storage;
+
+    private ImpressionsStorage _storage;
+    private KeyImpression _impression;
+
+    @Setup
+    public void setUp() {
+        switch (storage) {
+            case "linked":
+                _storage = new InMemoryImpressionsStorage(QUEUE_SIZE);
+                break;
+            case "ring":
+                _storage = new RingBufferImpressionsStorage(QUEUE_SIZE);
+                break;
+            case "ring-striped":
+                _storage = new RingBufferImpressionsStorage(QUEUE_SIZE, 16);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown storage: " + storage);
+        }
+
+        _impression = new KeyImpression();
+        _impression.feature = "some_feature";
+        _impression.keyName = "some_key";
+        _impression.treatment = "on";
+        _impression.time = System.currentTimeMillis();
+    }
+
+    @Benchmark
+    @Group("producers_1")
+    @GroupThreads(1)
+    public boolean put1() {
+        return _storage.put(_impression);
+    }
+
+    @Benchmark
+    @Group("producers_1")
+    @GroupThreads(1)
+    public int drain1() {
+        return _storage.pop(POP_BATCH).size();
+    }
+
+    @Benchmark
+    @Group("producers_4")
+    @GroupThreads(4)
+    public boolean put4() {
+        return _storage.put(_impression);
+    }
+
+    @Benchmark
+    @Group("producers_4")
+    @GroupThreads(1)
+    public int drain4() {
+        return _storage.pop(POP_BATCH).size();
+    }
+
+    @Benchmark
+    @Group("producers_16")
+    @GroupThreads(16)
+    public boolean put16() {
+        return _storage.put(_impression);
+    }
+
+    @Benchmark
+    @Group("producers_16")
+    @GroupThreads(1)
+    public int drain16() {
+        return _storage.pop(POP_BATCH).size();
+    }
+
+    @Benchmark
+    @Group("producers_64")
+    @GroupThreads(64)
+    public boolean put64() {
+        return _storage.put(_impression);
+    }
+
+    @Benchmark
+    @Group("producers_64")
+    @GroupThreads(1)
+    public int drain64() {
+        return _storage.pop(POP_BATCH).size();
+    }
+}
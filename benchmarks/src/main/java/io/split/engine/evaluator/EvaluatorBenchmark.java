@@ -0,0 +1,85 @@
+package io.split.engine.evaluator;
+
+import io.split.cache.InMemoryCacheImp;
+import io.split.cache.SegmentCacheInMemoryImpl;
+import io.split.cache.SplitCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What a getTreatment call spends in the evaluation engine, for each shape of Split generated by
+ * {@link SplitChangeGenerator}, with the SDK's opt-in evaluation instrumentation off, recording stats, or sampling
+ * 1 in 1000 evaluations into the profiler.
+ * <p/>
+ * Each call evaluates the next of a fixed set of keys and attributes, so the JIT can't specialize on a single key.
+ * Run with "-prof gc": an evaluation should allocate little more than its result.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EvaluatorBenchmark {
+
+    private static final long SEED = 42;
+    private static final int KEYS = 1024;
+
+    @Param({SplitChangeGenerator.WHITELIST, SplitChangeGenerator.ROLLOUT, SplitChangeGenerator.SEGMENT,
+            SplitChangeGenerator.REGEX, SplitChangeGenerator.DEPENDENCY, SplitChangeGenerator.DATETIME})
+    public String shape;
+
+    @Param({"none", "stats", "profiler"})
+    public String instrumentation;
+
+    private Evaluator _evaluator;
+    private String[] _keys;
+    private Map<String, Object>[] _attributes;
+    private int _next;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        SplitChangeGenerator generator = new SplitChangeGenerator(SEED, KEYS);
+        SplitCache splitCache = new InMemoryCacheImp();
+        generator.load(splitCache, new SegmentCacheInMemoryImpl());
+
+        switch (instrumentation) {
+            case "none":
+                _evaluator = new EvaluatorImp(splitCache);
+                break;
+            case "stats":
+                _evaluator = new EvaluatorImp(splitCache, new SplitStatsTable(splitCache));
+                break;
+            case "profiler":
+                _evaluator = new EvaluatorImp(splitCache, null, new EvaluationProfiler(1000));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown instrumentation: " + instrumentation);
+        }
+
+        List<String> keys = generator.keys();
+        List<Map<String, Object>> attributes = generator.attributes();
+        _keys = keys.toArray(new String[0]);
+        _attributes = attributes.toArray(new Map[0]);
+    }
+
+    @Benchmark
+    public EvaluatorImp.TreatmentLabelAndChangeNumber getTreatment() {
+        int i = _next++ & (KEYS - 1);
+        return _evaluator.evaluateFeature(_keys[i], null, shape, _attributes[i]);
+    }
+}
@@ -0,0 +1,425 @@
+package io.split.engine.evaluator;
+
+import com.google.common.collect.Lists;
+import io.split.cache.SegmentCache;
+import io.split.cache.SplitCache;
+import io.split.client.dtos.BetweenMatcherData;
+import io.split.client.dtos.Condition;
+import io.split.client.dtos.ConditionType;
+import io.split.client.dtos.DataType;
+import io.split.client.dtos.DependencyMatcherData;
+import io.split.client.dtos.KeySelector;
+import io.split.client.dtos.Matcher;
+import io.split.client.dtos.MatcherCombiner;
+import io.split.client.dtos.MatcherGroup;
+import io.split.client.dtos.MatcherType;
+import io.split.client.dtos.Partition;
+import io.split.client.dtos.SegmentChange;
+import io.split.client.dtos.Split;
+import io.split.client.dtos.SplitChange;
+import io.split.client.dtos.Status;
+import io.split.client.dtos.UnaryNumericMatcherData;
+import io.split.client.dtos.UserDefinedSegmentMatcherData;
+import io.split.client.dtos.WhitelistMatcherData;
+import io.split.engine.experiments.ParsedSplit;
+import io.split.engine.experiments.SplitParser;
+import io.split.engine.segments.SegmentFetcher;
+import io.split.engine.segments.SegmentSynchronizationTask;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generates a SplitChange and its SegmentChanges shaped like the ones of a real organization: a few hundred Splits,
+ * segments of thousands of keys, and one Split of each shape the evaluation benchmarks look at. It also generates the
+ * keys and attributes to evaluate them with, a share of which match each condition.
+ * <p/>
+ * Everything comes from a seeded Random, so every run of a benchmark evaluates the same data.
+ */
+final class SplitChangeGenerator {
+
+    static final String WHITELIST = "whitelist";
+    static final String ROLLOUT = "rollout";
+    static final String SEGMENT = "segment";
+    static final String REGEX = "regex";
+    static final String DEPENDENCY = "dependency";
+    static final String DATETIME = "datetime";
+
+    static final String TRAFFIC_TYPE = "user";
+
+    private static final int FILLER_SPLITS = 300;
+    private static final int SEGMENTS = 8;
+    private static final int SEGMENT_KEYS = 5000;
+    private static final int WHITELIST_CONDITIONS = 6;
+    private static final int WHITELIST_KEYS = 50;
+    private static final int DEPENDENCY_DEPTH = 3;
+    private static final long CHANGE_NUMBER = 1700000000000L;
+    private static final long DAY = TimeUnit.DAYS.toMillis(1);
+
+    private static final String[] TREATMENTS = {"on", "off", "v2"};
+    private static final String[] PLANS = {"free", "starter", "pro", "enterprise"};
+    private static final String[] COUNTRIES = {"US", "CA", "MX", "BR", "AR", "GB", "DE", "FR", "ES", "IN", "JP", "AU"};
+    private static final String[] DOMAINS = {"gmail.com", "yahoo.com", "outlook.com", "acme.io", "split.io", "example.org"};
+
+    private final Random _random;
+    private final List<String> _keys;
+    private final List<List<String>> _segments = new ArrayList<>();
+
+    SplitChangeGenerator(long seed, int keys) {
+        _random = new Random(seed);
+        _keys = new ArrayList<>(keys);
+        for (int i = 0; i < keys; i++) {
+            _keys.add(new UUID(_random.nextLong(), _random.nextLong()).toString());
+        }
+        for (int i = 0; i < SEGMENTS; i++) {
+            List<String> segment = new ArrayList<>(SEGMENT_KEYS);
+            for (int j = 0; j < SEGMENT_KEYS; j++) {
+                // About one in five of the evaluated keys belongs to each segment
+                segment.add(_random.nextInt(5) == 0 ? pick(_keys) : new UUID(_random.nextLong(), _random.nextLong()).toString());
+            }
+            _segments.add(segment);
+        }
+    }
+
+    /**
+     * @return the keys to evaluate the Splits with.
+     */
+    List<String> keys() {
+        return _keys;
+    }
+
+    /**
+     * @return attributes for each key, in the order of {@link #keys()}.
+     */
+    List<Map<String, Object>> attributes() {
+        long now = CHANGE_NUMBER;
+        List<Map<String, Object>> attributes = new ArrayList<>(_keys.size());
+        for (String key : _keys) {
+            Map<String, Object> attrs = new HashMap<>();
+            attrs.put("plan", pick(PLANS));
+            attrs.put("country", pick(COUNTRIES));
+            attrs.put("age", 13 + _random.nextInt(60));
+            attrs.put("email", key.substring(0, 8) + "@" + pick(DOMAINS));
+            attrs.put("registered_at", now - _random.nextInt(1000) * DAY);
+            attrs.put("last_login", now - _random.nextInt(90) * DAY);
+            attrs.put("beta", _random.nextBoolean());
+            attributes.add(attrs);
+        }
+        return attributes;
+    }
+
+    SplitChange splitChange() {
+        List<Split> splits = new ArrayList<>();
+        splits.add(whitelist());
+        splits.add(rollout());
+        splits.add(segment());
+        splits.add(regex());
+        splits.addAll(dependencyChain());
+        splits.add(datetime());
+        for (int i = 0; i < FILLER_SPLITS; i++) {
+            splits.add(split("filler_" + i, Lists.newArrayList(
+                    condition(ConditionType.ROLLOUT, "default rule", rollout(50), matcher(MatcherType.ALL_KEYS, null)))));
+        }
+
+        SplitChange splitChange = new SplitChange();
+        splitChange.splits = splits;
+        splitChange.since = -1;
+        splitChange.till = CHANGE_NUMBER;
+        return splitChange;
+    }
+
+    List<SegmentChange> segmentChanges() {
+        List<SegmentChange> changes = new ArrayList<>();
+        for (int i = 0; i < _segments.size(); i++) {
+            SegmentChange change = new SegmentChange();
+            change.id = UUID.nameUUIDFromBytes(segmentName(i).getBytes()).toString();
+            change.name = segmentName(i);
+            change.added = _segments.get(i);
+            change.removed = new ArrayList<>();
+            change.since = -1;
+            change.till = CHANGE_NUMBER;
+            changes.add(change);
+        }
+        return changes;
+    }
+
+    /**
+     * Parses the SplitChange and applies the SegmentChanges the way the synchronizer does.
+     */
+    void load(SplitCache splitCache, SegmentCache segmentCache) {
+        SplitParser parser = new SplitParser(new NoOpSegmentSynchronizationTask(), segmentCache);
+        SplitChange splitChange = splitChange();
+        for (Split split : splitChange.splits) {
+            ParsedSplit parsedSplit = parser.parse(split);
+            if (parsedSplit == null) {
+                throw new IllegalStateException("Could not parse split " + split.name);
+            }
+            splitCache.put(parsedSplit);
+        }
+        splitCache.setChangeNumber(splitChange.till);
+
+        for (SegmentChange change : segmentChanges()) {
+            segmentCache.updateSegment(change.name, change.added, change.removed);
+            segmentCache.setChangeNumber(change.name, change.till);
+        }
+    }
+
+    /**
+     * Individual targeting: several whitelists of known keys before the default rule.
+     */
+    private Split whitelist() {
+        List<Condition> conditions = new ArrayList<>();
+        for (int i = 0; i < WHITELIST_CONDITIONS; i++) {
+            Matcher matcher = matcher(MatcherType.WHITELIST, null);
+            matcher.whitelistMatcherData = whitelistData(sample(_keys, WHITELIST_KEYS));
+            conditions.add(condition(ConditionType.WHITELIST, "whitelisted " + i, single(TREATMENTS[i % TREATMENTS.length]), matcher));
+        }
+        conditions.add(condition(ConditionType.ROLLOUT, "default rule", rollout(50), matcher(MatcherType.ALL_KEYS, null)));
+        return split(WHITELIST, conditions);
+    }
+
+    /**
+     * Rollouts to attribute based audiences, partially allocated so that traffic allocation is hashed too.
+     */
+    private Split rollout() {
+        Matcher plan = matcher(MatcherType.WHITELIST, "plan");
+        plan.whitelistMatcherData = whitelistData(Lists.newArrayList("pro", "enterprise"));
+        Matcher adult = matcher(MatcherType.GREATER_THAN_OR_EQUAL_TO, "age");
+        adult.unaryNumericMatcherData = numericData(DataType.NUMBER, 18);
+
+        Matcher country = matcher(MatcherType.WHITELIST, "country");
+        country.whitelistMatcherData = whitelistData(Lists.newArrayList("US", "CA", "GB"));
+        Matcher beta = matcher(MatcherType.EQUAL_TO_BOOLEAN, "beta");
+        beta.booleanMatcherData = true;
+
+        Matcher domain = matcher(MatcherType.ENDS_WITH, "email");
+        domain.whitelistMatcherData = whitelistData(Lists.newArrayList("@acme.io", "@split.io"));
+
+        Matcher young = matcher(MatcherType.BETWEEN, "age");
+        young.betweenMatcherData = betweenData(DataType.NUMBER, 18, 25);
+
+        Split split = split(ROLLOUT, Lists.newArrayList(
+                condition(ConditionType.ROLLOUT, "paying adults", rollout(80), plan, adult),
+                condition(ConditionType.ROLLOUT, "beta in english countries", rollout(30), country, beta),
+                condition(ConditionType.ROLLOUT, "internal", single("on"), domain),
+                condition(ConditionType.ROLLOUT, "young", rollout(10), young),
+                condition(ConditionType.ROLLOUT, "default rule", rollout(5), matcher(MatcherType.ALL_KEYS, null))));
+        split.trafficAllocation = 80;
+        return split;
+    }
+
+    /**
+     * Targeting by segment membership, every key checked against most of the segments.
+     */
+    private Split segment() {
+        List<Condition> conditions = new ArrayList<>();
+        for (int i = 0; i < _segments.size() - 1; i++) {
+            Matcher matcher = matcher(MatcherType.IN_SEGMENT, null);
+            matcher.userDefinedSegmentMatcherData = segmentData(segmentName(i));
+            conditions.add(condition(ConditionType.ROLLOUT, "in segment " + segmentName(i), rollout(10 * (i + 1)), matcher));
+        }
+        Matcher notExcluded = matcher(MatcherType.IN_SEGMENT, null);
+        notExcluded.userDefinedSegmentMatcherData = segmentData(segmentName(_segments.size() - 1));
+        notExcluded.negate = true;
+        conditions.add(condition(ConditionType.ROLLOUT, "default rule", rollout(50), notExcluded));
+        return split(SEGMENT, conditions);
+    }
+
+    /**
+     * Regular expressions on the key and on attributes, most of which don't match.
+     */
+    private Split regex() {
+        Matcher corporate = matcher(MatcherType.MATCHES_STRING, "email");
+        corporate.stringMatcherData = "^[a-z0-9._%+-]+@(acme\\.io|split\\.io)$";
+        Matcher hexKey = matcher(MatcherType.MATCHES_STRING, null);
+        hexKey.stringMatcherData = "^[0-9a-f]{8}-[0-9a-f]{4}-4[0-9a-f]{3}-[89ab][0-9a-f]{3}-[0-9a-f]{12}$";
+        Matcher freeMail = matcher(MatcherType.MATCHES_STRING, "email");
+        freeMail.stringMatcherData = ".*@(gmail|yahoo|outlook)\\.com";
+        Matcher prefix = matcher(MatcherType.MATCHES_STRING, null);
+        prefix.stringMatcherData = "^[0-7].*";
+
+        return split(REGEX, Lists.newArrayList(
+                condition(ConditionType.ROLLOUT, "corporate", single("on"), corporate),
+                condition(ConditionType.ROLLOUT, "v4 keys", rollout(50), hexKey),
+                condition(ConditionType.ROLLOUT, "free mail", rollout(20), freeMail),
+                condition(ConditionType.ROLLOUT, "default rule", rollout(50), prefix)));
+    }
+
+    /**
+     * A chain of Splits, each one rolled out to the keys that got "on" in the one before.
+     */
+    private List<Split> dependencyChain() {
+        List<Split> splits = new ArrayList<>();
+        splits.add(split(DEPENDENCY + "_" + DEPENDENCY_DEPTH, Lists.newArrayList(
+                condition(ConditionType.ROLLOUT, "default rule", rollout(70), matcher(MatcherType.ALL_KEYS, null)))));
+        for (int i = DEPENDENCY_DEPTH - 1; i >= 0; i--) {
+            Matcher parent = matcher(MatcherType.IN_SPLIT_TREATMENT, null);
+            parent.dependencyMatcherData = new DependencyMatcherData();
+            parent.dependencyMatcherData.split = DEPENDENCY + "_" + (i + 1);
+            parent.dependencyMatcherData.treatments = Lists.newArrayList("on");
+            splits.add(split(i == 0 ? DEPENDENCY : DEPENDENCY + "_" + i, Lists.newArrayList(
+                    condition(ConditionType.ROLLOUT, "depends on " + parent.dependencyMatcherData.split, rollout(70), parent))));
+        }
+        return splits;
+    }
+
+    /**
+     * Rollouts by registration and login dates.
+     */
+    private Split datetime() {
+        Matcher registered = matcher(MatcherType.BETWEEN, "registered_at");
+        registered.betweenMatcherData = betweenData(DataType.DATETIME, CHANGE_NUMBER - 365 * DAY, CHANGE_NUMBER - 30 * DAY);
+        Matcher active = matcher(MatcherType.GREATER_THAN_OR_EQUAL_TO, "last_login");
+        active.unaryNumericMatcherData = numericData(DataType.DATETIME, CHANGE_NUMBER - 7 * DAY);
+        Matcher launch = matcher(MatcherType.EQUAL_TO, "registered_at");
+        launch.unaryNumericMatcherData = numericData(DataType.DATETIME, CHANGE_NUMBER - 100 * DAY);
+        Matcher old = matcher(MatcherType.LESS_THAN_OR_EQUAL_TO, "registered_at");
+        old.unaryNumericMatcherData = numericData(DataType.DATETIME, CHANGE_NUMBER - 730 * DAY);
+
+        return split(DATETIME, Lists.newArrayList(
+                condition(ConditionType.ROLLOUT, "registered last year and active", rollout(60), registered, active),
+                condition(ConditionType.ROLLOUT, "registered on launch day", single("v2"), launch),
+                condition(ConditionType.ROLLOUT, "default rule", rollout(20), old)));
+    }
+
+    private Split split(String name, List<Condition> conditions) {
+        Split split = new Split();
+        split.name = name;
+        split.seed = _random.nextInt();
+        split.status = Status.ACTIVE;
+        split.killed = false;
+        split.defaultTreatment = "off";
+        split.conditions = conditions;
+        split.trafficTypeName = TRAFFIC_TYPE;
+        split.changeNumber = CHANGE_NUMBER - _random.nextInt(100000);
+        split.trafficAllocation = 100;
+        split.trafficAllocationSeed = _random.nextInt();
+        split.algo = 2;
+        return split;
+    }
+
+    private static Condition condition(ConditionType type, String label, List<Partition> partitions, Matcher... matchers) {
+        Condition condition = new Condition();
+        condition.conditionType = type;
+        condition.matcherGroup = new MatcherGroup();
+        condition.matcherGroup.combiner = MatcherCombiner.AND;
+        condition.matcherGroup.matchers = Lists.newArrayList(matchers);
+        condition.partitions = partitions;
+        condition.label = label;
+        return condition;
+    }
+
+    private static Matcher matcher(MatcherType type, String attribute) {
+        Matcher matcher = new Matcher();
+        matcher.matcherType = type;
+        matcher.keySelector = new KeySelector();
+        matcher.keySelector.trafficType = TRAFFIC_TYPE;
+        matcher.keySelector.attribute = attribute;
+        return matcher;
+    }
+
+    private static WhitelistMatcherData whitelistData(List<String> whitelist) {
+        WhitelistMatcherData data = new WhitelistMatcherData();
+        data.whitelist = whitelist;
+        return data;
+    }
+
+    private static UnaryNumericMatcherData numericData(DataType dataType, long value) {
+        UnaryNumericMatcherData data = new UnaryNumericMatcherData();
+        data.dataType = dataType;
+        data.value = value;
+        return data;
+    }
+
+    private static BetweenMatcherData betweenData(DataType dataType, long start, long end) {
+        BetweenMatcherData data = new BetweenMatcherData();
+        data.dataType = dataType;
+        data.start = start;
+        data.end = end;
+        return data;
+    }
+
+    private static UserDefinedSegmentMatcherData segmentData(String segmentName) {
+        UserDefinedSegmentMatcherData data = new UserDefinedSegmentMatcherData();
+        data.segmentName = segmentName;
+        return data;
+    }
+
+    /**
+     * @return "on" for the given percentage of keys and "off" for the rest.
+     */
+    private static List<Partition> rollout(int onPercentage) {
+        return Lists.newArrayList(partition("on", onPercentage), partition("off", 100 - onPercentage));
+    }
+
+    private static List<Partition> single(String treatment) {
+        return Lists.newArrayList(partition(treatment, 100));
+    }
+
+    private static Partition partition(String treatment, int size) {
+        Partition partition = new Partition();
+        partition.treatment = treatment;
+        partition.size = size;
+        return partition;
+    }
+
+    private static String segmentName(int i) {
+        return "segment_" + i;
+    }
+
+    private <T> T pick(T[] values) {
+        return values[_random.nextInt(values.length)];
+    }
+
+    private <T> T pick(List<T> values) {
+        return values.get(_random.nextInt(values.size()));
+    }
+
+    private List<String> sample(List<String> values, int n) {
+        List<String> sample = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            sample.add(pick(values));
+        }
+        return sample;
+    }
+
+    /**
+     * Segments are loaded straight into the cache, so there's nothing to fetch.
+     */
+    private static final class NoOpSegmentSynchronizationTask implements SegmentSynchronizationTask {
+        @Override
+        public void initializeSegment(String segmentName) {
+        }
+
+        @Override
+        public SegmentFetcher getFetcher(String segmentName) {
+            return null;
+        }
+
+        @Override
+        public void startPeriodicFetching() {
+        }
+
+        @Override
+        public void stop() {
+        }
+
+        @Override
+        public void fetchAll(boolean addCacheHeader) {
+        }
+
+        @Override
+        public boolean fetchAllSynchronous() {
+            return true;
+        }
+
+        @Override
+        public void run() {
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package io.split.engine.splitter;
+
+import com.google.common.collect.Lists;
+import io.split.client.dtos.Partition;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hashing keys into buckets and treatments with the legacy hash (algo 1) and MurmurHash3 (algo 2).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SplitterBenchmark {
+
+    private static final int KEYS = 1024;
+    private static final int SEED = 1234567;
+
+    @Param({"1", "2"})
+    public int algo;
+
+    private String[] _keys;
+    private List<Partition> _partitions;
+    private int _next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        _keys = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            _keys[i] = new UUID(random.nextLong(), random.nextLong()).toString();
+        }
+        _partitions = Lists.newArrayList(partition("on", 33), partition("off", 33), partition("v2", 34));
+    }
+
+    @Benchmark
+    public int getBucket() {
+        return Splitter.getBucket(_keys[_next++ & (KEYS - 1)], SEED, algo);
+    }
+
+    @Benchmark
+    public String getTreatment() {
+        return Splitter.getTreatment(_keys[_next++ & (KEYS - 1)], SEED, _partitions, algo);
+    }
+
+    private static Partition partition(String treatment, int size) {
+        Partition partition = new Partition();
+        partition.treatment = treatment;
+        partition.size = size;
+        return partition;
+    }
+}
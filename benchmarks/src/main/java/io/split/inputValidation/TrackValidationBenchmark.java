@@ -0,0 +1,70 @@
+package io.split.inputValidation;
+
+import io.split.cache.InMemoryCacheImp;
+import io.split.cache.SplitCache;
+import io.split.engine.experiments.ParsedSplit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The validations every SplitClient.track() call goes through, with a cache holding splits of the given number of
+ * traffic types. Run with "-prof gc" to see the bytes allocated per call: only the validated copy of the properties
+ * should be left.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TrackValidationBenchmark {
+
+    @Param({"10", "1000"})
+    public int trafficTypes;
+
+    private SplitCache _splitCache;
+    private Map<String, Object> _properties;
+
+    @Setup
+    public void setUp() {
+        _splitCache = new InMemoryCacheImp();
+        for (int i = 0; i < trafficTypes; i++) {
+            _splitCache.put(ParsedSplit.createParsedSplitForTests("split_" + i, i, false, "off", new ArrayList<>(), "tt_" + i, 1L, 2));
+        }
+
+        _properties = new HashMap<>();
+        _properties.put("price", 9.99);
+        _properties.put("currency", "USD");
+        _properties.put("first_purchase", true);
+    }
+
+    @Benchmark
+    public Optional<String> trafficType() {
+        return TrafficTypeValidator.isValid("tt_0", _splitCache, "track");
+    }
+
+    @Benchmark
+    public boolean eventType() {
+        return EventsValidator.typeIsValid("checkout.completed", "track");
+    }
+
+    @Benchmark
+    public EventsValidator.EventValidatorResult properties() {
+        return EventsValidator.propertiesAreValid(_properties);
+    }
+}
@@ -3,7 +3,6 @@ package io.split.cache;
 import com.google.common.collect.ConcurrentHashMultiset;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multiset;
-import com.google.common.collect.Sets;
 import io.split.engine.experiments.ParsedSplit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -94,9 +93,9 @@ public class InMemoryCacheImp implements SplitCache {
 
     @Override
     public boolean trafficTypeExists(String trafficTypeName) {
-        // If the multiset has [{"user",2}.{"account",0}], elementSet only returns
-        // ["user"] (it ignores "account")
-        return Sets.newHashSet(_concurrentTrafficTypeNameSet.elementSet()).contains(trafficTypeName);
+        // If the multiset has [{"user",2}.{"account",0}], only "user" exists. count() is a lock-free
+        // lookup, unlike copying the elementSet
+        return _concurrentTrafficTypeNameSet.count(trafficTypeName) > 0;
     }
 
     @Override
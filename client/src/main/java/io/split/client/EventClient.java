@@ -4,7 +4,16 @@ import io.split.client.dtos.Event;
 
 public interface EventClient {
 
-    boolean track(Event event, int eventSize);
+    boolean track(Event event);
+
+    /**
+     * @deprecated the size is no longer used, batches are cut by the serialized size of their events. Use
+     * {@link #track(Event)} instead.
+     */
+    @Deprecated
+    default boolean track(Event event, int eventSize) {
+        return track(event);
+    }
 
     void close();
 }
@@ -2,42 +2,58 @@ package io.split.client;
 
 import com.google.common.annotations.VisibleForTesting;
 import io.split.client.dtos.Event;
+import io.split.client.spool.Spool;
 import io.split.client.utils.GenericClientUtil;
+import io.split.client.utils.Json;
+import io.split.client.utils.MpscRingBuffer;
+import io.split.client.utils.PostResult;
+import io.split.client.utils.StreamingJsonEntity;
 import io.split.client.utils.Utils;
+import io.split.engine.common.SDKScheduler;
 import io.split.telemetry.domain.enums.EventsDataRecordsEnum;
 import io.split.telemetry.domain.enums.HTTPLatenciesEnum;
 import io.split.telemetry.domain.enums.LastSynchronizationRecordsEnum;
-import io.split.telemetry.storage.TelemetryEvaluationProducer;
+import io.split.telemetry.jfr.SdkEvents;
 import io.split.telemetry.storage.TelemetryRuntimeProducer;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.Writer;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ThreadFactory;
-import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
 
-import static java.lang.Thread.MIN_PRIORITY;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
  * Responsible for sending events added via .track() to Split collection services
+ *
+ * Tracked events go into a preallocated lock-free buffer that a single consumer thread drains into batches. Each event
+ * is measured as it's added to a batch, by serializing it to a writer that only counts bytes, and a batch is cut before
+ * the event that would take it over MAX_SIZE_BYTES or once it holds maxQueueSize events. Partial batches are sent when
+ * flush() is called or every flushIntervalMillis. Batches are posted by a bounded pool of sender threads: when all of
+ * them are busy and MAX_PENDING_BATCHES are waiting, the batch is spooled if there's a spool, or dropped and reported
+ * to telemetry. With a spool, events tracked while the buffer is full go to an overflow buffer of the same size, which
+ * the consumer thread spools, so track() never writes to disk.
  */
 public class EventClientImpl implements EventClient {
 
     public static final Long MAX_SIZE_BYTES = 5 * 1024 * 1024L;
+    private static final int MAX_PENDING_BATCHES = 50;
+    private static final int SENDER_THREADS = 2;
+    private static final int DRAIN_STEP = 256;
+    private static final long DRAIN_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
 
-    private final BlockingQueue<WrappedEvent> _eventQueue;
+    private final MpscRingBuffer<Event> _buffer;
+    private final MpscRingBuffer<Event> _overflow; // Events that didn't fit in the buffer, for the consumer to spool
     private final int _maxQueueSize;
     private final long _flushIntervalMillis;
 
@@ -46,176 +62,277 @@ public class EventClientImpl implements EventClient {
 
     private final ScheduledExecutorService _flushScheduler;
 
-    static final Event CENTINEL = new Event();
     private static final Logger _log = LoggerFactory.getLogger(EventClientImpl.class);
     private final CloseableHttpClient _httpclient;
     private final URI _target;
     private final int _waitBeforeShutdown;
     private final TelemetryRuntimeProducer _telemetryRuntimeProducer;
+    private final boolean _compressPayloads;
+    private final Spool<List<Event>> _spool;
+    private final AtomicBoolean _flushRequested = new AtomicBoolean();
 
-    ThreadFactory eventClientThreadFactory(final String name) {
-        return r -> new Thread(() -> {
-            Thread.currentThread().setPriority(MIN_PRIORITY);
-            r.run();
-        }, name);
+    private volatile Thread _consumer;
+    private volatile boolean _closed;
+
+    public static EventClientImpl create(CloseableHttpClient httpclient, URI eventsRootTarget, int maxQueueSize, long flushIntervalMillis, int waitBeforeShutdown, TelemetryRuntimeProducer telemetryRuntimeProducer) throws URISyntaxException {
+        return create(httpclient, eventsRootTarget, maxQueueSize, flushIntervalMillis, waitBeforeShutdown, telemetryRuntimeProducer, SDKScheduler.defaultScheduler());
     }
 
+    public static EventClientImpl create(CloseableHttpClient httpclient, URI eventsRootTarget, int maxQueueSize, long flushIntervalMillis, int waitBeforeShutdown,
+                                         TelemetryRuntimeProducer telemetryRuntimeProducer, SDKScheduler scheduler) throws URISyntaxException {
+        return create(httpclient, eventsRootTarget, maxQueueSize, flushIntervalMillis, waitBeforeShutdown, telemetryRuntimeProducer, scheduler, false);
+    }
 
-    public static EventClientImpl create(CloseableHttpClient httpclient, URI eventsRootTarget, int maxQueueSize, long flushIntervalMillis, int waitBeforeShutdown, TelemetryRuntimeProducer telemetryRuntimeProducer) throws URISyntaxException {
-        return new EventClientImpl(new LinkedBlockingQueue<>(maxQueueSize),
-                httpclient,
+    public static EventClientImpl create(CloseableHttpClient httpclient, URI eventsRootTarget, int maxQueueSize, long flushIntervalMillis, int waitBeforeShutdown,
+                                         TelemetryRuntimeProducer telemetryRuntimeProducer, SDKScheduler scheduler,
+                                         boolean compressPayloads) throws URISyntaxException {
+        return create(httpclient, eventsRootTarget, maxQueueSize, flushIntervalMillis, waitBeforeShutdown, telemetryRuntimeProducer, scheduler,
+                compressPayloads, null, 0);
+    }
+
+    /**
+     * @param spool where events that can't be queued or sent are kept until they can be sent, can be null.
+     * @param spoolReplayRate max number of spooled batches sent per second.
+     */
+    public static EventClientImpl create(CloseableHttpClient httpclient, URI eventsRootTarget, int maxQueueSize, long flushIntervalMillis, int waitBeforeShutdown,
+                                         TelemetryRuntimeProducer telemetryRuntimeProducer, SDKScheduler scheduler,
+                                         boolean compressPayloads, Spool<List<Event>> spool, int spoolReplayRate) throws URISyntaxException {
+        return new EventClientImpl(httpclient,
                 Utils.appendPath(eventsRootTarget, "api/events/bulk"),
                 maxQueueSize,
                 flushIntervalMillis,
                 waitBeforeShutdown,
-                telemetryRuntimeProducer);
+                telemetryRuntimeProducer,
+                scheduler,
+                compressPayloads,
+                spool,
+                spoolReplayRate);
+    }
+
+    EventClientImpl(CloseableHttpClient httpclient, URI target, int maxQueueSize, long flushIntervalMillis, int waitBeforeShutdown,
+                    TelemetryRuntimeProducer telemetryRuntimeProducer) throws URISyntaxException {
+        this(httpclient, target, maxQueueSize, flushIntervalMillis, waitBeforeShutdown, telemetryRuntimeProducer, SDKScheduler.defaultScheduler(),
+                false, null, 0);
     }
 
-    EventClientImpl(BlockingQueue<WrappedEvent> eventQueue, CloseableHttpClient httpclient, URI target, int maxQueueSize,
-                    long flushIntervalMillis, int waitBeforeShutdown, TelemetryRuntimeProducer telemetryRuntimeProducer) throws URISyntaxException {
+    EventClientImpl(CloseableHttpClient httpclient, URI target, int maxQueueSize, long flushIntervalMillis, int waitBeforeShutdown,
+                    TelemetryRuntimeProducer telemetryRuntimeProducer, SDKScheduler scheduler, boolean compressPayloads,
+                    Spool<List<Event>> spool, int spoolReplayRate) throws URISyntaxException {
 
         _httpclient = httpclient;
+        _compressPayloads = compressPayloads;
+        _spool = spool;
 
         _target = target;
 
-        _eventQueue = eventQueue;
+        _buffer = new MpscRingBuffer<>(maxQueueSize);
+        _overflow = _spool != null ? new MpscRingBuffer<>(maxQueueSize) : null;
         _waitBeforeShutdown = waitBeforeShutdown;
 
         _maxQueueSize = maxQueueSize;
         _flushIntervalMillis = flushIntervalMillis;
         _telemetryRuntimeProducer = checkNotNull(telemetryRuntimeProducer);
 
-        _senderExecutor = new ThreadPoolExecutor(
-                1,
-                1,
-                0L,
-                TimeUnit.MILLISECONDS,
-                new LinkedBlockingQueue<Runnable>(50),
-                eventClientThreadFactory("eventclient-sender"),
-                new RejectedExecutionHandler() {
-                    @Override
-                    public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
-                        _log.warn("Executor queue full. Dropping events.");
-                    }
-                });
+        _senderExecutor = scheduler.newBoundedExecutor("eventclient-sender", SENDER_THREADS, MAX_PENDING_BATCHES);
 
-        _consumerExecutor = Executors.newSingleThreadExecutor(eventClientThreadFactory("eventclient-consumer"));
-        _consumerExecutor.submit(new Consumer());
+        _consumerExecutor = scheduler.newLongRunningExecutor("eventclient-consumer");
+        _consumerExecutor.execute(new Consumer());
 
-        _flushScheduler = Executors.newScheduledThreadPool(1, eventClientThreadFactory("eventclient-flush"));
-        _flushScheduler.scheduleAtFixedRate(new Runnable() {
-            @Override
-            public void run() {
-                flush();
-            }
-        }, _flushIntervalMillis, _flushIntervalMillis, TimeUnit.MILLISECONDS);
+        _flushScheduler = scheduler.newScheduledExecutor("eventclient-flush", 1);
+        if (_spool != null) {
+            _spool.startReplay(_flushScheduler, spoolReplayRate,
+                    events -> GenericClientUtil.process(events, _target, _httpclient, _compressPayloads, _telemetryRuntimeProducer));
+        }
     }
 
     /**
-     * the existence of this message in the queue triggers a send event in the consumer thread.
+     * Sends the events buffered so far without waiting for the flush interval.
      */
     public void flush() {
-        track(CENTINEL, 0);
-    }  // CENTINEL event won't be queued, so no size needed.
-
-    public boolean track(Event event, int eventSize) {
-        try {
-            if (event == null) {
-                return false;
-            }
-            if(_eventQueue.offer(new WrappedEvent(event, eventSize))) {
-                _telemetryRuntimeProducer.recordEventStats(EventsDataRecordsEnum.EVENTS_QUEUED, 1);
-            }
-            else {
-                _log.warn("Event dropped.");
-                _telemetryRuntimeProducer.recordEventStats(EventsDataRecordsEnum.EVENTS_DROPPED, 1);
-            }
+        _flushRequested.set(true);
+        wakeUpConsumer();
+    }
 
-        } catch (ClassCastException | NullPointerException | IllegalArgumentException e) {
-            _telemetryRuntimeProducer.recordEventStats(EventsDataRecordsEnum.EVENTS_DROPPED, 1);
-            _log.warn("Interruption when adding event withed while adding message %s.", event);
+    @Override
+    public boolean track(Event event) {
+        if (event == null) {
             return false;
         }
+        if (_buffer.offer(event)) {
+            _telemetryRuntimeProducer.recordEventStats(EventsDataRecordsEnum.EVENTS_QUEUED, 1);
+        }
+        else if (_overflow != null && _overflow.offer(event)) {
+            _telemetryRuntimeProducer.recordEventStats(EventsDataRecordsEnum.EVENTS_QUEUED, 1);
+            wakeUpConsumer();
+        }
+        else {
+            _log.warn("Event dropped.");
+            _telemetryRuntimeProducer.recordEventStats(EventsDataRecordsEnum.EVENTS_DROPPED, 1);
+        }
         return true;
     }
 
+    /**
+     * @return number of events tracked but not yet batched to be sent.
+     */
+    public long queueDepth() {
+        return _buffer.size();
+    }
+
     public void close() {
         try {
-            _consumerExecutor.shutdownNow();
+            // The consumer sends what's buffered before exiting
+            _closed = true;
+            wakeUpConsumer();
+            _consumerExecutor.shutdown();
+            _consumerExecutor.awaitTermination(_waitBeforeShutdown, TimeUnit.MILLISECONDS);
             _flushScheduler.shutdownNow();
+            _senderExecutor.shutdown();
             _senderExecutor.awaitTermination(_waitBeforeShutdown, TimeUnit.MILLISECONDS);
+            if (_spool != null) {
+                _spool.close();
+            }
         } catch (Exception e) {
             _log.warn("Error when shutting down EventClientImpl", e);
         }
     }
 
+    private void wakeUpConsumer() {
+        Thread consumer = _consumer;
+        if (consumer != null) {
+            LockSupport.unpark(consumer);
+        }
+    }
+
+    private void dispatch(List<Event> events) {
+        if (_log.isDebugEnabled()) {
+            _log.debug(String.format("Sending %d events", events.size()));
+        }
+        try {
+            _senderExecutor.execute(EventSenderTask.create(_httpclient, _target, events, _compressPayloads, _telemetryRuntimeProducer, _spool));
+        } catch (RejectedExecutionException e) {
+            if (_spool == null || !_spool.offer(events)) {
+                _log.warn(String.format("Too many event batches waiting to be sent. Dropping %d events.", events.size()));
+                _telemetryRuntimeProducer.recordEventStats(EventsDataRecordsEnum.EVENTS_DROPPED, events.size());
+            }
+        }
+    }
+
     /**
-     * Infinite loop that listens to event from the event queue, dequeue them and send them over once:
-     *  - a CENTINEL message has arrived, or
-     *  - the queue reached a specific size
-     *
+     * Loop that drains the buffer into batches and sends them over once:
+     *  - a batch reached maxQueueSize events or MAX_SIZE_BYTES, or
+     *  - a flush was requested or the flush interval expired.
      */
     class Consumer implements Runnable {
+        private final List<Event> _drained = new ArrayList<>(DRAIN_STEP);
+        private final SizeCountingWriter _sizer = new SizeCountingWriter();
+        private List<Event> _events = new ArrayList<>();
+        private long _accumulated = 2; // Brackets of the array
+
         @Override
         public void run() {
-            List<Event> events = new ArrayList<>();
-            long accumulated = 0;
-            try {
-                while (!Thread.currentThread().isInterrupted()) {
-                    WrappedEvent data = _eventQueue.take();
-                    Event event = data.event();
-                    Long size = data.size();
-
-                    if (event != CENTINEL) {
-                        events.add(event);
-                        accumulated += size;
-                    } else if (events.size() < 1) {
-
-                        if (_log.isDebugEnabled()) {
-                            _log.debug("No messages to publish.");
-                        }
-
-                        continue;
+            _consumer = Thread.currentThread();
+            long flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(_flushIntervalMillis);
+            long deadline = System.nanoTime() + flushIntervalNanos;
+            while (true) {
+                boolean closing = _closed;
+                boolean flush = _flushRequested.getAndSet(false) || System.nanoTime() - deadline >= 0 || closing;
+
+                drain();
+                spoolOverflow();
+                if (flush) {
+                    if (!_events.isEmpty()) {
+                        send();
+                    } else if (_log.isDebugEnabled()) {
+                        _log.debug("No messages to publish.");
+                    }
+                    deadline = System.nanoTime() + flushIntervalNanos;
+                }
+
+                if (closing) {
+                    return;
+                }
+                LockSupport.parkNanos(this, Math.max(0, Math.min(DRAIN_INTERVAL_NANOS, deadline - System.nanoTime())));
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                _buffer.drainTo(_drained, DRAIN_STEP);
+                if (_drained.isEmpty()) {
+                    return;
+                }
+                for (Event event : _drained) {
+                    long size = _sizer.sizeOf(event) + 1; // Comma separator
+                    if (!_events.isEmpty() && _accumulated + size > MAX_SIZE_BYTES) {
+                        send();
                     }
-                    long initTime = System.currentTimeMillis();
-                    if (events.size() >= _maxQueueSize ||  accumulated >= MAX_SIZE_BYTES || event == CENTINEL) {
-
-                        // Send over the network
-                        if (_log.isDebugEnabled()) {
-                            _log.debug(String.format("Sending %d events", events.size()));
-                        }
-
-                        // Dispatch
-                        _senderExecutor.submit(EventSenderTask.create(_httpclient, _target, events));
-
-                        // Clear the queue of events for the next batch.
-                        events = new ArrayList<>();
-                        accumulated = 0;
-                        _telemetryRuntimeProducer.recordSyncLatency(HTTPLatenciesEnum.EVENTS, System.currentTimeMillis()-initTime);
-                        _telemetryRuntimeProducer.recordSuccessfulSync(LastSynchronizationRecordsEnum.EVENTS, System.currentTimeMillis());
+                    _events.add(event);
+                    _accumulated += size;
+                    if (_events.size() >= _maxQueueSize) {
+                        send();
                     }
                 }
-            } catch (InterruptedException e) {
-                _log.debug("Consumer thread was interrupted. Exiting...");
+                _drained.clear();
             }
         }
+
+        private void spoolOverflow() {
+            if (_overflow == null || _overflow.size() == 0) {
+                return;
+            }
+            List<Event> overflow = new ArrayList<>();
+            _overflow.drainTo(overflow, Integer.MAX_VALUE);
+            if (!overflow.isEmpty() && !_spool.offer(overflow)) {
+                _log.warn(String.format("Unable to spool %d events that didn't fit in the buffer, dropping them", overflow.size()));
+                _telemetryRuntimeProducer.recordEventStats(EventsDataRecordsEnum.EVENTS_DROPPED, overflow.size());
+            }
+        }
+
+        private void send() {
+            dispatch(_events);
+            _events = new ArrayList<>();
+            _accumulated = 2;
+        }
     }
 
-    static class WrappedEvent {
-        private final Event _event;
-        private final long _size;
+    /**
+     * Measures the UTF-8 size of the JSON of an object without holding it in memory.
+     */
+    private static final class SizeCountingWriter extends Writer {
+        private long _bytes;
 
-        public WrappedEvent(Event event, long size) {
-            _event = event;
-            _size = size;
+        long sizeOf(Object object) {
+            _bytes = 0;
+            Json.toJson(object, this);
+            return _bytes;
         }
 
-        public Event event() {
-            return _event;
+        @Override
+        public void write(int c) {
+            _bytes += c < 0x80 ? 1 : c < 0x800 || Character.isSurrogate((char) c) ? 2 : 3; // A surrogate pair takes 4
         }
 
-        public long size() {
-            return _size;
+        @Override
+        public void write(char[] chars, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                write(chars[i]);
+            }
+        }
+
+        @Override
+        public void write(String string, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                write(string.charAt(i));
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
         }
     }
 
@@ -224,25 +341,58 @@ public class EventClientImpl implements EventClient {
         private final List<Event> _data;
         private final URI _endpoint;
         private final CloseableHttpClient _client;
+        private final boolean _compressed;
+        private final TelemetryRuntimeProducer _telemetryRuntimeProducer;
+        private final Spool<List<Event>> _spool;
 
-        static EventSenderTask create(CloseableHttpClient httpclient, URI eventsTarget, List<Event> events) {
-            return new EventSenderTask(httpclient, eventsTarget, events);
+        static EventSenderTask create(CloseableHttpClient httpclient, URI eventsTarget, List<Event> events, boolean compressed,
+                                      TelemetryRuntimeProducer telemetryRuntimeProducer) {
+            return create(httpclient, eventsTarget, events, compressed, telemetryRuntimeProducer, null);
         }
 
-        EventSenderTask(CloseableHttpClient httpclient, URI eventsTarget, List<Event> events) {
+        static EventSenderTask create(CloseableHttpClient httpclient, URI eventsTarget, List<Event> events, boolean compressed,
+                                      TelemetryRuntimeProducer telemetryRuntimeProducer, Spool<List<Event>> spool) {
+            return new EventSenderTask(httpclient, eventsTarget, events, compressed, telemetryRuntimeProducer, spool);
+        }
+
+        EventSenderTask(CloseableHttpClient httpclient, URI eventsTarget, List<Event> events, boolean compressed,
+                        TelemetryRuntimeProducer telemetryRuntimeProducer, Spool<List<Event>> spool) {
             _client = httpclient;
             _data = events;
             _endpoint = eventsTarget;
+            _compressed = compressed;
+            _telemetryRuntimeProducer = telemetryRuntimeProducer;
+            _spool = spool;
         }
 
         @Override
         public void run() {
-            GenericClientUtil.process(_data, _endpoint, _client);
+            long initTime = System.nanoTime();
+            Object jfrEvent = SdkEvents.beginFlush();
+            StreamingJsonEntity entity = Utils.toJsonEntity(_data, _compressed, _telemetryRuntimeProducer);
+            PostResult result = GenericClientUtil.post(entity, _data.size(), _endpoint, _client);
+            boolean sent = result.isAccepted();
+            if (jfrEvent != null) {
+                SdkEvents.endFlush(jfrEvent, "events", _data.size(), entity.bytesSent(), sent);
+            }
+            if (_telemetryRuntimeProducer != null) {
+                _telemetryRuntimeProducer.recordSyncLatency(HTTPLatenciesEnum.EVENTS, System.nanoTime() - initTime);
+                if (sent) {
+                    _telemetryRuntimeProducer.recordSuccessfulSync(LastSynchronizationRecordsEnum.EVENTS, System.currentTimeMillis());
+                }
+            }
+            if (result == PostResult.RETRYABLE && _spool != null) {
+                if (!_spool.offer(_data) && _telemetryRuntimeProducer != null) {
+                    _telemetryRuntimeProducer.recordEventStats(EventsDataRecordsEnum.EVENTS_DROPPED, _data.size());
+                }
+            } else if (result == PostResult.REJECTED) {
+                _log.warn(String.format("Dropping %d events rejected by the server", _data.size()));
+            }
         }
     }
 
     @VisibleForTesting
     URI getTarget() {
-        return _target  ;
+        return _target;
     }
-}
\ No newline at end of file
+}
@@ -10,6 +10,7 @@ import io.split.engine.segments.SegmentChangeFetcher;
 import io.split.telemetry.domain.enums.HTTPLatenciesEnum;
 import io.split.telemetry.domain.enums.LastSynchronizationRecordsEnum;
 import io.split.telemetry.domain.enums.ResourceEnum;
+import io.split.telemetry.jfr.SdkEvents;
 import io.split.telemetry.storage.TelemetryRuntimeProducer;
 import org.apache.hc.client5.http.classic.methods.HttpGet;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
@@ -61,7 +62,8 @@ public final class HttpSegmentChangeFetcher implements SegmentChangeFetcher {
 
     @Override
     public SegmentChange fetch(String segmentName, long since, FetchOptions options) {
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
+        Object jfrEvent = SdkEvents.beginSegmentSync();
 
         CloseableHttpResponse response = null;
 
@@ -103,16 +105,20 @@ public final class HttpSegmentChangeFetcher implements SegmentChangeFetcher {
 
             _telemetryRuntimeProducer.recordSuccessfulSync(LastSynchronizationRecordsEnum.SEGMENTS, System.currentTimeMillis());
 
-            String json = EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
+            byte[] body = EntityUtils.toByteArray(response.getEntity());
+            String json = new String(body, StandardCharsets.UTF_8);
             if (_log.isDebugEnabled()) {
                 _log.debug("Received json: " + json);
             }
 
-            return Json.fromJson(json, SegmentChange.class);
+            long parseStart = System.nanoTime();
+            SegmentChange change = Json.fromJson(json, SegmentChange.class);
+            SdkEvents.endSegmentSync(jfrEvent, segmentName, since, change != null ? change.till : since, body.length, System.nanoTime() - parseStart);
+            return change;
         } catch (Throwable t) {
             throw new IllegalStateException("Problem fetching segmentChanges: " + t.getMessage(), t);
         } finally {
-            _telemetryRuntimeProducer.recordSyncLatency(HTTPLatenciesEnum.SEGMENTS, System.currentTimeMillis()-start);
+            _telemetryRuntimeProducer.recordSyncLatency(HTTPLatenciesEnum.SEGMENTS, System.nanoTime() - start);
             Utils.forceClose(response);
         }
 
@@ -10,6 +10,7 @@ import io.split.engine.metrics.Metrics;
 import io.split.telemetry.domain.enums.HTTPLatenciesEnum;
 import io.split.telemetry.domain.enums.LastSynchronizationRecordsEnum;
 import io.split.telemetry.domain.enums.ResourceEnum;
+import io.split.telemetry.jfr.SdkEvents;
 import io.split.telemetry.storage.TelemetryRuntimeProducer;
 import org.apache.hc.client5.http.classic.methods.HttpGet;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
@@ -68,7 +69,8 @@ public final class HttpSplitChangeFetcher implements SplitChangeFetcher {
     @Override
     public SplitChange fetch(long since, FetchOptions options) {
 
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
+        Object jfrEvent = SdkEvents.beginSplitsSync();
 
         CloseableHttpResponse response = null;
 
@@ -100,16 +102,20 @@ public final class HttpSplitChangeFetcher implements SplitChangeFetcher {
             }
 
 
-            String json = EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
+            byte[] body = EntityUtils.toByteArray(response.getEntity());
+            String json = new String(body, StandardCharsets.UTF_8);
             if (_log.isDebugEnabled()) {
                 _log.debug("Received json: " + json);
             }
 
-            return Json.fromJson(json, SplitChange.class);
+            long parseStart = System.nanoTime();
+            SplitChange change = Json.fromJson(json, SplitChange.class);
+            SdkEvents.endSplitsSync(jfrEvent, since, change != null ? change.till : since, body.length, System.nanoTime() - parseStart);
+            return change;
         } catch (Throwable t) {
             throw new IllegalStateException("Problem fetching splitChanges: " + t.getMessage(), t);
         } finally {
-            _telemetryRuntimeProducer.recordSyncLatency(HTTPLatenciesEnum.SPLITS, System.currentTimeMillis()-start);
+            _telemetryRuntimeProducer.recordSyncLatency(HTTPLatenciesEnum.SPLITS, System.nanoTime() - start);
             Utils.forceClose(response);
         }
     }
@@ -5,7 +5,7 @@ import io.split.client.dtos.Event;
 public class NoopEventClient implements EventClient {
 
     @Override
-    public boolean track(Event event, int eventSize) {
+    public boolean track(Event event) {
         return true;
     }
 
@@ -3,11 +3,14 @@ package io.split.client;
 
 import io.split.client.impressions.ImpressionListener;
 import io.split.client.impressions.ImpressionsManager;
+import io.split.client.metrics.MetricsExporter;
 import io.split.integrations.IntegrationsConfig;
 import org.apache.hc.core5.http.HttpHost;
 
 import java.io.IOException;
 import java.util.Properties;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
 
 /**
  * Configurations for the SplitClient.
@@ -58,6 +61,27 @@ public class SplitClientConfig {
     private final int _failedAttemptsBeforeLogging;
     private final boolean _cdnDebugLogging;
     private long _validateAfterInactivityInMillis;
+    private final ScheduledExecutorService _scheduledExecutorService;
+    private final ThreadFactory _threadFactory;
+    private final boolean _virtualThreadsEnabled;
+    private final boolean _sharedSyncCoreEnabled;
+    private final int _adaptivePollingMaxFactor;
+    private final SplitHttpRuntime _httpRuntime;
+    private final int _impressionsQueueStripes;
+    private final int _lastSeenCacheSize;
+    private final boolean _payloadCompressionEnabled;
+    private final int _impressionsBulkSize;
+    private final int _impressionsMaxInFlightBulks;
+    private final String _spoolDirectory;
+    private final long _spoolMaxSizeInBytes;
+    private final int _spoolTtlInHours;
+    private final int _spoolReplayRate;
+    private final boolean _impressionsAdaptiveFlushEnabled;
+    private final MetricsExporter _metricsExporter;
+    private final boolean _splitStatsEnabled;
+    private final boolean _jmxStatsEnabled;
+    private final int _evaluationProfilerSampleRate;
+    private final int _uniqueKeysMaxSize;
 
     // Proxy configs
     private final HttpHost _proxy;
@@ -108,7 +132,28 @@ public class SplitClientConfig {
                               int onDemandFetchMaxRetries,
                               int failedAttemptsBeforeLogging,
                               boolean cdnDebugLogging,
-                              long validateAfterInactivityInMillis) {
+                              long validateAfterInactivityInMillis,
+                              ScheduledExecutorService scheduledExecutorService,
+                              ThreadFactory threadFactory,
+                              boolean virtualThreadsEnabled,
+                              boolean sharedSyncCoreEnabled,
+                              int adaptivePollingMaxFactor,
+                              SplitHttpRuntime httpRuntime,
+                              int impressionsQueueStripes,
+                              int lastSeenCacheSize,
+                              boolean payloadCompressionEnabled,
+                              int impressionsBulkSize,
+                              int impressionsMaxInFlightBulks,
+                              String spoolDirectory,
+                              long spoolMaxSizeInBytes,
+                              int spoolTtlInHours,
+                              int spoolReplayRate,
+                              boolean impressionsAdaptiveFlushEnabled,
+                              MetricsExporter metricsExporter,
+                              boolean splitStatsEnabled,
+                              boolean jmxStatsEnabled,
+                              int evaluationProfilerSampleRate,
+                              int uniqueKeysMaxSize) {
         _endpoint = endpoint;
         _eventsEndpoint = eventsEndpoint;
         _featuresRefreshRate = pollForFeatureChangesEveryNSeconds;
@@ -146,6 +191,27 @@ public class SplitClientConfig {
         _failedAttemptsBeforeLogging = failedAttemptsBeforeLogging;
         _cdnDebugLogging = cdnDebugLogging;
         _validateAfterInactivityInMillis = validateAfterInactivityInMillis;
+        _scheduledExecutorService = scheduledExecutorService;
+        _threadFactory = threadFactory;
+        _virtualThreadsEnabled = virtualThreadsEnabled;
+        _sharedSyncCoreEnabled = sharedSyncCoreEnabled;
+        _adaptivePollingMaxFactor = adaptivePollingMaxFactor;
+        _httpRuntime = httpRuntime;
+        _impressionsQueueStripes = impressionsQueueStripes;
+        _lastSeenCacheSize = lastSeenCacheSize;
+        _payloadCompressionEnabled = payloadCompressionEnabled;
+        _impressionsBulkSize = impressionsBulkSize;
+        _impressionsMaxInFlightBulks = impressionsMaxInFlightBulks;
+        _spoolDirectory = spoolDirectory;
+        _spoolMaxSizeInBytes = spoolMaxSizeInBytes;
+        _spoolTtlInHours = spoolTtlInHours;
+        _spoolReplayRate = spoolReplayRate;
+        _impressionsAdaptiveFlushEnabled = impressionsAdaptiveFlushEnabled;
+        _metricsExporter = metricsExporter;
+        _splitStatsEnabled = splitStatsEnabled;
+        _jmxStatsEnabled = jmxStatsEnabled;
+        _evaluationProfilerSampleRate = evaluationProfilerSampleRate;
+        _uniqueKeysMaxSize = uniqueKeysMaxSize;
 
         Properties props = new Properties();
         try {
@@ -293,6 +359,90 @@ public class SplitClientConfig {
         return _validateAfterInactivityInMillis;
     }
 
+    public ScheduledExecutorService scheduledExecutorService() {
+        return _scheduledExecutorService;
+    }
+
+    public ThreadFactory threadFactory() {
+        return _threadFactory;
+    }
+
+    public boolean virtualThreadsEnabled() {
+        return _virtualThreadsEnabled;
+    }
+
+    public boolean sharedSyncCoreEnabled() {
+        return _sharedSyncCoreEnabled;
+    }
+
+    public int adaptivePollingMaxFactor() {
+        return _adaptivePollingMaxFactor;
+    }
+
+    public SplitHttpRuntime httpRuntime() {
+        return _httpRuntime;
+    }
+
+    public int impressionsQueueStripes() {
+        return _impressionsQueueStripes;
+    }
+
+    public int lastSeenCacheSize() {
+        return _lastSeenCacheSize;
+    }
+
+    public boolean payloadCompressionEnabled() {
+        return _payloadCompressionEnabled;
+    }
+
+    public int impressionsBulkSize() {
+        return _impressionsBulkSize;
+    }
+
+    public int impressionsMaxInFlightBulks() {
+        return _impressionsMaxInFlightBulks;
+    }
+
+    public String spoolDirectory() {
+        return _spoolDirectory;
+    }
+
+    public long spoolMaxSizeInBytes() {
+        return _spoolMaxSizeInBytes;
+    }
+
+    public int spoolTtlInHours() {
+        return _spoolTtlInHours;
+    }
+
+    public int spoolReplayRate() {
+        return _spoolReplayRate;
+    }
+
+    public boolean impressionsAdaptiveFlushEnabled() {
+        return _impressionsAdaptiveFlushEnabled;
+    }
+
+    public MetricsExporter metricsExporter() {
+        return _metricsExporter;
+    }
+
+    public boolean splitStatsEnabled() {
+        return _splitStatsEnabled;
+    }
+
+    public boolean jmxStatsEnabled() {
+        return _jmxStatsEnabled;
+    }
+
+    public int evaluationProfilerSampleRate() {
+        return _evaluationProfilerSampleRate;
+    }
+
+    public int uniqueKeysMaxSize() {
+        return _uniqueKeysMaxSize;
+    }
+
     public static final class Builder {
 
         private String _endpoint = SDK_ENDPOINT;
@@ -335,6 +485,27 @@ public class SplitClientConfig {
         private final int _failedAttemptsBeforeLogging = 10;
         private final boolean _cdnDebugLogging = true;
         private long _validateAfterInactivityInMillis = 1000;
+        private ScheduledExecutorService _scheduledExecutorService = null;
+        private ThreadFactory _threadFactory = null;
+        private boolean _virtualThreadsEnabled = true;
+        private boolean _sharedSyncCoreEnabled = false;
+        private int _adaptivePollingMaxFactor = 1;
+        private SplitHttpRuntime _httpRuntime = null;
+        private int _impressionsQueueStripes = 1;
+        private int _lastSeenCacheSize = 500000;
+        private boolean _payloadCompressionEnabled = false;
+        private int _impressionsBulkSize = 5000;
+        private int _impressionsMaxInFlightBulks = 2;
+        private String _spoolDirectory = null;
+        private long _spoolMaxSizeInBytes = 100L * 1024 * 1024;
+        private int _spoolTtlInHours = 24;
+        private int _spoolReplayRate = 5;
+        private boolean _impressionsAdaptiveFlushEnabled = false;
+        private MetricsExporter _metricsExporter = null;
+        private boolean _splitStatsEnabled = false;
+        private boolean _jmxStatsEnabled = false;
+        private int _evaluationProfilerSampleRate = 0;
+        private int _uniqueKeysMaxSize = 30000;
 
         public Builder() {
         }
@@ -439,6 +610,15 @@ public class SplitClientConfig {
             return this;
         }
 
+        /**
+         * How impressions are reported. OPTIMIZED sends each impression once per hour plus counts of all of them, DEBUG
+         * sends every impression, and NONE sends no impressions at all, only their counts and the distinct keys that
+         * got a treatment for each feature.
+         * Default is OPTIMIZED.
+         *
+         * @param mode
+         * @return this builder
+         */
         public Builder impressionsMode(ImpressionsManager.Mode mode) {
             _impressionsMode = mode;
             return this;
@@ -746,6 +926,301 @@ public class SplitClientConfig {
             return this;
         }
 
+        /**
+         * Executor used for every timed and short lived background task of the SDK (synchronization,
+         * impressions, events, telemetry...). Tasks that block for the lifetime of the SDK, like the streaming
+         * connection, never run on it. The SDK doesn't shut it down on destroy.
+         * <p>
+         * By default all factories in the JVM share one scheduler owned by the SDK.
+         * <p/>
+         *
+         * This is an ADVANCED parameter.
+         *
+         * @param scheduledExecutorService
+         * @return this builder
+         */
+        public Builder scheduledExecutorService(ScheduledExecutorService scheduledExecutorService) {
+            _scheduledExecutorService = scheduledExecutorService;
+            return this;
+        }
+
+        /**
+         * ThreadFactory used to create every thread the SDK starts. When set, virtual threads are not used.
+         *
+         * @param threadFactory
+         * @return this builder
+         */
+        public Builder threadFactory(ThreadFactory threadFactory) {
+            _threadFactory = threadFactory;
+            return this;
+        }
+
+        /**
+         * Set if the SDK should run its background tasks on virtual threads when running on Java 21 or later.
+         * Default is true.
+         *
+         * @param virtualThreadsEnabled
+         * @return this builder
+         */
+        public Builder virtualThreadsEnabled(boolean virtualThreadsEnabled) {
+            _virtualThreadsEnabled = virtualThreadsEnabled;
+            return this;
+        }
+
+        /**
+         * Set if factories created with the same SDK key should share a single synchronization core: the split
+         * and segment caches, the pollers, the streaming connection and the HTTP client. Each factory keeps its own
+         * client, impressions and events. A factory whose endpoints, refresh rates, streaming, HTTP or proxy
+         * settings differ from the running core's gets a core of its own instead, with a warning. The core is
+         * released when the last factory sharing it is destroyed.
+         * Default is false.
+         *
+         * @param sharedSyncCoreEnabled
+         * @return this builder
+         */
+        public Builder sharedSyncCoreEnabled(boolean sharedSyncCoreEnabled) {
+            _sharedSyncCoreEnabled = sharedSyncCoreEnabled;
+            return this;
+        }
+
+        /**
+         * Upper bound for adaptive polling, as a multiple of featuresRefreshRate and segmentsRefreshRate.
+         * <p/>
+         * When greater than 1, splits and each segment are polled less often while they don't change: the period doubles
+         * after every fetch that brings nothing new, up to this many times the configured refresh rate, and goes back to
+         * the refresh rate as soon as a change is seen. Streaming, when healthy, already makes polling unnecessary.
+         * Default is 1, which keeps polling periods fixed.
+         *
+         * @param adaptivePollingMaxFactor
+         * @return this builder
+         */
+        public Builder adaptivePollingMaxFactor(int adaptivePollingMaxFactor) {
+            _adaptivePollingMaxFactor = adaptivePollingMaxFactor;
+            return this;
+        }
+
+        /**
+         * Connection pools to share with other factories, instead of each factory creating its own.
+         * <p/>
+         * Useful when building many factories, e.g. one per SDK key. Requests are still authenticated with this factory's
+         * SDK key, and connectionTimeout, readTimeout and proxy settings still apply. The runtime is not closed when the
+         * factory is destroyed.
+         * <p/>
+         * This is an ADVANCED parameter.
+         *
+         * @param httpRuntime
+         * @return this builder
+         */
+        public Builder httpRuntime(SplitHttpRuntime httpRuntime) {
+            _httpRuntime = httpRuntime;
+            return this;
+        }
+
+        /**
+         * Number of independent buffers the impressions queue is split into.
+         * <p/>
+         * Threads evaluating splits write to the buffer picked by their thread id, so raising this reduces contention
+         * between them when many threads evaluate at the same time. The impressionsQueueSize is spread across buffers.
+         * Default is 1.
+         *
+         * @param impressionsQueueStripes
+         * @return this builder
+         */
+        public Builder impressionsQueueStripes(int impressionsQueueStripes) {
+            _impressionsQueueStripes = impressionsQueueStripes;
+            return this;
+        }
+
+        /**
+         * Number of impression hashes remembered to tell whether an impression was already seen,
+         * which is how impressions are deduped in OPTIMIZED mode. Each one takes about 18 bytes.
+         * Default is 500000.
+         *
+         * @param lastSeenCacheSize
+         * @return this builder
+         */
+        public Builder lastSeenCacheSize(int lastSeenCacheSize) {
+            _lastSeenCacheSize = lastSeenCacheSize;
+            return this;
+        }
+
+        /**
+         * Gzip the impressions, events and telemetry sent to Split.
+         * Payloads are always serialized while they are being sent; this also compresses them on the way.
+         * Default is false.
+         *
+         * @param payloadCompressionEnabled
+         * @return this builder
+         */
+        public Builder payloadCompressionEnabled(boolean payloadCompressionEnabled) {
+            _payloadCompressionEnabled = payloadCompressionEnabled;
+            return this;
+        }
+
+        /**
+         * Max number of impressions posted in a single request. Each flush splits the queued impressions
+         * in requests of up to this many impressions, and of about 5MB at most.
+         * Default is 5000.
+         *
+         * @param impressionsBulkSize
+         * @return this builder
+         */
+        public Builder impressionsBulkSize(int impressionsBulkSize) {
+            _impressionsBulkSize = impressionsBulkSize;
+            return this;
+        }
+
+        /**
+         * Max number of impression requests posted concurrently, on top of the one posted by the flushing
+         * thread. When they are all in flight, the flushing thread posts the next one itself before
+         * draining any more impressions.
+         * Default is 2.
+         *
+         * @param impressionsMaxInFlightBulks
+         * @return this builder
+         */
+        public Builder impressionsMaxInFlightBulks(int impressionsMaxInFlightBulks) {
+            _impressionsMaxInFlightBulks = impressionsMaxInFlightBulks;
+            return this;
+        }
+
+        /**
+         * Directory where impressions and events that can't be queued or sent are spooled to disk, to be
+         * sent later once the events endpoint is reachable again. Each kind of data is kept in its own
+         * subdirectory. A directory can only be used by one factory at a time, a factory that finds it in use
+         * runs without a spool.
+         * Default is null, which disables the spool: overflow and failed batches are dropped.
+         *
+         * @param spoolDirectory
+         * @return this builder
+         */
+        public Builder spoolDirectory(String spoolDirectory) {
+            _spoolDirectory = spoolDirectory;
+            return this;
+        }
+
+        /**
+         * Max disk space taken by each spool. When it's full, the oldest batches are dropped.
+         * Default is 100MB.
+         *
+         * @param spoolMaxSizeInBytes
+         * @return this builder
+         */
+        public Builder spoolMaxSizeInBytes(long spoolMaxSizeInBytes) {
+            _spoolMaxSizeInBytes = spoolMaxSizeInBytes;
+            return this;
+        }
+
+        /**
+         * How long spooled batches are kept before being dropped unsent.
+         * Default is 24 hours.
+         *
+         * @param spoolTtlInHours
+         * @return this builder
+         */
+        public Builder spoolTtlInHours(int spoolTtlInHours) {
+            _spoolTtlInHours = spoolTtlInHours;
+            return this;
+        }
+
+        /**
+         * Max number of spooled batches sent per second, once sending succeeds again.
+         * Default is 5.
+         *
+         * @param spoolReplayRate
+         * @return this builder
+         */
+        public Builder spoolReplayRate(int spoolReplayRate) {
+            _spoolReplayRate = spoolReplayRate;
+            return this;
+        }
+
+        /**
+         * Flush impressions as often as needed to keep the queue from filling up, instead of only every
+         * impressionsRefreshRate seconds. The interval adapts to how fast impressions are tracked and how long
+         * posting them takes, never going over impressionsRefreshRate, and a flush is started right away
+         * whenever the queue is three quarters full.
+         * Default is false.
+         *
+         * @param impressionsAdaptiveFlushEnabled
+         * @return this builder
+         */
+        public Builder impressionsAdaptiveFlushEnabled(boolean impressionsAdaptiveFlushEnabled) {
+            _impressionsAdaptiveFlushEnabled = impressionsAdaptiveFlushEnabled;
+            return this;
+        }
+
+        /**
+         * Exports live SDK metrics to your own monitoring: evaluation and sync latencies, impressions and
+         * events counters, queue depth, sync staleness, cache sizes and streaming state. See
+         * {@link io.split.client.metrics.PrometheusMetricsExporter} and
+         * {@link io.split.client.metrics.RegistryMetricsExporter}.
+         * Default is null, no metrics are exported.
+         *
+         * @param metricsExporter
+         * @return this builder
+         */
+        public Builder metricsExporter(MetricsExporter metricsExporter) {
+            _metricsExporter = metricsExporter;
+            return this;
+        }
+
+        /**
+         * Records evaluation counts, latencies, matcher evaluations and labels of each Split, to find the
+         * Splits that account for most of the evaluation time. Read them through
+         * {@link SplitManager#splitStats(String)} and {@link SplitManager#topSplits(int, io.split.client.api.SplitEvaluationStats.Rank)},
+         * or through JMX. Costs a few atomic adds per evaluation and about 10KB per Split evaluated.
+         * Default is false.
+         *
+         * @param splitStatsEnabled
+         * @return this builder
+         */
+        public Builder splitStatsEnabled(boolean splitStatsEnabled) {
+            _splitStatsEnabled = splitStatsEnabled;
+            return this;
+        }
+
+        /**
+         * Registers a read-only JMX bean with runtime statistics of the factory: cache sizes and change
+         * numbers, sync ages, impressions and events queues, HTTP connection pool, streaming status and
+         * evaluation latencies. See {@link io.split.client.jmx.SdkStatsMonitorMXBean}.
+         * Default is false.
+         *
+         * @param jmxStatsEnabled
+         * @return this builder
+         */
+        public Builder jmxStatsEnabled(boolean jmxStatsEnabled) {
+            _jmxStatsEnabled = jmxStatsEnabled;
+            return this;
+        }
+
+        /**
+         * Profiles 1 in evaluationProfilerSampleRate evaluations, timing each condition, each matcher by type and
+         * the hashing of keys, and adds the results up per Split. Read them through
+         * {@link SplitManager#evaluationProfile(String)} and {@link SplitManager#topProfiledSplits(int)}, or through JMX.
+         * Unsampled evaluations only pay a random draw. 1 profiles every evaluation.
+         * Default is 0, which disables profiling.
+         *
+         * @param evaluationProfilerSampleRate
+         * @return this builder
+         */
+        public Builder evaluationProfilerSampleRate(int evaluationProfilerSampleRate) {
+            _evaluationProfilerSampleRate = evaluationProfilerSampleRate;
+            return this;
+        }
+
+        /**
+         * Number of distinct keys, across all features, the SDK holds in NONE impressions mode before sending them
+         * without waiting for the next scheduled post. Default is 30000.
+         *
+         * @param uniqueKeysMaxSize
+         * @return this builder
+         */
+        public Builder uniqueKeysMaxSize(int uniqueKeysMaxSize) {
+            _uniqueKeysMaxSize = uniqueKeysMaxSize;
+            return this;
+        }
+
         public SplitClientConfig build() {
             if (_featuresRefreshRate < 5 ) {
                 throw new IllegalArgumentException("featuresRefreshRate must be >= 5: " + _featuresRefreshRate);
@@ -757,6 +1232,7 @@ public class SplitClientConfig {
 
             switch (_impressionsMode) {
                 case OPTIMIZED:
+                case NONE:
                     _impressionsRefreshRate = (_impressionsRefreshRate <= 0) ? 300 : Math.max(60, _impressionsRefreshRate);
                     break;
                 case DEBUG:
@@ -832,6 +1308,46 @@ public class SplitClientConfig {
                 throw new IllegalStateException("_telemetryRefreshRate must be >= 60");
             }
 
+            if (_adaptivePollingMaxFactor < 1) {
+                throw new IllegalArgumentException("adaptivePollingMaxFactor must be >= 1: " + _adaptivePollingMaxFactor);
+            }
+
+            if (_impressionsQueueStripes <= 0) {
+                throw new IllegalArgumentException("impressionsQueueStripes must be > 0: " + _impressionsQueueStripes);
+            }
+
+            if (_lastSeenCacheSize <= 0) {
+                throw new IllegalArgumentException("lastSeenCacheSize must be > 0: " + _lastSeenCacheSize);
+            }
+
+            if (_impressionsBulkSize <= 0) {
+                throw new IllegalArgumentException("impressionsBulkSize must be > 0: " + _impressionsBulkSize);
+            }
+
+            if (_impressionsMaxInFlightBulks <= 0) {
+                throw new IllegalArgumentException("impressionsMaxInFlightBulks must be > 0: " + _impressionsMaxInFlightBulks);
+            }
+
+            if (_spoolMaxSizeInBytes < 1024 * 1024) {
+                throw new IllegalArgumentException("spoolMaxSizeInBytes must be >= 1MB: " + _spoolMaxSizeInBytes);
+            }
+
+            if (_spoolTtlInHours <= 0) {
+                throw new IllegalArgumentException("spoolTtlInHours must be > 0: " + _spoolTtlInHours);
+            }
+
+            if (_spoolReplayRate <= 0) {
+                throw new IllegalArgumentException("spoolReplayRate must be > 0: " + _spoolReplayRate);
+            }
+
+            if (_evaluationProfilerSampleRate < 0) {
+                throw new IllegalArgumentException("evaluationProfilerSampleRate must be >= 0: " + _evaluationProfilerSampleRate);
+            }
+
+            if (_uniqueKeysMaxSize <= 0) {
+                throw new IllegalArgumentException("uniqueKeysMaxSize must be > 0: " + _uniqueKeysMaxSize);
+            }
+
             return new SplitClientConfig(
                     _endpoint,
                     _eventsEndpoint,
@@ -869,7 +1385,28 @@ public class SplitClientConfig {
                     _onDemandFetchMaxRetries,
                     _failedAttemptsBeforeLogging,
                     _cdnDebugLogging,
-                    _validateAfterInactivityInMillis);
+                    _validateAfterInactivityInMillis,
+                    _scheduledExecutorService,
+                    _threadFactory,
+                    _virtualThreadsEnabled,
+                    _sharedSyncCoreEnabled,
+                    _adaptivePollingMaxFactor,
+                    _httpRuntime,
+                    _impressionsQueueStripes,
+                    _lastSeenCacheSize,
+                    _payloadCompressionEnabled,
+                    _impressionsBulkSize,
+                    _impressionsMaxInFlightBulks,
+                    _spoolDirectory,
+                    _spoolMaxSizeInBytes,
+                    _spoolTtlInHours,
+                    _spoolReplayRate,
+                    _impressionsAdaptiveFlushEnabled,
+                    _metricsExporter,
+                    _splitStatsEnabled,
+                    _jmxStatsEnabled,
+                    _evaluationProfilerSampleRate,
+                    _uniqueKeysMaxSize);
         }
     }
 }
@@ -15,6 +15,7 @@ import io.split.inputValidation.EventsValidator;
 import io.split.inputValidation.KeyValidator;
 import io.split.inputValidation.SplitNameValidator;
 import io.split.inputValidation.TrafficTypeValidator;
+import io.split.telemetry.jfr.SdkEvents;
 import io.split.telemetry.domain.enums.MethodEnum;
 import io.split.telemetry.storage.TelemetryConfigProducer;
 import io.split.telemetry.storage.TelemetryEvaluationProducer;
@@ -22,7 +23,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.TimeoutException;
@@ -116,14 +116,14 @@ public final class SplitClientImpl implements SplitClient {
     @Override
     public boolean track(String key, String trafficType, String eventType, Map<String, Object> properties) {
         Event event = createEvent(key, trafficType, eventType);
-        event.properties = new HashMap<>(properties);
+        event.properties = properties;
         return track(event);
     }
 
     @Override
     public boolean track(String key, String trafficType, String eventType, double value, Map<String, Object> properties) {
         Event event = createEvent(key, trafficType, eventType);
-        event.properties = new HashMap<>(properties);
+        event.properties = properties;
         event.value = value;
         return track(event);
     }
@@ -146,7 +146,7 @@ public final class SplitClientImpl implements SplitClient {
     }
 
     private boolean track(Event event) {
-        long initTime = System.currentTimeMillis();
+        long initTime = System.nanoTime();
         if (_container.isDestroyed()) {
             _log.error("Client has already been destroyed - no calls possible");
             return false;
@@ -169,20 +169,21 @@ public final class SplitClientImpl implements SplitClient {
             return false;
         }
 
-        // Properties validations
+        // Properties validations, this is where the caller's properties get copied
         EventsValidator.EventValidatorResult propertiesResult = EventsValidator.propertiesAreValid(event.properties);
         if (!propertiesResult.getSuccess()) {
             return false;
         }
 
         event.properties = propertiesResult.getValue();
-        _telemetryEvaluationProducer.recordLatency(MethodEnum.TRACK, System.currentTimeMillis() - initTime);
+        _telemetryEvaluationProducer.recordLatency(MethodEnum.TRACK, System.nanoTime() - initTime);
 
-        return _eventClient.track(event, propertiesResult.getEventSize());
+        return _eventClient.track(event);
     }
 
     private SplitResult getTreatmentWithConfigInternal(String matchingKey, String bucketingKey, String split, Map<String, Object> attributes, MethodEnum methodEnum) {
-        long initTime = System.currentTimeMillis();
+        long initTime = System.nanoTime();
+        Object jfrEvent = SdkEvents.beginEvaluation();
         try {
             if(!_gates.isSDKReady()){
                 _log.warn(methodEnum.getMethod() + ": the SDK is not ready, results may be incorrect. Make sure to wait for SDK readiness before using this method");
@@ -228,7 +229,8 @@ public final class SplitClientImpl implements SplitClient {
                     result.changeNumber,
                     attributes
             );
-            _telemetryEvaluationProducer.recordLatency(methodEnum, System.currentTimeMillis()-initTime);
+            _telemetryEvaluationProducer.recordLatency(methodEnum, System.nanoTime() - initTime);
+            SdkEvents.endEvaluation(jfrEvent, split, result.label);
             return new SplitResult(result.treatment, result.configurations);
         } catch (Exception e) {
             try {
@@ -1,109 +1,69 @@
 package io.split.client;
 
-import io.split.client.impressions.AsynchronousImpressionListener;
+import com.google.gson.reflect.TypeToken;
+import io.split.client.dtos.Event;
+import io.split.client.impressions.BatchedImpressionListener;
+import io.split.client.impressions.BatchingImpressionListener;
 import io.split.client.impressions.ImpressionListener;
 import io.split.client.impressions.ImpressionsManagerImpl;
-import io.split.client.interceptors.AuthorizationInterceptorFilter;
-import io.split.client.interceptors.ClientKeyInterceptorFilter;
-import io.split.client.interceptors.GzipDecoderResponseInterceptor;
-import io.split.client.interceptors.GzipEncoderRequestInterceptor;
-import io.split.client.interceptors.SdkMetadataInterceptorFilter;
-import io.split.cache.InMemoryCacheImp;
-import io.split.cache.SplitCache;
+import io.split.client.jmx.JmxMonitor;
+import io.split.client.jmx.SdkStatsMonitor;
+import io.split.client.jmx.EvaluationProfilerMonitor;
+import io.split.client.jmx.SplitStatsMonitor;
+import io.split.client.metrics.MetricsExporter;
+import io.split.client.metrics.SdkMetrics;
+import io.split.client.spool.Spool;
 import io.split.engine.evaluator.Evaluator;
 import io.split.engine.evaluator.EvaluatorImp;
-import io.split.engine.SDKReadinessGates;
-import io.split.engine.common.SyncManager;
-import io.split.engine.common.SyncManagerImp;
-import io.split.engine.experiments.SplitChangeFetcher;
-import io.split.engine.experiments.SplitFetcher;
-import io.split.engine.experiments.SplitFetcherImp;
-import io.split.engine.experiments.SplitParser;
-import io.split.engine.experiments.SplitSynchronizationTask;
-import io.split.engine.segments.SegmentChangeFetcher;
-import io.split.cache.SegmentCache;
-import io.split.cache.SegmentCacheInMemoryImpl;
-import io.split.engine.segments.SegmentSynchronizationTaskImp;
+import io.split.engine.evaluator.EvaluationProfiler;
+import io.split.engine.evaluator.SplitStatsTable;
 import io.split.integrations.IntegrationsConfig;
-import io.split.telemetry.storage.InMemoryTelemetryStorage;
-import io.split.telemetry.storage.TelemetryStorage;
-import io.split.telemetry.synchronizer.TelemetrySubmitter;
-import io.split.telemetry.synchronizer.TelemetrySyncTask;
-import io.split.telemetry.synchronizer.TelemetrySynchronizer;
-import org.apache.hc.client5.http.auth.AuthScope;
-import org.apache.hc.client5.http.auth.Credentials;
-import org.apache.hc.client5.http.auth.UsernamePasswordCredentials;
-import org.apache.hc.client5.http.config.RequestConfig;
-import org.apache.hc.client5.http.cookie.StandardCookieSpec;
-import org.apache.hc.client5.http.impl.auth.BasicCredentialsProvider;
-import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
-import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
-import org.apache.hc.client5.http.impl.classic.HttpClients;
-import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
-import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
-import org.apache.hc.client5.http.impl.routing.DefaultProxyRoutePlanner;
-import org.apache.hc.client5.http.ssl.SSLConnectionSocketFactory;
-import org.apache.hc.client5.http.ssl.SSLConnectionSocketFactoryBuilder;
-import org.apache.hc.core5.http.io.SocketConfig;
-import org.apache.hc.core5.http.ssl.TLS;
-import org.apache.hc.core5.ssl.SSLContexts;
-import org.apache.hc.core5.util.TimeValue;
-import org.apache.hc.core5.util.Timeout;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.IOException;
+import javax.management.JMException;
+import java.io.File;
 import java.net.URI;
 import java.net.URISyntaxException;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 public class SplitFactoryImpl implements SplitFactory {
     private static final Logger _log = LoggerFactory.getLogger(SplitFactory.class);
-    private final static long SSE_CONNECT_TIMEOUT = 30000;
-    private final static long SSE_SOCKET_TIMEOUT = 70000;
+    private static final String EVENTS_SPOOL = "events";
+    private static final int LISTENER_BATCH_SIZE = 100;
+    private static final long LISTENER_MAX_LATENCY_MILLIS = 100L;
+    private static final String JMX_NAME = "io.split.client";
+    private static final int JMX_KEY_PREFIX_LENGTH = 4;
+    private static final AtomicInteger JMX_INSTANCES = new AtomicInteger();
 
-    private static Random RANDOM = new Random();
-
-    private final URI _rootTarget;
     private final URI _eventsRootTarget;
-    private final CloseableHttpClient _httpclient;
-    private final SDKReadinessGates _gates;
-    private final SegmentSynchronizationTaskImp _segmentSynchronizationTaskImp;
-    private final SplitFetcher _splitFetcher;
-    private final SplitSynchronizationTask _splitSynchronizationTask;
+    private final SplitSyncCore _syncCore;
     private final ImpressionsManagerImpl _impressionsManager;
     private final EventClient _eventClient;
-    private final SyncManager _syncManager;
     private final Evaluator _evaluator;
+    private final MetricsExporter _metricsExporter;
+    private final SplitStatsTable _splitStats;
+    private final EvaluationProfiler _profiler;
+    private final String _jmxInstance;
+    private final List<String> _jmxMonitors = new ArrayList<>(); // Types registered by this factory
     private final String _apiToken;
 
-    // Caches
-    private final SegmentCache _segmentCache;
-    private final SplitCache _splitCache;
-
     // Client and Manager
     private final SplitClient _client;
     private final SplitManager _manager;
 
     private boolean isTerminated = false;
     private final ApiKeyCounter _apiKeyCounter;
-    private final TelemetryStorage _telemetryStorage;
-    private final TelemetrySynchronizer _telemetrySynchronizer;
-    private final TelemetrySyncTask _telemetrySyncTask;
-    private final long _startTime;
 
     public SplitFactoryImpl(String apiToken, SplitClientConfig config) throws URISyntaxException {
-        _startTime = System.currentTimeMillis();
         _apiToken = apiToken;
         _apiKeyCounter = ApiKeyCounter.getApiKeyCounterInstance();
         _apiKeyCounter.add(apiToken);
 
-        _telemetryStorage = new InMemoryTelemetryStorage();
-
         if (config.blockUntilReady() == -1) {
             //BlockUntilReady not been set
             _log.warn("no setBlockUntilReadyTimeout parameter has been set - incorrect control treatments could be logged” " +
@@ -111,80 +71,68 @@ public class SplitFactoryImpl implements SplitFactory {
 
         }
 
-        // SDKReadinessGates
-        _gates = new SDKReadinessGates();
-
-        // HttpClient
-        _httpclient = buildHttpClient(apiToken, config);
+        // Caches, synchronization, HttpClient and telemetry
+        _syncCore = SplitSyncCore.acquire(apiToken, config);
 
         // Roots
-        _rootTarget = URI.create(config.endpoint());
         _eventsRootTarget = URI.create(config.eventsEndpoint());
 
-        // Cache Initialisations
-        _segmentCache = new SegmentCacheInMemoryImpl();
-        _splitCache = new InMemoryCacheImp();
-        _telemetrySynchronizer = new TelemetrySubmitter(_httpclient, URI.create(config.telemetryURL()), _telemetryStorage, _splitCache, _segmentCache, _telemetryStorage, _startTime);
-
-
-        // Segments
-        _segmentSynchronizationTaskImp = buildSegments(config);
-
-        // SplitFetcher
-        _splitFetcher = buildSplitFetcher();
-
-        // SplitSynchronizationTask
-        _splitSynchronizationTask = new SplitSynchronizationTask(_splitFetcher,
-                _splitCache,
-                findPollingPeriod(RANDOM, config.featuresRefreshRate()));
-
         // Impressions
         _impressionsManager = buildImpressionsManager(config);
 
         // EventClient
-        _eventClient = EventClientImpl.create(_httpclient,
+        EventClientImpl eventClient = EventClientImpl.create(_syncCore.httpClient(),
                 _eventsRootTarget,
                 config.eventsQueueSize(),
                 config.eventFlushIntervalInMillis(),
                 config.waitBeforeShutdown(),
-                _telemetryStorage);
-
-        _telemetrySyncTask = new TelemetrySyncTask(config.get_telemetryRefreshRate(), _telemetrySynchronizer);
+                _syncCore.telemetryStorage(),
+                _syncCore.scheduler(),
+                config.payloadCompressionEnabled(),
+                buildEventsSpool(config),
+                config.spoolReplayRate());
+        _eventClient = eventClient;
 
         // Evaluator
-        _evaluator = new EvaluatorImp(_splitCache);
+        _splitStats = config.splitStatsEnabled() ? new SplitStatsTable(_syncCore.splitCache()) : null;
+        _profiler = config.evaluationProfilerSampleRate() > 0 ? new EvaluationProfiler(config.evaluationProfilerSampleRate()) : null;
+        _evaluator = new EvaluatorImp(_syncCore.splitCache(), _splitStats, _profiler);
 
         // SplitClient
         _client = new SplitClientImpl(this,
-                _splitCache,
+                _syncCore.splitCache(),
                 _impressionsManager,
                 _eventClient,
                 config,
-                _gates,
+                _syncCore.gates(),
                 _evaluator, 
-                _telemetryStorage, 
-                _telemetryStorage);
+                _syncCore.telemetryStorage(),
+                _syncCore.telemetryStorage());
 
         // SplitManager
-        _manager = new SplitManagerImpl(_splitCache, config, _gates, _telemetryStorage);
-
-        // SyncManager
-        _syncManager = SyncManagerImp.build(config.streamingEnabled(),
-                _splitSynchronizationTask,
-                _splitFetcher,
-                _segmentSynchronizationTaskImp,
-                _splitCache,
-                config.authServiceURL(),
-                _httpclient,
-                config.streamingServiceURL(),
-                config.authRetryBackoffBase(),
-                buildSSEdHttpClient(apiToken, config),
-                _segmentCache,
-                config.streamingRetryDelay(),
-                config.streamingFetchMaxRetries(),
-                config.failedAttemptsBeforeLogging(),
-                config.cdnDebugLogging(), _gates, _telemetryStorage, _telemetrySynchronizer,config);
-        _syncManager.start();
+        _manager = new SplitManagerImpl(_syncCore.splitCache(), config, _syncCore.gates(), _syncCore.telemetryStorage(), _splitStats,
+                _profiler);
+
+        // Metrics
+        _metricsExporter = config.metricsExporter();
+        if (_metricsExporter != null) {
+            _metricsExporter.start(SdkMetrics.create(_syncCore.telemetryStorage(), _syncCore.splitCache(), _syncCore.segmentCache(),
+                    eventClient::queueDepth, _syncCore::isStreaming));
+        }
+
+        // JMX
+        _jmxInstance = jmxInstance(apiToken);
+        if (_splitStats != null) {
+            registerMonitor(SplitStatsMonitor.MONITOR_TYPE, new SplitStatsMonitor(_splitStats));
+        }
+        if (_profiler != null) {
+            registerMonitor(EvaluationProfilerMonitor.MONITOR_TYPE, new EvaluationProfilerMonitor(_profiler));
+        }
+        if (config.jmxStatsEnabled()) {
+            registerMonitor(SdkStatsMonitor.MONITOR_TYPE, new SdkStatsMonitor(_syncCore.splitCache(), _syncCore.segmentCache(),
+                    _syncCore.telemetryStorage(), _impressionsManager::queueDepth, eventClient::queueDepth,
+                    _syncCore::segmentLastSynchronizations, _syncCore.connectionManager(), _syncCore::isStreaming));
+        }
 
         // DestroyOnShutDown
         if (config.destroyOnShutDown()) {
@@ -211,28 +159,17 @@ public class SplitFactoryImpl implements SplitFactory {
     public synchronized void destroy() {
         if (!isTerminated) {
             _log.info("Shutdown called for split");
-            try {
-                long splitCount = _splitCache.getAll().stream().count();
-                long segmentCount = _segmentCache.getAll().stream().count();
-                long segmentKeyCount = _segmentCache.getKeyCount();
-                _impressionsManager.close();
-                _log.info("Successful shutdown of impressions manager");
-                _eventClient.close();
-                _log.info("Successful shutdown of eventClient");
-                _segmentSynchronizationTaskImp.close();
-                _log.info("Successful shutdown of segment fetchers");
-                _splitSynchronizationTask.close();
-                _log.info("Successful shutdown of splits");
-                _syncManager.shutdown();
-                _log.info("Successful shutdown of syncManager");
-                _telemetryStorage.recordSessionLength(System.currentTimeMillis() - _startTime);
-                _telemetrySyncTask.stopScheduledTask(splitCount, segmentCount, segmentKeyCount);
-                _log.info("Successful shutdown of telemetry sync task");
-                _httpclient.close();
-                _log.info("Successful shutdown of httpclient");
-            } catch (IOException e) {
-                _log.error("We could not shutdown split", e);
+            _impressionsManager.close();
+            _log.info("Successful shutdown of impressions manager");
+            _eventClient.close();
+            _log.info("Successful shutdown of eventClient");
+            if (_metricsExporter != null) {
+                _metricsExporter.close();
             }
+            for (String monitorType : _jmxMonitors) {
+                unregisterMonitor(monitorType);
+            }
+            _syncCore.release();
             _apiKeyCounter.remove(_apiToken);
             isTerminated = true;
         }
@@ -243,121 +180,44 @@ public class SplitFactoryImpl implements SplitFactory {
         return isTerminated;
     }
 
-    private static CloseableHttpClient buildHttpClient(String apiToken, SplitClientConfig config) {
-        SSLConnectionSocketFactory sslSocketFactory = SSLConnectionSocketFactoryBuilder.create()
-                .setSslContext(SSLContexts.createSystemDefault())
-                .setTlsVersions(TLS.V_1_1, TLS.V_1_2)
-                .build();
-
-        RequestConfig requestConfig = RequestConfig.custom()
-                .setConnectTimeout(Timeout.ofMilliseconds(config.connectionTimeout()))
-                .setCookieSpec(StandardCookieSpec.STRICT)
-                .build();
-
-        PoolingHttpClientConnectionManager cm = PoolingHttpClientConnectionManagerBuilder.create()
-                .setSSLSocketFactory(sslSocketFactory)
-                .setDefaultSocketConfig(SocketConfig.custom()
-                        .setSoTimeout(Timeout.ofMilliseconds(config.readTimeout()))
-                        .build())
-                .setValidateAfterInactivity(TimeValue.ofMilliseconds(config.validateAfterInactivityInMillis()))
-                .build();
-        cm.setMaxTotal(20);
-        cm.setDefaultMaxPerRoute(20);
-
-        HttpClientBuilder httpClientbuilder = HttpClients.custom()
-                .setConnectionManager(cm)
-                .setDefaultRequestConfig(requestConfig)
-                .addRequestInterceptorLast(AuthorizationInterceptorFilter.instance(apiToken))
-                .addRequestInterceptorLast(SdkMetadataInterceptorFilter.instance(config.ipAddressEnabled(), SplitClientConfig.splitSdkVersion))
-                .addRequestInterceptorLast(new GzipEncoderRequestInterceptor())
-                .addResponseInterceptorLast((new GzipDecoderResponseInterceptor()));
-
-        // Set up proxy is it exists
-        if (config.proxy() != null) {
-            httpClientbuilder = setupProxy(httpClientbuilder, config);
-        }
-
-        return httpClientbuilder.build();
+    /**
+     * @return name that tells apart the monitors of this factory from those of other factories, made of a prefix of
+     * the SDK key and a sequence number, as several factories can be built with the same key.
+     */
+    private static String jmxInstance(String apiToken) {
+        String prefix = apiToken == null ? "" : apiToken.substring(0, Math.min(JMX_KEY_PREFIX_LENGTH, apiToken.length()));
+        return prefix.replaceAll("[^A-Za-z0-9]", "_") + "-" + JMX_INSTANCES.incrementAndGet();
     }
 
-    private static CloseableHttpClient buildSSEdHttpClient(String apiToken, SplitClientConfig config) {
-        RequestConfig requestConfig = RequestConfig.custom()
-                .setConnectTimeout(Timeout.ofMilliseconds(SSE_CONNECT_TIMEOUT))
-                .build();
-
-        SSLConnectionSocketFactory sslSocketFactory = SSLConnectionSocketFactoryBuilder.create()
-                .setSslContext(SSLContexts.createSystemDefault())
-                .setTlsVersions(TLS.V_1_1, TLS.V_1_2)
-                .build();
-
-        PoolingHttpClientConnectionManager cm = PoolingHttpClientConnectionManagerBuilder.create()
-                .setSSLSocketFactory(sslSocketFactory)
-                .setDefaultSocketConfig(SocketConfig.custom()
-                        .setSoTimeout(Timeout.ofMilliseconds(SSE_SOCKET_TIMEOUT))
-                        .build())
-                .build();
-        cm.setMaxTotal(1);
-        cm.setDefaultMaxPerRoute(1);
-
-        HttpClientBuilder httpClientbuilder = HttpClients.custom()
-                .setConnectionManager(cm)
-                .setDefaultRequestConfig(requestConfig)
-                .addRequestInterceptorLast(SdkMetadataInterceptorFilter.instance(config.ipAddressEnabled(), SplitClientConfig.splitSdkVersion))
-                .addRequestInterceptorLast(ClientKeyInterceptorFilter.instance(apiToken));
-
-        // Set up proxy is it exists
-        if (config.proxy() != null) {
-            httpClientbuilder = setupProxy(httpClientbuilder, config);
+    private void registerMonitor(String monitorType, Object monitor) {
+        try {
+            if (JmxMonitor.getInstance().registerMonitor(JMX_NAME, monitorType, _jmxInstance, monitor)) {
+                _jmxMonitors.add(monitorType);
+            }
+        } catch (JMException e) {
+            _log.warn("Could not register " + monitorType + " in JMX", e);
         }
-
-        return httpClientbuilder.build();
     }
 
-    private static HttpClientBuilder setupProxy(HttpClientBuilder httpClientbuilder, SplitClientConfig config) {
-        _log.info("Initializing Split SDK with proxy settings");
-        DefaultProxyRoutePlanner routePlanner = new DefaultProxyRoutePlanner(config.proxy());
-        httpClientbuilder.setRoutePlanner(routePlanner);
-
-        if (config.proxyUsername() != null && config.proxyPassword() != null) {
-            _log.debug("Proxy setup using credentials");
-            BasicCredentialsProvider credsProvider = new BasicCredentialsProvider();
-            AuthScope siteScope = new AuthScope(config.proxy().getHostName(), config.proxy().getPort());
-            Credentials siteCreds = new UsernamePasswordCredentials(config.proxyUsername(), config.proxyPassword().toCharArray());
-            credsProvider.setCredentials(siteScope, siteCreds);
-            httpClientbuilder.setDefaultCredentialsProvider(credsProvider);
+    private void unregisterMonitor(String monitorType) {
+        try {
+            JmxMonitor.getInstance().unregisterMonitor(JMX_NAME, monitorType, _jmxInstance);
+        } catch (JMException e) {
+            _log.warn("Could not unregister " + monitorType + " from JMX", e);
         }
-
-        return  httpClientbuilder;
-    }
-
-    private static int findPollingPeriod(Random rand, int max) {
-        int min = max / 2;
-        return rand.nextInt((max - min) + 1) + min;
-    }
-
-    private SegmentSynchronizationTaskImp buildSegments(SplitClientConfig config) throws URISyntaxException {
-        SegmentChangeFetcher segmentChangeFetcher = HttpSegmentChangeFetcher.create(_httpclient, _rootTarget, _telemetryStorage);
-
-        return new SegmentSynchronizationTaskImp(segmentChangeFetcher,
-                findPollingPeriod(RANDOM, config.segmentsRefreshRate()),
-                config.numThreadsForSegmentFetch(),
-                _gates,
-                _segmentCache,
-                _telemetryStorage);
-    }
-
-    private SplitFetcher buildSplitFetcher() throws URISyntaxException {
-        SplitChangeFetcher splitChangeFetcher = HttpSplitChangeFetcher.create(_httpclient, _rootTarget, _telemetryStorage);
-        SplitParser splitParser = new SplitParser(_segmentSynchronizationTaskImp, _segmentCache);
-
-        return new SplitFetcherImp(splitChangeFetcher, splitParser, _splitCache, _telemetryStorage);
     }
 
     private ImpressionsManagerImpl buildImpressionsManager(SplitClientConfig config) throws URISyntaxException {
         List<ImpressionListener> impressionListeners = new ArrayList<>();
         if (config.integrationsConfig() != null) {
             config.integrationsConfig().getImpressionsListeners(IntegrationsConfig.Execution.ASYNC).stream()
-                    .map(l -> AsynchronousImpressionListener.build(l.listener(), l.queueSize()))
+                    .map(l -> BatchingImpressionListener.build(BatchedImpressionListener.adapt(l.listener()), l.queueSize(),
+                            LISTENER_BATCH_SIZE, LISTENER_MAX_LATENCY_MILLIS, _syncCore.scheduler()))
+                    .collect(Collectors.toCollection(() -> impressionListeners));
+
+            config.integrationsConfig().getBatchedImpressionsListeners().stream()
+                    .map(l -> BatchingImpressionListener.build(l.listener(), l.queueSize(), l.batchSize(), l.maxLatencyMillis(),
+                            _syncCore.scheduler()))
                     .collect(Collectors.toCollection(() -> impressionListeners));
 
             config.integrationsConfig().getImpressionsListeners(IntegrationsConfig.Execution.SYNC).stream()
@@ -365,6 +225,13 @@ public class SplitFactoryImpl implements SplitFactory {
                     .collect(Collectors.toCollection(() -> impressionListeners));
         }
 
-        return ImpressionsManagerImpl.instance(_httpclient, config, impressionListeners, _telemetryStorage);
+        return ImpressionsManagerImpl.instance(_syncCore.httpClient(), config, impressionListeners, _syncCore.telemetryStorage(), _syncCore.scheduler());
+    }
+
+    private static Spool<List<Event>> buildEventsSpool(SplitClientConfig config) {
+        if (config.spoolDirectory() == null) {
+            return null;
+        }
+        return Spool.open(new File(config.spoolDirectory(), EVENTS_SPOOL), new TypeToken<List<Event>>() { }.getType(), config);
     }
 }
@@ -0,0 +1,176 @@
+package io.split.client;
+
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.ssl.SSLConnectionSocketFactory;
+import org.apache.hc.client5.http.ssl.SSLConnectionSocketFactoryBuilder;
+import org.apache.hc.core5.http.io.SocketConfig;
+import org.apache.hc.core5.http.ssl.TLS;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.ssl.SSLContexts;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+
+import java.io.Closeable;
+
+/**
+ * Connection pools that several factories can share, typically when one JVM builds a factory per SDK key.
+ *
+ * Factories configured with the same runtime (see {@link SplitClientConfig.Builder#httpRuntime(SplitHttpRuntime)})
+ * still build their own HTTP clients, so requests keep carrying each factory's SDK key and metadata, but connections,
+ * TLS sessions and sockets come from the pools held here. Destroying a factory leaves the runtime untouched: it must
+ * be closed by its owner once every factory using it has been destroyed.
+ */
+public class SplitHttpRuntime implements Closeable {
+    private final PoolingHttpClientConnectionManager _connectionManager;
+    private final PoolingHttpClientConnectionManager _streamingConnectionManager;
+
+    private SplitHttpRuntime(PoolingHttpClientConnectionManager connectionManager,
+                             PoolingHttpClientConnectionManager streamingConnectionManager) {
+        _connectionManager = connectionManager;
+        _streamingConnectionManager = streamingConnectionManager;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    PoolingHttpClientConnectionManager connectionManager() {
+        return _connectionManager;
+    }
+
+    PoolingHttpClientConnectionManager streamingConnectionManager() {
+        return _streamingConnectionManager;
+    }
+
+    @Override
+    public void close() {
+        _connectionManager.close(CloseMode.GRACEFUL);
+        _streamingConnectionManager.close(CloseMode.GRACEFUL);
+    }
+
+    static PoolingHttpClientConnectionManager buildConnectionManager(int readTimeout, long validateAfterInactivityInMillis,
+                                                                     int maxTotal, int maxPerRoute) {
+        PoolingHttpClientConnectionManager cm = PoolingHttpClientConnectionManagerBuilder.create()
+                .setSSLSocketFactory(buildSslSocketFactory())
+                .setDefaultSocketConfig(SocketConfig.custom()
+                        .setSoTimeout(Timeout.ofMilliseconds(readTimeout))
+                        .build())
+                .setValidateAfterInactivity(TimeValue.ofMilliseconds(validateAfterInactivityInMillis))
+                .build();
+        cm.setMaxTotal(maxTotal);
+        cm.setDefaultMaxPerRoute(maxPerRoute);
+        return cm;
+    }
+
+    static PoolingHttpClientConnectionManager buildStreamingConnectionManager(long socketTimeout, int maxConnections) {
+        PoolingHttpClientConnectionManager cm = PoolingHttpClientConnectionManagerBuilder.create()
+                .setSSLSocketFactory(buildSslSocketFactory())
+                .setDefaultSocketConfig(SocketConfig.custom()
+                        .setSoTimeout(Timeout.ofMilliseconds(socketTimeout))
+                        .build())
+                .build();
+        cm.setMaxTotal(maxConnections);
+        cm.setDefaultMaxPerRoute(maxConnections);
+        return cm;
+    }
+
+    private static SSLConnectionSocketFactory buildSslSocketFactory() {
+        return SSLConnectionSocketFactoryBuilder.create()
+                .setSslContext(SSLContexts.createSystemDefault())
+                .setTlsVersions(TLS.V_1_1, TLS.V_1_2)
+                .build();
+    }
+
+    public static final class Builder {
+        private int _maxConnections = 200;
+        private int _maxConnectionsPerRoute = 50;
+        private int _maxStreamingConnections = 100;
+        private int _readTimeout = 15000;
+        private long _validateAfterInactivityInMillis = 1000;
+
+        private Builder() {
+        }
+
+        /**
+         * Max number of pooled connections to Split's APIs, across all the factories sharing this runtime.
+         * Default is 200.
+         *
+         * @param maxConnections
+         * @return this builder
+         */
+        public Builder maxConnections(int maxConnections) {
+            _maxConnections = maxConnections;
+            return this;
+        }
+
+        /**
+         * Max number of pooled connections to each of Split's APIs (sdk, events, auth, telemetry).
+         * Default is 50.
+         *
+         * @param maxConnectionsPerRoute
+         * @return this builder
+         */
+        public Builder maxConnectionsPerRoute(int maxConnectionsPerRoute) {
+            _maxConnectionsPerRoute = maxConnectionsPerRoute;
+            return this;
+        }
+
+        /**
+         * Max number of streaming connections. Each factory with streaming enabled holds one.
+         * Default is 100.
+         *
+         * @param maxStreamingConnections
+         * @return this builder
+         */
+        public Builder maxStreamingConnections(int maxStreamingConnections) {
+            _maxStreamingConnections = maxStreamingConnections;
+            return this;
+        }
+
+        /**
+         * Default socket timeout for pooled connections. Each factory still applies its own readTimeout to the
+         * responses it waits for.
+         * Default is 15000ms.
+         *
+         * @param ms
+         * @return this builder
+         */
+        public Builder readTimeout(int ms) {
+            _readTimeout = ms;
+            return this;
+        }
+
+        /**
+         * @param validateAfterInactivityInMillis period of inactivity after which pooled connections are checked
+         *                                        before being reused. Default is 1000ms.
+         * @return this builder
+         */
+        public Builder validateAfterInactivityInMillis(long validateAfterInactivityInMillis) {
+            _validateAfterInactivityInMillis = validateAfterInactivityInMillis;
+            return this;
+        }
+
+        public SplitHttpRuntime build() {
+            if (_maxConnections <= 0) {
+                throw new IllegalArgumentException("maxConnections must be > 0: " + _maxConnections);
+            }
+
+            if (_maxConnectionsPerRoute <= 0) {
+                throw new IllegalArgumentException("maxConnectionsPerRoute must be > 0: " + _maxConnectionsPerRoute);
+            }
+
+            if (_maxStreamingConnections <= 0) {
+                throw new IllegalArgumentException("maxStreamingConnections must be > 0: " + _maxStreamingConnections);
+            }
+
+            if (_readTimeout <= 0) {
+                throw new IllegalArgumentException("readTimeout must be > 0: " + _readTimeout);
+            }
+
+            return new SplitHttpRuntime(
+                    buildConnectionManager(_readTimeout, _validateAfterInactivityInMillis, _maxConnections, _maxConnectionsPerRoute),
+                    buildStreamingConnectionManager(SplitSyncCore.SSE_SOCKET_TIMEOUT, _maxStreamingConnections));
+        }
+    }
+}
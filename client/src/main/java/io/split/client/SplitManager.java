@@ -1,7 +1,10 @@
 package io.split.client;
 
+import io.split.client.api.EvaluationProfile;
+import io.split.client.api.SplitEvaluationStats;
 import io.split.client.api.SplitView;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.TimeoutException;
 
@@ -43,4 +46,44 @@ public interface SplitManager {
      * <p>
      */
     void blockUntilReady() throws TimeoutException, InterruptedException;
+
+    /**
+     * Returns how the feature (or Split) of this name was evaluated since the SDK started.
+     * Only recorded when {@link SplitClientConfig.Builder#splitStatsEnabled(boolean)} is set.
+     *
+     * @return SplitEvaluationStats or null if the feature wasn't evaluated or stats are not recorded
+     */
+    default SplitEvaluationStats splitStats(String featureName) {
+        return null;
+    }
+
+    /**
+     * Returns the features (or Splits) that rank highest by the given criteria, e.g. the ones that take the most
+     * evaluation time. Only recorded when {@link SplitClientConfig.Builder#splitStatsEnabled(boolean)} is set.
+     *
+     * @return a List of up to n SplitEvaluationStats, highest first, or empty
+     */
+    default List<SplitEvaluationStats> topSplits(int n, SplitEvaluationStats.Rank rank) {
+        return Collections.emptyList();
+    }
+
+    /**
+     * Returns where the time of the sampled evaluations of the feature (or Split) of this name goes, by condition
+     * and matcher type. Only recorded when {@link SplitClientConfig.Builder#evaluationProfilerSampleRate(int)} is set.
+     *
+     * @return EvaluationProfile or null if no evaluation of the feature was sampled or profiling is disabled
+     */
+    default EvaluationProfile evaluationProfile(String featureName) {
+        return null;
+    }
+
+    /**
+     * Returns the profiles of the features (or Splits) whose sampled evaluations took the most time.
+     * Only recorded when {@link SplitClientConfig.Builder#evaluationProfilerSampleRate(int)} is set.
+     *
+     * @return a List of up to n EvaluationProfile, highest first, or empty
+     */
+    default List<EvaluationProfile> topProfiledSplits(int n) {
+        return Collections.emptyList();
+    }
 }
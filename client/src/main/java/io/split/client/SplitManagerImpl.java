@@ -1,9 +1,13 @@
 package io.split.client;
 
 import com.google.common.base.Preconditions;
+import io.split.client.api.EvaluationProfile;
+import io.split.client.api.SplitEvaluationStats;
 import io.split.client.api.SplitView;
 import io.split.engine.SDKReadinessGates;
 import io.split.cache.SplitCache;
+import io.split.engine.evaluator.EvaluationProfiler;
+import io.split.engine.evaluator.SplitStatsTable;
 import io.split.engine.experiments.ParsedSplit;
 import io.split.inputValidation.SplitNameValidator;
 import io.split.telemetry.storage.TelemetryConfigProducer;
@@ -12,6 +16,7 @@ import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 import java.util.Optional;
@@ -28,16 +33,37 @@ public class SplitManagerImpl implements SplitManager {
     private final SplitClientConfig _config;
     private final SDKReadinessGates _gates;
     private final TelemetryConfigProducer _telemetryConfigProducer;
+    private final SplitStatsTable _splitStats;
+    private final EvaluationProfiler _profiler;
 
 
     public SplitManagerImpl(SplitCache splitCache,
                             SplitClientConfig config,
                             SDKReadinessGates gates,
                             TelemetryConfigProducer telemetryConfigProducer) {
+        this(splitCache, config, gates, telemetryConfigProducer, null);
+    }
+
+    public SplitManagerImpl(SplitCache splitCache,
+                            SplitClientConfig config,
+                            SDKReadinessGates gates,
+                            TelemetryConfigProducer telemetryConfigProducer,
+                            SplitStatsTable splitStats) {
+        this(splitCache, config, gates, telemetryConfigProducer, splitStats, null);
+    }
+
+    public SplitManagerImpl(SplitCache splitCache,
+                            SplitClientConfig config,
+                            SDKReadinessGates gates,
+                            TelemetryConfigProducer telemetryConfigProducer,
+                            SplitStatsTable splitStats,
+                            EvaluationProfiler profiler) {
         _config = Preconditions.checkNotNull(config);
         _splitCache  = Preconditions.checkNotNull(splitCache);
         _gates = Preconditions.checkNotNull(gates);
         _telemetryConfigProducer = telemetryConfigProducer;
+        _splitStats = splitStats;
+        _profiler = profiler;
     }
 
     @Override
@@ -104,4 +130,44 @@ public class SplitManagerImpl implements SplitManager {
             throw new TimeoutException("SDK was not ready in " + _config.blockUntilReady()+ " milliseconds");
         }
     }
+
+    @Override
+    public SplitEvaluationStats splitStats(String featureName) {
+        if (_splitStats == null) {
+            return null;
+        }
+        Optional<String> result = SplitNameValidator.isValid(featureName, "splitStats");
+        if (!result.isPresent()) {
+            return null;
+        }
+        return _splitStats.get(result.get());
+    }
+
+    @Override
+    public List<SplitEvaluationStats> topSplits(int n, SplitEvaluationStats.Rank rank) {
+        if (_splitStats == null) {
+            return Collections.emptyList();
+        }
+        return _splitStats.top(n, rank);
+    }
+
+    @Override
+    public EvaluationProfile evaluationProfile(String featureName) {
+        if (_profiler == null) {
+            return null;
+        }
+        Optional<String> result = SplitNameValidator.isValid(featureName, "evaluationProfile");
+        if (!result.isPresent()) {
+            return null;
+        }
+        return _profiler.get(result.get());
+    }
+
+    @Override
+    public List<EvaluationProfile> topProfiledSplits(int n) {
+        if (_profiler == null) {
+            return Collections.emptyList();
+        }
+        return _profiler.top(n);
+    }
 }
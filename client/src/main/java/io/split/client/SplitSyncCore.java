@@ -0,0 +1,389 @@
+package io.split.client;
+
+import io.split.cache.InMemoryCacheImp;
+import io.split.cache.SegmentCache;
+import io.split.cache.SegmentCacheInMemoryImpl;
+import io.split.cache.SplitCache;
+import io.split.client.interceptors.AuthorizationInterceptorFilter;
+import io.split.client.interceptors.ClientKeyInterceptorFilter;
+import io.split.client.interceptors.GzipDecoderResponseInterceptor;
+import io.split.client.interceptors.GzipEncoderRequestInterceptor;
+import io.split.client.interceptors.SdkMetadataInterceptorFilter;
+import io.split.engine.SDKReadinessGates;
+import io.split.engine.common.SDKScheduler;
+import io.split.engine.common.SyncManager;
+import io.split.engine.common.SyncManagerImp;
+import io.split.engine.experiments.SplitChangeFetcher;
+import io.split.engine.experiments.SplitFetcher;
+import io.split.engine.experiments.SplitFetcherImp;
+import io.split.engine.experiments.SplitParser;
+import io.split.engine.experiments.SplitSynchronizationTask;
+import io.split.engine.segments.SegmentChangeFetcher;
+import io.split.engine.segments.SegmentSynchronizationTaskImp;
+import io.split.telemetry.storage.InMemoryTelemetryStorage;
+import io.split.telemetry.storage.TelemetryStorage;
+import io.split.telemetry.synchronizer.TelemetrySubmitter;
+import io.split.telemetry.synchronizer.TelemetrySyncTask;
+import io.split.telemetry.synchronizer.TelemetrySynchronizer;
+import org.apache.hc.client5.http.auth.AuthScope;
+import org.apache.hc.client5.http.auth.Credentials;
+import org.apache.hc.client5.http.auth.UsernamePasswordCredentials;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.cookie.StandardCookieSpec;
+import org.apache.hc.client5.http.impl.auth.BasicCredentialsProvider;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.routing.DefaultProxyRoutePlanner;
+import org.apache.hc.core5.util.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Everything a factory needs to keep its splits and segments up to date: the caches, the pollers, the streaming
+ * connection, the HTTP client and telemetry.
+ *
+ * Each factory owns a core of its own unless {@link SplitClientConfig#sharedSyncCoreEnabled()} is set, in which case
+ * factories created with the same SDK key share one, reference counted, core. A factory is only given the shared core
+ * when the settings the core is built from match its own, otherwise it gets a core of its own.
+ */
+class SplitSyncCore {
+    private static final Logger _log = LoggerFactory.getLogger(SplitSyncCore.class);
+    private final static long SSE_CONNECT_TIMEOUT = 30000;
+    final static long SSE_SOCKET_TIMEOUT = 70000;
+
+    private static Random RANDOM = new Random();
+
+    // Guards the map and the reference counts of the cores in it
+    private static final Map<String, SplitSyncCore> SHARED_CORES = new HashMap<>();
+
+    private final String _apiToken;
+    private final boolean _shared;
+    private final List<Object> _syncSettings;
+    private final URI _rootTarget;
+    private final PoolingHttpClientConnectionManager _connectionManager;
+    private final CloseableHttpClient _httpclient;
+    private final SDKReadinessGates _gates;
+    private final SegmentSynchronizationTaskImp _segmentSynchronizationTaskImp;
+    private final SplitFetcher _splitFetcher;
+    private final SplitSynchronizationTask _splitSynchronizationTask;
+    private final SyncManager _syncManager;
+    private final SDKScheduler _scheduler;
+    private final long _startTime;
+
+    // Caches
+    private final SegmentCache _segmentCache;
+    private final SplitCache _splitCache;
+
+    // Telemetry
+    private final TelemetryStorage _telemetryStorage;
+    private final TelemetrySynchronizer _telemetrySynchronizer;
+    private final TelemetrySyncTask _telemetrySyncTask;
+
+    private int _references;
+
+    /**
+     * @return the shared core for the given key if sharing is enabled and one is running, or a new started core
+     * otherwise. Every call must be paired with a call to {@link #release()}.
+     */
+    static SplitSyncCore acquire(String apiToken, SplitClientConfig config) throws URISyntaxException {
+        if (!config.sharedSyncCoreEnabled()) {
+            return startUnshared(apiToken, config);
+        }
+
+        synchronized (SHARED_CORES) {
+            SplitSyncCore core = SHARED_CORES.get(apiToken);
+            if (core == null) {
+                core = new SplitSyncCore(apiToken, config, true);
+                core.start();
+                SHARED_CORES.put(apiToken, core);
+            } else if (core._syncSettings.equals(syncSettings(config))) {
+                _log.info("Reusing the synchronization core of an existing factory with the same SDK key");
+            } else {
+                core = null;
+            }
+            if (core != null) {
+                core._references++;
+                return core;
+            }
+        }
+        _log.warn("A factory with the same SDK key is running with different endpoints, refresh rates, streaming, "
+                + "HTTP or proxy settings, so its synchronization core can't be shared. Starting a separate one.");
+        return startUnshared(apiToken, config);
+    }
+
+    private static SplitSyncCore startUnshared(String apiToken, SplitClientConfig config) throws URISyntaxException {
+        SplitSyncCore core = new SplitSyncCore(apiToken, config, false);
+        core._references = 1;
+        core.start();
+        return core;
+    }
+
+    /**
+     * @return the settings a core is built from, which must be the same for factories to share it.
+     */
+    private static List<Object> syncSettings(SplitClientConfig config) {
+        return Arrays.asList(config.endpoint(), config.telemetryURL(), config.authServiceURL(), config.streamingServiceURL(),
+                config.featuresRefreshRate(), config.segmentsRefreshRate(), config.adaptivePollingMaxFactor(),
+                config.get_telemetryRefreshRate(), config.streamingEnabled(), config.numThreadsForSegmentFetch(),
+                config.connectionTimeout(), config.readTimeout(), config.httpRuntime(), config.proxy(),
+                config.proxyUsername(), config.proxyPassword());
+    }
+
+    private SplitSyncCore(String apiToken, SplitClientConfig config, boolean shared) throws URISyntaxException {
+        _startTime = System.currentTimeMillis();
+        _apiToken = apiToken;
+        _shared = shared;
+        _syncSettings = syncSettings(config);
+
+        _telemetryStorage = new InMemoryTelemetryStorage();
+        _scheduler = SDKScheduler.forConfig(config);
+
+        // SDKReadinessGates
+        _gates = new SDKReadinessGates();
+
+        // HttpClient
+        _connectionManager = config.httpRuntime() != null
+                ? config.httpRuntime().connectionManager()
+                : SplitHttpRuntime.buildConnectionManager(config.readTimeout(), config.validateAfterInactivityInMillis(), 20, 20);
+        _httpclient = buildHttpClient(apiToken, config, _connectionManager);
+
+        // Roots
+        _rootTarget = URI.create(config.endpoint());
+
+        // Cache Initialisations
+        _segmentCache = new SegmentCacheInMemoryImpl();
+        _splitCache = new InMemoryCacheImp();
+        _telemetrySynchronizer = new TelemetrySubmitter(_httpclient, URI.create(config.telemetryURL()), _telemetryStorage, _splitCache, _segmentCache, _telemetryStorage, _startTime,
+                config.payloadCompressionEnabled());
+
+        // Segments
+        _segmentSynchronizationTaskImp = buildSegments(config);
+
+        // SplitFetcher
+        _splitFetcher = buildSplitFetcher();
+
+        // SplitSynchronizationTask
+        long splitsPollingPeriod = findPollingPeriod(RANDOM, config.featuresRefreshRate());
+        _splitSynchronizationTask = new SplitSynchronizationTask(_splitFetcher,
+                _splitCache,
+                splitsPollingPeriod,
+                splitsPollingPeriod * config.adaptivePollingMaxFactor(),
+                _scheduler);
+
+        _telemetrySyncTask = new TelemetrySyncTask(config.get_telemetryRefreshRate(), _telemetrySynchronizer, _scheduler);
+
+        // SyncManager
+        _syncManager = SyncManagerImp.build(config.streamingEnabled(),
+                _splitSynchronizationTask,
+                _splitFetcher,
+                _segmentSynchronizationTaskImp,
+                _splitCache,
+                config.authServiceURL(),
+                _httpclient,
+                config.streamingServiceURL(),
+                config.authRetryBackoffBase(),
+                buildSSEdHttpClient(apiToken, config),
+                _segmentCache,
+                config.streamingRetryDelay(),
+                config.streamingFetchMaxRetries(),
+                config.failedAttemptsBeforeLogging(),
+                config.cdnDebugLogging(), _gates, _telemetryStorage, _telemetrySynchronizer,config, _scheduler);
+    }
+
+    private void start() {
+        _syncManager.start();
+    }
+
+    /**
+     * Gives up a reference obtained through {@link #acquire(String, SplitClientConfig)}, shutting the core down
+     * once no factory uses it.
+     */
+    void release() {
+        if (_shared) {
+            synchronized (SHARED_CORES) {
+                if (--_references > 0) {
+                    return;
+                }
+                SHARED_CORES.remove(_apiToken);
+            }
+        }
+        close();
+    }
+
+    private void close() {
+        try {
+            long splitCount = _splitCache.getAll().stream().count();
+            long segmentCount = _segmentCache.getAll().stream().count();
+            long segmentKeyCount = _segmentCache.getKeyCount();
+            _segmentSynchronizationTaskImp.close();
+            _log.info("Successful shutdown of segment fetchers");
+            _splitSynchronizationTask.close();
+            _log.info("Successful shutdown of splits");
+            _syncManager.shutdown();
+            _log.info("Successful shutdown of syncManager");
+            _telemetryStorage.recordSessionLength(System.currentTimeMillis() - _startTime);
+            _telemetrySyncTask.stopScheduledTask(splitCount, segmentCount, segmentKeyCount);
+            _log.info("Successful shutdown of telemetry sync task");
+            _httpclient.close();
+            _log.info("Successful shutdown of httpclient");
+            _scheduler.shutdown();
+        } catch (IOException e) {
+            _log.error("We could not shutdown split", e);
+        }
+    }
+
+    CloseableHttpClient httpClient() {
+        return _httpclient;
+    }
+
+    SDKReadinessGates gates() {
+        return _gates;
+    }
+
+    SplitCache splitCache() {
+        return _splitCache;
+    }
+
+    SegmentCache segmentCache() {
+        return _segmentCache;
+    }
+
+    boolean isStreaming() {
+        return _syncManager.isStreaming();
+    }
+
+    /**
+     * @return the pool the HTTP client takes its connections from, shared with other factories when
+     * {@link SplitClientConfig#httpRuntime()} is set.
+     */
+    PoolingHttpClientConnectionManager connectionManager() {
+        return _connectionManager;
+    }
+
+    Map<String, Long> segmentLastSynchronizations() {
+        return _segmentSynchronizationTaskImp.lastSynchronizations();
+    }
+
+    TelemetryStorage telemetryStorage() {
+        return _telemetryStorage;
+    }
+
+    SDKScheduler scheduler() {
+        return _scheduler;
+    }
+
+    int references() {
+        synchronized (SHARED_CORES) {
+            return _references;
+        }
+    }
+
+    private static CloseableHttpClient buildHttpClient(String apiToken, SplitClientConfig config,
+                                                       PoolingHttpClientConnectionManager connectionManager) {
+        RequestConfig.Builder requestConfig = RequestConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(config.connectionTimeout()))
+                .setCookieSpec(StandardCookieSpec.STRICT);
+
+        HttpClientBuilder httpClientbuilder = HttpClients.custom();
+        if (config.httpRuntime() != null) {
+            // The pool is shared, so this factory's read timeout is applied to each response instead
+            requestConfig.setResponseTimeout(Timeout.ofMilliseconds(config.readTimeout()));
+            httpClientbuilder.setConnectionManager(connectionManager)
+                    .setConnectionManagerShared(true);
+        } else {
+            httpClientbuilder.setConnectionManager(connectionManager);
+        }
+
+        httpClientbuilder.setDefaultRequestConfig(requestConfig.build())
+                .addRequestInterceptorLast(AuthorizationInterceptorFilter.instance(apiToken))
+                .addRequestInterceptorLast(SdkMetadataInterceptorFilter.instance(config.ipAddressEnabled(), SplitClientConfig.splitSdkVersion))
+                .addRequestInterceptorLast(new GzipEncoderRequestInterceptor())
+                .addResponseInterceptorLast((new GzipDecoderResponseInterceptor()));
+
+        // Set up proxy is it exists
+        if (config.proxy() != null) {
+            httpClientbuilder = setupProxy(httpClientbuilder, config);
+        }
+
+        return httpClientbuilder.build();
+    }
+
+    private static CloseableHttpClient buildSSEdHttpClient(String apiToken, SplitClientConfig config) {
+        RequestConfig.Builder requestConfig = RequestConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(SSE_CONNECT_TIMEOUT));
+
+        HttpClientBuilder httpClientbuilder = HttpClients.custom();
+        if (config.httpRuntime() != null) {
+            requestConfig.setResponseTimeout(Timeout.ofMilliseconds(SSE_SOCKET_TIMEOUT));
+            httpClientbuilder.setConnectionManager(config.httpRuntime().streamingConnectionManager())
+                    .setConnectionManagerShared(true);
+        } else {
+            httpClientbuilder.setConnectionManager(SplitHttpRuntime.buildStreamingConnectionManager(SSE_SOCKET_TIMEOUT, 1));
+        }
+
+        httpClientbuilder.setDefaultRequestConfig(requestConfig.build())
+                .addRequestInterceptorLast(SdkMetadataInterceptorFilter.instance(config.ipAddressEnabled(), SplitClientConfig.splitSdkVersion))
+                .addRequestInterceptorLast(ClientKeyInterceptorFilter.instance(apiToken));
+
+        // Set up proxy is it exists
+        if (config.proxy() != null) {
+            httpClientbuilder = setupProxy(httpClientbuilder, config);
+        }
+
+        return httpClientbuilder.build();
+    }
+
+    private static HttpClientBuilder setupProxy(HttpClientBuilder httpClientbuilder, SplitClientConfig config) {
+        _log.info("Initializing Split SDK with proxy settings");
+        DefaultProxyRoutePlanner routePlanner = new DefaultProxyRoutePlanner(config.proxy());
+        httpClientbuilder.setRoutePlanner(routePlanner);
+
+        if (config.proxyUsername() != null && config.proxyPassword() != null) {
+            _log.debug("Proxy setup using credentials");
+            BasicCredentialsProvider credsProvider = new BasicCredentialsProvider();
+            AuthScope siteScope = new AuthScope(config.proxy().getHostName(), config.proxy().getPort());
+            Credentials siteCreds = new UsernamePasswordCredentials(config.proxyUsername(), config.proxyPassword().toCharArray());
+            credsProvider.setCredentials(siteScope, siteCreds);
+            httpClientbuilder.setDefaultCredentialsProvider(credsProvider);
+        }
+
+        return  httpClientbuilder;
+    }
+
+    private static int findPollingPeriod(Random rand, int max) {
+        int min = max / 2;
+        return rand.nextInt((max - min) + 1) + min;
+    }
+
+    private SegmentSynchronizationTaskImp buildSegments(SplitClientConfig config) throws URISyntaxException {
+        SegmentChangeFetcher segmentChangeFetcher = HttpSegmentChangeFetcher.create(_httpclient, _rootTarget, _telemetryStorage);
+
+        long pollingPeriod = findPollingPeriod(RANDOM, config.segmentsRefreshRate());
+        return new SegmentSynchronizationTaskImp(segmentChangeFetcher,
+                pollingPeriod,
+                pollingPeriod * config.adaptivePollingMaxFactor(),
+                config.numThreadsForSegmentFetch(),
+                _gates,
+                _segmentCache,
+                _telemetryStorage,
+                _scheduler);
+    }
+
+    private SplitFetcher buildSplitFetcher() throws URISyntaxException {
+        SplitChangeFetcher splitChangeFetcher = HttpSplitChangeFetcher.create(_httpclient, _rootTarget, _telemetryStorage);
+        SplitParser splitParser = new SplitParser(_segmentSynchronizationTaskImp, _segmentCache);
+
+        return new SplitFetcherImp(splitChangeFetcher, splitParser, _splitCache, _telemetryStorage);
+    }
+}
@@ -0,0 +1,120 @@
+package io.split.client.api;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Where the time of the sampled evaluations of one Split goes, meant for consumption through SplitManager interface.
+ * <p/>
+ * Only collected when {@link io.split.client.SplitClientConfig.Builder#evaluationProfilerSampleRate(int)} is set.
+ * Every time below is measured on sampled evaluations only, so counts are about 1/sampleRate of the evaluations.
+ */
+public final class EvaluationProfile {
+
+    private final String _split;
+    private final Timing _evaluation;
+    private final Timing _splitter;
+    private final Map<String, Timing> _conditions;
+    private final Map<String, Timing> _matchers;
+
+    public EvaluationProfile(String split, Timing evaluation, Timing splitter, Map<String, Timing> conditions,
+                             Map<String, Timing> matchers) {
+        _split = split;
+        _evaluation = evaluation;
+        _splitter = splitter;
+        _conditions = Collections.unmodifiableMap(conditions);
+        _matchers = Collections.unmodifiableMap(matchers);
+    }
+
+    public String split() {
+        return _split;
+    }
+
+    /**
+     * @return the whole evaluations, one per sample.
+     */
+    public Timing evaluation() {
+        return _evaluation;
+    }
+
+    /**
+     * @return the hashing of keys into buckets, for traffic allocation and treatments.
+     */
+    public Timing splitter() {
+        return _splitter;
+    }
+
+    /**
+     * @return the conditions evaluated, by label. A condition includes the time of its matchers.
+     */
+    public Map<String, Timing> conditions() {
+        return _conditions;
+    }
+
+    /**
+     * @return the matchers evaluated, by type, e.g. "UserDefinedSegmentMatcher". A DependencyMatcher includes the
+     * evaluation of the Split it depends on.
+     */
+    public Map<String, Timing> matchers() {
+        return _matchers;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder bldr = new StringBuilder();
+        bldr.append(_split);
+        bldr.append(": evaluation ");
+        bldr.append(_evaluation);
+        bldr.append(", splitter ");
+        bldr.append(_splitter);
+        bldr.append(", conditions ");
+        bldr.append(_conditions);
+        bldr.append(", matchers ");
+        bldr.append(_matchers);
+        return bldr.toString();
+    }
+
+    public static final class Timing {
+        private final long _count;
+        private final long _totalNanos;
+        private final long _maxNanos;
+
+        public Timing(long count, long totalNanos, long maxNanos) {
+            _count = count;
+            _totalNanos = totalNanos;
+            _maxNanos = maxNanos;
+        }
+
+        public long count() {
+            return _count;
+        }
+
+        public long totalNanos() {
+            return _totalNanos;
+        }
+
+        public long maxNanos() {
+            return _maxNanos;
+        }
+
+        public long meanNanos() {
+            return _count == 0 ? 0 : _totalNanos / _count;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder bldr = new StringBuilder();
+            bldr.append("{count=");
+            bldr.append(_count);
+            bldr.append(", totalMicros=");
+            bldr.append(TimeUnit.NANOSECONDS.toMicros(_totalNanos));
+            bldr.append(", meanMicros=");
+            bldr.append(TimeUnit.NANOSECONDS.toMicros(meanNanos()));
+            bldr.append(", maxMicros=");
+            bldr.append(TimeUnit.NANOSECONDS.toMicros(_maxNanos));
+            bldr.append("}");
+            return bldr.toString();
+        }
+    }
+}
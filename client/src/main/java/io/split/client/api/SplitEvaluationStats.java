@@ -0,0 +1,97 @@
+package io.split.client.api;
+
+import io.split.telemetry.utils.LatencyHistogram;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluations of one Split since the SDK started, meant for consumption through SplitManager interface.
+ * <p/>
+ * Only collected when {@link io.split.client.SplitClientConfig.Builder#splitStatsEnabled(boolean)} is set.
+ */
+public final class SplitEvaluationStats {
+
+    /**
+     * What to rank Splits by when asking for the top ones.
+     */
+    public enum Rank {
+        EVALUATIONS,
+        /**
+         * Time spent evaluating the Split, which tells how much evaluation CPU it accounts for.
+         */
+        TOTAL_TIME,
+        /**
+         * Conditions whose matcher was evaluated, high when keys go through many conditions before matching.
+         */
+        MATCHER_EVALUATIONS
+    }
+
+    private final String _split;
+    private final long _evaluations;
+    private final long _matcherEvaluations;
+    private final long _totalTimeNanos;
+    private final LatencyHistogram.Snapshot _latency;
+    private final Map<String, Long> _labels;
+
+    public SplitEvaluationStats(String split, long evaluations, long matcherEvaluations, long totalTimeNanos,
+                                LatencyHistogram.Snapshot latency, Map<String, Long> labels) {
+        _split = split;
+        _evaluations = evaluations;
+        _matcherEvaluations = matcherEvaluations;
+        _totalTimeNanos = totalTimeNanos;
+        _latency = latency;
+        _labels = Collections.unmodifiableMap(labels);
+    }
+
+    public String split() {
+        return _split;
+    }
+
+    public long evaluations() {
+        return _evaluations;
+    }
+
+    public long matcherEvaluations() {
+        return _matcherEvaluations;
+    }
+
+    public long totalTimeNanos() {
+        return _totalTimeNanos;
+    }
+
+    /**
+     * @return the distribution of the evaluation latencies, in nanoseconds. Evaluating a Split includes evaluating
+     * the Splits it depends on.
+     */
+    public LatencyHistogram.Snapshot latency() {
+        return _latency;
+    }
+
+    /**
+     * @return how many evaluations ended with each label, e.g. "default rule" or "killed".
+     */
+    public Map<String, Long> labels() {
+        return _labels;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder bldr = new StringBuilder();
+        bldr.append(_split);
+        bldr.append(": evaluations=");
+        bldr.append(_evaluations);
+        bldr.append(", matcherEvaluations=");
+        bldr.append(_matcherEvaluations);
+        bldr.append(", totalTimeMicros=");
+        bldr.append(TimeUnit.NANOSECONDS.toMicros(_totalTimeNanos));
+        bldr.append(", p50Micros=");
+        bldr.append(_latency.valueAtPercentile(50, TimeUnit.MICROSECONDS));
+        bldr.append(", p99Micros=");
+        bldr.append(_latency.valueAtPercentile(99, TimeUnit.MICROSECONDS));
+        bldr.append(", labels=");
+        bldr.append(_labels);
+        return bldr.toString();
+    }
+}
@@ -0,0 +1,71 @@
+package io.split.client.dtos;
+
+import com.google.gson.annotations.SerializedName;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+public class UniqueKeys {
+
+    private static final String FIELD_KEYS = "keys";
+
+    @SerializedName(FIELD_KEYS)
+    public final List<KeysPerFeature> keys;
+
+    public UniqueKeys(List<KeysPerFeature> ks) {
+        keys = ks;
+    }
+
+    public static UniqueKeys fromUniqueKeysTrackerData(Map<String, List<String>> raw) {
+        return new UniqueKeys(raw.entrySet().stream()
+                .map(e -> new KeysPerFeature(e.getKey(), e.getValue()))
+                .collect(Collectors.toList()));
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(keys);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        UniqueKeys u = (UniqueKeys) o;
+        return Objects.equals(keys, u.keys);
+    }
+
+    public static class KeysPerFeature {
+
+        private static final String FIELD_FEATURE = "f";
+        private static final String FIELD_KEYS = "ks";
+
+        @SerializedName(FIELD_FEATURE)
+        public final String feature;
+
+        @SerializedName(FIELD_KEYS)
+        public final List<String> keys;
+
+        public KeysPerFeature(String f, List<String> ks) {
+            feature = f;
+            keys = ks;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(feature, keys);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            KeysPerFeature k = (KeysPerFeature) o;
+            return Objects.equals(feature, k.feature) && Objects.equals(keys, k.keys);
+        }
+    }
+}
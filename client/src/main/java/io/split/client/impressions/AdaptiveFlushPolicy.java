@@ -0,0 +1,73 @@
+package io.split.client.impressions;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Decides when impressions are flushed next, so that the queue is drained before it fills up.
+ *
+ * The rate at which impressions are tracked is estimated from how many each flush drains and the time since the
+ * previous one, and the next flush is scheduled for when the queue is expected to be half full, minus the time a flush
+ * usually takes. Both are smoothed averages, so a single burst or slow request doesn't swing the interval. A queue
+ * found full means impressions were dropped and the rate was underestimated, so the estimate is doubled.
+ *
+ * Independently, a queue three quarters full should be flushed right away, see {@link #isAboveHighWatermark(long)}.
+ */
+class AdaptiveFlushPolicy {
+
+    private static final double SMOOTHING = 0.3;
+    private static final double TARGET_DEPTH = 0.5;
+    private static final double HIGH_WATERMARK = 0.75;
+
+    private final long _targetDepth;
+    private final long _highWatermark;
+    private final long _minDelayMillis;
+    private final long _maxDelayMillis;
+
+    private double _ratePerMilli = -1;
+    private double _flushMillis;
+    private long _lastFlushStart = -1;
+
+    /**
+     * @param capacity number of impressions the queue holds.
+     * @param minDelayMillis shortest interval between flushes.
+     * @param maxDelayMillis longest interval between flushes, used while nothing is being tracked.
+     */
+    AdaptiveFlushPolicy(long capacity, long minDelayMillis, long maxDelayMillis) {
+        checkArgument(capacity > 0, "capacity must be > 0");
+        checkArgument(minDelayMillis > 0 && minDelayMillis <= maxDelayMillis, "minDelayMillis must be > 0 and <= maxDelayMillis");
+        _targetDepth = Math.max(1, (long) (capacity * TARGET_DEPTH));
+        _highWatermark = Math.max(1, (long) (capacity * HIGH_WATERMARK));
+        _minDelayMillis = minDelayMillis;
+        _maxDelayMillis = maxDelayMillis;
+    }
+
+    boolean isAboveHighWatermark(long queued) {
+        return queued >= _highWatermark;
+    }
+
+    /**
+     * @param startMillis when the flush started.
+     * @param flushed number of impressions it drained.
+     * @param durationMillis how long it took.
+     * @param queueWasFull whether the queue was full when it started.
+     */
+    synchronized void recordFlush(long startMillis, long flushed, long durationMillis, boolean queueWasFull) {
+        if (_lastFlushStart >= 0 && startMillis > _lastFlushStart) {
+            double rate = (double) flushed / (startMillis - _lastFlushStart);
+            _ratePerMilli = _ratePerMilli < 0 ? rate : _ratePerMilli + SMOOTHING * (rate - _ratePerMilli);
+            if (queueWasFull) {
+                _ratePerMilli *= 2;
+            }
+        }
+        _flushMillis += SMOOTHING * (durationMillis - _flushMillis);
+        _lastFlushStart = startMillis;
+    }
+
+    synchronized long nextDelayMillis() {
+        if (_ratePerMilli <= 0) {
+            return _maxDelayMillis;
+        }
+        double delay = _targetDepth / _ratePerMilli - _flushMillis;
+        return Math.max(_minDelayMillis, Math.min(_maxDelayMillis, (long) delay));
+    }
+}
@@ -1,14 +1,10 @@
 package io.split.client.impressions;
 
-import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.split.engine.common.SDKScheduler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.ThreadFactory;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
 
 /**
  * A wrapper around an ImpressionListener provided by the customer. The purpose
@@ -25,12 +21,11 @@ public class AsynchronousImpressionListener implements ImpressionListener {
     private final ExecutorService _executor;
 
     public static AsynchronousImpressionListener build(ImpressionListener delegate, int capacity) {
-        ThreadFactory threadFactory = new ThreadFactoryBuilder()
-                .setDaemon(true)
-                .setNameFormat("impression-listener-wrapper-%d")
-                .build();
+        return build(delegate, capacity, SDKScheduler.defaultScheduler());
+    }
 
-        ExecutorService executor = new ThreadPoolExecutor(2, 2, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<Runnable>(capacity), threadFactory);
+    public static AsynchronousImpressionListener build(ImpressionListener delegate, int capacity, SDKScheduler scheduler) {
+        ExecutorService executor = scheduler.newBoundedExecutor("impression-listener-wrapper", 2, capacity);
 
         return new AsynchronousImpressionListener(delegate, executor);
     }
@@ -0,0 +1,42 @@
+package io.split.client.impressions;
+
+import java.util.List;
+
+/**
+ * A listener that gets impressions in batches, for listeners that forward them somewhere that's cheaper to write to
+ * in bulk. Batches are delivered from a single thread, in the order impressions were buffered.
+ */
+public interface BatchedImpressionListener {
+
+    /**
+     * Log these impressions to the listener. This method MUST NOT throw any exception. The list must not be kept after
+     * returning.
+     *
+     * @param impressions
+     */
+    void logBatch(List<Impression> impressions);
+
+    /**
+     * MUST NOT throw any exceptions
+     */
+    void close();
+
+    /**
+     * @return a batched listener that logs each impression of a batch to the given listener.
+     */
+    static BatchedImpressionListener adapt(ImpressionListener listener) {
+        return new BatchedImpressionListener() {
+            @Override
+            public void logBatch(List<Impression> impressions) {
+                for (Impression impression : impressions) {
+                    listener.log(impression);
+                }
+            }
+
+            @Override
+            public void close() {
+                listener.close();
+            }
+        };
+    }
+}
@@ -0,0 +1,151 @@
+package io.split.client.impressions;
+
+import io.split.client.utils.MpscRingBuffer;
+import io.split.engine.common.SDKScheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Buffers impressions and hands them to a {@link BatchedImpressionListener} from its own thread, protecting the
+ * SplitClient from any slow down happening in the customer's listener.
+ *
+ * Impressions go into a lock-free ring buffer, so logging one allocates nothing and never blocks. A batch is delivered
+ * as soon as batchSize impressions are buffered, or once maxLatencyMillis have passed since the last delivery. When the
+ * buffer is full impressions are dropped and counted, and the count is logged.
+ */
+public class BatchingImpressionListener implements ImpressionListener {
+
+    private static final Logger _log = LoggerFactory.getLogger(BatchingImpressionListener.class);
+
+    private static final long CLOSE_TIMEOUT_MILLIS = 5000L;
+
+    private final BatchedImpressionListener _delegate;
+    private final MpscRingBuffer<Impression> _buffer;
+    private final int _batchSize;
+    private final long _maxLatencyNanos;
+    private final ExecutorService _executor;
+    private final AtomicBoolean _signalled = new AtomicBoolean();
+    private final LongAdder _dropped = new LongAdder();
+
+    private volatile Thread _consumer;
+    private volatile boolean _closed;
+
+    public static BatchingImpressionListener build(BatchedImpressionListener delegate, int capacity, int batchSize, long maxLatencyMillis,
+                                                   SDKScheduler scheduler) {
+        return new BatchingImpressionListener(delegate, capacity, batchSize, maxLatencyMillis,
+                scheduler.newLongRunningExecutor("impression-listener-batcher"));
+    }
+
+    BatchingImpressionListener(BatchedImpressionListener delegate, int capacity, int batchSize, long maxLatencyMillis,
+                               ExecutorService executor) {
+        checkArgument(capacity > 0, "capacity must be > 0");
+        checkArgument(batchSize > 0, "batchSize must be > 0");
+        checkArgument(maxLatencyMillis > 0, "maxLatencyMillis must be > 0");
+        _delegate = checkNotNull(delegate);
+        _buffer = new MpscRingBuffer<>(capacity);
+        _batchSize = Math.min(batchSize, capacity);
+        _maxLatencyNanos = TimeUnit.MILLISECONDS.toNanos(maxLatencyMillis);
+        _executor = checkNotNull(executor);
+        _executor.execute(this::deliverLoop);
+    }
+
+    @Override
+    public void log(Impression impression) {
+        if (impression == null || _closed) {
+            return;
+        }
+        if (!_buffer.offer(impression)) {
+            _dropped.increment();
+            return;
+        }
+        if (_buffer.size() >= _batchSize && !_signalled.get() && _signalled.compareAndSet(false, true)) {
+            Thread consumer = _consumer;
+            if (consumer != null) {
+                LockSupport.unpark(consumer);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            _closed = true;
+            Thread consumer = _consumer;
+            if (consumer != null) {
+                LockSupport.unpark(consumer);
+            }
+            _executor.shutdown();
+            if (!_executor.awaitTermination(CLOSE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                _log.warn("Impression listener didn't finish logging buffered impressions in time");
+            }
+            _delegate.close();
+        } catch (Exception e) {
+            _log.warn("Unable to close BatchingImpressionListener", e);
+        }
+    }
+
+    /**
+     * @return number of impressions dropped because the buffer was full.
+     */
+    public long dropped() {
+        return _dropped.sum();
+    }
+
+    private void deliverLoop() {
+        _consumer = Thread.currentThread();
+        List<Impression> batch = new ArrayList<>(_batchSize);
+        long reportedDrops = 0;
+        long deadline = System.nanoTime() + _maxLatencyNanos;
+        while (true) {
+            boolean closing = _closed;
+            _signalled.set(false);
+
+            while (_buffer.size() >= _batchSize) {
+                deliver(batch, _batchSize);
+            }
+            if (closing || System.nanoTime() - deadline >= 0) {
+                while (_buffer.size() > 0) {
+                    deliver(batch, _batchSize);
+                }
+                deadline = System.nanoTime() + _maxLatencyNanos;
+            }
+
+            long dropped = _dropped.sum();
+            if (dropped > reportedDrops) {
+                _log.warn(String.format("Impression listener buffer is full, %d impressions were dropped. Consider increasing its capacity.",
+                        dropped - reportedDrops));
+                reportedDrops = dropped;
+            }
+
+            if (closing) {
+                return;
+            }
+            LockSupport.parkNanos(this, Math.max(0, deadline - System.nanoTime()));
+        }
+    }
+
+    private void deliver(List<Impression> batch, int max) {
+        _buffer.drainTo(batch, max);
+        if (batch.isEmpty()) {
+            Thread.yield(); // Claimed by a producer that hasn't published yet
+            return;
+        }
+        try {
+            _delegate.logBatch(batch);
+        } catch (Exception e) {
+            _log.warn("Impression listener threw an exception", e);
+        }
+        batch.clear();
+    }
+}
@@ -2,17 +2,21 @@ package io.split.client.impressions;
 
 import com.google.common.annotations.VisibleForTesting;
 import io.split.client.dtos.ImpressionCount;
+import io.split.client.SplitClientConfig;
 import io.split.client.dtos.TestImpressions;
+import io.split.client.dtos.UniqueKeys;
+import io.split.client.utils.PostResult;
+import io.split.client.utils.StreamingJsonEntity;
 import io.split.client.utils.Utils;
 
 import io.split.telemetry.domain.enums.HTTPLatenciesEnum;
 import io.split.telemetry.domain.enums.LastSynchronizationRecordsEnum;
 import io.split.telemetry.domain.enums.ResourceEnum;
+import io.split.telemetry.jfr.SdkEvents;
 import io.split.telemetry.storage.TelemetryRuntimeProducer;
 import org.apache.hc.client5.http.classic.methods.HttpPost;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpResponse;
-import org.apache.hc.core5.http.HttpEntity;
 import org.apache.hc.core5.http.HttpStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,6 +26,7 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -32,6 +37,7 @@ public class HttpImpressionsSender implements ImpressionsSender {
 
     private static final String BULK_ENDPOINT_PATH = "api/testImpressions/bulk";
     private static final String COUNT_ENDPOINT_PATH = "api/testImpressions/count";
+    private static final String UNIQUE_KEYS_ENDPOINT_PATH = "keys/ss";
     private static final String IMPRESSIONS_MODE_HEADER = "SplitSDKImpressionsMode";
 
     private static final Logger _logger = LoggerFactory.getLogger(HttpImpressionsSender.class);
@@ -39,32 +45,52 @@ public class HttpImpressionsSender implements ImpressionsSender {
     private final CloseableHttpClient _client;
     private final URI _impressionBulkTarget;
     private final URI _impressionCountTarget;
+    private final URI _uniqueKeysTarget;
     private final ImpressionsManager.Mode _mode;
     private final TelemetryRuntimeProducer _telemetryRuntimeProducer;
+    private final boolean _compressPayloads;
 
     public static HttpImpressionsSender create(CloseableHttpClient client, URI eventsRootEndpoint, ImpressionsManager.Mode mode, TelemetryRuntimeProducer telemetryRuntimeProducer) throws URISyntaxException {
+        return create(client, eventsRootEndpoint, mode, telemetryRuntimeProducer, false);
+    }
+
+    public static HttpImpressionsSender create(CloseableHttpClient client, URI eventsRootEndpoint, ImpressionsManager.Mode mode,
+                                               TelemetryRuntimeProducer telemetryRuntimeProducer, boolean compressPayloads) throws URISyntaxException {
+        return create(client, eventsRootEndpoint, URI.create(SplitClientConfig.TELEMETRY_ENDPOINT), mode, telemetryRuntimeProducer, compressPayloads);
+    }
+
+    public static HttpImpressionsSender create(CloseableHttpClient client, URI eventsRootEndpoint, URI telemetryRootEndpoint, ImpressionsManager.Mode mode,
+                                               TelemetryRuntimeProducer telemetryRuntimeProducer, boolean compressPayloads) throws URISyntaxException {
         return new HttpImpressionsSender(client,
                 Utils.appendPath(eventsRootEndpoint, BULK_ENDPOINT_PATH),
                 Utils.appendPath(eventsRootEndpoint, COUNT_ENDPOINT_PATH),
+                Utils.appendPath(telemetryRootEndpoint, UNIQUE_KEYS_ENDPOINT_PATH),
                 mode,
-                telemetryRuntimeProducer);
+                telemetryRuntimeProducer,
+                compressPayloads);
     }
 
-    private HttpImpressionsSender(CloseableHttpClient client, URI impressionBulkTarget, URI impressionCountTarget, ImpressionsManager.Mode mode, TelemetryRuntimeProducer telemetryRuntimeProducer) {
+    private HttpImpressionsSender(CloseableHttpClient client, URI impressionBulkTarget, URI impressionCountTarget, URI uniqueKeysTarget,
+                                  ImpressionsManager.Mode mode, TelemetryRuntimeProducer telemetryRuntimeProducer, boolean compressPayloads) {
         _client = client;
         _mode = mode;
         _impressionBulkTarget = impressionBulkTarget;
         _impressionCountTarget = impressionCountTarget;
+        _uniqueKeysTarget = uniqueKeysTarget;
         _telemetryRuntimeProducer = checkNotNull(telemetryRuntimeProducer);
+        _compressPayloads = compressPayloads;
     }
 
     @Override
-    public void postImpressionsBulk(List<TestImpressions> impressions) {
+    public PostResult postImpressionsBulk(List<TestImpressions> impressions) {
 
         CloseableHttpResponse response = null;
-        long initTime = System.currentTimeMillis();
+        long initTime = System.nanoTime();
+        Object jfrEvent = SdkEvents.beginFlush();
+        StreamingJsonEntity entity = null;
+        boolean sent = false;
         try {
-            HttpEntity entity = Utils.toJsonEntity(impressions);
+            entity = Utils.toJsonEntity(impressions, _compressPayloads, _telemetryRuntimeProducer);
 
             HttpPost request = new HttpPost(_impressionBulkTarget);
             request.addHeader(IMPRESSIONS_MODE_HEADER, _mode.toString());
@@ -77,41 +103,74 @@ public class HttpImpressionsSender implements ImpressionsSender {
             if (status < HttpStatus.SC_OK || status >= HttpStatus.SC_MULTIPLE_CHOICES) {
                 _telemetryRuntimeProducer.recordSyncError(ResourceEnum.IMPRESSION_SYNC, status);
                 _logger.warn("Response status was: " + status);
+                return PostResult.fromStatus(status);
             }
             _telemetryRuntimeProducer.recordSuccessfulSync(LastSynchronizationRecordsEnum.IMPRESSIONS, System.currentTimeMillis());
-
+            sent = true;
+            return PostResult.ACCEPTED;
         } catch (Throwable t) {
             _logger.warn("Exception when posting impressions" + impressions, t);
+            return PostResult.RETRYABLE;
         } finally {
-            _telemetryRuntimeProducer.recordSyncLatency(HTTPLatenciesEnum.IMPRESSIONS, System.currentTimeMillis() - initTime);
+            _telemetryRuntimeProducer.recordSyncLatency(HTTPLatenciesEnum.IMPRESSIONS, System.nanoTime() - initTime);
             Utils.forceClose(response);
+            if (jfrEvent != null) {
+                SdkEvents.endFlush(jfrEvent, "impressions", count(impressions), entity != null ? entity.bytesSent() : 0, sent);
+            }
         }
 
     }
 
+    private static int count(List<TestImpressions> impressions) {
+        int count = 0;
+        for (TestImpressions testImpressions : impressions) {
+            count += testImpressions.keyImpressions.size();
+        }
+        return count;
+    }
+
     @Override
     public void postCounters(HashMap<ImpressionCounter.Key, Integer> raw) {
-        long initTime = System.currentTimeMillis();
+        long initTime = System.nanoTime();
         if (_mode.equals(ImpressionsManager.Mode.DEBUG)) {
             _logger.warn("Attempted to submit counters in impressions debugging mode. Ignoring");
             return;
         }
 
         HttpPost request = new HttpPost(_impressionCountTarget);
-        request.setEntity(Utils.toJsonEntity(ImpressionCount.fromImpressionCounterData(raw)));
+        request.setEntity(Utils.toJsonEntity(ImpressionCount.fromImpressionCounterData(raw), _compressPayloads, _telemetryRuntimeProducer));
         try (CloseableHttpResponse response = _client.execute(request)) {
             int status = response.getCode();
             if (status < HttpStatus.SC_OK || status >= HttpStatus.SC_MULTIPLE_CHOICES) {
                 _telemetryRuntimeProducer.recordSyncError(ResourceEnum.IMPRESSION_COUNT_SYNC, status);
                 _logger.warn("Response status was: " + status);
             }
-            _telemetryRuntimeProducer.recordSyncLatency(HTTPLatenciesEnum.IMPRESSIONS_COUNT, System.currentTimeMillis() - initTime);
+            _telemetryRuntimeProducer.recordSyncLatency(HTTPLatenciesEnum.IMPRESSIONS_COUNT, System.nanoTime() - initTime);
             _telemetryRuntimeProducer.recordSuccessfulSync(LastSynchronizationRecordsEnum.IMPRESSIONS_COUNT, System.currentTimeMillis());
         } catch (IOException exc) {
             _logger.warn("Exception when posting impression counters: ", exc);
         }
     }
 
+    @Override
+    public void postUniqueKeys(Map<String, List<String>> raw) {
+        if (!_mode.equals(ImpressionsManager.Mode.NONE)) {
+            _logger.warn("Attempted to submit unique keys in impressions " + _mode + " mode. Ignoring");
+            return;
+        }
+
+        HttpPost request = new HttpPost(_uniqueKeysTarget);
+        request.setEntity(Utils.toJsonEntity(UniqueKeys.fromUniqueKeysTrackerData(raw), _compressPayloads, _telemetryRuntimeProducer));
+        try (CloseableHttpResponse response = _client.execute(request)) {
+            int status = response.getCode();
+            if (status < HttpStatus.SC_OK || status >= HttpStatus.SC_MULTIPLE_CHOICES) {
+                _logger.warn("Response status was: " + status);
+            }
+        } catch (IOException exc) {
+            _logger.warn("Exception when posting unique keys: ", exc);
+        }
+    }
+
     @VisibleForTesting
     URI getTarget() {
         return _impressionBulkTarget;
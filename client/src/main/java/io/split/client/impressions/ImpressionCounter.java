@@ -1,14 +1,44 @@
 package io.split.client.impressions;
 
+import com.google.common.annotations.VisibleForTesting;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+/**
+ * Counts impressions per feature and hour.
+ *
+ * Feature names are mapped once to an int id, and each (feature, hour) pair to a long that indexes a preallocated
+ * open-addressing table of {@link LongAdder}s, so counting an impression allocates nothing once its feature and hour
+ * have been seen, and threads counting the same feature don't contend on a single counter.
+ *
+ * Counts live in a generation that {@link #popAll()} replaces as a whole, feature ids included, so features that stop
+ * being evaluated are forgotten. Each thread registers a writer once and, on every increment, publishes in it the
+ * generation it writes to. Popping waits for the writers still on the old generation before reading it, so no
+ * increment is lost or counted twice, and writers never touch state shared with other threads to do it. Writers of
+ * threads that ended are dropped when popping, and when registering once the number of writers has doubled since they
+ * were last pruned, so short-lived threads don't pile up between pops.
+ */
 public class ImpressionCounter {
 
+    private static final long HOUR_MS = 3600L * 1000L;
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int MIN_WRITERS_BEFORE_PRUNING = 64;
+
     public static class Key {
         private final String _featureName;
         private final long _timeFrame;
@@ -36,34 +66,235 @@ public class ImpressionCounter {
         }
     }
 
+    private final Queue<Writer> _writers = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<Writer> _writer = ThreadLocal.withInitial(this::register);
+    private final AtomicInteger _writerCount = new AtomicInteger();
+    private volatile int _pruneWritersAt = MIN_WRITERS_BEFORE_PRUNING;
 
-    private final ConcurrentHashMap<Key, AtomicInteger> _counts;
+    // Generations that filled up before being popped, still to be reported
+    private List<Generation> _retired = new ArrayList<>();
+    private volatile Generation _current = new Generation(INITIAL_CAPACITY);
 
     public ImpressionCounter() {
-        _counts = new ConcurrentHashMap<>();
     }
 
     public void inc(String featureName, long timeFrame, int amount) {
-        Key key = new Key(featureName, ImpressionUtils.truncateTimeframe(timeFrame));
-        AtomicInteger count = _counts.get(key);
-        if (Objects.isNull(count)) {
-            count = new AtomicInteger();
-            AtomicInteger old = _counts.putIfAbsent(key, count);
-            if (!Objects.isNull(old)) { // Some other thread won the race, use that AtomicInteger instead
-                count = old;
+        checkNotNull(featureName);
+        long hour = ImpressionUtils.truncateTimeframe(timeFrame) / HOUR_MS;
+        Writer writer = _writer.get();
+        while (true) {
+            Generation generation = _current;
+            writer._generation = generation;
+            try {
+                if (generation != _current) {
+                    continue; // Popped or replaced meanwhile, its counts might have already been read
+                }
+                if (generation.add(hour, featureName, amount)) {
+                    return;
+                }
+            } finally {
+                writer._generation = null;
             }
+            grow(generation);
         }
-        count.addAndGet(amount);
     }
 
     public HashMap<Key, Integer> popAll() {
+        List<Generation> popped;
+        synchronized (this) {
+            popped = _retired;
+            popped.add(_current);
+            _retired = new ArrayList<>();
+            _current = new Generation(_current.capacity());
+        }
+
+        awaitWriters(popped);
+
         HashMap<Key, Integer> toReturn = new HashMap<>();
-        for (Key key : _counts.keySet()) {
-            AtomicInteger curr = _counts.remove(key);
-            toReturn.put(key, curr.get());
+        for (Generation generation : popped) {
+            generation.forEach((featureName, hour, count) -> toReturn.merge(
+                    new Key(featureName, hour * HOUR_MS), (int) count, Integer::sum));
         }
         return toReturn;
     }
 
-    public boolean isEmpty() { return _counts.isEmpty(); }
+    public boolean isEmpty() {
+        synchronized (this) {
+            return _retired.isEmpty() && _current.size() == 0;
+        }
+    }
+
+    @VisibleForTesting
+    int writerCount() {
+        return _writerCount.get();
+    }
+
+    private Writer register() {
+        Writer writer = new Writer(Thread.currentThread());
+        _writers.add(writer);
+        if (_writerCount.incrementAndGet() >= _pruneWritersAt) {
+            pruneWriters();
+        }
+        return writer;
+    }
+
+    private synchronized void pruneWriters() {
+        for (Writer writer : _writers) {
+            if (writer.isGone()) {
+                remove(writer);
+            }
+        }
+        _pruneWritersAt = Math.max(MIN_WRITERS_BEFORE_PRUNING, 2 * _writerCount.get());
+    }
+
+    private void remove(Writer writer) {
+        if (_writers.remove(writer)) {
+            _writerCount.decrementAndGet();
+        }
+    }
+
+    /**
+     * Waits for the writers still adding to any of the given generations, and forgets the ones whose thread is gone.
+     * <p/>
+     * A writer publishes its generation before checking it's still current, and popping replaces the current one
+     * before reading what writers published, so either the writer sees the new generation and doesn't add to the old
+     * one, or popping sees the writer and waits for it.
+     */
+    private void awaitWriters(List<Generation> generations) {
+        for (Iterator<Writer> it = _writers.iterator(); it.hasNext(); ) {
+            Writer writer = it.next();
+            Generation generation;
+            while ((generation = writer._generation) != null && generations.contains(generation)) {
+                Thread.yield();
+            }
+            if (writer.isGone()) {
+                remove(writer);
+            }
+        }
+    }
+
+    private synchronized void grow(Generation full) {
+        if (_current != full) {
+            return; // Someone else grew or popped it
+        }
+        _retired.add(full);
+        _current = new Generation(full.capacity() * 2);
+    }
+
+    private interface CountConsumer {
+        void accept(String featureName, long hour, long count);
+    }
+
+    /**
+     * A thread counting impressions. Each thread allocates its own, so they don't share cache lines.
+     */
+    private static final class Writer {
+        private final WeakReference<Thread> _thread;
+        private volatile Generation _generation;
+
+        Writer(Thread thread) {
+            _thread = new WeakReference<>(thread);
+        }
+
+        /**
+         * A thread that ended never writes again, and it's only through the writer that its counts are waited for,
+         * which it can't be in the middle of either.
+         */
+        boolean isGone() {
+            Thread thread = _thread.get();
+            return thread == null || !thread.isAlive();
+        }
+    }
+
+    /**
+     * Fixed capacity map from (hour, feature id) keys to counters, which is never resized: a full generation is retired
+     * and replaced by a larger one.
+     */
+    private static final class Generation {
+        private final ConcurrentHashMap<String, Integer> _featureIds = new ConcurrentHashMap<>();
+        private final AtomicInteger _nextFeatureId = new AtomicInteger(1); // 0 would make the key of hour 0 empty
+        private final AtomicLongArray _keys;
+        private final AtomicReferenceArray<LongAdder> _counts;
+        private final int _mask;
+        private final int _maxSize;
+        private final AtomicInteger _size = new AtomicInteger();
+
+        Generation(int capacity) {
+            _keys = new AtomicLongArray(capacity);
+            _counts = new AtomicReferenceArray<>(capacity);
+            _mask = capacity - 1;
+            _maxSize = capacity - (capacity >> 2);
+        }
+
+        int capacity() {
+            return _keys.length();
+        }
+
+        int size() {
+            return _size.get();
+        }
+
+        /**
+         * @return false if the key isn't in the map and there's no room for it.
+         */
+        boolean add(long hour, String featureName, int amount) {
+            long key = (hour << 32) | featureId(featureName);
+            int slot = (int) mix(key) & _mask;
+            for (int probes = 0; probes <= _mask; probes++, slot = (slot + 1) & _mask) {
+                long current = _keys.get(slot);
+                if (current == 0) {
+                    if (_size.get() >= _maxSize) {
+                        return false;
+                    }
+                    if (!_keys.compareAndSet(slot, 0, key)) {
+                        current = _keys.get(slot);
+                    } else {
+                        _size.incrementAndGet();
+                        current = key;
+                    }
+                }
+                if (current == key) {
+                    counter(slot).add(amount);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void forEach(CountConsumer consumer) {
+            Map<Integer, String> featureNames = new HashMap<>();
+            for (Map.Entry<String, Integer> entry : _featureIds.entrySet()) {
+                featureNames.put(entry.getValue(), entry.getKey());
+            }
+            for (int slot = 0; slot <= _mask; slot++) {
+                LongAdder count = _counts.get(slot);
+                if (count != null) {
+                    long key = _keys.get(slot);
+                    consumer.accept(featureNames.get((int) key), key >> 32, count.sum());
+                }
+            }
+        }
+
+        private int featureId(String featureName) {
+            Integer id = _featureIds.get(featureName);
+            if (id != null) {
+                return id;
+            }
+            return _featureIds.computeIfAbsent(featureName, name -> _nextFeatureId.getAndIncrement());
+        }
+
+        private LongAdder counter(int slot) {
+            LongAdder count = _counts.get(slot);
+            if (count == null) {
+                _counts.compareAndSet(slot, null, new LongAdder());
+                count = _counts.get(slot);
+            }
+            return count;
+        }
+
+        private static long mix(long key) {
+            key *= 0x9E3779B97F4A7C15L;
+            return key ^ (key >>> 32);
+        }
+    }
 }
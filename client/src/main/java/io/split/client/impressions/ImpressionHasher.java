@@ -2,10 +2,22 @@ package io.split.client.impressions;
 
 import io.split.client.utils.MurmurHash3;
 
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
 public class ImpressionHasher {
 
     private static final String HASHABLE_FORMAT = "%s:%s:%s:%s:%d";
     private static final String UNKNOWN = "UNKNOWN";
+    private static final char SEPARATOR = ':';
+
+    private static final ThreadLocal<MurmurHash3.Hasher128x64> HASHER = ThreadLocal.withInitial(MurmurHash3.Hasher128x64::new);
+
+    // Hashes have always been computed over String.format(...).getBytes(). Streaming them is only equivalent when the
+    // default charset is UTF-8 and the default locale formats numbers with ASCII digits, which is the usual setup.
+    private static final boolean STREAMING_COMPATIBLE = streamingCompatible(Charset.defaultCharset(), Locale.getDefault(Locale.Category.FORMAT));
 
     private static String unknownIfNull(String s) {
         return (s == null) ? UNKNOWN : s;
@@ -19,6 +31,19 @@ public class ImpressionHasher {
         if (null == impression) {
             return null;
         }
+        if (!STREAMING_COMPATIBLE) {
+            return processFormatted(impression);
+        }
+        return HASHER.get().reset(0)
+                .putUtf8(unknownIfNull(impression.key())).putByte(SEPARATOR)
+                .putUtf8(unknownIfNull(impression.split())).putByte(SEPARATOR)
+                .putUtf8(unknownIfNull(impression.treatment())).putByte(SEPARATOR)
+                .putUtf8(unknownIfNull(impression.appliedRule())).putByte(SEPARATOR)
+                .putDecimal(impression.changeNumber() == null ? 0 : impression.changeNumber())
+                .hash64();
+    }
+
+    /* package private */ static Long processFormatted(Impression impression) {
         return MurmurHash3.hash128x64(String.format(HASHABLE_FORMAT,
                 unknownIfNull(impression.key()),
                 unknownIfNull(impression.split()),
@@ -26,4 +51,9 @@ public class ImpressionHasher {
                 unknownIfNull(impression.appliedRule()),
                 zeroIfNull(impression.changeNumber())).getBytes())[0];
     }
+
+    /* package private */ static boolean streamingCompatible(Charset charset, Locale locale) {
+        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(locale);
+        return StandardCharsets.UTF_8.equals(charset) && symbols.getZeroDigit() == '0' && symbols.getMinusSign() == '-';
+    }
 }
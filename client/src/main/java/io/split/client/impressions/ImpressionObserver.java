@@ -1,37 +1,35 @@
 package io.split.client.impressions;
 
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
-
-import java.util.Objects;
-
-/*
-According to guava's docs (https://guava.dev/releases/18.0/api/docs/com/google/common/annotations/Beta.html),
-the @Beta decorator only means that the api is not frozen, and has nothing to do with behaviour stability, but
-rather to a non-frozen API which may introduce breaking changes at any time in future versions.
-Since the library is shaded and should not be exposed to users of the SDK, it's safe to use it here.
- */
-
-@SuppressWarnings("UnstableApiUsage")
 public class ImpressionObserver {
 
-    private final Cache<Long, Long> _cache;
+    private final LastSeenTable _table;
 
     public ImpressionObserver(long size) {
-        _cache = CacheBuilder.newBuilder()
-                .maximumSize(size)
-                .concurrencyLevel(4)  // Just setting the default value explicitly
-                .build();
+        _table = new LastSeenTable(size);
     }
-    
+
     public Long testAndSet(Impression impression) {
         if (null == impression) {
             return null;
         }
 
-        Long hash = ImpressionHasher.process(impression);
-        Long previous = _cache.getIfPresent(hash);
-        _cache.put(hash, impression.time());
-        return (Objects.isNull(previous)) ? null : Math.min(previous, impression.time());
+        long previous = _table.testAndSet(ImpressionHasher.process(impression), impression.time());
+        return (previous == LastSeenTable.NOT_SEEN) ? null : Math.min(previous, impression.time());
+    }
+
+    /**
+     * @return fraction of the impressions observed so far that had already been seen, between 0 and 1.
+     */
+    public double hitRate() {
+        long hits = _table.hits();
+        long total = hits + _table.misses();
+        return (total == 0) ? 0 : (double) hits / total;
+    }
+
+    /**
+     * @return approximate number of bytes taken by the hashes of the impressions seen, which doesn't change over time.
+     */
+    public long memoryUsageInBytes() {
+        return _table.memoryUsageInBytes();
     }
-}
\ No newline at end of file
+}
@@ -4,7 +4,12 @@ public interface ImpressionsManager {
 
     public enum Mode {
         OPTIMIZED,
-        DEBUG
+        DEBUG,
+        /**
+         * Impressions aren't sent, only how many there were per feature and hour, and which keys got a treatment for
+         * each feature.
+         */
+        NONE
     }
 
     void track(Impression impression);
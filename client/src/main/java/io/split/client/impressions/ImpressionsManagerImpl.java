@@ -1,10 +1,14 @@
 package io.split.client.impressions;
 
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import io.split.client.SplitClientConfig;
 import io.split.client.dtos.KeyImpression;
 import io.split.client.dtos.TestImpressions;
+import io.split.client.spool.Spool;
+import io.split.client.utils.MpscRingBuffer;
+import io.split.client.utils.PostResult;
+import com.google.gson.reflect.TypeToken;
+import io.split.engine.common.SDKScheduler;
 import io.split.telemetry.domain.enums.ImpressionsDataTypeEnum;
 import io.split.telemetry.storage.TelemetryRuntimeProducer;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
@@ -12,14 +16,20 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.Closeable;
+import java.io.File;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -31,25 +41,53 @@ public class ImpressionsManagerImpl implements ImpressionsManager, Closeable {
     private static final Logger _log = LoggerFactory.getLogger(ImpressionsManagerImpl.class);
 
     private static final long BULK_INITIAL_DELAY_SECONDS = 10L;
+    private static final long MIN_FLUSH_INTERVAL_MILLIS = 1000L;
     private static final long COUNT_INITIAL_DELAY_SECONDS = 100L;
     private static final long COUNT_REFRESH_RATE_SECONDS = 30 * 60;
-    private static final long LAST_SEEN_CACHE_SIZE = 500000; // cache up to 500k impression hashes
+    private static final long UNIQUE_KEYS_INITIAL_DELAY_SECONDS = 100L;
+    private static final long UNIQUE_KEYS_REFRESH_RATE_SECONDS = 15 * 60;
+    private static final long MAX_BULK_SIZE_BYTES = 5 * 1024 * 1024L;
+    private static final int POP_STEP = 100;
+    private static final int IMPRESSION_SIZE_OVERHEAD = 64; // Field names, separators, times and change number
+    private static final long SENDER_WAIT_MILLIS = 1000L;
+    private static final String IMPRESSIONS_SPOOL = "impressions";
 
     private final SplitClientConfig _config;
-    private final ImpressionsStorage _storage;
+    private final RingBufferImpressionsStorage _storage;
     private final ScheduledExecutorService _scheduler;
+    private final ExecutorService _senderExecutor;
+    private final Semaphore _inFlightBulks;
+    private final ReentrantLock _flushLock = new ReentrantLock();
+    private final AdaptiveFlushPolicy _flushPolicy;
+    private final AtomicBoolean _earlyFlushPending = new AtomicBoolean();
+    private final Object _nextFlushLock = new Object();
     private final ImpressionsSender _impressionsSender;
     private final ImpressionObserver _impressionObserver;
     private final ImpressionCounter _counter;
+    private final UniqueKeysTracker _uniqueKeysTracker;
+    private final AtomicBoolean _uniqueKeysFlushPending = new AtomicBoolean();
     private final ImpressionListener _listener;
     private final ImpressionsManager.Mode _mode;
     private final TelemetryRuntimeProducer _telemetryRuntimeProducer;
+    private final Spool<List<TestImpressions>> _spool;
+    private final MpscRingBuffer<KeyImpression> _overflow; // Impressions that didn't fit in the queue, for the flusher to spool
+
+    private ScheduledFuture<?> _nextFlush; // Next adaptive flush, guarded by _nextFlushLock
+    private boolean _closed; // Guarded by _nextFlushLock
 
     public static ImpressionsManagerImpl instance(CloseableHttpClient client,
                                                   SplitClientConfig config,
                                                   List<ImpressionListener> listeners,
                                                   TelemetryRuntimeProducer telemetryRuntimeProducer) throws URISyntaxException {
-        return new ImpressionsManagerImpl(client, config, null, listeners, telemetryRuntimeProducer);
+        return instance(client, config, listeners, telemetryRuntimeProducer, SDKScheduler.defaultScheduler());
+    }
+
+    public static ImpressionsManagerImpl instance(CloseableHttpClient client,
+                                                  SplitClientConfig config,
+                                                  List<ImpressionListener> listeners,
+                                                  TelemetryRuntimeProducer telemetryRuntimeProducer,
+                                                  SDKScheduler scheduler) throws URISyntaxException {
+        return new ImpressionsManagerImpl(client, config, null, listeners, telemetryRuntimeProducer, scheduler);
     }
 
     public static ImpressionsManagerImpl instanceForTest(CloseableHttpClient client,
@@ -57,30 +95,61 @@ public class ImpressionsManagerImpl implements ImpressionsManager, Closeable {
                                                          ImpressionsSender impressionsSender,
                                                          List<ImpressionListener> listeners,
                                                          TelemetryRuntimeProducer telemetryRuntimeProducer) throws URISyntaxException {
-        return new ImpressionsManagerImpl(client, config, impressionsSender, listeners, telemetryRuntimeProducer);
+        return new ImpressionsManagerImpl(client, config, impressionsSender, listeners, telemetryRuntimeProducer, SDKScheduler.defaultScheduler());
     }
 
     private ImpressionsManagerImpl(CloseableHttpClient client,
                                    SplitClientConfig config,
                                    ImpressionsSender impressionsSender,
                                    List<ImpressionListener> listeners,
-                                   TelemetryRuntimeProducer telemetryRuntimeProducer) throws URISyntaxException {
+                                   TelemetryRuntimeProducer telemetryRuntimeProducer,
+                                   SDKScheduler scheduler) throws URISyntaxException {
 
 
         _config = checkNotNull(config);
         _mode = checkNotNull(config.impressionsMode());
         _telemetryRuntimeProducer = checkNotNull(telemetryRuntimeProducer);
-        _storage = new InMemoryImpressionsStorage(config.impressionsQueueSize());
-        _impressionObserver = new ImpressionObserver(LAST_SEEN_CACHE_SIZE);
+        // Nothing is queued nor deduped in NONE mode, so the storage and the observer are kept as small as possible
+        _storage = new RingBufferImpressionsStorage(Mode.NONE.equals(_mode) ? 1 : config.impressionsQueueSize(), config.impressionsQueueStripes());
+        _impressionObserver = Mode.NONE.equals(_mode) ? null : new ImpressionObserver(config.lastSeenCacheSize());
         _counter = new ImpressionCounter();
+        _uniqueKeysTracker = new UniqueKeysTracker(config.uniqueKeysMaxSize());
         _impressionsSender = (null != impressionsSender) ? impressionsSender
-                : HttpImpressionsSender.create(client, URI.create(config.eventsEndpoint()), _mode, telemetryRuntimeProducer);
+                : HttpImpressionsSender.create(client, URI.create(config.eventsEndpoint()), URI.create(config.telemetryURL()), _mode,
+                        telemetryRuntimeProducer, config.payloadCompressionEnabled());
 
-        _scheduler = buildExecutor();
-        _scheduler.scheduleAtFixedRate(this::sendImpressions, BULK_INITIAL_DELAY_SECONDS, config.impressionsRefreshRate(), TimeUnit.SECONDS);
-        if (Mode.OPTIMIZED.equals(_mode)) {
+        _inFlightBulks = new Semaphore(config.impressionsMaxInFlightBulks());
+        _senderExecutor = scheduler.newBoundedExecutor("Split-ImpressionsSender", config.impressionsMaxInFlightBulks(),
+                config.impressionsMaxInFlightBulks());
+
+        _spool = config.spoolDirectory() != null
+                ? Spool.open(new File(config.spoolDirectory(), IMPRESSIONS_SPOOL), new TypeToken<List<TestImpressions>>() { }.getType(), config)
+                : null;
+        _overflow = _spool != null ? new MpscRingBuffer<>(config.impressionsBulkSize()) : null;
+
+        _scheduler = scheduler.newScheduledExecutor("Split-ImpressionsManager", 2);
+        if (!Mode.NONE.equals(_mode) && config.impressionsAdaptiveFlushEnabled()) {
+            _flushPolicy = new AdaptiveFlushPolicy(config.impressionsQueueSize(), MIN_FLUSH_INTERVAL_MILLIS,
+                    TimeUnit.SECONDS.toMillis(config.impressionsRefreshRate()));
+            synchronized (_nextFlushLock) {
+                _nextFlush = _scheduler.schedule(this::scheduledFlush, BULK_INITIAL_DELAY_SECONDS, TimeUnit.SECONDS);
+            }
+        } else {
+            _flushPolicy = null;
+            if (!Mode.NONE.equals(_mode)) {
+                _scheduler.scheduleAtFixedRate(this::flush, BULK_INITIAL_DELAY_SECONDS, config.impressionsRefreshRate(), TimeUnit.SECONDS);
+            }
+        }
+        if (!Mode.DEBUG.equals(_mode)) {
             _scheduler.scheduleAtFixedRate(this::sendImpressionCounters, COUNT_INITIAL_DELAY_SECONDS, COUNT_REFRESH_RATE_SECONDS, TimeUnit.SECONDS);
         }
+        if (Mode.NONE.equals(_mode)) {
+            _scheduler.scheduleAtFixedRate(this::sendUniqueKeys, UNIQUE_KEYS_INITIAL_DELAY_SECONDS, UNIQUE_KEYS_REFRESH_RATE_SECONDS, TimeUnit.SECONDS);
+        }
+
+        if (_spool != null) {
+            _spool.startReplay(_scheduler, config.spoolReplayRate(), _impressionsSender::postImpressionsBulk);
+        }
 
         _listener = (null != listeners && !listeners.isEmpty()) ? new ImpressionListener.FederatedImpressionListener(listeners)
                 : new ImpressionListener.NoopImpressionListener();
@@ -97,6 +166,19 @@ public class ImpressionsManagerImpl implements ImpressionsManager, Closeable {
             return;
         }
 
+        if (Mode.NONE.equals(_mode)) {
+            _listener.log(impression);
+            _counter.inc(impression.split(), impression.time(), 1);
+            if (_uniqueKeysTracker.track(impression.split(), impression.key()) && _uniqueKeysFlushPending.compareAndSet(false, true)) {
+                try {
+                    _scheduler.execute(this::sendUniqueKeys);
+                } catch (RejectedExecutionException e) {
+                    _uniqueKeysFlushPending.set(false);
+                }
+            }
+            return;
+        }
+
         impression = impression.withPreviousTime(_impressionObserver.testAndSet(impression));
         _listener.log(impression);
 
@@ -108,11 +190,31 @@ public class ImpressionsManagerImpl implements ImpressionsManager, Closeable {
             _telemetryRuntimeProducer.recordImpressionStats(ImpressionsDataTypeEnum.IMPRESSIONS_DEDUPED, 1);
             return;
         }
-        if (!_storage.put(KeyImpression.fromImpression(impression))) {
-            _telemetryRuntimeProducer.recordImpressionStats(ImpressionsDataTypeEnum.IMPRESSIONS_DROPPED, 1);
-            return;
+        KeyImpression keyImpression = KeyImpression.fromImpression(impression);
+        boolean overflowed = false;
+        if (!_storage.put(keyImpression)) {
+            if (_overflow == null || !_overflow.offer(keyImpression)) {
+                _telemetryRuntimeProducer.recordImpressionStats(ImpressionsDataTypeEnum.IMPRESSIONS_DROPPED, 1);
+                return;
+            }
+            overflowed = true;
         }
         _telemetryRuntimeProducer.recordImpressionStats(ImpressionsDataTypeEnum.IMPRESSIONS_QUEUED, 1);
+        if (overflowed || isAboveHighWatermark()) {
+            requestEarlyFlush();
+        }
+    }
+
+    /**
+     * @return number of impressions tracked but not yet sent.
+     */
+    public long queueDepth() {
+        return _storage.size();
+    }
+
+    @VisibleForTesting
+    /* package private */ long overflowDepth() {
+        return _overflow == null ? 0 : _overflow.size();
     }
 
     @Override
@@ -120,34 +222,275 @@ public class ImpressionsManagerImpl implements ImpressionsManager, Closeable {
         try {
             _listener.close();
             _log.info("Successful shutdown of ImpressionListener");
+            cancelNextFlush();
             _scheduler.shutdown();
             sendImpressions();
+            if (Mode.NONE.equals(_mode)) {
+                sendImpressionCounters();
+                sendUniqueKeys();
+            }
+            _senderExecutor.shutdown();
+            if (_config.debugEnabled() && _impressionObserver != null) {
+                _log.info(String.format("Impressions dedupe table took %d bytes, %.2f%% of the impressions tracked had already been seen",
+                        _impressionObserver.memoryUsageInBytes(), _impressionObserver.hitRate() * 100));
+            }
             _scheduler.awaitTermination(_config.waitBeforeShutdown(), TimeUnit.MILLISECONDS);
+            _senderExecutor.awaitTermination(_config.waitBeforeShutdown(), TimeUnit.MILLISECONDS);
+            if (_spool != null) {
+                _spool.close();
+            }
         } catch (Exception e) {
             _log.warn("Unable to close ImpressionsManager properly", e);
         }
 
     }
 
+    /**
+     * Flushes the queue and waits for the bulks posted to be sent, waiting up to waitBeforeShutdown for each sender.
+     */
     @VisibleForTesting
     /* package private */ void sendImpressions() {
-        if (_storage.isFull()) {
+        _flushLock.lock();
+        try {
+            flushImpressions(_config.waitBeforeShutdown());
+        } finally {
+            _flushLock.unlock();
+        }
+        requestEarlyFlushIfDue();
+        awaitInFlightBulks();
+    }
+
+    private void flush() {
+        _flushLock.lock();
+        try {
+            flushImpressions(SENDER_WAIT_MILLIS);
+        } finally {
+            _flushLock.unlock();
+        }
+        requestEarlyFlushIfDue();
+    }
+
+    private void awaitInFlightBulks() {
+        int senders = _config.impressionsMaxInFlightBulks();
+        try {
+            if (_inFlightBulks.tryAcquire(senders, _config.waitBeforeShutdown(), TimeUnit.MILLISECONDS)) {
+                _inFlightBulks.release(senders);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void scheduledFlush() {
+        try {
+            flush();
+        } catch (Exception e) {
+            _log.warn("Unable to flush impressions", e);
+        } finally {
+            synchronized (_nextFlushLock) {
+                try {
+                    if (!_closed) {
+                        _nextFlush = _scheduler.schedule(this::scheduledFlush, _flushPolicy.nextDelayMillis(), TimeUnit.MILLISECONDS);
+                    }
+                } catch (RejectedExecutionException e) {
+                    // Shutting down, close() flushes what's left
+                }
+            }
+        }
+    }
+
+    /**
+     * One-shot tasks still run after the scheduler shuts down, so a pending adaptive flush would hold close() until it
+     * fires. close() flushes what's left anyway.
+     */
+    private void cancelNextFlush() {
+        synchronized (_nextFlushLock) {
+            _closed = true;
+            if (_nextFlush != null) {
+                _nextFlush.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Starts a flush right away, unless one is already running or about to, which will drain the queue anyway.
+     */
+    private void requestEarlyFlush() {
+        if (!_earlyFlushPending.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            _scheduler.execute(() -> {
+                try {
+                    if (_flushLock.tryLock()) {
+                        try {
+                            flushImpressions(SENDER_WAIT_MILLIS);
+                        } finally {
+                            _flushLock.unlock();
+                        }
+                    }
+                } finally {
+                    _earlyFlushPending.set(false);
+                }
+                // Whoever holds the lock checks again once done
+                if (!_flushLock.isLocked()) {
+                    requestEarlyFlushIfDue();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            _earlyFlushPending.set(false);
+        }
+    }
+
+    /**
+     * Requests made while an early flush was pending are dropped, so after each flush this checks whether impressions
+     * overflowed or the queue went back above its high watermark in the meantime, instead of leaving them for the next
+     * scheduled flush.
+     */
+    private void requestEarlyFlushIfDue() {
+        if (overflowDepth() > 0 || isAboveHighWatermark()) {
+            requestEarlyFlush();
+        }
+    }
+
+    private boolean isAboveHighWatermark() {
+        return _flushPolicy != null && _flushPolicy.isAboveHighWatermark(_storage.size());
+    }
+
+    /**
+     * Hands the queue over to the senders one bulk at a time. A bulk is only popped once a sender is free, if none frees
+     * up within senderWaitMillis the flush stops and leaves the rest queued for the next one. That's the backpressure
+     * against a slow endpoint: the queue fills up and further impressions overflow to the spool or get dropped, while
+     * the flushing thread is never stuck in a post.
+     */
+    private void flushImpressions(long senderWaitMillis) {
+        spoolOverflow();
+        boolean queueWasFull = _storage.isFull();
+        if (queueWasFull) {
             _log.warn("Split SDK impressions queue is full. Impressions may have been dropped. Consider increasing capacity.");
         }
 
         long start = System.currentTimeMillis();
-        List<KeyImpression> impressions = _storage.pop();
-        if (impressions.isEmpty()) {
-            return; // Nothing to send
+        int impressions = 0;
+        int bulks = 0;
+        while (_storage.size() > 0) {
+            if (!acquireSender(senderWaitMillis)) {
+                _log.warn(String.format("No impressions sender freed up in %d millis, leaving %d impressions queued",
+                        senderWaitMillis, _storage.size()));
+                break;
+            }
+            List<KeyImpression> bulk = popBulk();
+            if (bulk.isEmpty()) {
+                _inFlightBulks.release();
+                break;
+            }
+            postBulkAsync(bulk);
+            impressions += bulk.size();
+            bulks++;
+        }
+
+        if (_flushPolicy != null) {
+            _flushPolicy.recordFlush(start, impressions, System.currentTimeMillis() - start, queueWasFull);
+        }
+
+        if (impressions > 0 && _config.debugEnabled()) {
+            _log.info(String.format("Handing %d Split impressions over to the senders in %d requests took %d millis",
+                    impressions, bulks, (System.currentTimeMillis() - start)));
+        }
+    }
+
+    /**
+     * Pops up to impressionsBulkSize impressions, stopping earlier once they take about MAX_BULK_SIZE_BYTES.
+     */
+    private List<KeyImpression> popBulk() {
+        int bulkSize = _config.impressionsBulkSize();
+        List<KeyImpression> bulk = new ArrayList<>(Math.min(bulkSize, POP_STEP));
+        long bytes = 0;
+        while (bulk.size() < bulkSize && bytes < MAX_BULK_SIZE_BYTES) {
+            List<KeyImpression> popped = _storage.pop(Math.min(POP_STEP, bulkSize - bulk.size()));
+            if (popped.isEmpty()) {
+                break;
+            }
+            for (KeyImpression impression : popped) {
+                bytes += estimatedSize(impression);
+            }
+            bulk.addAll(popped);
+        }
+        return bulk;
+    }
+
+    private boolean acquireSender(long waitMillis) {
+        try {
+            return _inFlightBulks.tryAcquire(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
         }
+    }
 
-        _impressionsSender.postImpressionsBulk(TestImpressions.fromKeyImpressions(impressions));
-        if (_config.debugEnabled()) {
-            _log.info(String.format("Posting %d Split impressions took %d millis",
-                    impressions.size(), (System.currentTimeMillis() - start)));
+    /**
+     * Posts the bulk on a sender, releasing the sender slot acquired by the caller once done. The sender executor only
+     * rejects it once closed, and then the bulk is posted from this thread instead.
+     */
+    private void postBulkAsync(List<KeyImpression> bulk) {
+        try {
+            _senderExecutor.execute(() -> {
+                try {
+                    postBulk(bulk);
+                } finally {
+                    _inFlightBulks.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            try {
+                postBulk(bulk);
+            } finally {
+                _inFlightBulks.release();
+            }
         }
     }
 
+    private void postBulk(List<KeyImpression> bulk) {
+        List<TestImpressions> impressions = TestImpressions.fromKeyImpressions(bulk);
+        PostResult result = _impressionsSender.postImpressionsBulk(impressions);
+        if (result == PostResult.RETRYABLE) {
+            if (_spool != null && !spool(impressions)) {
+                _telemetryRuntimeProducer.recordImpressionStats(ImpressionsDataTypeEnum.IMPRESSIONS_DROPPED, bulk.size());
+            }
+        } else if (result == PostResult.REJECTED) {
+            _log.warn(String.format("Dropping %d impressions rejected by the server", bulk.size()));
+        }
+    }
+
+    private boolean spool(List<TestImpressions> impressions) {
+        return _spool != null && _spool.offer(impressions);
+    }
+
+    /**
+     * Writes the impressions that didn't fit in the queue to the spool, off the threads that tracked them. Only called
+     * with the flush lock held, the overflow buffer takes a single consumer.
+     */
+    private void spoolOverflow() {
+        if (_overflow == null || _overflow.size() == 0) {
+            return;
+        }
+        List<KeyImpression> overflow = new ArrayList<>();
+        _overflow.drainTo(overflow, Integer.MAX_VALUE);
+        if (!overflow.isEmpty() && !spool(TestImpressions.fromKeyImpressions(overflow))) {
+            _log.warn(String.format("Unable to spool %d impressions that didn't fit in the queue, dropping them", overflow.size()));
+            _telemetryRuntimeProducer.recordImpressionStats(ImpressionsDataTypeEnum.IMPRESSIONS_DROPPED, overflow.size());
+        }
+    }
+
+    private static long estimatedSize(KeyImpression impression) {
+        return IMPRESSION_SIZE_OVERHEAD + length(impression.keyName) + length(impression.bucketingKey)
+                + length(impression.treatment) + length(impression.label);
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
     @VisibleForTesting
         /* package private */ void sendImpressionCounters() {
         if (!_counter.isEmpty()) {
@@ -155,11 +498,11 @@ public class ImpressionsManagerImpl implements ImpressionsManager, Closeable {
         }
     }
 
-    private ScheduledExecutorService buildExecutor() {
-        ThreadFactory threadFactory = new ThreadFactoryBuilder()
-                .setDaemon(true)
-                .setNameFormat("Split-ImpressionsManager-%d")
-                .build();
-        return Executors.newScheduledThreadPool(2, threadFactory);
+    @VisibleForTesting
+    /* package private */ void sendUniqueKeys() {
+        _uniqueKeysFlushPending.set(false);
+        if (!_uniqueKeysTracker.isEmpty()) {
+            _impressionsSender.postUniqueKeys(_uniqueKeysTracker.popAll());
+        }
     }
 }
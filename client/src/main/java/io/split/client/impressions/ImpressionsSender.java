@@ -1,15 +1,21 @@
 package io.split.client.impressions;
 
 import io.split.client.dtos.TestImpressions;
+import io.split.client.utils.PostResult;
 
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Created by patricioe on 6/20/16.
  */
 public interface ImpressionsSender {
 
-    void postImpressionsBulk(List<TestImpressions> impressions);
+    /**
+     * @return whether the impressions were accepted, and if not, whether they may be accepted if sent again.
+     */
+    PostResult postImpressionsBulk(List<TestImpressions> impressions);
     void postCounters(HashMap<ImpressionCounter.Key, Integer> raw);
+    void postUniqueKeys(Map<String, List<String>> raw);
 }
@@ -0,0 +1,145 @@
+package io.split.client.impressions;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Fixed size, lossy map from impression hashes to the last time they were seen.
+ *
+ * Entries live in sets of {@link #WAYS} slots, each set taking {@link #SET_LONGS} longs (128 bytes, the size of two
+ * cache lines): a control word followed by the keys and then the values of its slots. The JVM doesn't align array
+ * elements to cache lines, so a set usually spans three of them; what the layout does guarantee is that a lookup only
+ * touches one contiguous 128-byte block. A hash can only be stored in the set it maps to, and when that set is full the
+ * slot to reuse is picked with the clock algorithm, so hashes that keep being seen tend to stay while those seen just
+ * once are the first to go. The control word holds a lock bit, the clock's reference bits and its hand; it is taken
+ * with a CAS for the few instructions a {@link #testAndSet(long, long)} needs, so threads only ever wait on each other
+ * when they hit the same set at the same time, and two threads seeing the same hash can't both consider it new.
+ *
+ * Keys and values are plain longs in a single preallocated array: nothing is allocated after construction and memory
+ * usage doesn't depend on what's stored.
+ */
+class LastSeenTable {
+
+    static final long NOT_SEEN = Long.MIN_VALUE;
+
+    private static final int WAYS = 7;
+    private static final int SET_LONGS = 16; // control word + 7 keys + 7 values + 1 padding to a power of two
+    private static final int KEYS_OFFSET = 1;
+    private static final int VALUES_OFFSET = KEYS_OFFSET + WAYS;
+
+    private static final long EMPTY = 0L;
+    private static final long LOCKED = 1L;
+    private static final int REFERENCED_SHIFT = 1;
+    private static final int HAND_SHIFT = REFERENCED_SHIFT + WAYS;
+
+    private final AtomicLongArray _table;
+    private final int _sets;
+    private final LongAdder _hits = new LongAdder();
+    private final LongAdder _misses = new LongAdder();
+
+    /**
+     * @param capacity number of hashes that can be held. Rounded up to a multiple of the set size.
+     */
+    LastSeenTable(long capacity) {
+        checkArgument(capacity > 0, "capacity must be > 0");
+        long sets = (capacity + WAYS - 1) / WAYS;
+        checkArgument(sets * SET_LONGS <= Integer.MAX_VALUE, "capacity is too large: %s", capacity);
+        _sets = (int) sets;
+        _table = new AtomicLongArray(_sets * SET_LONGS);
+    }
+
+    /**
+     * Records that the given hash was seen at the given time.
+     *
+     * @return the time previously stored for the hash, or {@link #NOT_SEEN} if it wasn't in the table.
+     */
+    long testAndSet(long hash, long time) {
+        if (hash == EMPTY) {
+            hash = 1; // 0 marks empty slots
+        }
+
+        int base = setIndex(hash) * SET_LONGS;
+        long control = lock(base);
+        try {
+            int free = -1;
+            for (int way = 0; way < WAYS; way++) {
+                long key = _table.get(base + KEYS_OFFSET + way);
+                if (key == hash) {
+                    long previous = _table.get(base + VALUES_OFFSET + way);
+                    _table.lazySet(base + VALUES_OFFSET + way, time);
+                    control |= referencedBit(way);
+                    _hits.increment();
+                    return previous;
+                }
+                if (key == EMPTY && free < 0) {
+                    free = way;
+                }
+            }
+
+            int way = free;
+            if (way < 0) {
+                // Clock: skip (and clear) recently referenced slots, reuse the first one that wasn't
+                int hand = (int) (control >>> HAND_SHIFT);
+                while ((control & referencedBit(hand)) != 0) {
+                    control &= ~referencedBit(hand);
+                    hand = (hand + 1) % WAYS;
+                }
+                way = hand;
+                control = (control & ~(-1L << HAND_SHIFT)) | ((long) ((hand + 1) % WAYS) << HAND_SHIFT);
+            }
+            _table.lazySet(base + KEYS_OFFSET + way, hash);
+            _table.lazySet(base + VALUES_OFFSET + way, time);
+            control &= ~referencedBit(way); // Only hashes seen again get a second chance
+            _misses.increment();
+            return NOT_SEEN;
+        } finally {
+            _table.set(base, control & ~LOCKED);
+        }
+    }
+
+    long hits() {
+        return _hits.sum();
+    }
+
+    long misses() {
+        return _misses.sum();
+    }
+
+    /**
+     * @return number of hashes that can be held.
+     */
+    long capacity() {
+        return (long) _sets * WAYS;
+    }
+
+    /**
+     * @return approximate number of bytes taken by the table.
+     */
+    long memoryUsageInBytes() {
+        return (long) _table.length() * Long.BYTES;
+    }
+
+    private int setIndex(long hash) {
+        // Maps the upper half of the hash to [0, sets) without a division
+        return (int) (((hash >>> 32) * _sets) >>> 32);
+    }
+
+    private long lock(int base) {
+        int spins = 0;
+        while (true) {
+            long control = _table.get(base);
+            if ((control & LOCKED) == 0 && _table.compareAndSet(base, control, control | LOCKED)) {
+                return control;
+            }
+            if (++spins % 64 == 0) {
+                Thread.yield();
+            }
+        }
+    }
+
+    private static long referencedBit(int way) {
+        return 1L << (REFERENCED_SHIFT + way);
+    }
+}
@@ -0,0 +1,126 @@
+package io.split.client.impressions;
+
+import io.split.client.dtos.KeyImpression;
+import io.split.client.utils.MpscRingBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Bounded impressions storage that producers write to without taking locks.
+ *
+ * Impressions go into preallocated ring buffers that any number of threads append to by claiming a slot with a CAS,
+ * while a single consumer (the task flushing impressions) drains them. With more than one stripe, each thread
+ * writes to the stripe picked by its id, falling back to the others when it is full, so that producers on
+ * different stripes never touch the same counters. Impressions from a single stripe are popped in order.
+ */
+public class RingBufferImpressionsStorage implements ImpressionsStorage {
+
+    private static final Logger _log = LoggerFactory.getLogger(RingBufferImpressionsStorage.class);
+
+    private final MpscRingBuffer<KeyImpression>[] _stripes;
+    private final int _stripeMask;
+
+    // Only guards the consumer side, producers never take it
+    private final Object _consumerLock = new Object();
+
+    public RingBufferImpressionsStorage(int queueSize) {
+        this(queueSize, 1);
+    }
+
+    /**
+     * @param queueSize total number of impressions that can be held.
+     * @param stripes number of independent buffers producers are spread across, rounded up to a power of two.
+     */
+    public RingBufferImpressionsStorage(int queueSize, int stripes) {
+        checkArgument(queueSize > 0, "queueSize must be > 0");
+        checkArgument(stripes > 0, "stripes must be > 0");
+
+        int stripeCount = Math.min(MpscRingBuffer.nextPowerOfTwo(stripes), MpscRingBuffer.nextPowerOfTwo(queueSize));
+        _stripes = newStripes(stripeCount);
+        _stripeMask = stripeCount - 1;
+
+        int remaining = queueSize;
+        for (int i = 0; i < stripeCount; i++) {
+            int capacity = remaining / (stripeCount - i);
+            _stripes[i] = new MpscRingBuffer<>(capacity);
+            remaining -= capacity;
+        }
+    }
+
+    @Override
+    public boolean put(KeyImpression imp) {
+        if (imp == null) {
+            _log.warn("Unable to send impression to ImpressionsManager: impression is null");
+            return false;
+        }
+
+        int first = (int) Thread.currentThread().getId() & _stripeMask;
+        for (int i = 0; i <= _stripeMask; i++) {
+            if (_stripes[(first + i) & _stripeMask].offer(imp)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean put(List<KeyImpression> imps) {
+        return false;
+    }
+
+    @Override
+    public List<KeyImpression> pop(int count) {
+        synchronized (_consumerLock) {
+            int available = (int) Math.min(count, size());
+            if (available <= 0) {
+                return Collections.emptyList();
+            }
+
+            List<KeyImpression> popped = new ArrayList<>(available);
+            for (MpscRingBuffer<KeyImpression> stripe : _stripes) {
+                if (popped.size() >= available) {
+                    break;
+                }
+                stripe.drainTo(popped, available - popped.size());
+            }
+            return popped;
+        }
+    }
+
+    @Override
+    public List<KeyImpression> pop() {
+        return pop(Integer.MAX_VALUE);
+    }
+
+    @Override
+    public boolean isFull() {
+        for (MpscRingBuffer<KeyImpression> stripe : _stripes) {
+            if (!stripe.isFull()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return an estimate of the number of impressions held.
+     */
+    public long size() {
+        long size = 0;
+        for (MpscRingBuffer<KeyImpression> stripe : _stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static MpscRingBuffer<KeyImpression>[] newStripes(int count) {
+        return (MpscRingBuffer<KeyImpression>[]) new MpscRingBuffer[count];
+    }
+}
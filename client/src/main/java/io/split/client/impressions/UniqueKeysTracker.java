@@ -0,0 +1,96 @@
+package io.split.client.impressions;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Keeps the set of distinct keys that got a treatment for each feature since the last {@link #popAll()}.
+ *
+ * Popping removes keys one by one instead of swapping the sets, so a key added while popping is either popped or left
+ * for the next pop, never lost. Features left without keys are removed, so features no longer evaluated don't pile
+ * up. A set removed that way is drained once more, and a key added to it after that is added again to the feature's
+ * new set by the thread that tracked it.
+ */
+public class UniqueKeysTracker {
+
+    private final ConcurrentHashMap<String, Set<String>> _keysByFeature = new ConcurrentHashMap<>();
+    private final AtomicInteger _size = new AtomicInteger();
+    private final int _maxSize;
+
+    /**
+     * @param maxSize number of keys held, across all features, past which {@link #track(String, String)} asks for them
+     *                to be popped.
+     */
+    public UniqueKeysTracker(int maxSize) {
+        checkArgument(maxSize > 0, "maxSize must be > 0");
+        _maxSize = maxSize;
+    }
+
+    /**
+     * @return true if the tracker is holding maxSize keys or more and should be popped.
+     */
+    public boolean track(String featureName, String key) {
+        checkNotNull(featureName);
+        checkNotNull(key);
+        while (true) {
+            Set<String> keys = _keysByFeature.get(featureName);
+            if (keys == null) {
+                keys = _keysByFeature.computeIfAbsent(featureName, f -> ConcurrentHashMap.newKeySet());
+            }
+            if (!keys.add(key)) {
+                return false;
+            }
+            int size = _size.incrementAndGet();
+            // If popAll() removed the set and drained it before the key got in, take it back and add it to the new set
+            if (_keysByFeature.get(featureName) != keys && keys.remove(key)) {
+                _size.decrementAndGet();
+                continue;
+            }
+            return size >= _maxSize;
+        }
+    }
+
+    public Map<String, List<String>> popAll() {
+        Map<String, List<String>> toReturn = new HashMap<>();
+        for (Map.Entry<String, Set<String>> entry : _keysByFeature.entrySet()) {
+            Set<String> keys = entry.getValue();
+            List<String> popped = new ArrayList<>();
+            drain(keys, popped);
+            if (keys.isEmpty() && _keysByFeature.remove(entry.getKey(), keys)) {
+                drain(keys, popped); // Keys added between the check and the removal
+            }
+            if (!popped.isEmpty()) {
+                _size.addAndGet(-popped.size());
+                toReturn.put(entry.getKey(), popped);
+            }
+        }
+        return toReturn;
+    }
+
+    private static void drain(Set<String> keys, List<String> popped) {
+        for (String key : keys) {
+            if (keys.remove(key)) {
+                popped.add(key);
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        return _size.get() == 0;
+    }
+
+    @VisibleForTesting
+    int featureCount() {
+        return _keysByFeature.size();
+    }
+}
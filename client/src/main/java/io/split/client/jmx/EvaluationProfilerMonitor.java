@@ -0,0 +1,45 @@
+package io.split.client.jmx;
+
+import io.split.client.api.EvaluationProfile;
+import io.split.engine.evaluator.EvaluationProfiler;
+
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+public class EvaluationProfilerMonitor implements EvaluationProfilerMonitorMBean {
+
+    public static final String MONITOR_TYPE = "EvaluationProfiler";
+
+    private final EvaluationProfiler _profiler;
+
+    public EvaluationProfilerMonitor(EvaluationProfiler profiler) {
+        _profiler = checkNotNull(profiler);
+    }
+
+    @Override
+    public int getSampleRate() {
+        return _profiler.sampleRate();
+    }
+
+    @Override
+    public int getProfiledSplits() {
+        return _profiler.size();
+    }
+
+    @Override
+    public String[] topSplits(int n) {
+        List<EvaluationProfile> top = _profiler.top(Math.max(0, n));
+        String[] lines = new String[top.size()];
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = top.get(i).toString();
+        }
+        return lines;
+    }
+
+    @Override
+    public String profile(String featureName) {
+        EvaluationProfile profile = _profiler.get(featureName);
+        return profile == null ? null : profile.toString();
+    }
+}
@@ -0,0 +1,29 @@
+package io.split.client.jmx;
+
+/**
+ * JMX Interface to the profiles of sampled evaluations of each Split.
+ */
+public interface EvaluationProfilerMonitorMBean {
+
+    /**
+     * @return 1 in how many evaluations are profiled.
+     */
+    int getSampleRate();
+
+    /**
+     * @return the number of Splits with at least one profiled evaluation.
+     */
+    int getProfiledSplits();
+
+    /**
+     * @param n how many Splits to return
+     * @return the Splits whose profiled evaluations took the most time, one line each, highest first.
+     */
+    String[] topSplits(int n);
+
+    /**
+     * @param featureName the name of the feature
+     * @return the profile of this feature, by condition and matcher type, or null if none of its evaluations was profiled.
+     */
+    String profile(String featureName);
+}
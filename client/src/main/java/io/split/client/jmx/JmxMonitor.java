@@ -30,7 +30,7 @@ public class JmxMonitor {
         mbs = ManagementFactory.getPlatformMBeanServer();
     }
 
-    public static JmxMonitor getInstance() {
+    public static synchronized JmxMonitor getInstance() {
         if (monitorInstance == null) {
             monitorInstance = new JmxMonitor();
         }
@@ -41,8 +41,18 @@ public class JmxMonitor {
     public void registerMonitor(String name, String monitorType, Object monitoringInterface)
             throws MalformedObjectNameException, InstanceAlreadyExistsException,
             MBeanRegistrationException, NotCompliantMBeanException {
+        registerMonitor(name, monitorType, null, monitoringInterface);
+    }
+
+    /**
+     * @param instance added to the name as its name key, to tell apart monitors of the same type. Can be null.
+     * @return false if a monitor was already registered with the same name.
+     */
+    public boolean registerMonitor(String name, String monitorType, String instance, Object monitoringInterface)
+            throws MalformedObjectNameException, InstanceAlreadyExistsException,
+            MBeanRegistrationException, NotCompliantMBeanException {
 
-        String monitorName = generateMonitorName(name, monitorType);
+        String monitorName = generateMonitorName(name, monitorType, instance);
         log.info("Registering JMX {}", monitorName);
 
         ObjectName oName = new ObjectName(monitorName);
@@ -50,17 +60,24 @@ public class JmxMonitor {
         // Check if the monitor is already registered
         if (mbs.isRegistered(oName)) {
             log.info("Monitor already registered: {}", oName);
-            return;
+            return false;
         }
 
         mbs.registerMBean(monitoringInterface, oName);
+        return true;
     }
 
     public void unregisterMonitor(String name, String monitorType)
             throws MalformedObjectNameException, InstanceAlreadyExistsException,
             MBeanRegistrationException, NotCompliantMBeanException {
+        unregisterMonitor(name, monitorType, null);
+    }
+
+    public void unregisterMonitor(String name, String monitorType, String instance)
+            throws MalformedObjectNameException, InstanceAlreadyExistsException,
+            MBeanRegistrationException, NotCompliantMBeanException {
 
-        String monitorName = generateMonitorName(name, monitorType);
+        String monitorName = generateMonitorName(name, monitorType, instance);
         log.info("Unregistering JMX {}", monitorName);
 
         ObjectName oName = new ObjectName(monitorName);
@@ -78,7 +95,7 @@ public class JmxMonitor {
         }
     }
 
-    private String generateMonitorName(String className, String monitorType) {
+    private String generateMonitorName(String className, String monitorType, String instance) {
         StringBuilder sb = new StringBuilder();
         sb.append(className);
         //sb.append(":ServiceType=");
@@ -88,6 +105,9 @@ public class JmxMonitor {
         if (null != monitorType && monitorType.length() > 0) {
             sb.append("Type=" + monitorType);
         }
+        if (null != instance && instance.length() > 0) {
+            sb.append(",name=" + instance);
+        }
         return sb.toString();
     }
 
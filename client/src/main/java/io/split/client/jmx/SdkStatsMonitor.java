@@ -0,0 +1,172 @@
+package io.split.client.jmx;
+
+import io.split.cache.SegmentCache;
+import io.split.cache.SplitCache;
+import io.split.engine.segments.SegmentImp;
+import io.split.telemetry.domain.enums.EventsDataRecordsEnum;
+import io.split.telemetry.domain.enums.ImpressionsDataTypeEnum;
+import io.split.telemetry.domain.enums.MethodEnum;
+import io.split.telemetry.storage.TelemetryStorage;
+import org.apache.hc.core5.pool.ConnPoolControl;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Reads every attribute from the same lock-free counters and concurrent maps evaluations and syncs write to, so
+ * watching it never makes the SDK wait. Only the HTTP pool attributes take the pool lock, for as long as a connection
+ * request would.
+ */
+public class SdkStatsMonitor implements SdkStatsMonitorMXBean {
+
+    public static final String MONITOR_TYPE = "SdkStats";
+
+    private final SplitCache _splitCache;
+    private final SegmentCache _segmentCache;
+    private final TelemetryStorage _telemetry;
+    private final LongSupplier _impressionsQueueDepth;
+    private final LongSupplier _eventsQueueDepth;
+    private final Supplier<Map<String, Long>> _segmentLastSynchronizations;
+    private final ConnPoolControl<?> _connectionPool;
+    private final BooleanSupplier _streaming;
+
+    /**
+     * @param segmentLastSynchronizations when each segment was last fetched, in millis since epoch.
+     */
+    public SdkStatsMonitor(SplitCache splitCache, SegmentCache segmentCache, TelemetryStorage telemetry,
+                           LongSupplier impressionsQueueDepth, LongSupplier eventsQueueDepth,
+                           Supplier<Map<String, Long>> segmentLastSynchronizations, ConnPoolControl<?> connectionPool,
+                           BooleanSupplier streaming) {
+        _splitCache = checkNotNull(splitCache);
+        _segmentCache = checkNotNull(segmentCache);
+        _telemetry = checkNotNull(telemetry);
+        _impressionsQueueDepth = checkNotNull(impressionsQueueDepth);
+        _eventsQueueDepth = checkNotNull(eventsQueueDepth);
+        _segmentLastSynchronizations = checkNotNull(segmentLastSynchronizations);
+        _connectionPool = checkNotNull(connectionPool);
+        _streaming = checkNotNull(streaming);
+    }
+
+    @Override
+    public int getSplitCount() {
+        return _splitCache.getAll().size();
+    }
+
+    @Override
+    public int getSegmentCount() {
+        return _segmentCache.getAll().size();
+    }
+
+    @Override
+    public long getSegmentKeyCount() {
+        return _segmentCache.getKeyCount();
+    }
+
+    @Override
+    public long getSplitsChangeNumber() {
+        return _splitCache.getChangeNumber();
+    }
+
+    @Override
+    public Map<String, Long> getSegmentChangeNumbers() {
+        Map<String, Long> changeNumbers = new HashMap<>();
+        for (SegmentImp segment : _segmentCache.getAll()) {
+            changeNumbers.put(segment.getName(), segment.getChangeNumber());
+        }
+        return changeNumbers;
+    }
+
+    @Override
+    public double getSplitsSyncAgeSeconds() {
+        return secondsSince(_telemetry.getLastSynchronization().get_splits());
+    }
+
+    @Override
+    public Map<String, Double> getSegmentSyncAgeSeconds() {
+        Map<String, Double> ages = new HashMap<>();
+        for (Map.Entry<String, Long> entry : _segmentLastSynchronizations.get().entrySet()) {
+            ages.put(entry.getKey(), secondsSince(entry.getValue()));
+        }
+        return ages;
+    }
+
+    @Override
+    public long getImpressionsQueueDepth() {
+        return _impressionsQueueDepth.getAsLong();
+    }
+
+    @Override
+    public long getImpressionsDropped() {
+        return _telemetry.getImpressionsStats(ImpressionsDataTypeEnum.IMPRESSIONS_DROPPED);
+    }
+
+    @Override
+    public double getImpressionsDedupeRate() {
+        long deduped = _telemetry.getImpressionsStats(ImpressionsDataTypeEnum.IMPRESSIONS_DEDUPED);
+        long total = deduped
+                + _telemetry.getImpressionsStats(ImpressionsDataTypeEnum.IMPRESSIONS_QUEUED)
+                + _telemetry.getImpressionsStats(ImpressionsDataTypeEnum.IMPRESSIONS_DROPPED);
+        return total == 0 ? Double.NaN : (double) deduped / total;
+    }
+
+    @Override
+    public long getEventsQueueDepth() {
+        return _eventsQueueDepth.getAsLong();
+    }
+
+    @Override
+    public long getEventsDropped() {
+        return _telemetry.getEventStats(EventsDataRecordsEnum.EVENTS_DROPPED);
+    }
+
+    @Override
+    public int getHttpConnectionsLeased() {
+        return _connectionPool.getTotalStats().getLeased();
+    }
+
+    @Override
+    public int getHttpConnectionsAvailable() {
+        return _connectionPool.getTotalStats().getAvailable();
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return _streaming.getAsBoolean();
+    }
+
+    @Override
+    public Map<String, Long> getEvaluationLatencyP50Micros() {
+        return latencies(50);
+    }
+
+    @Override
+    public Map<String, Long> getEvaluationLatencyP99Micros() {
+        return latencies(99);
+    }
+
+    @Override
+    public Map<String, Long> getEvaluationLatencyP999Micros() {
+        return latencies(99.9);
+    }
+
+    private Map<String, Long> latencies(double percentile) {
+        Map<String, Long> latencies = new HashMap<>();
+        for (MethodEnum method : MethodEnum.values()) {
+            latencies.put(method.getMethod(), _telemetry.getLatencySnapshot(method).valueAtPercentile(percentile, TimeUnit.MICROSECONDS));
+        }
+        return latencies;
+    }
+
+    private static double secondsSince(long timeMillis) {
+        if (timeMillis <= 0) {
+            return Double.NaN;
+        }
+        return Math.max(0, System.currentTimeMillis() - timeMillis) / 1000d;
+    }
+}
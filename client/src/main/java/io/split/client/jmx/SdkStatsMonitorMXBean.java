@@ -0,0 +1,69 @@
+package io.split.client.jmx;
+
+import java.util.Map;
+
+/**
+ * JMX Interface to the runtime statistics of an SDK factory. Every attribute is read-only and computed when it is
+ * read.
+ * <p/>
+ * Ages are in seconds, NaN until the first successful sync. Latencies are in microseconds, keyed by client method.
+ */
+public interface SdkStatsMonitorMXBean {
+
+    int getSplitCount();
+
+    int getSegmentCount();
+
+    /**
+     * @return the number of keys of all segments held in memory.
+     */
+    long getSegmentKeyCount();
+
+    long getSplitsChangeNumber();
+
+    Map<String, Long> getSegmentChangeNumbers();
+
+    double getSplitsSyncAgeSeconds();
+
+    Map<String, Double> getSegmentSyncAgeSeconds();
+
+    /**
+     * @return the number of impressions waiting to be sent.
+     */
+    long getImpressionsQueueDepth();
+
+    long getImpressionsDropped();
+
+    /**
+     * @return the share of impressions deduped in OPTIMIZED mode, between 0 and 1, or NaN if there were none.
+     */
+    double getImpressionsDedupeRate();
+
+    /**
+     * @return the number of events waiting to be sent.
+     */
+    long getEventsQueueDepth();
+
+    long getEventsDropped();
+
+    /**
+     * @return the number of pooled HTTP connections in use.
+     */
+    int getHttpConnectionsLeased();
+
+    /**
+     * @return the number of idle pooled HTTP connections.
+     */
+    int getHttpConnectionsAvailable();
+
+    /**
+     * @return TRUE while updates are received through streaming, FALSE while polling.
+     */
+    boolean isStreaming();
+
+    Map<String, Long> getEvaluationLatencyP50Micros();
+
+    Map<String, Long> getEvaluationLatencyP99Micros();
+
+    Map<String, Long> getEvaluationLatencyP999Micros();
+}
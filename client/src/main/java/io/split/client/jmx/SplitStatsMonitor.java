@@ -0,0 +1,54 @@
+package io.split.client.jmx;
+
+import io.split.client.api.SplitEvaluationStats;
+import io.split.engine.evaluator.SplitStatsTable;
+
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+public class SplitStatsMonitor implements SplitStatsMonitorMBean {
+
+    public static final String MONITOR_TYPE = "SplitStats";
+
+    private final SplitStatsTable _splitStats;
+
+    public SplitStatsMonitor(SplitStatsTable splitStats) {
+        _splitStats = checkNotNull(splitStats);
+    }
+
+    @Override
+    public int getEvaluatedSplits() {
+        return _splitStats.size();
+    }
+
+    @Override
+    public String[] topSplitsByEvaluations(int n) {
+        return top(n, SplitEvaluationStats.Rank.EVALUATIONS);
+    }
+
+    @Override
+    public String[] topSplitsByTotalTime(int n) {
+        return top(n, SplitEvaluationStats.Rank.TOTAL_TIME);
+    }
+
+    @Override
+    public String[] topSplitsByMatcherEvaluations(int n) {
+        return top(n, SplitEvaluationStats.Rank.MATCHER_EVALUATIONS);
+    }
+
+    @Override
+    public String splitStats(String featureName) {
+        SplitEvaluationStats stats = _splitStats.get(featureName);
+        return stats == null ? null : stats.toString();
+    }
+
+    private String[] top(int n, SplitEvaluationStats.Rank rank) {
+        List<SplitEvaluationStats> top = _splitStats.top(Math.max(0, n), rank);
+        String[] lines = new String[top.size()];
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = top.get(i).toString();
+        }
+        return lines;
+    }
+}
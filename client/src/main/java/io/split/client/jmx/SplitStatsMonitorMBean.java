@@ -0,0 +1,36 @@
+package io.split.client.jmx;
+
+/**
+ * JMX Interface to the evaluation statistics of each Split.
+ */
+public interface SplitStatsMonitorMBean {
+
+    /**
+     * @return the number of Splits evaluated since the SDK started.
+     */
+    int getEvaluatedSplits();
+
+    /**
+     * @param n how many Splits to return
+     * @return the Splits evaluated the most, one line each, highest first.
+     */
+    String[] topSplitsByEvaluations(int n);
+
+    /**
+     * @param n how many Splits to return
+     * @return the Splits that took the most evaluation time, one line each, highest first.
+     */
+    String[] topSplitsByTotalTime(int n);
+
+    /**
+     * @param n how many Splits to return
+     * @return the Splits that evaluated the most matchers, one line each, highest first.
+     */
+    String[] topSplitsByMatcherEvaluations(int n);
+
+    /**
+     * @param featureName the name of the feature
+     * @return the stats of this feature, or null if it wasn't evaluated.
+     */
+    String splitStats(String featureName);
+}
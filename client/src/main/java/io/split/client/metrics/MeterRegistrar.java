@@ -0,0 +1,26 @@
+package io.split.client.metrics;
+
+import io.split.telemetry.utils.LatencyHistogram;
+
+import java.util.Map;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Registers the SDK's metrics into a metrics registry, e.g. a Micrometer MeterRegistry, without the SDK depending
+ * on it. Implementations typically map counters to FunctionCounters, gauges to Gauges, and histograms to FunctionTimers
+ * plus a gauge per percentile. Values are read through the given functions whenever the registry publishes.
+ *
+ * @see RegistryMetricsExporter
+ */
+public interface MeterRegistrar {
+
+    void counter(String name, String description, Map<String, String> tags, DoubleSupplier count);
+
+    void gauge(String name, String description, Map<String, String> tags, DoubleSupplier value);
+
+    /**
+     * @param snapshot distribution of latencies, in nanoseconds.
+     */
+    void timer(String name, String description, Map<String, String> tags, Supplier<LatencyHistogram.Snapshot> snapshot);
+}
@@ -0,0 +1,98 @@
+package io.split.client.metrics;
+
+import io.split.telemetry.utils.LatencyHistogram;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A live value exposed by the SDK. Reading it returns the current value, so exporters can read metrics whenever they
+ * are scraped or published.
+ * <p/>
+ * Names follow Prometheus conventions: counters end with _total and latencies with _seconds. Histogram snapshots are
+ * in nanoseconds, exporters convert them to the unit they need.
+ */
+public final class Metric {
+
+    public enum Type {
+        /**
+         * Only goes up, since the SDK started.
+         */
+        COUNTER,
+        GAUGE,
+        /**
+         * Distribution of latencies since the SDK started.
+         */
+        HISTOGRAM
+    }
+
+    private final String _name;
+    private final String _help;
+    private final Type _type;
+    private final Map<String, String> _labels;
+    private final DoubleSupplier _value;
+    private final Supplier<LatencyHistogram.Snapshot> _histogram;
+
+    private Metric(String name, String help, Type type, Map<String, String> labels, DoubleSupplier value,
+                   Supplier<LatencyHistogram.Snapshot> histogram) {
+        _name = checkNotNull(name);
+        _help = checkNotNull(help);
+        _type = type;
+        _labels = Collections.unmodifiableMap(new LinkedHashMap<>(labels));
+        _value = value;
+        _histogram = histogram;
+    }
+
+    public static Metric counter(String name, String help, Map<String, String> labels, DoubleSupplier value) {
+        return new Metric(name, help, Type.COUNTER, labels, checkNotNull(value), null);
+    }
+
+    public static Metric gauge(String name, String help, Map<String, String> labels, DoubleSupplier value) {
+        return new Metric(name, help, Type.GAUGE, labels, checkNotNull(value), null);
+    }
+
+    public static Metric histogram(String name, String help, Map<String, String> labels, Supplier<LatencyHistogram.Snapshot> snapshot) {
+        return new Metric(name, help, Type.HISTOGRAM, labels, null, checkNotNull(snapshot));
+    }
+
+    public String name() {
+        return _name;
+    }
+
+    public String help() {
+        return _help;
+    }
+
+    public Type type() {
+        return _type;
+    }
+
+    public Map<String, String> labels() {
+        return _labels;
+    }
+
+    /**
+     * @return the current value of a counter or gauge.
+     */
+    public double value() {
+        if (_value == null) {
+            throw new IllegalStateException(_name + " is a histogram, read it through snapshot()");
+        }
+        return _value.getAsDouble();
+    }
+
+    /**
+     * @return the current distribution of a histogram, in nanoseconds.
+     */
+    public LatencyHistogram.Snapshot snapshot() {
+        if (_histogram == null) {
+            throw new IllegalStateException(_name + " is not a histogram, read it through value()");
+        }
+        return _histogram.get();
+    }
+}
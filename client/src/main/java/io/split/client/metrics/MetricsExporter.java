@@ -0,0 +1,20 @@
+package io.split.client.metrics;
+
+/**
+ * Exports the SDK's metrics to a monitoring system.
+ * <p/>
+ * Metrics are live: an exporter keeps the {@link SdkMetrics} it's started with and reads them whenever it needs to,
+ * e.g. when scraped. See {@link PrometheusMetricsExporter} and {@link RegistryMetricsExporter}.
+ */
+public interface MetricsExporter {
+
+    /**
+     * Called once, when the factory is built. MUST NOT block or throw any exception.
+     */
+    void start(SdkMetrics metrics);
+
+    /**
+     * Called when the factory is destroyed. MUST NOT throw any exception.
+     */
+    void close();
+}
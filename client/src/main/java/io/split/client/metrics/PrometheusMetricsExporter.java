@@ -0,0 +1,38 @@
+package io.split.client.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Keeps the SDK's metrics so they can be scraped by Prometheus. Serve {@link #scrape()} from your own HTTP endpoint,
+ * with {@link PrometheusTextFormat#CONTENT_TYPE} as content type.
+ */
+public class PrometheusMetricsExporter implements MetricsExporter {
+
+    private volatile SdkMetrics _metrics;
+
+    @Override
+    public void start(SdkMetrics metrics) {
+        _metrics = metrics;
+    }
+
+    /**
+     * @return current metrics in the Prometheus text format, empty until the factory is built or after it's destroyed.
+     */
+    public String scrape() {
+        SdkMetrics metrics = _metrics;
+        return metrics == null ? "" : PrometheusTextFormat.render(metrics);
+    }
+
+    public void scrape(Writer writer) throws IOException {
+        SdkMetrics metrics = _metrics;
+        if (metrics != null) {
+            PrometheusTextFormat.write(metrics, writer);
+        }
+    }
+
+    @Override
+    public void close() {
+        _metrics = null;
+    }
+}
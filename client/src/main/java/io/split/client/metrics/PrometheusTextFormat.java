@@ -0,0 +1,123 @@
+package io.split.client.metrics;
+
+import io.split.telemetry.utils.LatencyHistogram;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Renders metrics in the Prometheus text exposition format (version 0.0.4).
+ * <p/>
+ * Histograms are rendered as summaries in seconds, with their p50, p99 and p999.
+ */
+public final class PrometheusTextFormat {
+
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static final double[] QUANTILES = {0.5, 0.99, 0.999};
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private PrometheusTextFormat() {
+    }
+
+    public static String render(SdkMetrics metrics) {
+        StringWriter writer = new StringWriter();
+        try {
+            write(metrics, writer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // Not thrown by a StringWriter
+        }
+        return writer.toString();
+    }
+
+    public static void write(SdkMetrics metrics, Writer writer) throws IOException {
+        Map<String, List<Metric>> families = new LinkedHashMap<>();
+        for (Metric metric : metrics.metrics()) {
+            families.computeIfAbsent(metric.name(), name -> new ArrayList<>()).add(metric);
+        }
+
+        for (List<Metric> family : families.values()) {
+            Metric first = family.get(0);
+            writer.write("# HELP " + first.name() + " " + escapeHelp(first.help()) + "\n");
+            writer.write("# TYPE " + first.name() + " " + typeOf(first.type()) + "\n");
+            for (Metric metric : family) {
+                if (metric.type() == Metric.Type.HISTOGRAM) {
+                    writeSummary(metric, writer);
+                } else {
+                    writeSample(writer, metric.name(), metric.labels(), null, metric.value());
+                }
+            }
+        }
+    }
+
+    private static void writeSummary(Metric metric, Writer writer) throws IOException {
+        LatencyHistogram.Snapshot snapshot = metric.snapshot();
+        for (double quantile : QUANTILES) {
+            writeSample(writer, metric.name(), metric.labels(), Double.toString(quantile),
+                    snapshot.valueAtPercentile(quantile * 100) / NANOS_PER_SECOND);
+        }
+        writeSample(writer, metric.name() + "_sum", metric.labels(), null, snapshot.sum() / NANOS_PER_SECOND);
+        writeSample(writer, metric.name() + "_count", metric.labels(), null, snapshot.count());
+    }
+
+    private static void writeSample(Writer writer, String name, Map<String, String> labels, String quantile, double value)
+            throws IOException {
+        writer.write(name);
+        if (!labels.isEmpty() || quantile != null) {
+            writer.write('{');
+            boolean first = true;
+            for (Map.Entry<String, String> label : labels.entrySet()) {
+                if (!first) {
+                    writer.write(',');
+                }
+                writer.write(label.getKey() + "=\"" + escapeLabelValue(label.getValue()) + "\"");
+                first = false;
+            }
+            if (quantile != null) {
+                writer.write((first ? "" : ",") + "quantile=\"" + quantile + "\"");
+            }
+            writer.write('}');
+        }
+        writer.write(' ');
+        writer.write(formatValue(value));
+        writer.write('\n');
+    }
+
+    private static String typeOf(Metric.Type type) {
+        switch (type) {
+            case COUNTER:
+                return "counter";
+            case GAUGE:
+                return "gauge";
+            default:
+                return "summary";
+        }
+    }
+
+    static String formatValue(double value) {
+        if (Double.isNaN(value)) {
+            return "NaN";
+        }
+        if (Double.isInfinite(value)) {
+            return value > 0 ? "+Inf" : "-Inf";
+        }
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+
+    private static String escapeHelp(String help) {
+        return help.replace("\\", "\\\\").replace("\n", "\\n");
+    }
+
+    private static String escapeLabelValue(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,46 @@
+package io.split.client.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Registers every SDK metric through a {@link MeterRegistrar} when started, so a registry like Micrometer's can read
+ * them on its own schedule.
+ */
+public class RegistryMetricsExporter implements MetricsExporter {
+
+    private static final Logger _log = LoggerFactory.getLogger(RegistryMetricsExporter.class);
+
+    private final MeterRegistrar _registrar;
+
+    public RegistryMetricsExporter(MeterRegistrar registrar) {
+        _registrar = checkNotNull(registrar);
+    }
+
+    @Override
+    public void start(SdkMetrics metrics) {
+        for (Metric metric : metrics.metrics()) {
+            try {
+                switch (metric.type()) {
+                    case COUNTER:
+                        _registrar.counter(metric.name(), metric.help(), metric.labels(), metric::value);
+                        break;
+                    case GAUGE:
+                        _registrar.gauge(metric.name(), metric.help(), metric.labels(), metric::value);
+                        break;
+                    case HISTOGRAM:
+                        _registrar.timer(metric.name(), metric.help(), metric.labels(), metric::snapshot);
+                        break;
+                }
+            } catch (Exception e) {
+                _log.warn(String.format("Unable to register metric %s", metric.name()), e);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,131 @@
+package io.split.client.metrics;
+
+import com.google.common.collect.ImmutableMap;
+import io.split.cache.SegmentCache;
+import io.split.cache.SplitCache;
+import io.split.telemetry.domain.LastSynchronization;
+import io.split.telemetry.domain.enums.EventsDataRecordsEnum;
+import io.split.telemetry.domain.enums.HTTPLatenciesEnum;
+import io.split.telemetry.domain.enums.ImpressionsDataTypeEnum;
+import io.split.telemetry.domain.enums.LastSynchronizationRecordsEnum;
+import io.split.telemetry.domain.enums.MethodEnum;
+import io.split.telemetry.domain.enums.PayloadSizeEnum;
+import io.split.telemetry.storage.TelemetryStorage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongSupplier;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Metrics of one SDK factory, handed to the {@link MetricsExporter} configured through
+ * {@link io.split.client.SplitClientConfig.Builder#metricsExporter(MetricsExporter)}.
+ */
+public class SdkMetrics {
+
+    private static final Map<String, String> NO_LABELS = Collections.emptyMap();
+
+    private final List<Metric> _metrics;
+
+    public SdkMetrics(List<Metric> metrics) {
+        _metrics = Collections.unmodifiableList(new ArrayList<>(metrics));
+    }
+
+    public List<Metric> metrics() {
+        return _metrics;
+    }
+
+    /**
+     * @param eventsQueueDepth number of events waiting to be sent.
+     * @param streaming whether updates are being received through streaming.
+     */
+    public static SdkMetrics create(TelemetryStorage telemetry, SplitCache splitCache, SegmentCache segmentCache,
+                                    LongSupplier eventsQueueDepth, BooleanSupplier streaming) {
+        checkNotNull(telemetry);
+        checkNotNull(splitCache);
+        checkNotNull(segmentCache);
+        List<Metric> metrics = new ArrayList<>();
+
+        for (MethodEnum method : MethodEnum.values()) {
+            metrics.add(Metric.histogram("split_evaluation_latency_seconds", "Latency of SDK client methods",
+                    ImmutableMap.of("method", method.getMethod()), () -> telemetry.getLatencySnapshot(method)));
+        }
+
+        for (ImpressionsDataTypeEnum type : ImpressionsDataTypeEnum.values()) {
+            metrics.add(Metric.counter("split_impressions_total", "Impressions by what happened to them",
+                    ImmutableMap.of("status", status(type.name(), "IMPRESSIONS_")), () -> telemetry.getImpressionsStats(type)));
+        }
+
+        for (EventsDataRecordsEnum type : EventsDataRecordsEnum.values()) {
+            metrics.add(Metric.counter("split_events_total", "Events by what happened to them",
+                    ImmutableMap.of("status", status(type.name(), "EVENTS_")), () -> telemetry.getEventStats(type)));
+        }
+        metrics.add(Metric.gauge("split_events_queue_depth", "Events waiting to be sent", NO_LABELS,
+                eventsQueueDepth::getAsLong));
+
+        for (PayloadSizeEnum type : PayloadSizeEnum.values()) {
+            metrics.add(Metric.counter("split_payload_bytes_total", "Bytes of impressions, events and telemetry posted, before and after compression",
+                    ImmutableMap.of("encoding", type.name().toLowerCase(Locale.ROOT)), () -> telemetry.getPayloadSize(type)));
+        }
+
+        for (HTTPLatenciesEnum resource : HTTPLatenciesEnum.values()) {
+            metrics.add(Metric.histogram("split_sync_latency_seconds", "Latency of requests to Split services",
+                    ImmutableMap.of("resource", resource.name().toLowerCase(Locale.ROOT)), () -> telemetry.getHTTPLatencySnapshot(resource)));
+        }
+
+        for (LastSynchronizationRecordsEnum resource : LastSynchronizationRecordsEnum.values()) {
+            metrics.add(Metric.gauge("split_sync_staleness_seconds", "Time since the last successful request to Split services, NaN if none yet",
+                    ImmutableMap.of("resource", resource.name().toLowerCase(Locale.ROOT)),
+                    () -> secondsSince(lastSynchronization(telemetry.getLastSynchronization(), resource))));
+        }
+
+        metrics.add(Metric.gauge("split_cache_splits", "Splits held in memory", NO_LABELS, () -> splitCache.getAll().size()));
+        metrics.add(Metric.gauge("split_cache_segments", "Segments held in memory", NO_LABELS, () -> segmentCache.getAll().size()));
+        metrics.add(Metric.gauge("split_cache_segment_keys", "Keys of all segments held in memory", NO_LABELS, segmentCache::getKeyCount));
+
+        metrics.add(Metric.gauge("split_streaming_connected", "1 while updates are received through streaming, 0 while polling",
+                NO_LABELS, () -> streaming.getAsBoolean() ? 1 : 0));
+
+        return new SdkMetrics(metrics);
+    }
+
+    private static String status(String name, String prefix) {
+        return name.substring(prefix.length()).toLowerCase(Locale.ROOT);
+    }
+
+    private static double secondsSince(long timeMillis) {
+        if (timeMillis <= 0) {
+            return Double.NaN;
+        }
+        return Math.max(0, System.currentTimeMillis() - timeMillis) / 1000d;
+    }
+
+    private static long lastSynchronization(LastSynchronization lastSynchronization, LastSynchronizationRecordsEnum resource) {
+        if (lastSynchronization == null) {
+            return 0;
+        }
+        switch (resource) {
+            case SPLITS:
+                return lastSynchronization.get_splits();
+            case SEGMENTS:
+                return lastSynchronization.get_segments();
+            case IMPRESSIONS:
+                return lastSynchronization.get_impressions();
+            case IMPRESSIONS_COUNT:
+                return lastSynchronization.get_impressionsCount();
+            case EVENTS:
+                return lastSynchronization.get_events();
+            case TOKEN:
+                return lastSynchronization.get_token();
+            case TELEMETRY:
+                return lastSynchronization.get_telemetry();
+            default:
+                return 0;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package io.split.client.spool;
+
+import io.split.client.SplitClientConfig;
+import io.split.client.utils.Json;
+import io.split.client.utils.PostResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Keeps batches that couldn't be sent or queued in a {@link SpoolLog} as JSON, and hands them back to a sender once it's
+ * able to deliver them again.
+ *
+ * Batches are replayed in the order they were spooled, at a bounded rate, and replay stops at the first batch that
+ * fails with an error worth retrying, leaving it in the spool for the next round. Batches the server rejects are
+ * dropped, as sending them again would fail the same way. A batch is only removed once it's been handled, so a batch
+ * whose post failed after reaching the server may be delivered twice.
+ */
+public class Spool<T> implements Closeable {
+
+    private static final Logger _log = LoggerFactory.getLogger(Spool.class);
+
+    private static final int MAX_SEGMENT_SIZE = 4 * 1024 * 1024;
+    private static final long REPLAY_PERIOD_SECONDS = 1L;
+
+    private final SpoolLog _spoolLog;
+    private final Type _type;
+
+    public Spool(SpoolLog spoolLog, Type type) {
+        _spoolLog = checkNotNull(spoolLog);
+        _type = checkNotNull(type);
+    }
+
+    /**
+     * Opens the spool kept in the given directory with the budget and TTL set in the config.
+     *
+     * @return the spool, or null if it couldn't be opened, in which case batches are dropped as if there was no spool.
+     */
+    public static <T> Spool<T> open(File directory, Type type, SplitClientConfig config) {
+        long maxSizeInBytes = config.spoolMaxSizeInBytes();
+        int segmentSize = (int) Math.min(MAX_SEGMENT_SIZE, maxSizeInBytes / 2);
+        try {
+            return new Spool<>(SpoolLog.open(directory, segmentSize, maxSizeInBytes, TimeUnit.HOURS.toMillis(config.spoolTtlInHours())), type);
+        } catch (IOException e) {
+            _log.warn(String.format("Unable to open spool in %s, overflow will be dropped", directory), e);
+            return null;
+        }
+    }
+
+    /**
+     * @return false if the batch couldn't be spooled.
+     */
+    public boolean offer(T batch) {
+        try {
+            return _spoolLog.append(Json.toJson(batch).getBytes(StandardCharsets.UTF_8), System.currentTimeMillis());
+        } catch (IOException e) {
+            _log.warn("Unable to spool batch", e);
+            return false;
+        }
+    }
+
+    /**
+     * Sends up to max spooled batches, oldest first.
+     *
+     * @param sender returns whether the batch was accepted, and if not, whether it may be accepted if sent again.
+     * @return number of batches accepted.
+     */
+    public int replay(int max, Function<T, PostResult> sender) {
+        int sent = 0;
+        for (int attempts = 0; attempts < max; attempts++) {
+            byte[] payload = _spoolLog.peek(System.currentTimeMillis());
+            if (payload == null) {
+                break;
+            }
+            T batch;
+            try {
+                batch = Json.fromJson(new String(payload, StandardCharsets.UTF_8), _type);
+            } catch (RuntimeException e) {
+                _log.warn("Discarding unreadable spooled batch", e);
+                _spoolLog.advance();
+                continue;
+            }
+            PostResult result = sender.apply(batch);
+            if (result == PostResult.RETRYABLE) {
+                break;
+            }
+            if (result == PostResult.REJECTED) {
+                _log.warn("Discarding spooled batch, it was rejected by the server");
+            } else {
+                sent++;
+            }
+            _spoolLog.advance();
+        }
+        return sent;
+    }
+
+    /**
+     * Replays up to batchesPerSecond batches every second on the given scheduler.
+     */
+    public void startReplay(ScheduledExecutorService scheduler, int batchesPerSecond, Function<T, PostResult> sender) {
+        checkArgument(batchesPerSecond > 0, "batchesPerSecond must be > 0");
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                replay(batchesPerSecond, sender);
+            } catch (Exception e) {
+                _log.warn("Unable to replay spooled batches", e);
+            }
+        }, REPLAY_PERIOD_SECONDS, REPLAY_PERIOD_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @return disk space taken by the spool.
+     */
+    public long sizeInBytes() {
+        return _spoolLog.sizeInBytes();
+    }
+
+    @Override
+    public void close() {
+        if (_spoolLog.dropped() > 0 || _spoolLog.expired() > 0) {
+            _log.warn(String.format("Spool dropped %d batches to stay within its budget and %d that expired",
+                    _spoolLog.dropped(), _spoolLog.expired()));
+        }
+        _spoolLog.close();
+    }
+}
@@ -0,0 +1,385 @@
+package io.split.client.spool;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Append-only log of records kept in memory-mapped segment files, read back in order by a single consumer.
+ *
+ * Each record is written as its length, a CRC32 of its payload, the time it was appended and the payload. The length
+ * is written last, so a record torn by a crash reads as the end of its segment. Appending never blocks on I/O: the OS
+ * writes mapped pages back on its own, and each segment is forced to disk when it's sealed.
+ *
+ * The consumer {@link #peek(long)}s the oldest record and {@link #advance()}s past it once it's been handled, which moves
+ * a cursor that is also kept on disk, so records handled before a restart aren't read again. Segments are deleted as
+ * soon as they've been read. When the log would take more than its budget, the oldest segment is dropped whether it was
+ * read or not, and records older than the TTL are skipped and dropped along with their segments.
+ *
+ * A log holds an exclusive lock on its directory until it's closed, so it can't be opened twice, by this process or
+ * another one.
+ */
+public class SpoolLog implements Closeable {
+
+    private static final Logger _log = LoggerFactory.getLogger(SpoolLog.class);
+
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CURSOR_FILE = "cursor";
+    private static final String LOCK_FILE = "lock";
+    private static final int HEADER_SIZE = 16; // length, crc, timestamp
+    private static final int CURSOR_SIZE = 12; // segment id, offset
+
+    private final File _directory;
+    private final int _segmentSize;
+    private final int _maxSegments;
+    private final long _ttlMillis;
+    private final TreeMap<Long, Segment> _segments = new TreeMap<>();
+    private final FileChannel _lock;
+    private final MappedByteBuffer _cursor;
+
+    private Segment _head; // Segment being appended to, null until the first append after opening
+    private long _nextSegmentId;
+    private long _readSegmentId;
+    private int _readOffset;
+    private int _pendingOffset = -1;
+    private long _dropped;
+    private long _expired;
+    private boolean _unmapWarned;
+
+    private SpoolLog(File directory, int segmentSize, int maxSegments, long ttlMillis) throws IOException {
+        _directory = directory;
+        _segmentSize = segmentSize;
+        _maxSegments = maxSegments;
+        _ttlMillis = ttlMillis;
+        _lock = lock(new File(directory, LOCK_FILE));
+        try {
+            _cursor = map(new File(directory, CURSOR_FILE), CURSOR_SIZE);
+        } catch (IOException e) {
+            _lock.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens the log in the given directory, recovering the records left by a previous run.
+     *
+     * @param directory where segments are kept, created if missing.
+     * @param segmentSize size of each segment file, records bigger than this are rejected.
+     * @param maxSizeInBytes max disk space taken by segments, at least two segments.
+     * @param ttlMillis how long records are kept before being dropped unread.
+     * @throws IOException if the directory can't be used, or another log has it open.
+     */
+    public static SpoolLog open(File directory, int segmentSize, long maxSizeInBytes, long ttlMillis) throws IOException {
+        checkNotNull(directory);
+        checkArgument(segmentSize > HEADER_SIZE, "segmentSize must be > %s", HEADER_SIZE);
+        checkArgument(maxSizeInBytes >= 2L * segmentSize, "maxSizeInBytes must hold at least two segments");
+        checkArgument(ttlMillis > 0, "ttlMillis must be > 0");
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Unable to create spool directory " + directory);
+        }
+
+        SpoolLog log = new SpoolLog(directory, segmentSize, (int) Math.min(Integer.MAX_VALUE, maxSizeInBytes / segmentSize), ttlMillis);
+        try {
+            log.recover();
+        } catch (IOException e) {
+            log.close();
+            throw e;
+        }
+        return log;
+    }
+
+    /**
+     * @return false if the record doesn't fit in a segment.
+     */
+    public synchronized boolean append(byte[] payload, long now) throws IOException {
+        int size = HEADER_SIZE + payload.length;
+        if (size > _segmentSize) {
+            return false;
+        }
+        if (_head == null || _head._end + size > _segmentSize) {
+            roll(now);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, payload.length);
+        MappedByteBuffer buffer = _head._buffer;
+        int offset = _head._end;
+        buffer.putInt(offset + 4, (int) crc.getValue());
+        buffer.putLong(offset + 8, now);
+        ByteBuffer body = buffer.duplicate();
+        body.position(offset + HEADER_SIZE);
+        body.put(payload);
+        buffer.putInt(offset, payload.length);
+
+        _head._end += size;
+        _head._records++;
+        _head._lastTimestamp = now;
+        return true;
+    }
+
+    /**
+     * @return the payload of the oldest record that hasn't expired, or null if there's none. Calling it again without
+     * {@link #advance()} returns the same record.
+     */
+    public synchronized byte[] peek(long now) {
+        while (true) {
+            Map.Entry<Long, Segment> entry = _segments.ceilingEntry(_readSegmentId);
+            if (entry == null) {
+                return null;
+            }
+            Segment segment = entry.getValue();
+            if (entry.getKey() != _readSegmentId) {
+                moveCursor(entry.getKey(), 0);
+            }
+
+            if (_readOffset >= segment._end) {
+                if (segment == _head) {
+                    return null;
+                }
+                delete(segment); // Fully read
+                Long next = _segments.higherKey(segment._id);
+                moveCursor(next != null ? next : _nextSegmentId, 0);
+                continue;
+            }
+
+            MappedByteBuffer buffer = segment._buffer;
+            int length = buffer.getInt(_readOffset);
+            long timestamp = buffer.getLong(_readOffset + 8);
+            int next = _readOffset + HEADER_SIZE + length;
+            if (timestamp < now - _ttlMillis) {
+                _expired++;
+                moveCursor(_readSegmentId, next);
+                continue;
+            }
+
+            byte[] payload = new byte[length];
+            ByteBuffer body = buffer.duplicate();
+            body.position(_readOffset + HEADER_SIZE);
+            body.get(payload);
+            _pendingOffset = next;
+            return payload;
+        }
+    }
+
+    /**
+     * Moves past the record returned by the last {@link #peek(long)}.
+     */
+    public synchronized void advance() {
+        if (_pendingOffset >= 0) {
+            moveCursor(_readSegmentId, _pendingOffset);
+        }
+    }
+
+    /**
+     * @return disk space taken by segments.
+     */
+    public synchronized long sizeInBytes() {
+        return (long) _segments.size() * _segmentSize;
+    }
+
+    /**
+     * @return number of records dropped unread to keep the log within its budget.
+     */
+    public synchronized long dropped() {
+        return _dropped;
+    }
+
+    /**
+     * @return number of records dropped unread because they were older than the TTL.
+     */
+    public synchronized long expired() {
+        return _expired;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!_lock.isOpen()) {
+            return;
+        }
+        if (_head != null) {
+            _head._buffer.force();
+        }
+        _cursor.force();
+        try {
+            _lock.close(); // Releases the lock
+        } catch (IOException e) {
+            _log.warn(String.format("Unable to release the lock on spool directory %s", _directory), e);
+        }
+    }
+
+    private void recover() throws IOException {
+        File[] files = _directory.listFiles((dir, name) -> name.endsWith(SEGMENT_SUFFIX));
+        if (files != null) {
+            for (File file : files) {
+                long id;
+                try {
+                    id = Long.parseLong(file.getName().substring(0, file.getName().length() - SEGMENT_SUFFIX.length()));
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+                if (file.length() != _segmentSize) {
+                    _log.warn(String.format("Ignoring spool segment %s, it was written with a different segment size", file));
+                    continue;
+                }
+                Segment segment = new Segment(id, file, map(file, _segmentSize));
+                scan(segment);
+                _segments.put(id, segment);
+            }
+        }
+        _nextSegmentId = _segments.isEmpty() ? 0 : _segments.lastKey() + 1;
+
+        // Appends go to a new segment, in case the last one ends with a torn record
+        long cursorSegment = _cursor.getLong(0);
+        int cursorOffset = _cursor.getInt(8);
+        Segment segment = _segments.get(cursorSegment);
+        if (segment != null) {
+            moveCursor(cursorSegment, Math.min(cursorOffset, segment._end));
+        } else {
+            moveCursor(_segments.isEmpty() ? _nextSegmentId : _segments.firstKey(), 0);
+        }
+    }
+
+    private void scan(Segment segment) {
+        MappedByteBuffer buffer = segment._buffer;
+        int offset = 0;
+        CRC32 crc = new CRC32();
+        while (offset + HEADER_SIZE <= _segmentSize) {
+            int length = buffer.getInt(offset);
+            if (length <= 0 || offset + HEADER_SIZE + length > _segmentSize) {
+                break;
+            }
+            ByteBuffer body = buffer.duplicate();
+            body.position(offset + HEADER_SIZE);
+            body.limit(offset + HEADER_SIZE + length);
+            crc.reset();
+            crc.update(body);
+            if ((int) crc.getValue() != buffer.getInt(offset + 4)) {
+                break;
+            }
+            segment._records++;
+            segment._lastTimestamp = buffer.getLong(offset + 8);
+            offset += HEADER_SIZE + length;
+        }
+        segment._end = offset;
+    }
+
+    private void roll(long now) throws IOException {
+        if (_head != null) {
+            _head._buffer.force();
+        }
+
+        for (Segment segment : _segments.values().toArray(new Segment[0])) {
+            if (segment._lastTimestamp < now - _ttlMillis) {
+                _expired += unread(segment);
+                delete(segment);
+            }
+        }
+        while (_segments.size() >= _maxSegments) {
+            Segment oldest = _segments.firstEntry().getValue();
+            _dropped += unread(oldest);
+            delete(oldest);
+        }
+
+        long id = _nextSegmentId++;
+        File file = new File(_directory, String.format("%019d%s", id, SEGMENT_SUFFIX));
+        _head = new Segment(id, file, map(file, _segmentSize));
+        _segments.put(id, _head);
+        if (_readSegmentId < _segments.firstKey()) {
+            moveCursor(_segments.firstKey(), 0);
+        }
+    }
+
+    private int unread(Segment segment) {
+        if (segment._id < _readSegmentId) {
+            return 0;
+        }
+        if (segment._id > _readSegmentId) {
+            return segment._records;
+        }
+        int unread = 0;
+        for (int offset = _readOffset; offset < segment._end; offset += HEADER_SIZE + segment._buffer.getInt(offset)) {
+            unread++;
+        }
+        return unread;
+    }
+
+    /**
+     * Unmaps the segment before deleting its file, so its disk space is released right away. Nothing holds on to a
+     * segment's buffer once it's out of _segments, reads copy the records out.
+     */
+    private void delete(Segment segment) {
+        _segments.remove(segment._id);
+        if (segment == _head) {
+            _head = null;
+        }
+        if (!Unmapper.unmap(segment._buffer) && !_unmapWarned) {
+            _unmapWarned = true;
+            _log.warn("Unable to unmap spool segments, their disk space is only released once they're garbage collected");
+        }
+        if (!segment._file.delete()) {
+            _log.warn(String.format("Unable to delete spool segment %s", segment._file));
+        }
+    }
+
+    private void moveCursor(long segmentId, int offset) {
+        _readSegmentId = segmentId;
+        _readOffset = offset;
+        _pendingOffset = -1;
+        _cursor.putLong(0, segmentId);
+        _cursor.putInt(8, offset);
+    }
+
+    private static FileChannel lock(File file) throws IOException {
+        FileChannel channel = new RandomAccessFile(file, "rw").getChannel();
+        FileLock lock;
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null; // Held by another log in this process
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        if (lock == null) {
+            channel.close();
+            throw new IOException(String.format("Spool directory %s is in use by another SDK instance", file.getParentFile()));
+        }
+        return channel;
+    }
+
+    private static MappedByteBuffer map(File file, int size) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw"); FileChannel channel = raf.getChannel()) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    private static final class Segment {
+        private final long _id;
+        private final File _file;
+        private final MappedByteBuffer _buffer;
+        private int _end;
+        private int _records;
+        private long _lastTimestamp;
+
+        Segment(long id, File file, MappedByteBuffer buffer) {
+            _id = id;
+            _file = file;
+            _buffer = buffer;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package io.split.client.spool;
+
+import java.lang.reflect.Method;
+import java.nio.MappedByteBuffer;
+
+/**
+ * Releases the mapping of a segment before its file is deleted. Otherwise the mapping lives until the buffer is
+ * garbage collected, holding on to the disk space of the deleted file, and Windows refuses to delete the file at all.
+ * <p/>
+ * This is the Java 8 version, which runs the buffer's cleaner; the multi-release jar ships a Java 11 version of this
+ * class under META-INF/versions/11, as the cleaner can't be reached that way from Java 9 on.
+ */
+final class Unmapper {
+
+    private Unmapper() {
+    }
+
+    /**
+     * The buffer must not be touched after this, reading or writing an unmapped buffer crashes the JVM.
+     *
+     * @return false if the buffer couldn't be unmapped, in which case it's left to the garbage collector.
+     */
+    static boolean unmap(MappedByteBuffer buffer) {
+        try {
+            Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+            cleanerMethod.setAccessible(true);
+            Object cleaner = cleanerMethod.invoke(buffer);
+            if (cleaner == null) {
+                return false;
+            }
+            cleaner.getClass().getMethod("clean").invoke(cleaner);
+            return true;
+        } catch (Exception | LinkageError e) {
+            return false;
+        }
+    }
+}
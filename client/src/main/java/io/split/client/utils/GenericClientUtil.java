@@ -1,5 +1,6 @@
 package io.split.client.utils;
 
+import io.split.telemetry.storage.TelemetryRuntimeProducer;
 import org.apache.hc.client5.http.classic.methods.HttpPost;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpResponse;
@@ -14,12 +15,26 @@ public class GenericClientUtil {
 
     private static final Logger _log = LoggerFactory.getLogger(GenericClientUtil.class);
 
-    public static<T> void process(List<T> data, URI endpoint, CloseableHttpClient client) {
+    public static<T> PostResult process(List<T> data, URI endpoint, CloseableHttpClient client) {
+        return process(data, endpoint, client, false, null);
+    }
+
+    /**
+     * @return whether the records were accepted, and if not, whether they may be accepted if sent again.
+     */
+    public static<T> PostResult process(List<T> data, URI endpoint, CloseableHttpClient client, boolean compressed,
+                                  TelemetryRuntimeProducer telemetryRuntimeProducer) {
+        return post(Utils.toJsonEntity(data, compressed, telemetryRuntimeProducer), data.size(), endpoint, client);
+    }
+
+    /**
+     * @param records how many records the entity holds, only used for logging.
+     * @return whether the records were accepted, and if not, whether they may be accepted if sent again.
+     */
+    public static PostResult post(HttpEntity entity, int records, URI endpoint, CloseableHttpClient client) {
         CloseableHttpResponse response = null;
 
         try {
-            HttpEntity entity = Utils.toJsonEntity(data);
-
             HttpPost request = new HttpPost(endpoint);
             request.setEntity(entity);
 
@@ -28,13 +43,15 @@ public class GenericClientUtil {
             int status = response.getCode();
 
             if (status < 200 || status >= 300) {
-                _log.info(String.format("Posting %d records returned with status: %d", data.size(), status));
+                _log.info(String.format("Posting %d records returned with status: %d", records, status));
             }
+            return PostResult.fromStatus(status);
 
         } catch (Throwable t) {
             if (_log.isDebugEnabled()) {
-                _log.debug(String.format("Posting %d records returned with error", data.size()), t);
+                _log.debug(String.format("Posting %d records returned with error", records), t);
             }
+            return PostResult.RETRYABLE;
         } finally {
             Utils.forceClose(response);
         }
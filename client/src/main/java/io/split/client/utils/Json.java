@@ -32,8 +32,16 @@ public class Json {
         return _json.toJson(obj);
     }
 
+    public static void toJson(Object obj, Appendable writer) {
+        _json.toJson(obj, writer);
+    }
+
     public static <T> T fromJson(String json, Class<T> clz) {
         return _json.fromJson(json, clz);
     }
 
+    public static <T> T fromJson(String json, Type type) {
+        return _json.fromJson(json, type);
+    }
+
 }
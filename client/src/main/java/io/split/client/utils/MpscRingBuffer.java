@@ -0,0 +1,75 @@
+package io.split.client.utils;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Multi producer, single consumer bounded ring buffer. A producer first claims a sequence number and then publishes
+ * its element in its slot, so the consumer stops at the first claimed slot that is still empty and picks it up on its
+ * next drain.
+ */
+public final class MpscRingBuffer<T> {
+    private final AtomicReferenceArray<T> _buffer;
+    private final int _mask;
+    private final int _capacity;
+    private final AtomicLong _producerIndex = new AtomicLong();
+    private final AtomicLong _consumerIndex = new AtomicLong();
+
+    public MpscRingBuffer(int capacity) {
+        int length = nextPowerOfTwo(Math.max(capacity, 1));
+        _buffer = new AtomicReferenceArray<>(length);
+        _mask = length - 1;
+        _capacity = capacity;
+    }
+
+    public boolean offer(T element) {
+        long consumerIndex = _consumerIndex.get();
+        while (true) {
+            long producerIndex = _producerIndex.get();
+            if (producerIndex - consumerIndex >= _capacity) {
+                consumerIndex = _consumerIndex.get();
+                if (producerIndex - consumerIndex >= _capacity) {
+                    return false;
+                }
+            }
+            if (_producerIndex.compareAndSet(producerIndex, producerIndex + 1)) {
+                _buffer.lazySet((int) producerIndex & _mask, element);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Must only be called by one thread at a time.
+     */
+    public void drainTo(List<T> target, int max) {
+        long consumerIndex = _consumerIndex.get();
+        int drained = 0;
+        while (drained < max) {
+            int slot = (int) consumerIndex & _mask;
+            T element = _buffer.get(slot);
+            if (element == null) {
+                break; // Empty, or claimed by a producer that hasn't published yet
+            }
+            _buffer.lazySet(slot, null);
+            target.add(element);
+            consumerIndex++;
+            drained++;
+        }
+        _consumerIndex.lazySet(consumerIndex);
+    }
+
+    public boolean isFull() {
+        return size() >= _capacity;
+    }
+
+    public long size() {
+        return Math.max(0, _producerIndex.get() - _consumerIndex.get());
+    }
+
+    public static int nextPowerOfTwo(int value) {
+        int highest = Integer.highestOneBit(value);
+        return highest == value ? value : highest << 1;
+    }
+}
@@ -299,4 +299,161 @@ public final class MurmurHash3 {
 
         return new long[] { h1, h2 };
     }
-}
\ No newline at end of file
+
+    /**
+     * Incremental version of {@link #hash128x64(byte[], int, int, long)}.
+     *
+     * Bytes are mixed in as they are fed, so a hash over several values can be computed without building a String
+     * or a byte array for them first. Feeding the same bytes produces the same hash. Instances are not thread safe
+     * but can be reused after calling {@link #reset(long)}.
+     */
+    public static final class Hasher128x64 {
+        private long _h1;
+        private long _h2;
+        private long _k1;
+        private long _k2;
+        private int _position;
+        private int _length;
+
+        public Hasher128x64() {
+            reset(0);
+        }
+
+        public Hasher128x64 reset(long seed) {
+            _h1 = seed;
+            _h2 = seed;
+            _k1 = 0;
+            _k2 = 0;
+            _position = 0;
+            _length = 0;
+            return this;
+        }
+
+        public Hasher128x64 putByte(int b) {
+            long value = b & 0xffL;
+            if (_position < 8) {
+                _k1 |= value << (_position << 3);
+            } else {
+                _k2 |= value << ((_position - 8) << 3);
+            }
+            _length++;
+            if (++_position == 16) {
+                mixBlock();
+            }
+            return this;
+        }
+
+        /**
+         * Feeds the UTF-8 encoding of the given chars, the same bytes {@code String.getBytes(UTF_8)} would produce.
+         * Malformed surrogates are encoded as '?', like the JDK does.
+         */
+        public Hasher128x64 putUtf8(CharSequence chars) {
+            int length = chars.length();
+            for (int i = 0; i < length; i++) {
+                char c = chars.charAt(i);
+                if (c < 0x80) {
+                    putByte(c);
+                } else if (c < 0x800) {
+                    putByte(0xc0 | (c >> 6));
+                    putByte(0x80 | (c & 0x3f));
+                } else if (!Character.isSurrogate(c)) {
+                    putByte(0xe0 | (c >> 12));
+                    putByte(0x80 | ((c >> 6) & 0x3f));
+                    putByte(0x80 | (c & 0x3f));
+                } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(chars.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, chars.charAt(++i));
+                    putByte(0xf0 | (codePoint >> 18));
+                    putByte(0x80 | ((codePoint >> 12) & 0x3f));
+                    putByte(0x80 | ((codePoint >> 6) & 0x3f));
+                    putByte(0x80 | (codePoint & 0x3f));
+                } else {
+                    putByte('?');
+                }
+            }
+            return this;
+        }
+
+        /**
+         * Feeds the decimal representation of the given number, as {@code Long.toString} would write it.
+         */
+        public Hasher128x64 putDecimal(long value) {
+            if (value == Long.MIN_VALUE) {
+                return putUtf8("-9223372036854775808");
+            }
+            if (value < 0) {
+                putByte('-');
+                value = -value;
+            }
+            long divisor = 1;
+            while (divisor <= value / 10) {
+                divisor *= 10;
+            }
+            for (; divisor > 0; divisor /= 10) {
+                putByte((int) ('0' + (value / divisor) % 10));
+            }
+            return this;
+        }
+
+        /**
+         * @return the first 64 bits of the 128-bit hash of everything fed since the last reset. The hasher must be
+         * reset before being fed again.
+         */
+        public long hash64() {
+            long h1 = _h1;
+            long h2 = _h2;
+            long k1 = _k1;
+            long k2 = _k2;
+
+            // tail
+            if (_position > 8) {
+                k2 *= C2;
+                k2 = Long.rotateLeft(k2, R3);
+                k2 *= C1;
+                h2 ^= k2;
+            }
+            if (_position > 0) {
+                k1 *= C1;
+                k1 = Long.rotateLeft(k1, R1);
+                k1 *= C2;
+                h1 ^= k1;
+            }
+
+            // finalization
+            h1 ^= _length;
+            h2 ^= _length;
+
+            h1 += h2;
+            h2 += h1;
+
+            h1 = fmix64(h1);
+            h2 = fmix64(h2);
+
+            return h1 + h2;
+        }
+
+        private void mixBlock() {
+            long k1 = _k1;
+            long k2 = _k2;
+
+            k1 *= C1;
+            k1 = Long.rotateLeft(k1, R1);
+            k1 *= C2;
+            _h1 ^= k1;
+            _h1 = Long.rotateLeft(_h1, R2);
+            _h1 += _h2;
+            _h1 = _h1 * M + N1;
+
+            k2 *= C2;
+            k2 = Long.rotateLeft(k2, R3);
+            k2 *= C1;
+            _h2 ^= k2;
+            _h2 = Long.rotateLeft(_h2, R1);
+            _h2 += _h1;
+            _h2 = _h2 * M + N2;
+
+            _k1 = 0;
+            _k2 = 0;
+            _position = 0;
+        }
+    }
+}
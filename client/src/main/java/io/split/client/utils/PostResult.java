@@ -0,0 +1,29 @@
+package io.split.client.utils;
+
+import org.apache.hc.core5.http.HttpStatus;
+
+/**
+ * Outcome of posting a batch of records, which tells whether it's worth sending it again.
+ */
+public enum PostResult {
+    /** The records were accepted. */
+    ACCEPTED,
+    /** The post failed on I/O, or the server was unavailable or throttling, so the same records may be accepted later. */
+    RETRYABLE,
+    /** The server rejected the records, sending them again would fail the same way. */
+    REJECTED;
+
+    public static PostResult fromStatus(int status) {
+        if (status >= HttpStatus.SC_OK && status < HttpStatus.SC_MULTIPLE_CHOICES) {
+            return ACCEPTED;
+        }
+        if (status == HttpStatus.SC_TOO_MANY_REQUESTS || status >= HttpStatus.SC_SERVER_ERROR) {
+            return RETRYABLE;
+        }
+        return REJECTED;
+    }
+
+    public boolean isAccepted() {
+        return this == ACCEPTED;
+    }
+}
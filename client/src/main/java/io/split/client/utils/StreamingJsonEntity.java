@@ -0,0 +1,212 @@
+package io.split.client.utils;
+
+import io.split.telemetry.storage.TelemetryRuntimeProducer;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.io.entity.AbstractHttpEntity;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Entity that serializes its payload to JSON while the request is being sent.
+ *
+ * Unlike a {@code StringEntity}, the JSON is never held in memory: Gson writes it straight to the connection, optionally
+ * through gzip, and the request is sent chunked. The size of the payload before and after compression is reported to
+ * telemetry the first time it is written, so a request the HTTP client retries is only counted once.
+ */
+public class StreamingJsonEntity extends AbstractHttpEntity {
+
+    private static final String GZIP = "gzip";
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final ThreadLocal<byte[]> BUFFERS = ThreadLocal.withInitial(() -> new byte[BUFFER_SIZE]);
+
+    private final Object _payload;
+    private final boolean _compressed;
+    private final TelemetryRuntimeProducer _telemetryRuntimeProducer;
+    private final AtomicBoolean _recorded = new AtomicBoolean();
+    private volatile long _bytesSent;
+
+    /**
+     * @param payload object to serialize.
+     * @param compressed whether to gzip the JSON.
+     * @param telemetryRuntimeProducer where to report the payload size, can be null.
+     */
+    public StreamingJsonEntity(Object payload, boolean compressed, TelemetryRuntimeProducer telemetryRuntimeProducer) {
+        super(ContentType.APPLICATION_JSON, compressed ? GZIP : null, true);
+        _payload = payload;
+        _compressed = compressed;
+        _telemetryRuntimeProducer = telemetryRuntimeProducer;
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        CountingOutputStream sent = new CountingOutputStream(out);
+        long jsonBytes = write(sent);
+        _bytesSent = sent.count();
+
+        if (_telemetryRuntimeProducer != null && _recorded.compareAndSet(false, true)) {
+            _telemetryRuntimeProducer.recordPayloadSize(jsonBytes, sent.count());
+        }
+    }
+
+    /**
+     * @return size of the JSON, before compression.
+     */
+    private long write(OutputStream out) throws IOException {
+        if (!_compressed) {
+            CountingOutputStream json = new CountingOutputStream(out);
+            writeJson(json);
+            return json.count();
+        }
+
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            GzipOutputStream gzip = new GzipOutputStream(out, deflater);
+            CountingOutputStream json = new CountingOutputStream(gzip);
+            writeJson(json);
+            gzip.finish();
+            return json.count();
+        } finally {
+            deflater.end(); // Releases its native memory right away instead of on finalization
+        }
+    }
+
+    private void writeJson(OutputStream out) throws IOException {
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        Json.toJson(_payload, writer);
+        writer.flush();
+    }
+
+    /**
+     * @return size of the payload written by the last {@link #writeTo(OutputStream)}, after compression, or 0 if it
+     * wasn't written yet.
+     */
+    public long bytesSent() {
+        return _bytesSent;
+    }
+
+    /**
+     * Only used when the entity is read back instead of being sent, it buffers the whole payload and isn't reported
+     * to telemetry.
+     */
+    @Override
+    public InputStream getContent() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        write(out);
+        return new ByteArrayInputStream(out.toByteArray());
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    @Override
+    public long getContentLength() {
+        return -1;
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return false;
+    }
+
+    @Override
+    public void close() {
+        // Nothing to release, the payload is only read while writing
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long _count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            _count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            _count += len;
+        }
+
+        long count() {
+            return _count;
+        }
+    }
+
+    /**
+     * Same output as {@link java.util.zip.GZIPOutputStream}, but on the caller's deflater, which the caller ends, and
+     * this thread's buffer instead of allocating a new one for every request.
+     */
+    private static final class GzipOutputStream extends OutputStream {
+        private static final byte[] HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+        private final OutputStream _out;
+        private final Deflater _deflater;
+        private final byte[] _buffer = BUFFERS.get();
+        private final CRC32 _crc = new CRC32();
+
+        GzipOutputStream(OutputStream out, Deflater deflater) throws IOException {
+            _out = out;
+            _deflater = deflater;
+            _out.write(HEADER);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return;
+            }
+            _crc.update(b, off, len);
+            _deflater.setInput(b, off, len);
+            while (!_deflater.needsInput()) {
+                deflate();
+            }
+        }
+
+        void finish() throws IOException {
+            _deflater.finish();
+            while (!_deflater.finished()) {
+                deflate();
+            }
+            writeInt((int) _crc.getValue());
+            writeInt(_deflater.getTotalIn());
+        }
+
+        private void deflate() throws IOException {
+            int length = _deflater.deflate(_buffer, 0, _buffer.length);
+            if (length > 0) {
+                _out.write(_buffer, 0, length);
+            }
+        }
+
+        private void writeInt(int value) throws IOException {
+            _out.write(value & 0xff);
+            _out.write((value >> 8) & 0xff);
+            _out.write((value >> 16) & 0xff);
+            _out.write((value >> 24) & 0xff);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package io.split.client.utils;
 
 import com.google.common.base.Charsets;
+import io.split.telemetry.storage.TelemetryRuntimeProducer;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpResponse;
 import org.apache.hc.core5.http.ContentType;
 import org.apache.hc.core5.http.HttpEntity;
@@ -24,6 +25,14 @@ public class Utils {
         return HttpEntities.create(json, ContentType.APPLICATION_JSON);
     }
 
+    /**
+     * @return an entity that serializes the object while it's being sent, gzipping it if compressed is true, and
+     * reports the size of the payload to telemetry.
+     */
+    public static StreamingJsonEntity toJsonEntity(Object obj, boolean compressed, TelemetryRuntimeProducer telemetryRuntimeProducer) {
+        return new StreamingJsonEntity(obj, compressed, telemetryRuntimeProducer);
+    }
+
 
     public static void forceClose(CloseableHttpResponse response) {
         try {
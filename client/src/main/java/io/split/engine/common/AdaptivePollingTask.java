@@ -0,0 +1,115 @@
+package io.split.engine.common;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Polls a single resource with a fixed delay that adapts to how often the resource changes.
+ *
+ * Every run that finds no change doubles the delay until the next one, up to {@code maxDelaySeconds}, and a run
+ * that finds a change brings it back to {@code minDelaySeconds}. With both bounds equal this behaves like
+ * scheduleWithFixedDelay.
+ */
+public class AdaptivePollingTask {
+    private static final Logger _log = LoggerFactory.getLogger(AdaptivePollingTask.class);
+
+    private final String _name;
+    private final ScheduledExecutorService _executor;
+    private final BooleanSupplier _fetch;
+    private final long _minDelaySeconds;
+    private final long _maxDelaySeconds;
+
+    private long _delaySeconds;
+    private long _generation;
+    private boolean _running;
+    private ScheduledFuture<?> _future;
+
+    /**
+     * @param fetch polls the resource, returning true if it changed since the previous poll.
+     */
+    public AdaptivePollingTask(String name, ScheduledExecutorService executor, BooleanSupplier fetch, long minDelaySeconds, long maxDelaySeconds) {
+        checkArgument(minDelaySeconds >= 0L);
+        checkArgument(maxDelaySeconds >= minDelaySeconds);
+        _name = checkNotNull(name);
+        _executor = checkNotNull(executor);
+        _fetch = checkNotNull(fetch);
+        _minDelaySeconds = minDelaySeconds;
+        _maxDelaySeconds = maxDelaySeconds;
+        _delaySeconds = minDelaySeconds;
+    }
+
+    /**
+     * Polls right away and keeps polling until stopped. The delay starts over from its lower bound, since
+     * whatever made polling stop (such as streaming) may have hidden changes.
+     */
+    public synchronized void start() {
+        if (_running) {
+            return;
+        }
+        _running = true;
+        _generation++;
+        _delaySeconds = _minDelaySeconds;
+        schedule(0L, _generation);
+    }
+
+    public synchronized void stop() {
+        if (!_running) {
+            return;
+        }
+        _running = false;
+        _generation++;
+        if (_future != null) {
+            _future.cancel(false);
+            _future = null;
+        }
+    }
+
+    public synchronized boolean isRunning() {
+        return _running;
+    }
+
+    /**
+     * @return delay in seconds that will be used after the next poll that finds no change.
+     */
+    public synchronized long currentDelaySeconds() {
+        return _delaySeconds;
+    }
+
+    private void schedule(long delaySeconds, long generation) {
+        try {
+            _future = _executor.schedule(() -> runAndReschedule(generation), delaySeconds, TimeUnit.SECONDS);
+        } catch (RejectedExecutionException e) {
+            _log.debug(String.format("%s polling not rescheduled, executor is shut down", _name));
+            _running = false;
+        }
+    }
+
+    private void runAndReschedule(long generation) {
+        boolean changed = false;
+        try {
+            changed = _fetch.getAsBoolean();
+        } catch (Exception e) {
+            _log.warn(String.format("%s polling failed: %s", _name, e.getMessage()));
+        }
+
+        synchronized (this) {
+            if (!_running || generation != _generation) {
+                return; // Stopped, or restarted by someone else while we were fetching
+            }
+            _delaySeconds = changed ? _minDelaySeconds : Math.min(Math.max(_delaySeconds * 2, 1L), _maxDelaySeconds);
+            if (_delaySeconds != _minDelaySeconds) {
+                _log.debug(String.format("%s unchanged, next poll in %s seconds", _name, _delaySeconds));
+            }
+            schedule(_delaySeconds, generation);
+        }
+    }
+}
@@ -1,7 +1,6 @@
 package io.split.engine.common;
 
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import io.split.engine.sse.AuthApiClient;
 import io.split.engine.sse.AuthApiClientImp;
 import io.split.engine.sse.EventSourceClient;
@@ -26,7 +25,6 @@ import org.slf4j.LoggerFactory;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -53,6 +51,18 @@ public class PushManagerImp implements PushManager {
                                              Worker<SegmentQueueDto> segmentWorker,
                                              PushStatusTracker pushStatusTracker,
                                             TelemetryRuntimeProducer telemetryRuntimeProducer) {
+        this(authApiClient, eventSourceClient, splitsWorker, segmentWorker, pushStatusTracker, telemetryRuntimeProducer,
+                SDKScheduler.defaultScheduler());
+    }
+
+    @VisibleForTesting
+    /* package private */ PushManagerImp(AuthApiClient authApiClient,
+                                             EventSourceClient eventSourceClient,
+                                             SplitsWorker splitsWorker,
+                                             Worker<SegmentQueueDto> segmentWorker,
+                                             PushStatusTracker pushStatusTracker,
+                                             TelemetryRuntimeProducer telemetryRuntimeProducer,
+                                             SDKScheduler scheduler) {
 
         _authApiClient = checkNotNull(authApiClient);
         _eventSourceClient = checkNotNull(eventSourceClient);
@@ -60,10 +70,7 @@ public class PushManagerImp implements PushManager {
         _segmentWorker = segmentWorker;
         _pushStatusTracker = pushStatusTracker;
         _expirationTime = new AtomicLong();
-        _scheduledExecutorService = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
-                .setDaemon(true)
-                .setNameFormat("Split-SSERefreshToken-%d")
-                .build());
+        _scheduledExecutorService = scheduler.newScheduledExecutor("Split-SSERefreshToken", 1);
         _telemetryRuntimeProducer = checkNotNull(telemetryRuntimeProducer);
     }
 
@@ -74,14 +81,26 @@ public class PushManagerImp implements PushManager {
                                        LinkedBlockingQueue<PushManager.Status> statusMessages,
                                        CloseableHttpClient sseHttpClient,
                                        TelemetryRuntimeProducer telemetryRuntimeProducer) {
-        SplitsWorker splitsWorker = new SplitsWorkerImp(synchronizer);
-        Worker<SegmentQueueDto> segmentWorker = new SegmentsWorkerImp(synchronizer);
+        return build(synchronizer, streamingUrl, authUrl, httpClient, statusMessages, sseHttpClient, telemetryRuntimeProducer,
+                SDKScheduler.defaultScheduler());
+    }
+
+    public static PushManagerImp build(Synchronizer synchronizer,
+                                       String streamingUrl,
+                                       String authUrl,
+                                       CloseableHttpClient httpClient,
+                                       LinkedBlockingQueue<PushManager.Status> statusMessages,
+                                       CloseableHttpClient sseHttpClient,
+                                       TelemetryRuntimeProducer telemetryRuntimeProducer,
+                                       SDKScheduler scheduler) {
+        SplitsWorker splitsWorker = new SplitsWorkerImp(synchronizer, scheduler);
+        Worker<SegmentQueueDto> segmentWorker = new SegmentsWorkerImp(synchronizer, scheduler);
         PushStatusTracker pushStatusTracker = new PushStatusTrackerImp(statusMessages, telemetryRuntimeProducer);
         return new PushManagerImp(new AuthApiClientImp(authUrl, httpClient, telemetryRuntimeProducer),
-                EventSourceClientImp.build(streamingUrl, splitsWorker, segmentWorker, pushStatusTracker, sseHttpClient, telemetryRuntimeProducer),
+                EventSourceClientImp.build(streamingUrl, splitsWorker, segmentWorker, pushStatusTracker, sseHttpClient, telemetryRuntimeProducer, scheduler),
                 splitsWorker,
                 segmentWorker,
-                pushStatusTracker, telemetryRuntimeProducer);
+                pushStatusTracker, telemetryRuntimeProducer, scheduler);
     }
 
     @Override
@@ -0,0 +1,147 @@
+package io.split.engine.common;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.split.client.SplitClientConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single place where the SDK gets its threads from.
+ *
+ * Components ask for a named executor (a view with its own lifecycle and concurrency limit) instead of building
+ * their own pools. Every view of a scheduler shares one timer thread, a pool of workers for short tasks and a pool
+ * for blocking loops such as the SSE connection or the push workers. Idle threads are released after a minute.
+ *
+ * Unless configured otherwise, all factories in the JVM share {@link #defaultScheduler()}. On Java 21+ its workers
+ * are virtual threads.
+ */
+public class SDKScheduler {
+    private static final Logger _log = LoggerFactory.getLogger(SDKScheduler.class);
+
+    private static final long IDLE_KEEP_ALIVE_SECONDS = 60L;
+    private static final int UNBOUNDED = Integer.MAX_VALUE;
+
+    private static volatile SDKScheduler _defaultScheduler;
+
+    private final ScheduledExecutorService _timer;
+    private final ExecutorService _workers;
+    private final ExecutorService _longRunning;
+    private final boolean _virtualThreads;
+    private final List<ExecutorService> _owned = new ArrayList<>();
+
+    /**
+     * @return the scheduler shared by every factory that doesn't bring its own executor or thread factory.
+     */
+    public static synchronized SDKScheduler defaultScheduler() {
+        if (_defaultScheduler == null) {
+            _defaultScheduler = new SDKScheduler(null, null, true);
+        }
+        return _defaultScheduler;
+    }
+
+    public static SDKScheduler forConfig(SplitClientConfig config) {
+        if (config.scheduledExecutorService() == null && config.threadFactory() == null && config.virtualThreadsEnabled()) {
+            return defaultScheduler();
+        }
+        return new SDKScheduler(config.scheduledExecutorService(), config.threadFactory(), config.virtualThreadsEnabled());
+    }
+
+    /**
+     * @param executor if not null, used both as timer and to run short tasks. It is never shut down by the SDK.
+     * @param threadFactory if not null, used to create every thread the scheduler needs.
+     * @param useVirtualThreads whether to run on virtual threads when the JVM supports them and no thread factory is given.
+     */
+    public SDKScheduler(ScheduledExecutorService executor, ThreadFactory threadFactory, boolean useVirtualThreads) {
+        ExecutorService virtual = (threadFactory == null && useVirtualThreads)
+                ? VirtualThreads.newThreadPerTaskExecutor("split-worker-")
+                : null;
+        _virtualThreads = virtual != null;
+
+        if (virtual != null) {
+            _longRunning = own(virtual);
+        } else {
+            _longRunning = own(new ThreadPoolExecutor(0, UNBOUNDED, IDLE_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                    new SynchronousQueue<>(), threadFactory != null ? threadFactory : daemonThreadFactory("split-worker-%d")));
+        }
+
+        if (executor != null) {
+            _timer = executor;
+            _workers = executor;
+        } else {
+            ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1,
+                    threadFactory != null ? threadFactory : daemonThreadFactory("split-scheduler-%d"));
+            timer.setKeepAliveTime(IDLE_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+            timer.allowCoreThreadTimeOut(true);
+            timer.setRemoveOnCancelPolicy(true);
+            _timer = own(timer);
+            _workers = _longRunning;
+        }
+
+        _log.debug(String.format("SDK scheduler created. Virtual threads: %s", _virtualThreads));
+    }
+
+    /**
+     * @param name used to name threads while they run tasks for this executor.
+     * @param parallelism max number of tasks of this executor running at the same time.
+     */
+    public ScheduledExecutorService newScheduledExecutor(String name, int parallelism) {
+        return new ScheduledTaskGroup(name, _timer, _workers, parallelism, UNBOUNDED);
+    }
+
+    /**
+     * Like {@link #newScheduledExecutor(String, int)} but rejecting tasks with a RejectedExecutionException once
+     * {@code queueCapacity} of them are waiting to run.
+     */
+    public ScheduledExecutorService newBoundedExecutor(String name, int parallelism, int queueCapacity) {
+        return new ScheduledTaskGroup(name, _timer, _workers, parallelism, queueCapacity);
+    }
+
+    /**
+     * Executor for tasks that block for the lifetime of a component. Tasks run one at a time and never on a
+     * user supplied ScheduledExecutorService, so they can't starve it.
+     */
+    public ExecutorService newLongRunningExecutor(String name) {
+        return new ScheduledTaskGroup(name, _timer, _longRunning, 1, UNBOUNDED);
+    }
+
+    public boolean usesVirtualThreads() {
+        return _virtualThreads;
+    }
+
+    /**
+     * Releases the pools created by this scheduler. Executors supplied by the user and the default scheduler
+     * are left untouched, the latter only holds daemon threads that go away when idle.
+     */
+    public void shutdown() {
+        if (this == _defaultScheduler) {
+            return;
+        }
+        synchronized (this) {
+            for (ExecutorService executor : _owned) {
+                executor.shutdown();
+            }
+        }
+    }
+
+    private synchronized <T extends ExecutorService> T own(T executor) {
+        _owned.add(executor);
+        return executor;
+    }
+
+    private static ThreadFactory daemonThreadFactory(String nameFormat) {
+        return new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat(nameFormat)
+                .build();
+    }
+}
@@ -0,0 +1,341 @@
+package io.split.engine.common;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.RunnableScheduledFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A ScheduledExecutorService view over the executors owned by an {@link SDKScheduler}.
+ *
+ * Each SDK component gets its own group so it can be shut down on its own, but no threads are created here:
+ * delays are tracked by the shared timer and tasks are handed off to the shared workers, never running more than
+ * {@code parallelism} of them at once. Follows ScheduledThreadPoolExecutor defaults on shutdown: periodic tasks
+ * are cancelled and delayed one-shot tasks still run.
+ */
+class ScheduledTaskGroup extends AbstractExecutorService implements ScheduledExecutorService {
+    private static final Logger _log = LoggerFactory.getLogger(ScheduledTaskGroup.class);
+
+    private final String _name;
+    private final ScheduledExecutorService _timer;
+    private final Executor _workers;
+    private final int _parallelism;
+    private final int _queueCapacity;
+
+    private final Object _lock = new Object();
+    private final ArrayDeque<Runnable> _pending = new ArrayDeque<>();
+    private final Set<RunnableFuture<?>> _tasks = ConcurrentHashMap.newKeySet();
+    private int _active;
+    private volatile boolean _shutdown;
+
+    ScheduledTaskGroup(String name, ScheduledExecutorService timer, Executor workers, int parallelism, int queueCapacity) {
+        checkArgument(parallelism > 0, "parallelism must be > 0");
+        checkArgument(queueCapacity >= 0, "queueCapacity must be >= 0");
+        _name = checkNotNull(name);
+        _timer = checkNotNull(timer);
+        _workers = checkNotNull(workers);
+        _parallelism = parallelism;
+        _queueCapacity = queueCapacity;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        checkNotNull(command);
+        if (_shutdown) {
+            throw new RejectedExecutionException(String.format("%s has been shut down", _name));
+        }
+        if (command instanceof TrackedTask) {
+            _tasks.add((TrackedTask<?>) command);
+        }
+        try {
+            dispatch(command);
+        } catch (RejectedExecutionException e) {
+            _tasks.remove(command);
+            throw e;
+        }
+    }
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Runnable runnable, T value) {
+        return new TrackedTask<>(runnable, value);
+    }
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Callable<T> callable) {
+        return new TrackedTask<>(callable);
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+        checkNotNull(command);
+        return arm(new DelayedTask<Void>(command, triggerTime(delay, unit), 0));
+    }
+
+    @Override
+    public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+        checkNotNull(callable);
+        return arm(new DelayedTask<>(callable, triggerTime(delay, unit)));
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+        checkNotNull(command);
+        checkArgument(period > 0, "period must be > 0");
+        return arm(new DelayedTask<Void>(command, triggerTime(initialDelay, unit), unit.toNanos(period)));
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
+        checkNotNull(command);
+        checkArgument(delay > 0, "delay must be > 0");
+        return arm(new DelayedTask<Void>(command, triggerTime(initialDelay, unit), -unit.toNanos(delay)));
+    }
+
+    @Override
+    public void shutdown() {
+        _shutdown = true;
+        for (RunnableFuture<?> task : _tasks) {
+            if (task instanceof DelayedTask && ((DelayedTask<?>) task).isPeriodic()) {
+                task.cancel(false);
+            }
+        }
+        signal();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        _shutdown = true;
+        List<Runnable> notStarted = new ArrayList<>();
+        synchronized (_lock) {
+            notStarted.addAll(_pending);
+            _pending.clear();
+        }
+        for (RunnableFuture<?> task : _tasks) {
+            task.cancel(true);
+        }
+        signal();
+        return notStarted;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return _shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        synchronized (_lock) {
+            return _shutdown && isIdle();
+        }
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (_lock) {
+            while (!(_shutdown && isIdle())) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(_lock, remaining);
+            }
+            return true;
+        }
+    }
+
+    private boolean isIdle() {
+        return _active == 0 && _pending.isEmpty() && _tasks.isEmpty();
+    }
+
+    private void signal() {
+        synchronized (_lock) {
+            _lock.notifyAll();
+        }
+    }
+
+    private void dispatch(Runnable task) {
+        synchronized (_lock) {
+            if (_active >= _parallelism) {
+                if (_pending.size() >= _queueCapacity) {
+                    throw new RejectedExecutionException(String.format("%s queue is full", _name));
+                }
+                _pending.add(task);
+                return;
+            }
+            _active++;
+        }
+
+        try {
+            _workers.execute(() -> drain(task));
+        } catch (RejectedExecutionException e) {
+            synchronized (_lock) {
+                _active--;
+                _lock.notifyAll();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Runs the given task and then keeps pulling from this group's backlog, so that a busy group reuses the
+     * worker it already has instead of handing every task off again.
+     */
+    private void drain(Runnable first) {
+        Thread current = Thread.currentThread();
+        String workerName = current.getName();
+        current.setName(_name);
+        try {
+            Runnable task = first;
+            while (task != null) {
+                try {
+                    task.run();
+                } catch (Throwable t) {
+                    _log.warn(String.format("Uncaught exception running task in %s", _name), t);
+                }
+                Thread.interrupted(); // Don't leak a cancellation to the next task
+                synchronized (_lock) {
+                    task = _pending.poll();
+                    if (task == null) {
+                        _active--;
+                        _lock.notifyAll();
+                    }
+                }
+            }
+        } finally {
+            current.setName(workerName);
+        }
+    }
+
+    private <V> DelayedTask<V> arm(DelayedTask<V> task) {
+        if (_shutdown) {
+            throw new RejectedExecutionException(String.format("%s has been shut down", _name));
+        }
+        _tasks.add(task);
+        task.arm();
+        return task;
+    }
+
+    private static long triggerTime(long delay, TimeUnit unit) {
+        return System.nanoTime() + unit.toNanos(Math.max(delay, 0));
+    }
+
+    private class TrackedTask<V> extends FutureTask<V> {
+        TrackedTask(Callable<V> callable) {
+            super(callable);
+        }
+
+        TrackedTask(Runnable runnable, V result) {
+            super(runnable, result);
+        }
+
+        @Override
+        protected void done() {
+            _tasks.remove(this);
+            signal();
+        }
+    }
+
+    private class DelayedTask<V> extends TrackedTask<V> implements RunnableScheduledFuture<V> {
+        // 0 for one-shot tasks, > 0 for fixed rate and < 0 for fixed delay, in nanoseconds
+        private final long _period;
+        private volatile long _triggerTime;
+        private volatile ScheduledFuture<?> _timerFuture;
+
+        DelayedTask(Callable<V> callable, long triggerTime) {
+            super(callable);
+            _triggerTime = triggerTime;
+            _period = 0;
+        }
+
+        DelayedTask(Runnable runnable, long triggerTime, long period) {
+            super(runnable, null);
+            _triggerTime = triggerTime;
+            _period = period;
+        }
+
+        @Override
+        public boolean isPeriodic() {
+            return _period != 0;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(_triggerTime - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            if (other == this) {
+                return 0;
+            }
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+        }
+
+        @Override
+        public void run() {
+            if (!isPeriodic()) {
+                super.run();
+                return;
+            }
+            if (!runAndReset()) {
+                return; // Cancelled or failed, in both cases no further executions happen
+            }
+            if (_shutdown) {
+                cancel(false);
+                return;
+            }
+            _triggerTime = _period > 0 ? _triggerTime + _period : System.nanoTime() - _period;
+            arm();
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            ScheduledFuture<?> timerFuture = _timerFuture;
+            if (cancelled && timerFuture != null) {
+                timerFuture.cancel(false);
+            }
+            return cancelled;
+        }
+
+        void arm() {
+            try {
+                _timerFuture = _timer.schedule(this::fire, Math.max(0, _triggerTime - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException e) {
+                _log.warn(String.format("Scheduler for %s is no longer accepting tasks", _name));
+                cancel(false);
+            }
+        }
+
+        private void fire() {
+            if (isCancelled()) {
+                return;
+            }
+            try {
+                dispatch(this);
+            } catch (RejectedExecutionException e) {
+                _log.warn(String.format("Dropping scheduled task in %s: %s", _name, e.getMessage()));
+                cancel(false);
+            }
+        }
+    }
+}
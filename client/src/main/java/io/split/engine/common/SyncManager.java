@@ -3,4 +3,9 @@ package io.split.engine.common;
 public interface SyncManager {
     void start();
     void shutdown();
+
+    /**
+     * @return whether updates are being received through streaming, as opposed to polling.
+     */
+    boolean isStreaming();
 }
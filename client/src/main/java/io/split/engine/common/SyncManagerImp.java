@@ -1,7 +1,6 @@
 package io.split.engine.common;
 
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import io.split.cache.SegmentCache;
 import io.split.cache.SplitCache;
 import io.split.client.ApiKeyCounter;
@@ -12,6 +11,7 @@ import io.split.engine.experiments.SplitSynchronizationTask;
 import io.split.engine.segments.SegmentSynchronizationTaskImp;
 import io.split.telemetry.domain.StreamingEvent;
 import io.split.telemetry.domain.enums.StreamEventsEnum;
+import io.split.telemetry.jfr.SdkEvents;
 import io.split.telemetry.storage.TelemetryRuntimeProducer;
 import io.split.telemetry.synchronizer.TelemetrySynchronizer;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
@@ -20,7 +20,6 @@ import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -39,6 +38,7 @@ public class SyncManagerImp implements SyncManager {
     private final ExecutorService _startExecutorService;
     private final SDKReadinessGates _gates;
     private Future<?> _pushStatusMonitorTask;
+    private volatile boolean _streaming;
     private Backoff _backoff;
     private final TelemetryRuntimeProducer _telemetryRuntimeProducer;
     private final TelemetrySynchronizer _telemetrySynchronizer;
@@ -53,19 +53,27 @@ public class SyncManagerImp implements SyncManager {
                                          SDKReadinessGates gates, TelemetryRuntimeProducer telemetryRuntimeProducer,
                                          TelemetrySynchronizer telemetrySynchronizer,
                                          SplitClientConfig config) {
+        this(streamingEnabledConfig, synchronizer, pushManager, pushMessages, authRetryBackOffBase, gates, telemetryRuntimeProducer,
+                telemetrySynchronizer, config, SDKScheduler.defaultScheduler());
+    }
+
+    @VisibleForTesting
+    /* package private */ SyncManagerImp(boolean streamingEnabledConfig,
+                                         Synchronizer synchronizer,
+                                         PushManager pushManager,
+                                         LinkedBlockingQueue<PushManager.Status> pushMessages,
+                                         int authRetryBackOffBase,
+                                         SDKReadinessGates gates, TelemetryRuntimeProducer telemetryRuntimeProducer,
+                                         TelemetrySynchronizer telemetrySynchronizer,
+                                         SplitClientConfig config,
+                                         SDKScheduler scheduler) {
         _streamingEnabledConfig = new AtomicBoolean(streamingEnabledConfig);
         _synchronizer = checkNotNull(synchronizer);
         _pushManager = checkNotNull(pushManager);
         _shutdown = new AtomicBoolean(false);
         _incomingPushStatus = pushMessages;
-        _executorService = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
-                .setNameFormat("SPLIT-PushStatusMonitor-%d")
-                .setDaemon(true)
-                .build());
-        _startExecutorService = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
-                .setNameFormat("SPLIT-PollingMode-%d")
-                .setDaemon(true)
-                .build());
+        _executorService = scheduler.newLongRunningExecutor("SPLIT-PushStatusMonitor");
+        _startExecutorService = scheduler.newLongRunningExecutor("SPLIT-PollingMode");
         _backoff = new Backoff(authRetryBackOffBase);
         _gates = checkNotNull(gates);
         _telemetryRuntimeProducer = checkNotNull(telemetryRuntimeProducer);
@@ -92,6 +100,32 @@ public class SyncManagerImp implements SyncManager {
                                        TelemetryRuntimeProducer telemetryRuntimeProducer,
                                        TelemetrySynchronizer telemetrySynchronizer,
                                        SplitClientConfig config) {
+        return build(streamingEnabledConfig, splitSynchronizationTask, splitFetcher, segmentSynchronizationTaskImp, splitCache, authUrl,
+                httpClient, streamingServiceUrl, authRetryBackOffBase, sseHttpClient, segmentCache, streamingRetryDelay,
+                maxOnDemandFetchRetries, failedAttemptsBeforeLogging, cdnDebugLogging, gates, telemetryRuntimeProducer,
+                telemetrySynchronizer, config, SDKScheduler.defaultScheduler());
+    }
+
+    public static SyncManagerImp build(boolean streamingEnabledConfig,
+                                       SplitSynchronizationTask splitSynchronizationTask,
+                                       SplitFetcher splitFetcher,
+                                       SegmentSynchronizationTaskImp segmentSynchronizationTaskImp,
+                                       SplitCache splitCache,
+                                       String authUrl,
+                                       CloseableHttpClient httpClient,
+                                       String streamingServiceUrl,
+                                       int authRetryBackOffBase,
+                                       CloseableHttpClient sseHttpClient,
+                                       SegmentCache segmentCache,
+                                       int streamingRetryDelay,
+                                       int maxOnDemandFetchRetries,
+                                       int failedAttemptsBeforeLogging,
+                                       boolean cdnDebugLogging,
+                                       SDKReadinessGates gates,
+                                       TelemetryRuntimeProducer telemetryRuntimeProducer,
+                                       TelemetrySynchronizer telemetrySynchronizer,
+                                       SplitClientConfig config,
+                                       SDKScheduler scheduler) {
         LinkedBlockingQueue<PushManager.Status> pushMessages = new LinkedBlockingQueue<>();
         Synchronizer synchronizer = new SynchronizerImp(splitSynchronizationTask,
                                         splitFetcher,
@@ -110,7 +144,8 @@ public class SyncManagerImp implements SyncManager {
                                                         httpClient,
                                                         pushMessages,
                                                         sseHttpClient,
-                                                        telemetryRuntimeProducer);
+                                                        telemetryRuntimeProducer,
+                                                        scheduler);
 
         return new SyncManagerImp(streamingEnabledConfig,
                                   synchronizer,
@@ -120,7 +155,8 @@ public class SyncManagerImp implements SyncManager {
                                   gates, 
                                   telemetryRuntimeProducer,
                                   telemetrySynchronizer, 
-                                  config);
+                                  config,
+                                  scheduler);
     }
 
     @Override
@@ -147,10 +183,16 @@ public class SyncManagerImp implements SyncManager {
     @Override
     public void shutdown() {
         _shutdown.set(true);
+        _streaming = false;
         _synchronizer.stopPeriodicFetching();
         _pushManager.stop();
     }
 
+    @Override
+    public boolean isStreaming() {
+        return _streaming;
+    }
+
     private void startStreamingMode() {
         _log.debug("Starting in streaming mode ...");
         if (null == _pushStatusMonitorTask) {
@@ -172,6 +214,7 @@ public class SyncManagerImp implements SyncManager {
             try {
                 PushManager.Status status = _incomingPushStatus.take();
                 _log.debug(String.format("Streaming status received: %s", status.toString()));
+                SdkEvents.streamingStatus(status.name());
                 switch (status) {
                     case STREAMING_READY:
                         _synchronizer.stopPeriodicFetching();
@@ -179,15 +222,18 @@ public class SyncManagerImp implements SyncManager {
                         _pushManager.startWorkers();
                         _pushManager.scheduleConnectionReset();
                         _backoff.reset();
+                        _streaming = true;
                         _telemetryRuntimeProducer.recordStreamingEvents(new StreamingEvent(StreamEventsEnum.STREAMING_STATUS.getType(), StreamEventsEnum.StreamingStatusValues.STREAMING_ENABLED.getValue(), System.currentTimeMillis()));
                         _log.info("Streaming up and running.");
                         break;
                     case STREAMING_DOWN:
+                        _streaming = false;
                         _log.info("Streaming service temporarily unavailable, working in polling mode.");
                         _pushManager.stopWorkers();
                         _synchronizer.startPeriodicFetching();
                         break;
                     case STREAMING_BACKOFF:
+                        _streaming = false;
                         long howLong = _backoff.interval() * 1000;
                         _log.info(String.format("Retryable error in streaming subsystem. Switching to polling and retrying in %d seconds", howLong/1000));
                         _synchronizer.startPeriodicFetching();
@@ -198,6 +244,7 @@ public class SyncManagerImp implements SyncManager {
                         _pushManager.start();
                         break;
                     case STREAMING_OFF:
+                        _streaming = false;
                         _log.info("Unrecoverable error in streaming subsystem. SDK will work in polling-mode and will not retry an SSE connection.");
                         _pushManager.stop();
                         _synchronizer.startPeriodicFetching();
@@ -0,0 +1,24 @@
+package io.split.engine.common;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Virtual thread support. This is the Java 8 version, which reports them as unavailable; the
+ * multi-release jar ships a Java 21 version of this class under META-INF/versions/21.
+ */
+final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    static boolean available() {
+        return false;
+    }
+
+    /**
+     * @return an executor that starts a new virtual thread for each task, or null if they are not supported.
+     */
+    static ExecutorService newThreadPerTaskExecutor(String namePrefix) {
+        return null;
+    }
+}
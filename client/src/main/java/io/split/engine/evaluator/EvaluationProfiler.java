@@ -0,0 +1,170 @@
+package io.split.engine.evaluator;
+
+import io.split.client.api.EvaluationProfile;
+import io.split.engine.experiments.ParsedCondition;
+import io.split.engine.matchers.AttributeMatcher;
+import io.split.engine.matchers.Matcher;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Times 1 in sampleRate evaluations, breaking each one down by condition, matcher type and Splitter hashing, and
+ * adds the results up per Split.
+ * <p/>
+ * Deciding not to sample an evaluation is a single thread local random draw; unsampled evaluations take the regular
+ * path of {@link EvaluatorImp} and are not timed at all.
+ */
+public class EvaluationProfiler {
+
+    private static final String UNLABELED = "unlabeled";
+
+    private final int _sampleRate;
+    private final ConcurrentMap<String, SplitProfile> _profiles = new ConcurrentHashMap<>();
+
+    /**
+     * @param sampleRate profile 1 in sampleRate evaluations, 1 to profile all of them.
+     */
+    public EvaluationProfiler(int sampleRate) {
+        checkArgument(sampleRate > 0, "sampleRate must be > 0");
+        _sampleRate = sampleRate;
+    }
+
+    public int sampleRate() {
+        return _sampleRate;
+    }
+
+    /**
+     * @return the profile to record this evaluation of the given Split in, or null if it's not sampled.
+     */
+    SplitProfile sample(String split) {
+        if (_sampleRate > 1 && ThreadLocalRandom.current().nextInt(_sampleRate) != 0) {
+            return null;
+        }
+        SplitProfile profile = _profiles.get(split);
+        if (profile == null) {
+            profile = _profiles.computeIfAbsent(split, s -> new SplitProfile());
+        }
+        return profile;
+    }
+
+    public int size() {
+        return _profiles.size();
+    }
+
+    /**
+     * @return the profile of the given Split, or null if none of its evaluations were sampled yet.
+     */
+    public EvaluationProfile get(String split) {
+        SplitProfile profile = _profiles.get(checkNotNull(split));
+        return profile == null ? null : profile.snapshot(split);
+    }
+
+    /**
+     * @return the profiles of the n Splits whose sampled evaluations took the most time, highest first.
+     */
+    public List<EvaluationProfile> top(int n) {
+        checkArgument(n >= 0, "n must be >= 0");
+        List<Map.Entry<String, Long>> ranked = new ArrayList<>(_profiles.size());
+        for (Map.Entry<String, SplitProfile> entry : _profiles.entrySet()) {
+            ranked.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), entry.getValue()._evaluation._totalNanos.sum()));
+        }
+        ranked.sort(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()));
+
+        List<EvaluationProfile> top = new ArrayList<>(Math.min(n, ranked.size()));
+        for (Map.Entry<String, Long> entry : ranked.subList(0, Math.min(n, ranked.size()))) {
+            top.add(_profiles.get(entry.getKey()).snapshot(entry.getKey()));
+        }
+        return top;
+    }
+
+    static final class SplitProfile {
+        private final Timing _evaluation = new Timing();
+        private final Timing _splitter = new Timing();
+        private final ConcurrentMap<String, Timing> _conditions = new ConcurrentHashMap<>();
+        private final ConcurrentMap<Class<?>, Timing> _matchers = new ConcurrentHashMap<>();
+
+        void evaluated(long nanos) {
+            _evaluation.record(nanos);
+        }
+
+        void hashed(long nanos) {
+            _splitter.record(nanos);
+        }
+
+        /**
+         * Evaluates the matchers of the condition the way {@link io.split.engine.matchers.CombiningMatcher} does
+         * with AND, the only combiner, timing each of them and the whole condition.
+         */
+        boolean match(ParsedCondition condition, String key, String bucketingKey, Map<String, Object> attributes,
+                      Evaluator evaluator) {
+            long conditionStart = System.nanoTime();
+            List<AttributeMatcher> delegates = condition.matcher().attributeMatchers();
+            boolean result = !delegates.isEmpty();
+            for (AttributeMatcher delegate : delegates) {
+                long start = System.nanoTime();
+                result &= delegate.match(key, bucketingKey, attributes, evaluator);
+                timing(_matchers, typeOf(delegate)).record(System.nanoTime() - start);
+            }
+            String label = condition.label() != null ? condition.label() : UNLABELED;
+            timing(_conditions, label).record(System.nanoTime() - conditionStart);
+            return result;
+        }
+
+        private static Class<?> typeOf(AttributeMatcher delegate) {
+            Matcher matcher = delegate.matcher();
+            if (matcher instanceof AttributeMatcher.NegatableMatcher) {
+                matcher = ((AttributeMatcher.NegatableMatcher) matcher).delegate();
+            }
+            return matcher.getClass();
+        }
+
+        private static <K> Timing timing(ConcurrentMap<K, Timing> timings, K key) {
+            Timing timing = timings.get(key);
+            if (timing == null) {
+                timing = timings.computeIfAbsent(key, k -> new Timing());
+            }
+            return timing;
+        }
+
+        EvaluationProfile snapshot(String split) {
+            Map<String, EvaluationProfile.Timing> conditions = new HashMap<>();
+            for (Map.Entry<String, Timing> entry : _conditions.entrySet()) {
+                conditions.put(entry.getKey(), entry.getValue().snapshot());
+            }
+            Map<String, EvaluationProfile.Timing> matchers = new HashMap<>();
+            for (Map.Entry<Class<?>, Timing> entry : _matchers.entrySet()) {
+                matchers.put(entry.getKey().getSimpleName(), entry.getValue().snapshot());
+            }
+            return new EvaluationProfile(split, _evaluation.snapshot(), _splitter.snapshot(), conditions, matchers);
+        }
+    }
+
+    private static final class Timing {
+        private final LongAdder _count = new LongAdder();
+        private final LongAdder _totalNanos = new LongAdder();
+        private final LongAccumulator _maxNanos = new LongAccumulator(Math::max, 0);
+
+        void record(long nanos) {
+            _count.increment();
+            _totalNanos.add(nanos);
+            _maxNanos.accumulate(nanos);
+        }
+
+        EvaluationProfile.Timing snapshot() {
+            return new EvaluationProfile.Timing(_count.sum(), _totalNanos.sum(), _maxNanos.get());
+        }
+    }
+}
@@ -20,9 +20,25 @@ public class EvaluatorImp implements Evaluator {
     private static final Logger _log = LoggerFactory.getLogger(EvaluatorImp.class);
 
     private final SplitCache _splitCache;
+    private final SplitStatsTable _splitStats;
+    private final EvaluationProfiler _profiler;
 
     public EvaluatorImp(SplitCache splitCache) {
+        this(splitCache, null, null);
+    }
+
+    public EvaluatorImp(SplitCache splitCache, SplitStatsTable splitStats) {
+        this(splitCache, splitStats, null);
+    }
+
+    /**
+     * @param splitStats where to record the evaluations of each Split, or null not to record them.
+     * @param profiler   where to time sampled evaluations, or null not to sample them.
+     */
+    public EvaluatorImp(SplitCache splitCache, SplitStatsTable splitStats, EvaluationProfiler profiler) {
         _splitCache = checkNotNull(splitCache);
+        _splitStats = splitStats;
+        _profiler = profiler;
     }
 
     @Override
@@ -34,7 +50,12 @@ public class EvaluatorImp implements Evaluator {
                 return new TreatmentLabelAndChangeNumber(Treatments.CONTROL, Labels.DEFINITION_NOT_FOUND);
             }
 
-            return getTreatment(matchingKey, bucketingKey, parsedSplit, attributes);
+            SplitStatsTable.Row stats = _splitStats != null ? _splitStats.row(parsedSplit.feature()) : null;
+            EvaluationProfiler.SplitProfile profile = _profiler != null ? _profiler.sample(parsedSplit.feature()) : null;
+            if (stats == null && profile == null) {
+                return getTreatment(matchingKey, bucketingKey, parsedSplit, attributes, null, null);
+            }
+            return getTreatmentRecording(matchingKey, bucketingKey, parsedSplit, attributes, stats, profile);
         }
         catch (ChangeNumberExceptionWrapper e) {
             _log.error("Evaluator Exception", e.wrappedException());
@@ -50,10 +71,13 @@ public class EvaluatorImp implements Evaluator {
      * @param bucketingKey
      * @param parsedSplit  MUST NOT be null
      * @param attributes   MUST NOT be null
+     * @param stats        where to count matcher evaluations, null not to count them
+     * @param profile      where to time conditions, matchers and hashing, null not to time them
      * @return
      * @throws ChangeNumberExceptionWrapper
      */
-    private TreatmentLabelAndChangeNumber getTreatment(String matchingKey, String bucketingKey, ParsedSplit parsedSplit, Map<String, Object> attributes) throws ChangeNumberExceptionWrapper {
+    private TreatmentLabelAndChangeNumber getTreatment(String matchingKey, String bucketingKey, ParsedSplit parsedSplit, Map<String, Object> attributes,
+                                                       SplitStatsTable.Row stats, EvaluationProfiler.SplitProfile profile) throws ChangeNumberExceptionWrapper {
         try {
             if (parsedSplit.killed()) {
                 String config = parsedSplit.configurations() != null ? parsedSplit.configurations().get(parsedSplit.defaultTreatment()) : null;
@@ -76,7 +100,7 @@ public class EvaluatorImp implements Evaluator {
 
                     if (parsedSplit.trafficAllocation() < 100) {
                         // if the traffic allocation is 100%, no need to do anything special.
-                        int bucket = Splitter.getBucket(bk, parsedSplit.trafficAllocationSeed(), parsedSplit.algo());
+                        int bucket = getBucket(bk, parsedSplit, profile);
 
                         if (bucket > parsedSplit.trafficAllocation()) {
                             // out of split
@@ -88,8 +112,11 @@ public class EvaluatorImp implements Evaluator {
                     inRollout = true;
                 }
 
-                if (parsedCondition.matcher().match(matchingKey, bucketingKey, attributes, this)) {
-                    String treatment = Splitter.getTreatment(bk, parsedSplit.seed(), parsedCondition.partitions(), parsedSplit.algo());
+                if (stats != null) {
+                    stats.matcherEvaluated();
+                }
+                if (match(parsedCondition, matchingKey, bucketingKey, attributes, profile)) {
+                    String treatment = getTreatment(bk, parsedSplit, parsedCondition, profile);
                     String config = parsedSplit.configurations() != null ? parsedSplit.configurations().get(treatment) : null;
                     return new TreatmentLabelAndChangeNumber(treatment, parsedCondition.label(), parsedSplit.changeNumber(), config);
                 }
@@ -102,6 +129,54 @@ public class EvaluatorImp implements Evaluator {
         }
     }
 
+    private boolean match(ParsedCondition parsedCondition, String matchingKey, String bucketingKey, Map<String, Object> attributes,
+                          EvaluationProfiler.SplitProfile profile) {
+        if (profile == null) {
+            return parsedCondition.matcher().match(matchingKey, bucketingKey, attributes, this);
+        }
+        return profile.match(parsedCondition, matchingKey, bucketingKey, attributes, this);
+    }
+
+    private static int getBucket(String bk, ParsedSplit parsedSplit, EvaluationProfiler.SplitProfile profile) {
+        if (profile == null) {
+            return Splitter.getBucket(bk, parsedSplit.trafficAllocationSeed(), parsedSplit.algo());
+        }
+        long start = System.nanoTime();
+        int bucket = Splitter.getBucket(bk, parsedSplit.trafficAllocationSeed(), parsedSplit.algo());
+        profile.hashed(System.nanoTime() - start);
+        return bucket;
+    }
+
+    private static String getTreatment(String bk, ParsedSplit parsedSplit, ParsedCondition parsedCondition, EvaluationProfiler.SplitProfile profile) {
+        if (profile == null) {
+            return Splitter.getTreatment(bk, parsedSplit.seed(), parsedCondition.partitions(), parsedSplit.algo());
+        }
+        long start = System.nanoTime();
+        String treatment = Splitter.getTreatment(bk, parsedSplit.seed(), parsedCondition.partitions(), parsedSplit.algo());
+        profile.hashed(System.nanoTime() - start);
+        return treatment;
+    }
+
+    private TreatmentLabelAndChangeNumber getTreatmentRecording(String matchingKey, String bucketingKey, ParsedSplit parsedSplit,
+                                                                Map<String, Object> attributes, SplitStatsTable.Row stats,
+                                                                EvaluationProfiler.SplitProfile profile) throws ChangeNumberExceptionWrapper {
+        String label = Labels.EXCEPTION;
+        long start = System.nanoTime();
+        try {
+            TreatmentLabelAndChangeNumber result = getTreatment(matchingKey, bucketingKey, parsedSplit, attributes, stats, profile);
+            label = result.label;
+            return result;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            if (stats != null) {
+                stats.evaluated(elapsed, label);
+            }
+            if (profile != null) {
+                profile.evaluated(elapsed);
+            }
+        }
+    }
+
     public static final class TreatmentLabelAndChangeNumber {
         public final String treatment;
         public final String label;
@@ -0,0 +1,146 @@
+package io.split.engine.evaluator;
+
+import io.split.cache.SplitCache;
+import io.split.client.api.SplitEvaluationStats;
+import io.split.telemetry.utils.LatencyHistogram;
+import io.split.telemetry.utils.StripedCounters;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Evaluation statistics of every Split evaluated since the SDK started, as long as it's still in the cache.
+ * <p/>
+ * Rows are keyed by the name held by the cached {@link io.split.engine.experiments.ParsedSplit}, so the table keeps
+ * at most one row per Split in the cache and never copies the name the caller passed. Recording is a map lookup plus a
+ * few striped atomic adds; the row of a Split is only created the first time it is evaluated, and dropped the next time
+ * the table is read once the Split has left the cache. Each row takes about 10KB, mostly its latency histogram.
+ */
+public class SplitStatsTable {
+
+    private static final int EVALUATIONS = 0;
+    private static final int MATCHER_EVALUATIONS = 1;
+    private static final int TOTAL_NANOS = 2;
+    private static final int HISTOGRAM_STRIPES = 2;
+
+    private final SplitCache _splitCache;
+    private final ConcurrentMap<String, Row> _rows = new ConcurrentHashMap<>();
+
+    /**
+     * @param splitCache cache of the Splits being evaluated, rows of Splits that are no longer in it are dropped.
+     */
+    public SplitStatsTable(SplitCache splitCache) {
+        _splitCache = checkNotNull(splitCache);
+    }
+
+    /**
+     * @return the row of the given Split, created if this is its first evaluation.
+     */
+    Row row(String split) {
+        Row row = _rows.get(split);
+        if (row == null) {
+            row = _rows.computeIfAbsent(split, s -> new Row());
+        }
+        return row;
+    }
+
+    public int size() {
+        prune();
+        return _rows.size();
+    }
+
+    /**
+     * @return the stats of the given Split, or null if it wasn't evaluated yet.
+     */
+    public SplitEvaluationStats get(String split) {
+        Row row = _rows.get(checkNotNull(split));
+        if (row != null && _splitCache.get(split) == null) {
+            _rows.remove(split, row);
+            return null;
+        }
+        return row == null ? null : row.stats(split);
+    }
+
+    /**
+     * @return the stats of the n Splits that rank highest, highest first.
+     */
+    public List<SplitEvaluationStats> top(int n, SplitEvaluationStats.Rank rank) {
+        checkArgument(n >= 0, "n must be >= 0");
+        int counter = counterFor(checkNotNull(rank));
+        prune();
+
+        // Rank on a single counter first so that only the winners get their histogram and labels read
+        List<Map.Entry<String, Long>> ranked = new ArrayList<>(_rows.size());
+        for (Map.Entry<String, Row> entry : _rows.entrySet()) {
+            ranked.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), entry.getValue()._counters.sum(counter)));
+        }
+        ranked.sort(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()));
+
+        List<SplitEvaluationStats> top = new ArrayList<>(Math.min(n, ranked.size()));
+        for (Map.Entry<String, Long> entry : ranked.subList(0, Math.min(n, ranked.size()))) {
+            top.add(_rows.get(entry.getKey()).stats(entry.getKey()));
+        }
+        return top;
+    }
+
+    private void prune() {
+        // Only drops a row if it's still the one checked, a Split added back and evaluated meanwhile keeps its new row
+        _rows.entrySet().removeIf(entry -> _splitCache.get(entry.getKey()) == null);
+    }
+
+    private static int counterFor(SplitEvaluationStats.Rank rank) {
+        switch (rank) {
+            case TOTAL_TIME:
+                return TOTAL_NANOS;
+            case MATCHER_EVALUATIONS:
+                return MATCHER_EVALUATIONS;
+            case EVALUATIONS:
+            default:
+                return EVALUATIONS;
+        }
+    }
+
+    static final class Row {
+        private final StripedCounters _counters = new StripedCounters(3);
+        private final LatencyHistogram _latency = new LatencyHistogram(HISTOGRAM_STRIPES);
+        private final ConcurrentMap<String, LongAdder> _labels = new ConcurrentHashMap<>();
+
+        void matcherEvaluated() {
+            _counters.increment(MATCHER_EVALUATIONS);
+        }
+
+        void evaluated(long latencyNanos, String label) {
+            _counters.increment(EVALUATIONS);
+            _counters.add(TOTAL_NANOS, latencyNanos);
+            _latency.record(latencyNanos);
+            if (label == null) {
+                return;
+            }
+            // Labels come from the Split definition, so there are only a few per Split
+            LongAdder count = _labels.get(label);
+            if (count == null) {
+                count = _labels.computeIfAbsent(label, l -> new LongAdder());
+            }
+            count.increment();
+        }
+
+        SplitEvaluationStats stats(String split) {
+            Map<String, Long> labels = new HashMap<>();
+            for (Map.Entry<String, LongAdder> entry : _labels.entrySet()) {
+                labels.put(entry.getKey(), entry.getValue().sum());
+            }
+            return new SplitEvaluationStats(split, _counters.sum(EVALUATIONS), _counters.sum(MATCHER_EVALUATIONS),
+                    _counters.sum(TOTAL_NANOS), _latency.snapshot(), labels);
+        }
+    }
+}
@@ -7,6 +7,7 @@ import io.split.engine.SDKReadinessGates;
 import io.split.cache.SplitCache;
 import io.split.telemetry.domain.enums.HTTPLatenciesEnum;
 import io.split.telemetry.domain.enums.LastSynchronizationRecordsEnum;
+import io.split.telemetry.jfr.SdkEvents;
 import io.split.telemetry.storage.TelemetryRuntimeProducer;
 import io.split.engine.common.FetchOptions;
 import org.slf4j.Logger;
@@ -112,6 +113,8 @@ public class SplitFetcherImp implements SplitFetcher {
                 return;
             }
 
+            int updated = 0;
+            int removed = 0;
             for (Split split : change.splits) {
                 if (Thread.currentThread().isInterrupted()) {
                     throw new InterruptedException();
@@ -120,6 +123,7 @@ public class SplitFetcherImp implements SplitFetcher {
                 if (split.status != Status.ACTIVE) {
                     // archive.
                     _splitCache.remove(split.name);
+                    removed++;
                     continue;
                 }
 
@@ -128,6 +132,7 @@ public class SplitFetcherImp implements SplitFetcher {
                     _log.info("We could not parse the experiment definition for: " + split.name + " so we are removing it completely to be careful");
 
                     _splitCache.remove(split.name);
+                    removed++;
                     _log.debug("Deleted feature: " + split.name);
 
                     continue;
@@ -145,10 +150,12 @@ public class SplitFetcherImp implements SplitFetcher {
                 }
 
                 _splitCache.put(parsedSplit);
+                updated++;
                 _log.debug("Updated feature: " + parsedSplit.feature());
             }
 
             _splitCache.setChangeNumber(change.till);
+            SdkEvents.cacheUpdated("splits", change.till, updated, removed);
             _telemetryRuntimeProducer.recordSuccessfulSync(LastSynchronizationRecordsEnum.SPLITS, System.currentTimeMillis());
         }
     }
@@ -1,19 +1,16 @@
 package io.split.engine.experiments;
 
-import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import io.split.cache.SplitCache;
+import io.split.engine.common.AdaptivePollingTask;
+import io.split.engine.common.SDKScheduler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.Closeable;
 import java.util.List;
-import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static com.google.common.base.Preconditions.checkArgument;
@@ -30,25 +27,32 @@ public class SplitSynchronizationTask implements Closeable {
     private final AtomicReference<SplitFetcher> _splitFetcher = new AtomicReference<>();
     private final AtomicReference<SplitCache> _splitCache = new AtomicReference<SplitCache>();
     private final AtomicReference<ScheduledExecutorService> _executorService = new AtomicReference<>();
-    private final AtomicLong _refreshEveryNSeconds;
     private final ScheduledExecutorService _scheduledExecutorService;
+    private final AdaptivePollingTask _pollingTask;
     private final AtomicBoolean _running;
 
-    private ScheduledFuture<?> _scheduledFuture;
-
     public SplitSynchronizationTask(SplitFetcher splitFetcher, SplitCache splitCache, long refreshEveryNSeconds) {
+        this(splitFetcher, splitCache, refreshEveryNSeconds, SDKScheduler.defaultScheduler());
+    }
+
+    public SplitSynchronizationTask(SplitFetcher splitFetcher, SplitCache splitCache, long refreshEveryNSeconds, SDKScheduler scheduler) {
+        this(splitFetcher, splitCache, refreshEveryNSeconds, refreshEveryNSeconds, scheduler);
+    }
+
+    /**
+     * @param maxRefreshEveryNSeconds upper bound for the polling period while splits don't change. If greater than
+     *                                refreshEveryNSeconds, the period doubles after every fetch that brings no changes.
+     */
+    public SplitSynchronizationTask(SplitFetcher splitFetcher, SplitCache splitCache, long refreshEveryNSeconds, long maxRefreshEveryNSeconds,
+                                    SDKScheduler scheduler) {
         _splitFetcher.set(checkNotNull(splitFetcher));
         _splitCache.set(checkNotNull(splitCache));
         checkArgument(refreshEveryNSeconds >= 0L);
-        _refreshEveryNSeconds = new AtomicLong(refreshEveryNSeconds);
-
-        ThreadFactory threadFactory = new ThreadFactoryBuilder()
-                .setDaemon(true)
-                .setNameFormat("split-splitFetcher-%d")
-                .build();
 
-        _scheduledExecutorService = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        _scheduledExecutorService = scheduler.newScheduledExecutor("split-splitFetcher", 1);
         _executorService.set(_scheduledExecutorService);
+        _pollingTask = new AdaptivePollingTask("Splits", _scheduledExecutorService, this::fetchSplits, refreshEveryNSeconds,
+                Math.max(refreshEveryNSeconds, maxRefreshEveryNSeconds));
 
         _running = new AtomicBoolean();
     }
@@ -60,19 +64,25 @@ public class SplitSynchronizationTask implements Closeable {
         }
 
         _log.debug("Starting PeriodicFetching Splits ...");
-        _scheduledFuture = _scheduledExecutorService.scheduleWithFixedDelay(_splitFetcher.get(), 0L, _refreshEveryNSeconds.get(), TimeUnit.SECONDS);
+        _pollingTask.start();
     }
 
     public void stop() {
-        if (!_running.getAndSet(false) || _scheduledFuture == null) {
+        if (!_running.getAndSet(false)) {
             _log.debug("Splits PeriodicFetching not running...");
             return;
         }
 
-        _scheduledFuture.cancel(false);
+        _pollingTask.stop();
         _log.debug("Stopped PeriodicFetching Splits ...");
     }
 
+    private boolean fetchSplits() {
+        long before = _splitCache.get().getChangeNumber();
+        _splitFetcher.get().run();
+        return _splitCache.get().getChangeNumber() != before;
+    }
+
     @Override
     public void close() {
         if (_executorService.get() == null) {
@@ -14,4 +14,11 @@ public interface SegmentFetcher {
     boolean runWhitCacheHeader();
 
     void fetchAll();
+
+    /**
+     * @return when the segment was last fetched successfully, in millis since epoch, or 0 if it wasn't yet.
+     */
+    default long lastSynchronization() {
+        return 0;
+    }
 }
@@ -6,6 +6,7 @@ import io.split.client.dtos.SegmentChange;
 import io.split.engine.SDKReadinessGates;
 import io.split.telemetry.domain.enums.HTTPLatenciesEnum;
 import io.split.telemetry.domain.enums.LastSynchronizationRecordsEnum;
+import io.split.telemetry.jfr.SdkEvents;
 import io.split.telemetry.storage.TelemetryRuntimeProducer;
 import io.split.engine.common.FetchOptions;
 import org.slf4j.Logger;
@@ -26,6 +27,7 @@ public class SegmentFetcherImp implements SegmentFetcher {
     private final TelemetryRuntimeProducer _telemetryRuntimeProducer;
 
     private final Object _lock = new Object();
+    private volatile long _lastSynchronization;
 
     public SegmentFetcherImp(String segmentName, SegmentChangeFetcher segmentChangeFetcher, SDKReadinessGates gates, SegmentCache segmentCache, TelemetryRuntimeProducer telemetryRuntimeProducer) {
         _segmentName = checkNotNull(segmentName);
@@ -56,6 +58,7 @@ public class SegmentFetcherImp implements SegmentFetcher {
         if (change == null) {
             throw new IllegalStateException("SegmentChange was null");
         }
+        _lastSynchronization = System.currentTimeMillis();
 
         if (change.till == _segmentCache.getChangeNumber(_segmentName)) {
             // no change.
@@ -94,10 +97,16 @@ public class SegmentFetcherImp implements SegmentFetcher {
             }
 
             _segmentCache.setChangeNumber(_segmentName,change.till);
+            SdkEvents.cacheUpdated(_segmentName, change.till, change.added.size(), change.removed.size());
             _telemetryRuntimeProducer.recordSuccessfulSync(LastSynchronizationRecordsEnum.SEGMENTS, System.currentTimeMillis());
         }
     }
 
+    @Override
+    public long lastSynchronization() {
+        return _lastSynchronization;
+    }
+
     private String summarize(List<String> changes) {
         StringBuilder bldr = new StringBuilder();
         bldr.append("[");
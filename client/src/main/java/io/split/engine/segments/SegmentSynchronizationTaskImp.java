@@ -1,24 +1,22 @@
 package io.split.engine.segments;
 
 import com.google.common.collect.Maps;
-import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import io.split.cache.SegmentCache;
 import io.split.engine.SDKReadinessGates;
+import io.split.engine.common.AdaptivePollingTask;
+import io.split.engine.common.SDKScheduler;
 import io.split.telemetry.storage.TelemetryRuntimeProducer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.Closeable;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkArgument;
@@ -28,32 +26,44 @@ public class SegmentSynchronizationTaskImp implements SegmentSynchronizationTask
     private static final Logger _log = LoggerFactory.getLogger(SegmentSynchronizationTaskImp.class);
 
     private final SegmentChangeFetcher _segmentChangeFetcher;
-    private final AtomicLong _refreshEveryNSeconds;
+    private final long _refreshEveryNSeconds;
+    private final long _maxRefreshEveryNSeconds;
     private final AtomicBoolean _running;
     private final Object _lock = new Object();
     private final ConcurrentMap<String, SegmentFetcher> _segmentFetchers = Maps.newConcurrentMap();
+    private final ConcurrentMap<String, AdaptivePollingTask> _pollingTasks = Maps.newConcurrentMap();
     private final SegmentCache _segmentCache;
     private final SDKReadinessGates _gates;
     private final ScheduledExecutorService _scheduledExecutorService;
     private final TelemetryRuntimeProducer _telemetryRuntimeProducer;
 
-    private ScheduledFuture<?> _scheduledFuture;
-
     public SegmentSynchronizationTaskImp(SegmentChangeFetcher segmentChangeFetcher, long refreshEveryNSeconds, int numThreads, SDKReadinessGates gates, SegmentCache segmentCache,
                                          TelemetryRuntimeProducer telemetryRuntimeProducer) {
+        this(segmentChangeFetcher, refreshEveryNSeconds, numThreads, gates, segmentCache, telemetryRuntimeProducer, SDKScheduler.defaultScheduler());
+    }
+
+    public SegmentSynchronizationTaskImp(SegmentChangeFetcher segmentChangeFetcher, long refreshEveryNSeconds, int numThreads, SDKReadinessGates gates, SegmentCache segmentCache,
+                                         TelemetryRuntimeProducer telemetryRuntimeProducer, SDKScheduler scheduler) {
+        this(segmentChangeFetcher, refreshEveryNSeconds, refreshEveryNSeconds, numThreads, gates, segmentCache, telemetryRuntimeProducer, scheduler);
+    }
+
+    /**
+     * @param maxRefreshEveryNSeconds upper bound for the polling period of a segment while it doesn't change. If greater
+     *                                than refreshEveryNSeconds, each segment's period doubles after every fetch that
+     *                                brings no changes to it.
+     */
+    public SegmentSynchronizationTaskImp(SegmentChangeFetcher segmentChangeFetcher, long refreshEveryNSeconds, long maxRefreshEveryNSeconds, int numThreads,
+                                         SDKReadinessGates gates, SegmentCache segmentCache, TelemetryRuntimeProducer telemetryRuntimeProducer,
+                                         SDKScheduler scheduler) {
         _segmentChangeFetcher = checkNotNull(segmentChangeFetcher);
 
         checkArgument(refreshEveryNSeconds >= 0L);
-        _refreshEveryNSeconds = new AtomicLong(refreshEveryNSeconds);
+        _refreshEveryNSeconds = refreshEveryNSeconds;
+        _maxRefreshEveryNSeconds = Math.max(refreshEveryNSeconds, maxRefreshEveryNSeconds);
 
         _gates = checkNotNull(gates);
 
-        ThreadFactory threadFactory = new ThreadFactoryBuilder()
-                .setDaemon(true)
-                .setNameFormat("split-segmentFetcher-" + "%d")
-                .build();
-
-        _scheduledExecutorService = Executors.newScheduledThreadPool(numThreads, threadFactory);
+        _scheduledExecutorService = scheduler.newScheduledExecutor("split-segmentFetcher", numThreads);
 
         _running = new AtomicBoolean(false);
 
@@ -84,14 +94,22 @@ public class SegmentSynchronizationTaskImp implements SegmentSynchronizationTask
 
             segment = new SegmentFetcherImp(segmentName, _segmentChangeFetcher, _gates, _segmentCache, _telemetryRuntimeProducer);
 
+            _segmentFetchers.putIfAbsent(segmentName, segment);
+
             if (_running.get()) {
-                _scheduledExecutorService.submit(segment::fetchAll);
+                pollingTask(segmentName, segment).start();
             }
-
-            _segmentFetchers.putIfAbsent(segmentName, segment);
         }
     }
 
+    private AdaptivePollingTask pollingTask(String segmentName, SegmentFetcher fetcher) {
+        return _pollingTasks.computeIfAbsent(segmentName, name -> new AdaptivePollingTask(name, _scheduledExecutorService, () -> {
+            long before = _segmentCache.getChangeNumber(name);
+            fetcher.fetchAll();
+            return _segmentCache.getChangeNumber(name) != before;
+        }, _refreshEveryNSeconds, _maxRefreshEveryNSeconds));
+    }
+
     @Override
     public SegmentFetcher getFetcher(String segmentName) {
         initializeSegment(segmentName);
@@ -99,6 +117,17 @@ public class SegmentSynchronizationTaskImp implements SegmentSynchronizationTask
         return _segmentFetchers.get(segmentName);
     }
 
+    /**
+     * @return when each segment was last fetched successfully, in millis since epoch, 0 for the ones not fetched yet.
+     */
+    public Map<String, Long> lastSynchronizations() {
+        Map<String, Long> lastSynchronizations = new HashMap<>();
+        for (Map.Entry<String, SegmentFetcher> entry : _segmentFetchers.entrySet()) {
+            lastSynchronizations.put(entry.getKey(), entry.getValue().lastSynchronization());
+        }
+        return lastSynchronizations;
+    }
+
     @Override
     public void startPeriodicFetching() {
         if (_running.getAndSet(true) ) {
@@ -107,17 +136,23 @@ public class SegmentSynchronizationTaskImp implements SegmentSynchronizationTask
         }
 
         _log.debug("Starting PeriodicFetching Segments ...");
-        _scheduledFuture = _scheduledExecutorService.scheduleWithFixedDelay(this, 0L, _refreshEveryNSeconds.get(), TimeUnit.SECONDS);
+        synchronized (_lock) {
+            for (Map.Entry<String, SegmentFetcher> entry : _segmentFetchers.entrySet()) {
+                pollingTask(entry.getKey(), entry.getValue()).start();
+            }
+        }
     }
 
     @Override
     public void stop() {
-        if (!_running.getAndSet(false) || _scheduledFuture == null) {
+        if (!_running.getAndSet(false)) {
             _log.debug("Segments PeriodicFetching not running...");
             return;
         }
 
-        _scheduledFuture.cancel(false);
+        synchronized (_lock) {
+            _pollingTasks.values().forEach(AdaptivePollingTask::stop);
+        }
         _log.debug("Stopped PeriodicFetching Segments ...");
     }
 
@@ -126,6 +161,8 @@ public class SegmentSynchronizationTaskImp implements SegmentSynchronizationTask
         if (_scheduledExecutorService == null || _scheduledExecutorService.isShutdown()) {
             return;
         }
+        // Cancel the polls the tasks re-arm themselves, which would otherwise keep the executor alive after shutdown
+        stop();
         _scheduledExecutorService.shutdown();
         try {
             if (!_scheduledExecutorService.awaitTermination(2L, TimeUnit.SECONDS)) { //optional *
@@ -1,6 +1,7 @@
 package io.split.engine.sse;
 
 import com.google.common.annotations.VisibleForTesting;
+import io.split.engine.common.SDKScheduler;
 import io.split.engine.sse.client.RawEvent;
 import io.split.engine.sse.client.SSEClient;
 import io.split.engine.sse.dtos.SegmentQueueDto;
@@ -38,6 +39,17 @@ public class EventSourceClientImp implements EventSourceClient {
                                                PushStatusTracker pushStatusTracker,
                                                CloseableHttpClient sseHttpClient,
                                                TelemetryRuntimeProducer telemetryRuntimeProducer) {
+        this(baseStreamingUrl, notificationParser, notificationProcessor, pushStatusTracker, sseHttpClient, telemetryRuntimeProducer, SDKScheduler.defaultScheduler());
+    }
+
+    @VisibleForTesting
+    /* package private */ EventSourceClientImp(String baseStreamingUrl,
+                                               NotificationParser notificationParser,
+                                               NotificationProcessor notificationProcessor,
+                                               PushStatusTracker pushStatusTracker,
+                                               CloseableHttpClient sseHttpClient,
+                                               TelemetryRuntimeProducer telemetryRuntimeProducer,
+                                               SDKScheduler scheduler) {
         _baseStreamingUrl = checkNotNull(baseStreamingUrl);
         _notificationParser = checkNotNull(notificationParser);
         _notificationProcessor = checkNotNull(notificationProcessor);
@@ -46,7 +58,7 @@ public class EventSourceClientImp implements EventSourceClient {
         _sseClient = new SSEClient(
                 inboundEvent -> { onMessage(inboundEvent); return null; },
                 status -> { _pushStatusTracker.handleSseStatus(status); return null; },
-                sseHttpClient, telemetryRuntimeProducer);
+                sseHttpClient, telemetryRuntimeProducer, scheduler);
         _firstEvent = new AtomicBoolean();
     }
 
@@ -54,13 +66,15 @@ public class EventSourceClientImp implements EventSourceClient {
                                              SplitsWorker splitsWorker,
                                              Worker<SegmentQueueDto> segmentWorker,
                                              PushStatusTracker pushStatusTracker,
-                                             CloseableHttpClient sseHttpClient, TelemetryRuntimeProducer telemetryRuntimeProducer) {
+                                             CloseableHttpClient sseHttpClient, TelemetryRuntimeProducer telemetryRuntimeProducer,
+                                             SDKScheduler scheduler) {
         return new EventSourceClientImp(baseStreamingUrl,
                 new NotificationParserImp(),
                 NotificationProcessorImp.build(splitsWorker, segmentWorker, pushStatusTracker),
                 pushStatusTracker,
                 sseHttpClient,
-                telemetryRuntimeProducer);
+                telemetryRuntimeProducer,
+                scheduler);
     }
 
     @Override
@@ -1,20 +1,34 @@
 package io.split.engine.sse;
 
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import io.split.client.utils.Json;
 import io.split.engine.sse.dtos.*;
 import io.split.engine.sse.exceptions.EventParsingException;
 
+import java.io.IOException;
+import java.io.StringReader;
+
 public class NotificationParserImp implements NotificationParser {
     private static final String OCCUPANCY_PREFIX = "[?occupancy=metrics.publishers]";
 
+    private static final String FIELD_CHANNEL = "channel";
+    private static final String FIELD_DATA = "data";
+    private static final String FIELD_TYPE = "type";
+    private static final String FIELD_CHANGE_NUMBER = "changeNumber";
+    private static final String FIELD_DEFAULT_TREATMENT = "defaultTreatment";
+    private static final String FIELD_SPLIT_NAME = "splitName";
+    private static final String FIELD_SEGMENT_NAME = "segmentName";
+    private static final String FIELD_CONTROL_TYPE = "controlType";
+    private static final String FIELD_METRICS = "metrics";
+    private static final String FIELD_PUBLISHERS = "publishers";
+
     @Override
     public IncomingNotification parseMessage(String payload) throws EventParsingException {
         try {
-            RawMessageNotification rawMessageNotification = Json.fromJson(payload, RawMessageNotification.class);
-            GenericNotificationData genericNotificationData = Json.fromJson(rawMessageNotification.getData(), GenericNotificationData.class);
-            genericNotificationData.setChannel(rawMessageNotification.getChannel());
+            GenericNotificationData genericNotificationData = parseEnvelope(payload);
 
-            if (rawMessageNotification.getChannel().contains(OCCUPANCY_PREFIX)) {
+            if (genericNotificationData.getChannel().contains(OCCUPANCY_PREFIX)) {
                 return parseControlChannelMessage(genericNotificationData);
             }
 
@@ -39,6 +53,130 @@ public class NotificationParserImp implements NotificationParser {
         }
     }
 
+    /**
+     * Walks the envelope once with a streaming reader, decoding the nested data as soon as it is found
+     * instead of binding the envelope to a RawMessageNotification first and running Gson again on its data.
+     */
+    private GenericNotificationData parseEnvelope(String payload) throws IOException {
+        GenericNotificationData genericNotificationData = null;
+        String channel = null;
+
+        JsonReader reader = new JsonReader(new StringReader(payload));
+        reader.setLenient(true);
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case FIELD_CHANNEL:
+                    channel = nextStringOrNull(reader);
+                    break;
+                case FIELD_DATA:
+                    String data = nextStringOrNull(reader);
+                    genericNotificationData = data == null ? null : parseData(data);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (genericNotificationData == null || channel == null) {
+            throw new IOException("Missing notification data or channel.");
+        }
+        genericNotificationData.setChannel(channel);
+        return genericNotificationData;
+    }
+
+    private GenericNotificationData parseData(String data) throws IOException {
+        Long changeNumber = null;
+        String defaultTreatment = null;
+        String splitName = null;
+        String segmentName = null;
+        ControlType controlType = null;
+        OccupancyMetrics metrics = null;
+        IncomingNotification.Type type = null;
+
+        JsonReader reader = new JsonReader(new StringReader(data));
+        reader.setLenient(true);
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case FIELD_TYPE:
+                    type = enumOrNull(IncomingNotification.Type.class, nextStringOrNull(reader));
+                    break;
+                case FIELD_CHANGE_NUMBER:
+                    changeNumber = nextLongOrNull(reader);
+                    break;
+                case FIELD_DEFAULT_TREATMENT:
+                    defaultTreatment = nextStringOrNull(reader);
+                    break;
+                case FIELD_SPLIT_NAME:
+                    splitName = nextStringOrNull(reader);
+                    break;
+                case FIELD_SEGMENT_NAME:
+                    segmentName = nextStringOrNull(reader);
+                    break;
+                case FIELD_CONTROL_TYPE:
+                    controlType = enumOrNull(ControlType.class, nextStringOrNull(reader));
+                    break;
+                case FIELD_METRICS:
+                    metrics = parseMetrics(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        return new GenericNotificationData(changeNumber, defaultTreatment, splitName, controlType, metrics, segmentName, type, null);
+    }
+
+    private OccupancyMetrics parseMetrics(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+
+        int publishers = 0;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (FIELD_PUBLISHERS.equals(reader.nextName())) {
+                publishers = reader.nextInt();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return new OccupancyMetrics(publishers);
+    }
+
+    private static String nextStringOrNull(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        return reader.nextString();
+    }
+
+    private static Long nextLongOrNull(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        return reader.nextLong();
+    }
+
+    // Mimics Gson's enum adapter, which maps unknown constants to null
+    private static <E extends Enum<E>> E enumOrNull(Class<E> clazz, String name) {
+        if (name == null) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(clazz, name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
     private IncomingNotification parseNotification(GenericNotificationData genericNotificationData) throws Exception {
         switch (genericNotificationData.getType()) {
             case SPLIT_UPDATE:
@@ -0,0 +1,220 @@
+package io.split.engine.sse.client;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Byte level SSE framing parser.
+ *
+ * Reads the stream into a reusable buffer and splits it into lines in place, only copying bytes when a line
+ * spans two reads. Comment lines and unknown fields are discarded without allocating, and Strings are only built
+ * for the values of the fields a RawEvent carries.
+ */
+public class RawEventReader {
+
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+    private static final byte CR = '\r';
+    private static final byte LF = '\n';
+    private static final byte COLON = ':';
+
+    private static final byte[] FIELD_ID = "id".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] FIELD_EVENT = "event".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] FIELD_DATA = "data".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] FIELD_CLIENT_ID = "clientId".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] KEEP_ALIVE = ":keepalive".getBytes(StandardCharsets.US_ASCII);
+
+    private final InputStream _stream;
+    private final byte[] _buffer;
+    private int _position;
+    private int _limit;
+    private boolean _skipLineFeed;
+
+    // Only used when a line does not fit in what is left of the read buffer
+    private byte[] _pending;
+    private int _pendingLength;
+
+    private RawEvent.Builder _current;
+    private int _lines;
+    private boolean _keepAlive;
+    private long _keepAlives;
+
+    public RawEventReader(InputStream stream) {
+        this(stream, DEFAULT_BUFFER_SIZE);
+    }
+
+    public RawEventReader(InputStream stream, int bufferSize) {
+        _stream = checkNotNull(stream);
+        _buffer = new byte[bufferSize];
+        _pending = new byte[bufferSize];
+    }
+
+    /**
+     * Blocks until a complete message has been read. Empty messages are skipped, and so are keep-alives, which are
+     * counted. Any other message is returned, even one made only of comments, since it still proves the stream is up.
+     *
+     * @return the next event in the stream.
+     * @throws EOFException if the remote host closed the stream.
+     */
+    public RawEvent next() throws IOException {
+        while (true) {
+            if (_position >= _limit && !fill()) {
+                throw new EOFException("connection closed by remote host");
+            }
+
+            if (_skipLineFeed) { // Second half of a CRLF terminator
+                _skipLineFeed = false;
+                if (_buffer[_position] == LF) {
+                    _position++;
+                    continue;
+                }
+            }
+
+            int start = _position;
+            int end = scanLineEnd(start);
+            if (end < 0) { // No terminator yet, keep what we have and read again
+                appendPending(start, _limit - start);
+                _position = _limit;
+                continue;
+            }
+
+            _position = end + 1;
+            _skipLineFeed = _buffer[end] == CR;
+
+            boolean dispatch;
+            if (_pendingLength > 0) {
+                appendPending(start, end - start);
+                dispatch = processLine(_pending, 0, _pendingLength);
+                _pendingLength = 0;
+            } else {
+                dispatch = processLine(_buffer, start, end - start);
+            }
+
+            if (dispatch) {
+                int lines = _lines;
+                boolean keepAlive = _keepAlive;
+                RawEvent.Builder current = _current;
+                _lines = 0;
+                _keepAlive = false;
+                _current = null;
+                if (lines == 0) {
+                    continue;
+                }
+                if (lines == 1 && keepAlive) {
+                    _keepAlives++;
+                    continue;
+                }
+                return (current != null ? current : new RawEvent.Builder()).build();
+            }
+        }
+    }
+
+    /**
+     * @return number of keep-alive messages since this reader was created.
+     */
+    public long keepAlives() {
+        return _keepAlives;
+    }
+
+    private boolean fill() throws IOException {
+        int read = _stream.read(_buffer, 0, _buffer.length);
+        if (read < 0) {
+            return false;
+        }
+        _position = 0;
+        _limit = read;
+        return true;
+    }
+
+    private int scanLineEnd(int from) {
+        for (int i = from; i < _limit; i++) {
+            byte b = _buffer[i];
+            if (b == LF || b == CR) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void appendPending(int offset, int length) {
+        if (length == 0) {
+            return;
+        }
+        if (_pendingLength + length > _pending.length) {
+            byte[] grown = new byte[Math.max(_pending.length * 2, _pendingLength + length)];
+            System.arraycopy(_pending, 0, grown, 0, _pendingLength);
+            _pending = grown;
+        }
+        System.arraycopy(_buffer, offset, _pending, _pendingLength, length);
+        _pendingLength += length;
+    }
+
+    /**
+     * @return true if the line is empty, which means the current message is complete.
+     */
+    private boolean processLine(byte[] line, int offset, int length) {
+        if (length == 0) {
+            return true;
+        }
+        _lines++;
+        if (line[offset] == COLON) { // Comment
+            _keepAlive = matches(line, offset, offset + length, KEEP_ALIVE);
+            return false;
+        }
+
+        int colon = -1;
+        for (int i = offset; i < offset + length; i++) {
+            if (line[i] == COLON) {
+                colon = i;
+                break;
+            }
+        }
+        if (colon < 0) {
+            return false;
+        }
+
+        int nameStart = offset;
+        int nameEnd = colon;
+        while (nameStart < nameEnd && (line[nameStart] & 0xFF) <= ' ') nameStart++;
+        while (nameEnd > nameStart && (line[nameEnd - 1] & 0xFF) <= ' ') nameEnd--;
+
+        if (matches(line, nameStart, nameEnd, FIELD_DATA)) {
+            builder().data(value(line, colon + 1, offset + length));
+        } else if (matches(line, nameStart, nameEnd, FIELD_EVENT)) {
+            builder().event(value(line, colon + 1, offset + length));
+        } else if (matches(line, nameStart, nameEnd, FIELD_ID)) {
+            builder().id(value(line, colon + 1, offset + length));
+        } else if (matches(line, nameStart, nameEnd, FIELD_CLIENT_ID)) {
+            builder().clientId(value(line, colon + 1, offset + length));
+        }
+        return false;
+    }
+
+    private RawEvent.Builder builder() {
+        if (_current == null) {
+            _current = new RawEvent.Builder();
+        }
+        return _current;
+    }
+
+    private static boolean matches(byte[] line, int start, int end, byte[] field) {
+        if (end - start != field.length) {
+            return false;
+        }
+        for (int i = 0; i < field.length; i++) {
+            if (line[start + i] != field[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String value(byte[] line, int start, int end) {
+        while (start < end && (line[start] & 0xFF) <= ' ') start++;
+        while (end > start && (line[end - 1] & 0xFF) <= ' ') end--;
+        return new String(line, start, end - start, StandardCharsets.UTF_8);
+    }
+}
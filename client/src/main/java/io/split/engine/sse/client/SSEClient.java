@@ -1,7 +1,6 @@
 package io.split.engine.sse.client;
 
-import com.google.common.base.Strings;
-import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.split.engine.common.SDKScheduler;
 import io.split.telemetry.domain.StreamingEvent;
 import io.split.telemetry.domain.enums.StreamEventsEnum;
 import io.split.telemetry.storage.TelemetryRuntimeProducer;
@@ -11,16 +10,12 @@ import org.apache.hc.client5.http.impl.classic.CloseableHttpResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedReader;
-import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.net.SocketException;
 import java.net.URI;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
@@ -45,14 +40,10 @@ public class SSEClient {
     }
 
     private final static String SOCKET_CLOSED_MESSAGE = "Socket closed";
-    private final static String KEEP_ALIVE_PAYLOAD = ":keepalive\n";
     private final static long CONNECT_TIMEOUT = 30000;
     private static final Logger _log = LoggerFactory.getLogger(SSEClient.class);
 
-    private final ExecutorService _connectionExecutor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
-            .setDaemon(true)
-            .setNameFormat("SPLIT-SSEConnection-%d")
-            .build());
+    private final ExecutorService _connectionExecutor;
     private final CloseableHttpClient _client;
     private final Function<RawEvent, Void> _eventCallback;
     private final Function<StatusMessage, Void> _statusCallback;
@@ -67,6 +58,15 @@ public class SSEClient {
                      Function<StatusMessage, Void> statusCallback,
                      CloseableHttpClient client,
                      TelemetryRuntimeProducer telemetryRuntimeProducer) {
+        this(eventCallback, statusCallback, client, telemetryRuntimeProducer, SDKScheduler.defaultScheduler());
+    }
+
+    public SSEClient(Function<RawEvent, Void> eventCallback,
+                     Function<StatusMessage, Void> statusCallback,
+                     CloseableHttpClient client,
+                     TelemetryRuntimeProducer telemetryRuntimeProducer,
+                     SDKScheduler scheduler) {
+        _connectionExecutor = scheduler.newLongRunningExecutor("SPLIT-SSEConnection");
         _eventCallback = eventCallback;
         _statusCallback = statusCallback;
         _client = client;
@@ -124,11 +124,11 @@ public class SSEClient {
 
         try {
             final InputStream stream = _ongoingResponse.get().getEntity().getContent();
-            final BufferedReader reader = new BufferedReader(new InputStreamReader(stream));
+            final RawEventReader reader = new RawEventReader(stream);
 
             while (isOpen() && !Thread.currentThread().isInterrupted()) {
                 try {
-                    handleMessage(readMessageAsString(reader));
+                    _eventCallback.apply(reader.next());
                 } catch (SocketException exc) {
                     _log.debug(exc.getMessage());
                     if (SOCKET_CLOSED_MESSAGE.equals(exc.getMessage())) { // Connection closed by us
@@ -187,28 +187,4 @@ public class SSEClient {
         }
         return true;
     }
-
-    static private String readMessageAsString(BufferedReader reader) throws IOException {
-        StringBuilder lines = new StringBuilder();
-        while (true) {
-            String line = reader.readLine();
-            if (null == line) { // EOF (Remote host closed the connection gracefully and the stream ended)
-                throw new EOFException("connection closed by remote host");
-            }
-            if (line.isEmpty()) { // An empty line is a message separator
-                return lines.toString();
-            }
-            lines.append(line).append("\n");
-        }
-    }
-
-    private void handleMessage(String message) {
-        if (Strings.isNullOrEmpty(message) || KEEP_ALIVE_PAYLOAD.equals(message)) {
-            _log.debug("Keep Alive event");
-            return;
-        }
-
-        RawEvent e = RawEvent.fromString(message);
-        _eventCallback.apply(e);
-    }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package io.split.engine.sse.workers;
 
+import io.split.engine.common.SDKScheduler;
 import io.split.engine.common.Synchronizer;
 import io.split.engine.sse.dtos.SegmentQueueDto;
 
@@ -9,7 +10,11 @@ public class SegmentsWorkerImp extends Worker<SegmentQueueDto> {
     private final Synchronizer _synchronizer;
 
     public SegmentsWorkerImp(Synchronizer synchronizer) {
-        super("Segments");
+        this(synchronizer, SDKScheduler.defaultScheduler());
+    }
+
+    public SegmentsWorkerImp(Synchronizer synchronizer, SDKScheduler scheduler) {
+        super("Segments", scheduler);
         _synchronizer = checkNotNull(synchronizer);
     }
 
@@ -1,5 +1,6 @@
 package io.split.engine.sse.workers;
 
+import io.split.engine.common.SDKScheduler;
 import io.split.engine.common.Synchronizer;
 
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -8,7 +9,11 @@ public class SplitsWorkerImp extends Worker<Long> implements SplitsWorker {
     private final Synchronizer _synchronizer;
 
     public SplitsWorkerImp(Synchronizer synchronizer) {
-        super("Splits");
+        this(synchronizer, SDKScheduler.defaultScheduler());
+    }
+
+    public SplitsWorkerImp(Synchronizer synchronizer, SDKScheduler scheduler) {
+        super("Splits", scheduler);
         _synchronizer = checkNotNull(synchronizer);
     }
 
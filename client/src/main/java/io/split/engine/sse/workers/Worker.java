@@ -1,8 +1,11 @@
 package io.split.engine.sse.workers;
 
+import io.split.engine.common.SDKScheduler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -12,9 +15,15 @@ public abstract class Worker<T> implements Runnable {
     private final String _workerName;
     protected final LinkedBlockingQueue<T> _queue;
     protected AtomicBoolean _running;
-    protected Thread _thread;
+    private final ExecutorService _executor;
+    private Future<?> _task;
 
     public Worker(String workerName) {
+        this(workerName, SDKScheduler.defaultScheduler());
+    }
+
+    public Worker(String workerName, SDKScheduler scheduler) {
+        _executor = scheduler.newLongRunningExecutor(String.format("%s-worker", workerName));
         _queue = new LinkedBlockingQueue<>();
         _workerName = workerName;
         _running = new AtomicBoolean(false);
@@ -24,9 +33,7 @@ public abstract class Worker<T> implements Runnable {
         if (_running.compareAndSet(false, true)) {
             _log.debug(String.format("%s Worker starting ...", _workerName));
             _queue.clear();
-            _thread = new Thread( this);
-            _thread.setName(String.format("%s-worker", _workerName));
-            _thread.start();
+            _task = _executor.submit(this);
         } else {
             _log.debug(String.format("%s Worker already running.", _workerName));
             return;
@@ -35,7 +42,7 @@ public abstract class Worker<T> implements Runnable {
 
     public  void stop() {
         if (_running.compareAndSet(true, false)) {
-            _thread.interrupt();
+            _task.cancel(true);
             _log.debug(String.format("%s Worked stopped.", _workerName));
         } else {
             _log.debug(String.format("%s Worker not running.", _workerName));
@@ -11,19 +11,21 @@ import java.util.regex.Pattern;
 public class EventsValidator {
     private static final Logger _log = LoggerFactory.getLogger(EventsValidator.class);
     public static final Pattern EVENT_TYPE_MATCHER = Pattern.compile("^[a-zA-Z0-9][-_.:a-zA-Z0-9]{0,79}$");
+    private static final int MAX_EVENT_TYPE_LENGTH = 80;
+    private static final EventValidatorResult NO_PROPERTIES = new EventValidatorResult(true);
 
     public static EventValidatorResult propertiesAreValid(Map<String, Object> properties) {
         int size = 1024; // We assume 1kb events without properties (750 bytes avg measured)
 
         if (properties == null) {
-            return new EventValidatorResult(true);
+            return NO_PROPERTIES;
         }
 
         if (properties.size() > 300) {
             _log.warn("Event has more than 300 properties. Some of them will be trimmed when processed");
         }
 
-        Map<String, Object> result = new HashMap<>();
+        Map<String, Object> result = new HashMap<>((int) (properties.size() / 0.75f) + 1);
         for (Map.Entry<String, Object> entry : properties.entrySet()) {
             if (entry.getKey() == null || entry.getKey().isEmpty()) {
               continue;
@@ -65,7 +67,7 @@ public class EventsValidator {
             return false;
         }
 
-        if (!EVENT_TYPE_MATCHER.matcher(eventTypeId).find()) {
+        if (!matchesEventTypePattern(eventTypeId)) {
             _log.error(String.format("%s: you passed %s, eventTypeId must adhere to the regular expression " +
                     "[a-zA-Z0-9][-_.:a-zA-Z0-9]{0,79}. This means an eventTypeID must be alphanumeric, " +
                     "cannot be more than 80 characters long, and can only include a dash, underscore, period, " +
@@ -76,7 +78,26 @@ public class EventsValidator {
         return true;
     }
 
+    /**
+     * Same as EVENT_TYPE_MATCHER, checked by hand since every track() goes through it.
+     */
+    static boolean matchesEventTypePattern(String eventTypeId) {
+        int length = eventTypeId.length();
+        if (length == 0 || length > MAX_EVENT_TYPE_LENGTH || !isAlphanumeric(eventTypeId.charAt(0))) {
+            return false;
+        }
+        for (int i = 1; i < length; i++) {
+            char c = eventTypeId.charAt(i);
+            if (!isAlphanumeric(c) && c != '-' && c != '_' && c != '.' && c != ':') {
+                return false;
+            }
+        }
+        return true;
+    }
 
+    private static boolean isAlphanumeric(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+    }
 
     public static class EventValidatorResult {
         private final boolean _success;
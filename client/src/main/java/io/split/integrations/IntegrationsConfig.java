@@ -1,5 +1,6 @@
 package io.split.integrations;
 
+import io.split.client.impressions.BatchedImpressionListener;
 import io.split.client.impressions.ImpressionListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -12,9 +13,12 @@ public class IntegrationsConfig {
     private static final Logger _log = LoggerFactory.getLogger(IntegrationsConfig.class);
 
     private List<ImpressionListenerWithMeta> _impressionListeners;
+    private List<BatchedImpressionListenerWithMeta> _batchedImpressionListeners;
 
-    private IntegrationsConfig(List<ImpressionListenerWithMeta> impressionListeners) {
+    private IntegrationsConfig(List<ImpressionListenerWithMeta> impressionListeners,
+                               List<BatchedImpressionListenerWithMeta> batchedImpressionListeners) {
         _impressionListeners = impressionListeners;
+        _batchedImpressionListeners = batchedImpressionListeners;
     }
 
     public List<ImpressionListenerWithMeta> getImpressionsListeners(Execution execution) {
@@ -27,6 +31,10 @@ public class IntegrationsConfig {
         return filtered;
     }
 
+    public List<BatchedImpressionListenerWithMeta> getBatchedImpressionsListeners() {
+        return new ArrayList<>(_batchedImpressionListeners);
+    }
+
     // This method is used to avoid introducing breaking changes, since the impressions listener
     // is a root-level config option (that method will be deprecated soon).
     public void addStandardImpressionListener(ImpressionListener listener, int queueSize) {
@@ -43,11 +51,13 @@ public class IntegrationsConfig {
     public static class Builder {
 
         private List<ImpressionListenerWithMeta> _listeners;
+        private List<BatchedImpressionListenerWithMeta> _batchedListeners;
         private boolean _newRelicEnabled;
 
         public Builder() {
             _newRelicEnabled = false;
             _listeners = new ArrayList<>();
+            _batchedListeners = new ArrayList<>();
         }
 
         public Builder impressionsListener(ImpressionListener listener, int queueSize) {
@@ -58,6 +68,30 @@ public class IntegrationsConfig {
             return this;
         }
 
+        /**
+         * Registers a listener that gets impressions in batches, delivered from its own thread once batchSize
+         * impressions are buffered or maxLatencyMillis have passed since the last batch.
+         *
+         * @param listener
+         * @param queueSize max number of impressions buffered, impressions are dropped when it's full.
+         * @param batchSize max number of impressions in a batch.
+         * @param maxLatencyMillis max time an impression waits before being delivered.
+         * @return this builder
+         */
+        public Builder batchedImpressionsListener(BatchedImpressionListener listener, int queueSize, int batchSize, long maxLatencyMillis) {
+            if (queueSize <= 0) {
+                throw new IllegalArgumentException("A BatchedImpressionListener was provided, but its capacity was non-positive: " + queueSize);
+            }
+            if (batchSize <= 0) {
+                throw new IllegalArgumentException("A BatchedImpressionListener was provided, but its batch size was non-positive: " + batchSize);
+            }
+            if (maxLatencyMillis <= 0) {
+                throw new IllegalArgumentException("A BatchedImpressionListener was provided, but its max latency was non-positive: " + maxLatencyMillis);
+            }
+            _batchedListeners.add(new BatchedImpressionListenerWithMeta(listener, queueSize, batchSize, maxLatencyMillis));
+            return this;
+        }
+
         public Builder newRelicImpressionListener() {
             if (_newRelicEnabled) {
                 _log.warn("You can only add one new relic integration instance. Ignoring");
@@ -77,7 +111,7 @@ public class IntegrationsConfig {
         }
 
         public IntegrationsConfig build() {
-            return new IntegrationsConfig(_listeners);
+            return new IntegrationsConfig(_listeners, _batchedListeners);
         }
     }
 
@@ -109,4 +143,34 @@ public class IntegrationsConfig {
             return _queueSize;
         }
     }
+
+    public static class BatchedImpressionListenerWithMeta {
+        private final BatchedImpressionListener _listener;
+        private final int _queueSize;
+        private final int _batchSize;
+        private final long _maxLatencyMillis;
+
+        BatchedImpressionListenerWithMeta(BatchedImpressionListener listener, int queueSize, int batchSize, long maxLatencyMillis) {
+            _listener = listener;
+            _queueSize = queueSize;
+            _batchSize = batchSize;
+            _maxLatencyMillis = maxLatencyMillis;
+        }
+
+        public BatchedImpressionListener listener() {
+            return _listener;
+        }
+
+        public int queueSize() {
+            return _queueSize;
+        }
+
+        public int batchSize() {
+            return _batchSize;
+        }
+
+        public long maxLatencyMillis() {
+            return _maxLatencyMillis;
+        }
+    }
 }
@@ -21,15 +21,21 @@ public class HttpPostImp {
     private static final Logger _logger = LoggerFactory.getLogger(HttpPostImp.class);
     private CloseableHttpClient _client;
     private final TelemetryRuntimeProducer _telemetryRuntimeProducer;
+    private final boolean _compressPayloads;
 
     public HttpPostImp(CloseableHttpClient client, TelemetryRuntimeProducer telemetryRuntimeProducer) {
+        this(client, telemetryRuntimeProducer, false);
+    }
+
+    public HttpPostImp(CloseableHttpClient client, TelemetryRuntimeProducer telemetryRuntimeProducer, boolean compressPayloads) {
         _client = client;
         _telemetryRuntimeProducer = checkNotNull(telemetryRuntimeProducer);
+        _compressPayloads = compressPayloads;
     }
 
     public void post(URI uri, Object object, String posted, HTTPLatenciesEnum httpLatenciesEnum, LastSynchronizationRecordsEnum lastSynchronizationRecordsEnum, ResourceEnum resourceEnum) {
-        long initTime = System.currentTimeMillis();
-        HttpEntity entity = Utils.toJsonEntity(object);
+        long initTime = System.nanoTime();
+        HttpEntity entity = Utils.toJsonEntity(object, _compressPayloads, _telemetryRuntimeProducer);
         HttpPost request = new HttpPost(uri);
         request.setEntity(entity);
 
@@ -42,7 +48,7 @@ public class HttpPostImp {
                 _logger.warn("Response status was: " + status);
                 return;
             }
-            _telemetryRuntimeProducer.recordSyncLatency(httpLatenciesEnum, System.currentTimeMillis() - initTime);
+            _telemetryRuntimeProducer.recordSyncLatency(httpLatenciesEnum, System.nanoTime() - initTime);
             _telemetryRuntimeProducer.recordSuccessfulSync(lastSynchronizationRecordsEnum, System.currentTimeMillis());
         } catch (Throwable t) {
             _logger.warn("Exception when posting " + posted + object, t);
@@ -0,0 +1,6 @@
+package io.split.telemetry.domain.enums;
+
+public enum PayloadSizeEnum {
+    UNCOMPRESSED,
+    COMPRESSED
+}
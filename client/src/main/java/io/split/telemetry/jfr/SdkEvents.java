@@ -0,0 +1,64 @@
+package io.split.telemetry.jfr;
+
+/**
+ * Java Flight Recorder events of the SDK. This is the Java 8 version, where every method does nothing and is
+ * compiled away; the multi-release jar ships a Java 11 version of this class under META-INF/versions/11 that emits
+ * the events while a recording has them enabled.
+ * <p/>
+ * Events with a duration are started by a begin method, which returns null when the event is not being recorded,
+ * and committed by the matching end method.
+ */
+public final class SdkEvents {
+
+    private SdkEvents() {
+    }
+
+    public static Object beginEvaluation() {
+        return null;
+    }
+
+    /**
+     * Evaluations are only committed when they take longer than the event threshold, 1 ms unless the recording
+     * settings change it.
+     */
+    public static void endEvaluation(Object evaluation, String split, String label) {
+    }
+
+    public static Object beginSplitsSync() {
+        return null;
+    }
+
+    /**
+     * @param bytes size of the JSON received.
+     * @param parseNanos time spent parsing it.
+     */
+    public static void endSplitsSync(Object sync, long since, long till, long bytes, long parseNanos) {
+    }
+
+    public static Object beginSegmentSync() {
+        return null;
+    }
+
+    public static void endSegmentSync(Object sync, String segment, long since, long till, long bytes, long parseNanos) {
+    }
+
+    public static Object beginFlush() {
+        return null;
+    }
+
+    /**
+     * @param kind what was flushed, e.g. "impressions" or "events".
+     * @param bytes size of the payload sent, after compression.
+     */
+    public static void endFlush(Object flush, String kind, int count, long bytes, boolean sent) {
+    }
+
+    public static void streamingStatus(String status) {
+    }
+
+    /**
+     * @param cache "splits" or the name of a segment.
+     */
+    public static void cacheUpdated(String cache, long changeNumber, int updated, int removed) {
+    }
+}
@@ -3,35 +3,50 @@ package io.split.telemetry.storage;
 import com.google.common.collect.Maps;
 import io.split.telemetry.domain.*;
 import io.split.telemetry.domain.enums.*;
-import io.split.telemetry.utils.AtomicLongArray;
 import io.split.telemetry.utils.BucketCalculator;
+import io.split.telemetry.utils.LatencyHistogram;
+import io.split.telemetry.utils.StripedCounters;
 
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.stream.Collectors;
 
+/**
+ * Counters are kept in arrays indexed by enum ordinal, striped by thread so that recording from many threads doesn't
+ * contend on the same memory. Popping swaps each counter with zero atomically instead of clearing and rebuilding
+ * maps, so a count recorded while a pop is in progress goes to either that pop or the next one.
+ */
 public class InMemoryTelemetryStorage implements  TelemetryStorage{
     public static final int MAX_LATENCY_BUCKET_COUNT = 23;
 
-    //Latencies
-    private final ConcurrentMap<MethodEnum, AtomicLongArray> _methodLatencies = Maps.newConcurrentMap();
-    private final ConcurrentMap<HTTPLatenciesEnum, AtomicLongArray> _httpLatencies = Maps.newConcurrentMap();
+    //Latencies, MAX_LATENCY_BUCKET_COUNT counters per method or resource
+    private final StripedCounters _methodLatencies = new StripedCounters(MethodEnum.values().length * MAX_LATENCY_BUCKET_COUNT);
+    private final StripedCounters _httpLatencies = new StripedCounters(HTTPLatenciesEnum.values().length * MAX_LATENCY_BUCKET_COUNT);
+
+    //Latency histograms, never reset. Filled once and only read afterwards, so EnumMaps are safe to share
+    private final EnumMap<MethodEnum, LatencyHistogram> _methodLatencyHistograms = new EnumMap<>(MethodEnum.class);
+    private final EnumMap<HTTPLatenciesEnum, LatencyHistogram> _httpLatencyHistograms = new EnumMap<>(HTTPLatenciesEnum.class);
 
     //Counters
-    private final ConcurrentMap<MethodEnum, AtomicLong> _exceptionsCounters = Maps.newConcurrentMap();
-    private final ConcurrentMap<PushCountersEnum, AtomicLong> _pushCounters = Maps.newConcurrentMap();
-    private final ConcurrentMap<FactoryCountersEnum, AtomicLong> _factoryCounters = Maps.newConcurrentMap();
+    private final StripedCounters _exceptionsCounters = new StripedCounters(MethodEnum.values().length);
+    private final StripedCounters _pushCounters = new StripedCounters(PushCountersEnum.values().length);
+    private final StripedCounters _factoryCounters = new StripedCounters(FactoryCountersEnum.values().length);
 
     //Records
-    private final ConcurrentMap<ImpressionsDataTypeEnum, AtomicLong> _impressionsDataRecords = Maps.newConcurrentMap();
-    private final ConcurrentMap<EventsDataRecordsEnum, AtomicLong> _eventsDataRecords = Maps.newConcurrentMap();
-    private final ConcurrentMap<LastSynchronizationRecordsEnum, AtomicLong> _lastSynchronizationRecords = Maps.newConcurrentMap();
-    private final ConcurrentMap<SdkRecordsEnum, AtomicLong> _sdkRecords = Maps.newConcurrentMap();
+    private final StripedCounters _impressionsDataRecords = new StripedCounters(ImpressionsDataTypeEnum.values().length);
+    private final StripedCounters _eventsDataRecords = new StripedCounters(EventsDataRecordsEnum.values().length);
+    private final AtomicLongArray _lastSynchronizationRecords = new AtomicLongArray(LastSynchronizationRecordsEnum.values().length);
+    private final AtomicLongArray _sdkRecords = new AtomicLongArray(SdkRecordsEnum.values().length);
+    private final StripedCounters _payloadSizeRecords = new StripedCounters(PayloadSizeEnum.values().length);
 
-    //HTTPErrors
-    private final ConcurrentMap<ResourceEnum, ConcurrentMap<Long, Long>> _httpErrors = Maps.newConcurrentMap();
+    //HTTPErrors, counters per status code are never removed, popping resets them
+    private final EnumMap<ResourceEnum, ConcurrentMap<Long, AtomicLong>> _httpErrors = new EnumMap<>(ResourceEnum.class);
 
     //StreamingEvents
     private final Object _streamingEventsLock = new Object();
@@ -42,39 +57,35 @@ public class InMemoryTelemetryStorage implements  TelemetryStorage{
     private final List<String> _tags = new ArrayList<>();
 
     public InMemoryTelemetryStorage() {
-        initMethodLatencies();
-        initHttpLatencies();
-        initHttpErrors();
-        initMethodExceptions();
-        initFactoryCounters();
-        initImpressionDataCounters();
-        initPushCounters();
-        initSdkRecords();
-        initLastSynchronizationRecords();
-        initEventDataRecords();
+        for (MethodEnum method : MethodEnum.values()) {
+            _methodLatencyHistograms.put(method, new LatencyHistogram());
+        }
+        for (HTTPLatenciesEnum resource : HTTPLatenciesEnum.values()) {
+            _httpLatencyHistograms.put(resource, new LatencyHistogram());
+        }
+        for (ResourceEnum resource : ResourceEnum.values()) {
+            _httpErrors.put(resource, Maps.newConcurrentMap());
+        }
     }
 
     @Override
     public long getBURTimeouts() {
-        return _factoryCounters.get(FactoryCountersEnum.BUR_TIMEOUTS).get();
+        return _factoryCounters.sum(FactoryCountersEnum.BUR_TIMEOUTS.ordinal());
     }
 
     @Override
     public long getNonReadyUsages() {
-        return _factoryCounters.get(FactoryCountersEnum.NON_READY_USAGES).get();
+        return _factoryCounters.sum(FactoryCountersEnum.NON_READY_USAGES.ordinal());
     }
 
     @Override
     public MethodExceptions popExceptions() {
         MethodExceptions exceptions = new MethodExceptions();
-        exceptions.set_treatment(_exceptionsCounters.get(MethodEnum.TREATMENT).get());
-        exceptions.set_treatments(_exceptionsCounters.get(MethodEnum.TREATMENTS).get());
-        exceptions.set_treatmentWithConfig(_exceptionsCounters.get(MethodEnum.TREATMENT_WITH_CONFIG).get());
-        exceptions.set_treatmentsWithConfig(_exceptionsCounters.get(MethodEnum.TREATMENTS_WITH_CONFIG).get());
-        exceptions.set_track(_exceptionsCounters.get(MethodEnum.TRACK).get());
-
-        _exceptionsCounters.clear();
-        initMethodExceptions();
+        exceptions.set_treatment(_exceptionsCounters.sumThenReset(MethodEnum.TREATMENT.ordinal()));
+        exceptions.set_treatments(_exceptionsCounters.sumThenReset(MethodEnum.TREATMENTS.ordinal()));
+        exceptions.set_treatmentWithConfig(_exceptionsCounters.sumThenReset(MethodEnum.TREATMENT_WITH_CONFIG.ordinal()));
+        exceptions.set_treatmentsWithConfig(_exceptionsCounters.sumThenReset(MethodEnum.TREATMENTS_WITH_CONFIG.ordinal()));
+        exceptions.set_track(_exceptionsCounters.sumThenReset(MethodEnum.TRACK.ordinal()));
 
         return exceptions;
     }
@@ -82,60 +93,62 @@ public class InMemoryTelemetryStorage implements  TelemetryStorage{
     @Override
     public MethodLatencies popLatencies() {
         MethodLatencies latencies = new MethodLatencies();
-        latencies.set_treatment(_methodLatencies.get(MethodEnum.TREATMENT).fetchAndClearAll());
-        latencies.set_treatments(_methodLatencies.get(MethodEnum.TREATMENTS).fetchAndClearAll());
-        latencies.set_treatmentWithConfig(_methodLatencies.get(MethodEnum.TREATMENT_WITH_CONFIG).fetchAndClearAll());
-        latencies.set_treatmentsWithConfig(_methodLatencies.get(MethodEnum.TREATMENTS_WITH_CONFIG).fetchAndClearAll());
-        latencies.set_track(_methodLatencies.get(MethodEnum.TRACK).fetchAndClearAll());
-
-        _methodLatencies.clear();
-        initMethodLatencies();
+        latencies.set_treatment(popLatencyBuckets(_methodLatencies, MethodEnum.TREATMENT.ordinal()));
+        latencies.set_treatments(popLatencyBuckets(_methodLatencies, MethodEnum.TREATMENTS.ordinal()));
+        latencies.set_treatmentWithConfig(popLatencyBuckets(_methodLatencies, MethodEnum.TREATMENT_WITH_CONFIG.ordinal()));
+        latencies.set_treatmentsWithConfig(popLatencyBuckets(_methodLatencies, MethodEnum.TREATMENTS_WITH_CONFIG.ordinal()));
+        latencies.set_track(popLatencyBuckets(_methodLatencies, MethodEnum.TRACK.ordinal()));
 
         return latencies;
     }
 
+    @Override
+    public LatencyHistogram.Snapshot getLatencySnapshot(MethodEnum method) {
+        return _methodLatencyHistograms.get(method).snapshot();
+    }
+
     @Override
     public void recordNonReadyUsage() {
-        _factoryCounters.get(FactoryCountersEnum.NON_READY_USAGES).incrementAndGet();
+        _factoryCounters.increment(FactoryCountersEnum.NON_READY_USAGES.ordinal());
     }
 
     @Override
     public void recordBURTimeout() {
-        _factoryCounters.get(FactoryCountersEnum.BUR_TIMEOUTS).incrementAndGet();
+        _factoryCounters.increment(FactoryCountersEnum.BUR_TIMEOUTS.ordinal());
     }
 
-
     @Override
     public void recordLatency(MethodEnum method, long latency) {
         int bucket = BucketCalculator.getBucketForLatency(latency);
-        _methodLatencies.get(method).increment(bucket);
+        _methodLatencies.increment(method.ordinal() * MAX_LATENCY_BUCKET_COUNT + bucket);
+        _methodLatencyHistograms.get(method).record(latency);
     }
 
     @Override
     public void recordException(MethodEnum method) {
-        _exceptionsCounters.get(method).incrementAndGet();
+        _exceptionsCounters.increment(method.ordinal());
     }
 
     @Override
     public long getImpressionsStats(ImpressionsDataTypeEnum dataType) {
-        return _impressionsDataRecords.get(dataType).get();
+        return _impressionsDataRecords.sum(dataType.ordinal());
     }
 
     @Override
     public long getEventStats(EventsDataRecordsEnum dataType) {
-        return _eventsDataRecords.get(dataType).get();
+        return _eventsDataRecords.sum(dataType.ordinal());
     }
 
     @Override
     public LastSynchronization getLastSynchronization() {
         LastSynchronization lastSynchronization = new LastSynchronization();
-        lastSynchronization.set_splits(_lastSynchronizationRecords.get(LastSynchronizationRecordsEnum.SPLITS).get());
-        lastSynchronization.set_segments(_lastSynchronizationRecords.get(LastSynchronizationRecordsEnum.SEGMENTS).get());
-        lastSynchronization.set_impressions(_lastSynchronizationRecords.get(LastSynchronizationRecordsEnum.IMPRESSIONS).get());
-        lastSynchronization.set_impressionsCount(_lastSynchronizationRecords.get(LastSynchronizationRecordsEnum.IMPRESSIONS_COUNT).get());
-        lastSynchronization.set_events(_lastSynchronizationRecords.get(LastSynchronizationRecordsEnum.EVENTS).get());
-        lastSynchronization.set_telemetry(_lastSynchronizationRecords.get(LastSynchronizationRecordsEnum.TELEMETRY).get());
-        lastSynchronization.set_token(_lastSynchronizationRecords.get(LastSynchronizationRecordsEnum.TOKEN).get());
+        lastSynchronization.set_splits(_lastSynchronizationRecords.get(LastSynchronizationRecordsEnum.SPLITS.ordinal()));
+        lastSynchronization.set_segments(_lastSynchronizationRecords.get(LastSynchronizationRecordsEnum.SEGMENTS.ordinal()));
+        lastSynchronization.set_impressions(_lastSynchronizationRecords.get(LastSynchronizationRecordsEnum.IMPRESSIONS.ordinal()));
+        lastSynchronization.set_impressionsCount(_lastSynchronizationRecords.get(LastSynchronizationRecordsEnum.IMPRESSIONS_COUNT.ordinal()));
+        lastSynchronization.set_events(_lastSynchronizationRecords.get(LastSynchronizationRecordsEnum.EVENTS.ordinal()));
+        lastSynchronization.set_telemetry(_lastSynchronizationRecords.get(LastSynchronizationRecordsEnum.TELEMETRY.ordinal()));
+        lastSynchronization.set_token(_lastSynchronizationRecords.get(LastSynchronizationRecordsEnum.TOKEN.ordinal()));
 
         return lastSynchronization;
     }
@@ -143,16 +156,13 @@ public class InMemoryTelemetryStorage implements  TelemetryStorage{
     @Override
     public HTTPErrors popHTTPErrors() {
         HTTPErrors errors = new HTTPErrors();
-        errors.set_splits(_httpErrors.get(ResourceEnum.SPLIT_SYNC));
-        errors.set_segments(_httpErrors.get(ResourceEnum.SEGMENT_SYNC));
-        errors.set_impressions(_httpErrors.get(ResourceEnum.IMPRESSION_SYNC));
-        errors.set_impressionsCount(_httpErrors.get(ResourceEnum.IMPRESSION_COUNT_SYNC));
-        errors.set_events(_httpErrors.get(ResourceEnum.EVENT_SYNC));
-        errors.set_telemetry(_httpErrors.get(ResourceEnum.TELEMETRY_SYNC));
-        errors.set_token(_httpErrors.get(ResourceEnum.TOKEN_SYNC));
-
-        _httpErrors.clear();
-        initHttpErrors();
+        errors.set_splits(popHttpErrors(ResourceEnum.SPLIT_SYNC));
+        errors.set_segments(popHttpErrors(ResourceEnum.SEGMENT_SYNC));
+        errors.set_impressions(popHttpErrors(ResourceEnum.IMPRESSION_SYNC));
+        errors.set_impressionsCount(popHttpErrors(ResourceEnum.IMPRESSION_COUNT_SYNC));
+        errors.set_events(popHttpErrors(ResourceEnum.EVENT_SYNC));
+        errors.set_telemetry(popHttpErrors(ResourceEnum.TELEMETRY_SYNC));
+        errors.set_token(popHttpErrors(ResourceEnum.TOKEN_SYNC));
 
         return errors;
     }
@@ -160,36 +170,30 @@ public class InMemoryTelemetryStorage implements  TelemetryStorage{
     @Override
     public HTTPLatencies popHTTPLatencies(){
         HTTPLatencies latencies = new HTTPLatencies();
-        latencies.set_splits(_httpLatencies.get(HTTPLatenciesEnum.SPLITS).fetchAndClearAll());
-        latencies.set_segments(_httpLatencies.get(HTTPLatenciesEnum.SEGMENTS).fetchAndClearAll());
-        latencies.set_impressions(_httpLatencies.get(HTTPLatenciesEnum.IMPRESSIONS).fetchAndClearAll());
-        latencies.set_impressionsCount(_httpLatencies.get(HTTPLatenciesEnum.IMPRESSIONS_COUNT).fetchAndClearAll());
-        latencies.set_events(_httpLatencies.get(HTTPLatenciesEnum.EVENTS).fetchAndClearAll());
-        latencies.set_telemetry(_httpLatencies.get(HTTPLatenciesEnum.TELEMETRY).fetchAndClearAll());
-        latencies.set_token(_httpLatencies.get(HTTPLatenciesEnum.TOKEN).fetchAndClearAll());
-
-        _httpLatencies.clear();
-        initHttpLatencies();
+        latencies.set_splits(popLatencyBuckets(_httpLatencies, HTTPLatenciesEnum.SPLITS.ordinal()));
+        latencies.set_segments(popLatencyBuckets(_httpLatencies, HTTPLatenciesEnum.SEGMENTS.ordinal()));
+        latencies.set_impressions(popLatencyBuckets(_httpLatencies, HTTPLatenciesEnum.IMPRESSIONS.ordinal()));
+        latencies.set_impressionsCount(popLatencyBuckets(_httpLatencies, HTTPLatenciesEnum.IMPRESSIONS_COUNT.ordinal()));
+        latencies.set_events(popLatencyBuckets(_httpLatencies, HTTPLatenciesEnum.EVENTS.ordinal()));
+        latencies.set_telemetry(popLatencyBuckets(_httpLatencies, HTTPLatenciesEnum.TELEMETRY.ordinal()));
+        latencies.set_token(popLatencyBuckets(_httpLatencies, HTTPLatenciesEnum.TOKEN.ordinal()));
 
         return latencies;
     }
 
     @Override
-    public long popAuthRejections() {
-        long authRejections = _pushCounters.get(PushCountersEnum.AUTH_REJECTIONS).get();
-
-        _pushCounters.replace(PushCountersEnum.AUTH_REJECTIONS, new AtomicLong());
+    public LatencyHistogram.Snapshot getHTTPLatencySnapshot(HTTPLatenciesEnum resource) {
+        return _httpLatencyHistograms.get(resource).snapshot();
+    }
 
-        return authRejections;
+    @Override
+    public long popAuthRejections() {
+        return _pushCounters.sumThenReset(PushCountersEnum.AUTH_REJECTIONS.ordinal());
     }
 
     @Override
     public long popTokenRefreshes() {
-        long tokenRefreshes = _pushCounters.get(PushCountersEnum.TOKEN_REFRESHES).get();
-
-        _pushCounters.replace(PushCountersEnum.TOKEN_REFRESHES, new AtomicLong());
-
-        return tokenRefreshes;
+        return _pushCounters.sumThenReset(PushCountersEnum.TOKEN_REFRESHES.ordinal());
     }
 
     @Override
@@ -216,7 +220,12 @@ public class InMemoryTelemetryStorage implements  TelemetryStorage{
 
     @Override
     public long getSessionLength() {
-        return _sdkRecords.get(SdkRecordsEnum.SESSION).get();
+        return _sdkRecords.get(SdkRecordsEnum.SESSION.ordinal());
+    }
+
+    @Override
+    public long getPayloadSize(PayloadSizeEnum type) {
+        return _payloadSizeRecords.sum(type.ordinal());
     }
 
     @Override
@@ -228,41 +237,44 @@ public class InMemoryTelemetryStorage implements  TelemetryStorage{
 
     @Override
     public void recordImpressionStats(ImpressionsDataTypeEnum dataType, long count) {
-        _impressionsDataRecords.get(dataType).addAndGet(count);
+        _impressionsDataRecords.add(dataType.ordinal(), count);
     }
 
     @Override
     public void recordEventStats(EventsDataRecordsEnum dataType, long count) {
-        _eventsDataRecords.get(dataType).addAndGet(count);
+        _eventsDataRecords.add(dataType.ordinal(), count);
     }
 
     @Override
     public void recordSuccessfulSync(LastSynchronizationRecordsEnum resource, long time) {
-        _lastSynchronizationRecords.replace(resource, new AtomicLong(time));
+        _lastSynchronizationRecords.set(resource.ordinal(), time);
     }
 
     @Override
     public void recordSyncError(ResourceEnum resource, int status) {
-        ConcurrentMap<Long, Long> errors = _httpErrors.get(resource);
-        errors.putIfAbsent(Long.valueOf(status), 0l);
-        errors.replace(Long.valueOf(status), errors.get(Long.valueOf(status)) + 1);
+        ConcurrentMap<Long, AtomicLong> errors = _httpErrors.get(resource);
+        AtomicLong counter = errors.get((long) status);
+        if (counter == null) {
+            counter = errors.computeIfAbsent((long) status, s -> new AtomicLong());
+        }
+        counter.incrementAndGet();
     }
 
     @Override
     public void recordSyncLatency(HTTPLatenciesEnum resource, long latency) {
         int bucket = BucketCalculator.getBucketForLatency(latency);
-        _httpLatencies.get(resource).increment(bucket);
-
+        _httpLatencies.increment(resource.ordinal() * MAX_LATENCY_BUCKET_COUNT + bucket);
+        _httpLatencyHistograms.get(resource).record(latency);
     }
 
     @Override
     public void recordAuthRejections() {
-        _pushCounters.get(PushCountersEnum.AUTH_REJECTIONS).incrementAndGet();
+        _pushCounters.increment(PushCountersEnum.AUTH_REJECTIONS.ordinal());
     }
 
     @Override
     public void recordTokenRefreshes() {
-        _pushCounters.get(PushCountersEnum.TOKEN_REFRESHES).incrementAndGet();
+        _pushCounters.increment(PushCountersEnum.TOKEN_REFRESHES.ordinal());
     }
 
     @Override
@@ -274,77 +286,32 @@ public class InMemoryTelemetryStorage implements  TelemetryStorage{
 
     @Override
     public void recordSessionLength(long sessionLength) {
-        _sdkRecords.replace(SdkRecordsEnum.SESSION, new AtomicLong(sessionLength));
-    }
-
-    private void initMethodLatencies() {
-        _methodLatencies.put(MethodEnum.TREATMENT, new AtomicLongArray(MAX_LATENCY_BUCKET_COUNT));
-        _methodLatencies.put(MethodEnum.TREATMENTS, new AtomicLongArray(MAX_LATENCY_BUCKET_COUNT));
-        _methodLatencies.put(MethodEnum.TREATMENT_WITH_CONFIG, new AtomicLongArray(MAX_LATENCY_BUCKET_COUNT));
-        _methodLatencies.put(MethodEnum.TREATMENTS_WITH_CONFIG, new AtomicLongArray(MAX_LATENCY_BUCKET_COUNT));
-        _methodLatencies.put(MethodEnum.TRACK, new AtomicLongArray(MAX_LATENCY_BUCKET_COUNT));
-    }
-
-    private void initHttpLatencies() {
-        _httpLatencies.put(HTTPLatenciesEnum.SPLITS, new AtomicLongArray(MAX_LATENCY_BUCKET_COUNT));
-        _httpLatencies.put(HTTPLatenciesEnum.SEGMENTS, new AtomicLongArray(MAX_LATENCY_BUCKET_COUNT));
-        _httpLatencies.put(HTTPLatenciesEnum.IMPRESSIONS, new AtomicLongArray(MAX_LATENCY_BUCKET_COUNT));
-        _httpLatencies.put(HTTPLatenciesEnum.IMPRESSIONS_COUNT, new AtomicLongArray(MAX_LATENCY_BUCKET_COUNT));
-        _httpLatencies.put(HTTPLatenciesEnum.EVENTS, new AtomicLongArray(MAX_LATENCY_BUCKET_COUNT));
-        _httpLatencies.put(HTTPLatenciesEnum.TELEMETRY, new AtomicLongArray(MAX_LATENCY_BUCKET_COUNT));
-        _httpLatencies.put(HTTPLatenciesEnum.TOKEN, new AtomicLongArray(MAX_LATENCY_BUCKET_COUNT));
-    }
-
-    private void initHttpErrors() {
-        _httpErrors.put(ResourceEnum.SPLIT_SYNC, Maps.newConcurrentMap());
-        _httpErrors.put(ResourceEnum.SEGMENT_SYNC, Maps.newConcurrentMap());
-        _httpErrors.put(ResourceEnum.IMPRESSION_SYNC, Maps.newConcurrentMap());
-        _httpErrors.put(ResourceEnum.IMPRESSION_COUNT_SYNC, Maps.newConcurrentMap());
-        _httpErrors.put(ResourceEnum.EVENT_SYNC, Maps.newConcurrentMap());
-        _httpErrors.put(ResourceEnum.TELEMETRY_SYNC, Maps.newConcurrentMap());
-        _httpErrors.put(ResourceEnum.TOKEN_SYNC, Maps.newConcurrentMap());
-    }
-
-    private void initMethodExceptions() {
-        _exceptionsCounters.put(MethodEnum.TREATMENT, new AtomicLong());
-        _exceptionsCounters.put(MethodEnum.TREATMENTS, new AtomicLong());
-        _exceptionsCounters.put(MethodEnum.TREATMENT_WITH_CONFIG, new AtomicLong());
-        _exceptionsCounters.put(MethodEnum.TREATMENTS_WITH_CONFIG, new AtomicLong());
-        _exceptionsCounters.put(MethodEnum.TRACK, new AtomicLong());
-    }
-
-    private void initFactoryCounters() {
-        _factoryCounters.put(FactoryCountersEnum.BUR_TIMEOUTS, new AtomicLong());
-        _factoryCounters.put(FactoryCountersEnum.NON_READY_USAGES, new AtomicLong());
-    }
-
-    private void initImpressionDataCounters() {
-        _impressionsDataRecords.put(ImpressionsDataTypeEnum.IMPRESSIONS_DEDUPED, new AtomicLong());
-        _impressionsDataRecords.put(ImpressionsDataTypeEnum.IMPRESSIONS_DROPPED, new AtomicLong());
-        _impressionsDataRecords.put(ImpressionsDataTypeEnum.IMPRESSIONS_QUEUED, new AtomicLong());
+        _sdkRecords.set(SdkRecordsEnum.SESSION.ordinal(), sessionLength);
     }
 
-    private void initPushCounters() {
-        _pushCounters.put(PushCountersEnum.AUTH_REJECTIONS, new AtomicLong());
-        _pushCounters.put(PushCountersEnum.TOKEN_REFRESHES, new AtomicLong());
-    }
-
-    private void initSdkRecords() {
-        _sdkRecords.put(SdkRecordsEnum.SESSION, new AtomicLong());
+    @Override
+    public void recordPayloadSize(long uncompressedBytes, long compressedBytes) {
+        _payloadSizeRecords.add(PayloadSizeEnum.UNCOMPRESSED.ordinal(), uncompressedBytes);
+        _payloadSizeRecords.add(PayloadSizeEnum.COMPRESSED.ordinal(), compressedBytes);
     }
 
-    private void initLastSynchronizationRecords() {
-        _lastSynchronizationRecords.put(LastSynchronizationRecordsEnum.SPLITS, new AtomicLong());
-        _lastSynchronizationRecords.put(LastSynchronizationRecordsEnum.SEGMENTS, new AtomicLong());
-        _lastSynchronizationRecords.put(LastSynchronizationRecordsEnum.EVENTS, new AtomicLong());
-        _lastSynchronizationRecords.put(LastSynchronizationRecordsEnum.IMPRESSIONS, new AtomicLong());
-        _lastSynchronizationRecords.put(LastSynchronizationRecordsEnum.IMPRESSIONS_COUNT, new AtomicLong());
-        _lastSynchronizationRecords.put(LastSynchronizationRecordsEnum.TOKEN, new AtomicLong());
-        _lastSynchronizationRecords.put(LastSynchronizationRecordsEnum.TELEMETRY, new AtomicLong());
+    private static List<Long> popLatencyBuckets(StripedCounters latencies, int ordinal) {
+        List<Long> buckets = new ArrayList<>(MAX_LATENCY_BUCKET_COUNT);
+        int first = ordinal * MAX_LATENCY_BUCKET_COUNT;
+        for (int bucket = 0; bucket < MAX_LATENCY_BUCKET_COUNT; bucket++) {
+            buckets.add(latencies.sumThenReset(first + bucket));
+        }
+        return buckets;
     }
 
-    private void initEventDataRecords() {
-        _eventsDataRecords.put(EventsDataRecordsEnum.EVENTS_DROPPED, new AtomicLong());
-        _eventsDataRecords.put(EventsDataRecordsEnum.EVENTS_QUEUED, new AtomicLong());
+    private Map<Long, Long> popHttpErrors(ResourceEnum resource) {
+        Map<Long, Long> popped = new ConcurrentHashMap<>();
+        for (Map.Entry<Long, AtomicLong> entry : _httpErrors.get(resource).entrySet()) {
+            long count = entry.getValue().getAndSet(0);
+            if (count > 0) {
+                popped.put(entry.getKey(), count);
+            }
+        }
+        return popped;
     }
 }
@@ -2,11 +2,14 @@ package io.split.telemetry.storage;
 
 import io.split.telemetry.domain.*;
 import io.split.telemetry.domain.enums.*;
+import io.split.telemetry.utils.LatencyHistogram;
 
 import java.util.List;
 
 public class NoopTelemetryStorage implements TelemetryStorage{
 
+    private static final LatencyHistogram EMPTY_HISTOGRAM = new LatencyHistogram();
+
     @Override
     public void recordNonReadyUsage() {
 
@@ -77,6 +80,11 @@ public class NoopTelemetryStorage implements TelemetryStorage{
 
     }
 
+    @Override
+    public void recordPayloadSize(long uncompressedBytes, long compressedBytes) {
+
+    }
+
     @Override
     public long getBURTimeouts() {
         return 0;
@@ -97,6 +105,11 @@ public class NoopTelemetryStorage implements TelemetryStorage{
         return null;
     }
 
+    @Override
+    public LatencyHistogram.Snapshot getLatencySnapshot(MethodEnum method) {
+        return EMPTY_HISTOGRAM.snapshot();
+    }
+
     @Override
     public long getImpressionsStats(ImpressionsDataTypeEnum data) {
         return 0;
@@ -122,6 +135,11 @@ public class NoopTelemetryStorage implements TelemetryStorage{
         return null;
     }
 
+    @Override
+    public LatencyHistogram.Snapshot getHTTPLatencySnapshot(HTTPLatenciesEnum resource) {
+        return EMPTY_HISTOGRAM.snapshot();
+    }
+
     @Override
     public long popAuthRejections() {
         return 0;
@@ -146,4 +164,9 @@ public class NoopTelemetryStorage implements TelemetryStorage{
     public long getSessionLength() {
         return 0;
     }
+
+    @Override
+    public long getPayloadSize(PayloadSizeEnum type) {
+        return 0;
+    }
 }
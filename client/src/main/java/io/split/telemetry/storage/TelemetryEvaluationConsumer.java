@@ -2,8 +2,16 @@ package io.split.telemetry.storage;
 
 import io.split.telemetry.domain.MethodExceptions;
 import io.split.telemetry.domain.MethodLatencies;
+import io.split.telemetry.domain.enums.MethodEnum;
+import io.split.telemetry.utils.LatencyHistogram;
 
 public interface TelemetryEvaluationConsumer {
     MethodExceptions popExceptions() throws Exception;
     MethodLatencies popLatencies() throws Exception;
+
+    /**
+     * @return latencies in nanoseconds recorded for the method since the SDK started. Unlike popLatencies, reading
+     * them doesn't reset them.
+     */
+    LatencyHistogram.Snapshot getLatencySnapshot(MethodEnum method);
 }
@@ -3,6 +3,9 @@ package io.split.telemetry.storage;
 import io.split.telemetry.domain.enums.MethodEnum;
 
 public interface TelemetryEvaluationProducer {
+    /**
+     * @param latency in nanoseconds, measured with System.nanoTime().
+     */
     void recordLatency(MethodEnum method, long latency);
     void recordException(MethodEnum method);
 }
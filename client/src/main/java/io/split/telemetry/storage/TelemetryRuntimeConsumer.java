@@ -5,7 +5,10 @@ import io.split.telemetry.domain.HTTPLatencies;
 import io.split.telemetry.domain.LastSynchronization;
 import io.split.telemetry.domain.StreamingEvent;
 import io.split.telemetry.domain.enums.EventsDataRecordsEnum;
+import io.split.telemetry.domain.enums.HTTPLatenciesEnum;
 import io.split.telemetry.domain.enums.ImpressionsDataTypeEnum;
+import io.split.telemetry.domain.enums.PayloadSizeEnum;
+import io.split.telemetry.utils.LatencyHistogram;
 
 import java.util.List;
 
@@ -15,9 +18,16 @@ public interface TelemetryRuntimeConsumer {
     LastSynchronization getLastSynchronization();
     HTTPErrors popHTTPErrors();
     HTTPLatencies popHTTPLatencies();
+
+    /**
+     * @return latencies in nanoseconds of the requests to the resource since the SDK started. Unlike popHTTPLatencies,
+     * reading them doesn't reset them.
+     */
+    LatencyHistogram.Snapshot getHTTPLatencySnapshot(HTTPLatenciesEnum resource);
     long popAuthRejections();
     long popTokenRefreshes();
     List<StreamingEvent> popStreamingEvents();
     List<String> popTags();
     long getSessionLength();
+    long getPayloadSize(PayloadSizeEnum type);
 }
@@ -9,9 +9,13 @@ public interface TelemetryRuntimeProducer {
     void recordEventStats(EventsDataRecordsEnum dataType, long count);
     void recordSuccessfulSync(LastSynchronizationRecordsEnum resource, long time);
     void recordSyncError(ResourceEnum resource, int status);
+    /**
+     * @param latency in nanoseconds, measured with System.nanoTime().
+     */
     void recordSyncLatency(HTTPLatenciesEnum resource, long latency);
     void recordAuthRejections();
     void recordTokenRefreshes();
     void recordStreamingEvents(StreamingEvent streamingEvent);
     void recordSessionLength(long sessionLength);
+    void recordPayloadSize(long uncompressedBytes, long compressedBytes);
 }
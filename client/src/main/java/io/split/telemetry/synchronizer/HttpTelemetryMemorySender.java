@@ -26,16 +26,27 @@ public class HttpTelemetryMemorySender{
     private final HttpPostImp _httpPost;
 
     public static HttpTelemetryMemorySender create(CloseableHttpClient client, URI telemetryRootEndpoint, TelemetryRuntimeProducer telemetryRuntimeProducer) throws URISyntaxException {
+        return create(client, telemetryRootEndpoint, telemetryRuntimeProducer, false);
+    }
+
+    public static HttpTelemetryMemorySender create(CloseableHttpClient client, URI telemetryRootEndpoint, TelemetryRuntimeProducer telemetryRuntimeProducer,
+                                                   boolean compressPayloads) throws URISyntaxException {
         return new HttpTelemetryMemorySender(client,
                 Utils.appendPath(telemetryRootEndpoint,CONFIG_ENDPOINT_PATH),
                 Utils.appendPath(telemetryRootEndpoint, STATS_ENDPOINT_PATH),
-                telemetryRuntimeProducer
+                telemetryRuntimeProducer,
+                compressPayloads
         );
     }
 
     @VisibleForTesting
     HttpTelemetryMemorySender(CloseableHttpClient client, URI impressionConfigTarget, URI impressionStatsTarget, TelemetryRuntimeProducer telemetryRuntimeProducer) {
-        _httpPost = new HttpPostImp(client, telemetryRuntimeProducer);
+        this(client, impressionConfigTarget, impressionStatsTarget, telemetryRuntimeProducer, false);
+    }
+
+    private HttpTelemetryMemorySender(CloseableHttpClient client, URI impressionConfigTarget, URI impressionStatsTarget, TelemetryRuntimeProducer telemetryRuntimeProducer,
+                                      boolean compressPayloads) {
+        _httpPost = new HttpPostImp(client, telemetryRuntimeProducer, compressPayloads);
         _impressionConfigTarget = impressionConfigTarget;
         _impressionStatsTarget = impressionStatsTarget;
     }
@@ -37,7 +37,13 @@ public class TelemetrySubmitter implements TelemetrySynchronizer{
 
     public TelemetrySubmitter(CloseableHttpClient client, URI telemetryRootEndpoint, TelemetryStorageConsumer telemetryStorageConsumer, SplitCache splitCache,
                               SegmentCache segmentCache, TelemetryRuntimeProducer telemetryRuntimeProducer, long initStartTime) throws URISyntaxException {
-        _httpHttpTelemetryMemorySender = HttpTelemetryMemorySender.create(client, telemetryRootEndpoint, telemetryRuntimeProducer);
+        this(client, telemetryRootEndpoint, telemetryStorageConsumer, splitCache, segmentCache, telemetryRuntimeProducer, initStartTime, false);
+    }
+
+    public TelemetrySubmitter(CloseableHttpClient client, URI telemetryRootEndpoint, TelemetryStorageConsumer telemetryStorageConsumer, SplitCache splitCache,
+                              SegmentCache segmentCache, TelemetryRuntimeProducer telemetryRuntimeProducer, long initStartTime,
+                              boolean compressPayloads) throws URISyntaxException {
+        _httpHttpTelemetryMemorySender = HttpTelemetryMemorySender.create(client, telemetryRootEndpoint, telemetryRuntimeProducer, compressPayloads);
         _teleTelemetryStorageConsumer = telemetryStorageConsumer;
         _splitCache = splitCache;
         _segmentCache = segmentCache;
@@ -140,7 +146,14 @@ public class TelemetrySubmitter implements TelemetrySynchronizer{
     }
 
     private int getImpressionsMode(SplitClientConfig config) {
-        return ImpressionsManager.Mode.OPTIMIZED.equals(config.impressionsMode()) ? 0 : 1;
+        switch (config.impressionsMode()) {
+            case OPTIMIZED:
+                return 0;
+            case DEBUG:
+                return 1;
+            default:
+                return 2;
+        }
     }
 
     private List<String> getListMaxSize(List<String> list) {
@@ -1,13 +1,11 @@
 package io.split.telemetry.synchronizer;
 
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.split.engine.common.SDKScheduler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -20,13 +18,13 @@ public class TelemetrySyncTask {
     private final int _telemetryRefreshRate;
 
     public TelemetrySyncTask(int telemetryRefreshRate, TelemetrySynchronizer telemetrySynchronizer) {
-        ThreadFactory telemetrySyncThreadFactory = new ThreadFactoryBuilder()
-                .setDaemon(true)
-                .setNameFormat("Telemetry-sync-%d")
-                .build();
+        this(telemetryRefreshRate, telemetrySynchronizer, SDKScheduler.defaultScheduler());
+    }
+
+    public TelemetrySyncTask(int telemetryRefreshRate, TelemetrySynchronizer telemetrySynchronizer, SDKScheduler scheduler) {
         _telemetrySynchronizer = checkNotNull(telemetrySynchronizer);
         _telemetryRefreshRate = telemetryRefreshRate;
-        _telemetrySyncScheduledExecutorService = Executors.newSingleThreadScheduledExecutor(telemetrySyncThreadFactory);
+        _telemetrySyncScheduledExecutorService = scheduler.newScheduledExecutor("Telemetry-sync", 1);
         try {
             this.startScheduledTask();
         } catch (Exception e) {
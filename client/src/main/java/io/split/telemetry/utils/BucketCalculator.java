@@ -3,7 +3,7 @@ package io.split.telemetry.utils;
 import java.util.Arrays;
 
 /**
- * Calculates buckets from latency
+ * Calculates buckets from latency in nanoseconds. Bucket limits, in milliseconds:
  * <p/>
  * (1)  1.00
  * (2)  1.50
@@ -43,7 +43,7 @@ public class BucketCalculator {
     static final long MAX_LATENCY = 7481828;
 
     public static int getBucketForLatency(long latency) {
-        long micros = latency / 1000; //Convert to milliseconds
+        long micros = latency / 1000; //Convert to microseconds
         if (micros > MAX_LATENCY) {
             return BUCKETS.length - 1;
         }
@@ -0,0 +1,141 @@
+package io.split.telemetry.utils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lock-free log-linear histogram of latencies in nanoseconds, in the style of HdrHistogram.
+ * <p/>
+ * Values below 2^SUB_BUCKET_BITS get a bucket each. Above that, every power of two is split in 2^SUB_BUCKET_BITS
+ * linear buckets, so a recorded value is off by at most 1/16th (6.25%) when read back, from nanoseconds up to
+ * MAX_TRACKABLE_NANOS (about 18 minutes). Longer latencies are counted in the last bucket.
+ * <p/>
+ * Counts are kept in {@link StripedCounters}, so that threads evaluating at the same time rarely update the same
+ * counter. Recording never allocates; {@link #snapshot()} adds the stripes up.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 40;
+    static final long MAX_TRACKABLE_NANOS = (1L << (MAX_EXPONENT + 1)) - 1;
+    static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKET_COUNT;
+    private static final int MAX_STRIPES = 4;
+    private static final int SUM = BUCKET_COUNT;
+
+    private final StripedCounters _counts;
+
+    public LatencyHistogram() {
+        this(Math.min(MAX_STRIPES, Integer.highestOneBit(Runtime.getRuntime().availableProcessors())));
+    }
+
+    /**
+     * @param stripes a power of two. Each stripe takes about 5KB, fewer stripes save memory when many histograms
+     *                are kept at the cost of more contention.
+     */
+    public LatencyHistogram(int stripes) {
+        _counts = new StripedCounters(BUCKET_COUNT + 1, stripes);
+    }
+
+    public void record(long latencyNanos) {
+        _counts.increment(bucketFor(latencyNanos));
+        _counts.add(SUM, Math.max(0, latencyNanos));
+    }
+
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = _counts.sum(i);
+        }
+        return new Snapshot(counts, _counts.sum(SUM));
+    }
+
+    static int bucketFor(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return value < 0 ? 0 : (int) value;
+        }
+        if (value > MAX_TRACKABLE_NANOS) {
+            return BUCKET_COUNT - 1;
+        }
+        int shift = (63 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKET_COUNT + (int) ((value >>> shift) - SUB_BUCKET_COUNT);
+    }
+
+    /**
+     * @return the highest value that falls in the given bucket.
+     */
+    static long highestValueIn(int bucket) {
+        if (bucket < SUB_BUCKET_COUNT) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKET_COUNT - 1;
+        long subBucket = bucket % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    /**
+     * Counts of a histogram at some point in time.
+     */
+    public static class Snapshot {
+        private final long[] _counts;
+        private final long _total;
+        private final long _sum;
+
+        Snapshot(long[] counts, long sum) {
+            _counts = counts;
+            _sum = sum;
+            long total = 0;
+            for (long count : counts) {
+                total += count;
+            }
+            _total = total;
+        }
+
+        public long count() {
+            return _total;
+        }
+
+        /**
+         * @return the exact sum of the latencies recorded, in nanoseconds.
+         */
+        public long sum() {
+            return _sum;
+        }
+
+        /**
+         * @param percentile between 0 and 100, e.g. 99.9 for the p999.
+         * @return the latency in nanoseconds that the given percentage of the recorded ones don't exceed, or 0 if
+         * nothing was recorded.
+         */
+        public long valueAtPercentile(double percentile) {
+            if (_total == 0) {
+                return 0;
+            }
+            double clamped = Math.max(0, Math.min(100, percentile));
+            long rank = Math.max(1, (long) Math.ceil(clamped / 100 * _total));
+            long seen = 0;
+            for (int i = 0; i < _counts.length; i++) {
+                seen += _counts[i];
+                if (seen >= rank) {
+                    return highestValueIn(i);
+                }
+            }
+            return highestValueIn(_counts.length - 1);
+        }
+
+        public long valueAtPercentile(double percentile, TimeUnit unit) {
+            return unit.convert(valueAtPercentile(percentile), TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * @return the latency in nanoseconds of the slowest call recorded, or 0 if nothing was recorded.
+         */
+        public long max() {
+            for (int i = _counts.length - 1; i >= 0; i--) {
+                if (_counts[i] > 0) {
+                    return highestValueIn(i);
+                }
+            }
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package io.split.telemetry.utils;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Fixed set of counters addressed by index, typically an enum ordinal, that many threads can add to at once.
+ * <p/>
+ * Each counter is split across a few stripes picked by thread, and each stripe is padded to whole cache lines, so
+ * threads recording at the same time rarely write to the same line. Adding is a single atomic add on a plain array
+ * slot: no lookups and no allocation.
+ * <p/>
+ * {@link #sumThenReset(int)} swaps every stripe of a counter with zero atomically, so an increment racing with it is
+ * counted either by that call or by the next one, never lost.
+ */
+public class StripedCounters {
+
+    private static final int MAX_STRIPES = 8;
+    private static final int LONGS_PER_CACHE_LINE = 8;
+
+    private final AtomicLongArray _cells;
+    private final int _counters;
+    private final int _stride;
+    private final int _stripeMask;
+
+    public StripedCounters(int counters) {
+        this(counters, Math.min(MAX_STRIPES, Integer.highestOneBit(Runtime.getRuntime().availableProcessors())));
+    }
+
+    public StripedCounters(int counters, int stripes) {
+        checkArgument(counters > 0, "counters must be > 0");
+        checkArgument(stripes > 0 && Integer.bitCount(stripes) == 1, "stripes must be a power of two");
+        _counters = counters;
+        // Leading padding plus every stripe rounded up to whole cache lines
+        _stride = (counters + LONGS_PER_CACHE_LINE - 1) / LONGS_PER_CACHE_LINE * LONGS_PER_CACHE_LINE;
+        _cells = new AtomicLongArray(LONGS_PER_CACHE_LINE + stripes * _stride);
+        _stripeMask = stripes - 1;
+    }
+
+    public int size() {
+        return _counters;
+    }
+
+    public void increment(int counter) {
+        add(counter, 1);
+    }
+
+    public void add(int counter, long delta) {
+        checkIndex(counter);
+        _cells.getAndAdd(cellOf(stripe(), counter), delta);
+    }
+
+    public long sum(int counter) {
+        checkIndex(counter);
+        long sum = 0;
+        for (int stripe = 0; stripe <= _stripeMask; stripe++) {
+            sum += _cells.get(cellOf(stripe, counter));
+        }
+        return sum;
+    }
+
+    public long sumThenReset(int counter) {
+        checkIndex(counter);
+        long sum = 0;
+        for (int stripe = 0; stripe <= _stripeMask; stripe++) {
+            sum += _cells.getAndSet(cellOf(stripe, counter), 0);
+        }
+        return sum;
+    }
+
+    private int cellOf(int stripe, int counter) {
+        return LONGS_PER_CACHE_LINE + stripe * _stride + counter;
+    }
+
+    private int stripe() {
+        long id = Thread.currentThread().getId();
+        return (int) (id ^ (id >>> 16)) & _stripeMask;
+    }
+
+    private void checkIndex(int counter) {
+        if (counter < 0 || counter >= _counters) {
+            throw new IndexOutOfBoundsException("Counter " + counter + " out of " + _counters);
+        }
+    }
+}
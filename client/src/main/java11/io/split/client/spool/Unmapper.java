@@ -0,0 +1,54 @@
+package io.split.client.spool;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+
+/**
+ * Releases the mapping of a segment before its file is deleted, for Java 11 and later, packaged under
+ * META-INF/versions/11 of the multi-release jar. Unsafe.invokeCleaner is the one way left to reach the cleaner of a
+ * mapped buffer without opening java.base.
+ */
+final class Unmapper {
+
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            unsafe = theUnsafe.get(null);
+            invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (Exception | LinkageError e) {
+            unsafe = null;
+            invokeCleaner = null;
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    private Unmapper() {
+    }
+
+    /**
+     * The buffer must not be touched after this, reading or writing an unmapped buffer crashes the JVM.
+     *
+     * @return false if the buffer couldn't be unmapped, in which case it's left to the garbage collector.
+     */
+    static boolean unmap(MappedByteBuffer buffer) {
+        if (INVOKE_CLEANER == null) {
+            return false;
+        }
+        try {
+            INVOKE_CLEANER.invoke(UNSAFE, buffer);
+            return true;
+        } catch (Exception | LinkageError e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package io.split.telemetry.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+/**
+ * Java Flight Recorder events of the SDK, for Java 11 and later, packaged under META-INF/versions/11 of the
+ * multi-release jar.
+ * <p/>
+ * Begin methods check whether the event type is enabled before allocating anything, so outside of a recording the
+ * cost is a volatile read.
+ */
+public final class SdkEvents {
+
+    private static final String CATEGORY = "Split SDK";
+
+    private static final EventType EVALUATION = EventType.getEventType(EvaluationEvent.class);
+    private static final EventType SPLITS_SYNC = EventType.getEventType(SplitsSyncEvent.class);
+    private static final EventType SEGMENT_SYNC = EventType.getEventType(SegmentSyncEvent.class);
+    private static final EventType FLUSH = EventType.getEventType(FlushEvent.class);
+    private static final EventType STREAMING_STATUS = EventType.getEventType(StreamingStatusEvent.class);
+    private static final EventType CACHE_UPDATE = EventType.getEventType(CacheUpdateEvent.class);
+
+    private SdkEvents() {
+    }
+
+    public static Object beginEvaluation() {
+        if (!EVALUATION.isEnabled()) {
+            return null;
+        }
+        EvaluationEvent event = new EvaluationEvent();
+        event.begin();
+        return event;
+    }
+
+    public static void endEvaluation(Object evaluation, String split, String label) {
+        if (!(evaluation instanceof EvaluationEvent)) {
+            return;
+        }
+        EvaluationEvent event = (EvaluationEvent) evaluation;
+        event.end();
+        if (event.shouldCommit()) {
+            event.split = split;
+            event.label = label;
+            event.commit();
+        }
+    }
+
+    public static Object beginSplitsSync() {
+        if (!SPLITS_SYNC.isEnabled()) {
+            return null;
+        }
+        SplitsSyncEvent event = new SplitsSyncEvent();
+        event.begin();
+        return event;
+    }
+
+    public static void endSplitsSync(Object sync, long since, long till, long bytes, long parseNanos) {
+        if (!(sync instanceof SplitsSyncEvent)) {
+            return;
+        }
+        SplitsSyncEvent event = (SplitsSyncEvent) sync;
+        event.end();
+        if (event.shouldCommit()) {
+            event.since = since;
+            event.till = till;
+            event.bytes = bytes;
+            event.parseTime = parseNanos;
+            event.commit();
+        }
+    }
+
+    public static Object beginSegmentSync() {
+        if (!SEGMENT_SYNC.isEnabled()) {
+            return null;
+        }
+        SegmentSyncEvent event = new SegmentSyncEvent();
+        event.begin();
+        return event;
+    }
+
+    public static void endSegmentSync(Object sync, String segment, long since, long till, long bytes, long parseNanos) {
+        if (!(sync instanceof SegmentSyncEvent)) {
+            return;
+        }
+        SegmentSyncEvent event = (SegmentSyncEvent) sync;
+        event.end();
+        if (event.shouldCommit()) {
+            event.segment = segment;
+            event.since = since;
+            event.till = till;
+            event.bytes = bytes;
+            event.parseTime = parseNanos;
+            event.commit();
+        }
+    }
+
+    public static Object beginFlush() {
+        if (!FLUSH.isEnabled()) {
+            return null;
+        }
+        FlushEvent event = new FlushEvent();
+        event.begin();
+        return event;
+    }
+
+    public static void endFlush(Object flush, String kind, int count, long bytes, boolean sent) {
+        if (!(flush instanceof FlushEvent)) {
+            return;
+        }
+        FlushEvent event = (FlushEvent) flush;
+        event.end();
+        if (event.shouldCommit()) {
+            event.kind = kind;
+            event.count = count;
+            event.bytes = bytes;
+            event.sent = sent;
+            event.commit();
+        }
+    }
+
+    public static void streamingStatus(String status) {
+        if (!STREAMING_STATUS.isEnabled()) {
+            return;
+        }
+        StreamingStatusEvent event = new StreamingStatusEvent();
+        event.status = status;
+        event.commit();
+    }
+
+    public static void cacheUpdated(String cache, long changeNumber, int updated, int removed) {
+        if (!CACHE_UPDATE.isEnabled()) {
+            return;
+        }
+        CacheUpdateEvent event = new CacheUpdateEvent();
+        event.cache = cache;
+        event.changeNumber = changeNumber;
+        event.updated = updated;
+        event.removed = removed;
+        event.commit();
+    }
+
+    @Name("io.split.Evaluation")
+    @Label("Evaluation")
+    @Description("A getTreatment call that took longer than the threshold")
+    @Category(CATEGORY)
+    @Threshold("1 ms")
+    static final class EvaluationEvent extends Event {
+        @Label("Split")
+        String split;
+
+        @Label("Label")
+        String label;
+    }
+
+    @Name("io.split.SplitsSync")
+    @Label("Splits Sync")
+    @Description("A request for split changes")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class SplitsSyncEvent extends Event {
+        @Label("Since")
+        long since;
+
+        @Label("Till")
+        long till;
+
+        @Label("Bytes")
+        @DataAmount
+        long bytes;
+
+        @Label("Parse Time")
+        @Timespan
+        long parseTime;
+    }
+
+    @Name("io.split.SegmentSync")
+    @Label("Segment Sync")
+    @Description("A request for segment changes")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class SegmentSyncEvent extends Event {
+        @Label("Segment")
+        String segment;
+
+        @Label("Since")
+        long since;
+
+        @Label("Till")
+        long till;
+
+        @Label("Bytes")
+        @DataAmount
+        long bytes;
+
+        @Label("Parse Time")
+        @Timespan
+        long parseTime;
+    }
+
+    @Name("io.split.Flush")
+    @Label("Flush")
+    @Description("Impressions or events posted to Split")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class FlushEvent extends Event {
+        @Label("Kind")
+        String kind;
+
+        @Label("Count")
+        int count;
+
+        @Label("Bytes")
+        @DataAmount
+        long bytes;
+
+        @Label("Sent")
+        boolean sent;
+    }
+
+    @Name("io.split.StreamingStatus")
+    @Label("Streaming Status")
+    @Description("The streaming connection changed state")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class StreamingStatusEvent extends Event {
+        @Label("Status")
+        String status;
+    }
+
+    @Name("io.split.CacheUpdate")
+    @Label("Cache Update")
+    @Description("Changes applied to the splits or to a segment held in memory")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class CacheUpdateEvent extends Event {
+        @Label("Cache")
+        String cache;
+
+        @Label("Change Number")
+        long changeNumber;
+
+        @Label("Updated")
+        int updated;
+
+        @Label("Removed")
+        int removed;
+    }
+}
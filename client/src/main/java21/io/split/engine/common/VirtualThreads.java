@@ -0,0 +1,24 @@
+package io.split.engine.common;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Virtual thread support for Java 21 and later, packaged under META-INF/versions/21 of the multi-release jar.
+ */
+final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    static boolean available() {
+        return true;
+    }
+
+    /**
+     * @return an executor that starts a new virtual thread for each task.
+     */
+    static ExecutorService newThreadPerTaskExecutor(String namePrefix) {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(namePrefix, 0).factory());
+    }
+}
@@ -1,24 +1,36 @@
 package io.split.client;
 
+import com.google.gson.reflect.TypeToken;
+import io.split.TestHelper;
 import io.split.client.dtos.Event;
+import io.split.client.spool.Spool;
+import io.split.client.spool.SpoolLog;
 import io.split.telemetry.domain.enums.EventsDataRecordsEnum;
 import io.split.telemetry.storage.InMemoryTelemetryStorage;
 import io.split.telemetry.storage.TelemetryStorage;
 import org.apache.hc.client5.http.classic.methods.HttpUriRequest;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.core5.http.HttpStatus;
 import org.hamcrest.Matchers;
 import org.junit.Assert;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.Mockito;
 
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 public class EventsClientImplTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     private static final TelemetryStorage TELEMETRY_STORAGE = Mockito.mock(InMemoryTelemetryStorage.class);
 
     @Test
@@ -56,23 +68,20 @@ public class EventsClientImplTest {
     @Test
     public void testEventsFlushedWhenSizeLimitReached() throws URISyntaxException, InterruptedException, IOException {
         CloseableHttpClient client = Mockito.mock(CloseableHttpClient.class);
-        EventClientImpl eventClient = new EventClientImpl(new LinkedBlockingQueue<EventClientImpl.WrappedEvent>(),
-                client,
+        EventClientImpl eventClient = new EventClientImpl(client,
                 URI.create("https://kubernetesturl.com/split"),
                 10000, // Long queue so it doesn't flush by # of events
                 100000, // Long period so it doesn't flush by timeout expiration.
                 0, TELEMETRY_STORAGE);
 
-        for (int i = 0; i < 159; ++i) {
-            Event event = new Event();
-            eventClient.track(event, 1024 * 32); // 159 32kb events should be about to flush
+        for (int i = 0; i < 160; ++i) {
+            eventClient.track(eventOfSize(32 * 1024 - 200)); // 160 ~32kb events fit in a batch
         }
 
         Thread.sleep(2000);
         Mockito.verifyZeroInteractions(client);
 
-        Event event = new Event();
-        eventClient.track(event, 1024 * 32); // 159 32kb events should be about to flush
+        eventClient.track(eventOfSize(32 * 1024 - 200)); // This one doesn't, so the batch is sent without it
         Thread.sleep(2000);
         Mockito.verify(client, Mockito.times(1)).execute((HttpUriRequest) Mockito.any());
     }
@@ -81,20 +90,41 @@ public class EventsClientImplTest {
     public void testEventDropped() throws URISyntaxException, NoSuchFieldException, IllegalAccessException, InterruptedException {
         TelemetryStorage telemetryStorage = Mockito.mock(InMemoryTelemetryStorage.class);
         CloseableHttpClient client = Mockito.mock(CloseableHttpClient.class);
-        EventClientImpl eventClient = new EventClientImpl(new LinkedBlockingQueue<>(2),
-                client,
+        EventClientImpl eventClient = new EventClientImpl(client,
                 URI.create("https://kubernetesturl.com/split"),
-                10000, // Long queue so it doesn't flush by # of events
+                2, // Short queue so the third event doesn't fit
                 100000, // Long period so it doesn't flush by timeout expiration.
                 0, telemetryStorage);
         eventClient.close();
         Thread.sleep(1000);
         for (int i = 0; i < 3; ++i) {
             Event event = new Event();
-            eventClient.track(event, 1);
+            eventClient.track(event);
         }
 
         Mockito.verify(telemetryStorage, Mockito.times(2)).recordEventStats(EventsDataRecordsEnum.EVENTS_QUEUED, 1);
         Mockito.verify(telemetryStorage, Mockito.times(1)).recordEventStats(EventsDataRecordsEnum.EVENTS_DROPPED, 1);
     }
+
+    private static Event eventOfSize(int propertiesSize) {
+        char[] value = new char[propertiesSize];
+        Arrays.fill(value, 'a');
+        Event event = new Event();
+        event.properties = Collections.singletonMap("value", new String(value));
+        return event;
+    }
+
+    @Test
+    public void testBatchDroppedWhenSpoolRejectsIt() throws Exception {
+        TelemetryStorage telemetryStorage = Mockito.mock(InMemoryTelemetryStorage.class);
+        CloseableHttpClient client = TestHelper.mockHttpClient("", HttpStatus.SC_SERVICE_UNAVAILABLE);
+        // Segments too small to hold the batch
+        Spool<List<Event>> spool = new Spool<>(SpoolLog.open(folder.getRoot(), 32, 64, 60 * 1000L), new TypeToken<List<Event>>() { }.getType());
+
+        List<Event> events = Arrays.asList(eventOfSize(100), eventOfSize(100));
+        EventClientImpl.EventSenderTask.create(client, URI.create("https://kubernetesturl.com/split"), events, false, telemetryStorage, spool).run();
+
+        Mockito.verify(telemetryStorage, Mockito.times(1)).recordEventStats(EventsDataRecordsEnum.EVENTS_DROPPED, 2);
+        spool.close();
+    }
 }
@@ -1048,7 +1048,7 @@ public class SplitClientImplTest {
         SDKReadinessGates gates = mock(SDKReadinessGates.class);
         SplitCache splitCache = mock(InMemoryCacheImp.class);
         EventClient eventClientMock = Mockito.mock(EventClient.class);
-        Mockito.when(eventClientMock.track((Event) Mockito.any(), Mockito.anyInt())).thenReturn(true);
+        Mockito.when(eventClientMock.track((Event) Mockito.any())).thenReturn(true);
 
         SplitClientImpl client = new SplitClientImpl(
                 mock(SplitFactory.class),
@@ -1067,7 +1067,7 @@ public class SplitClientImplTest {
         properties.put("some_property", new Object());
         Assert.assertThat(client.track("key1", "user", "purchase", properties),
                 org.hamcrest.Matchers.is(true));
-        verify(eventClientMock).track(eventArgumentCaptor.capture(), Mockito.anyInt());
+        verify(eventClientMock).track(eventArgumentCaptor.capture());
         Event captured = eventArgumentCaptor.getValue();
         Assert.assertThat(captured.properties.size(), org.hamcrest.Matchers.is(2));
         Assert.assertThat((Integer) captured.properties.get("ok_property"), org.hamcrest.Matchers.is(123));
@@ -1075,13 +1075,13 @@ public class SplitClientImplTest {
 
         properties.clear();
         Mockito.reset(eventClientMock);
-        Mockito.when(eventClientMock.track((Event) Mockito.any(), Mockito.anyInt())).thenReturn(true);
+        Mockito.when(eventClientMock.track((Event) Mockito.any())).thenReturn(true);
         properties.put("ok_property", 123);
         properties.put("some_property", Arrays.asList(1, 2, 3));
         Assert.assertThat(client.track("key1", "user", "purchase", properties),
                 org.hamcrest.Matchers.is(true));
         eventArgumentCaptor = ArgumentCaptor.forClass(Event.class);
-        verify(eventClientMock).track(eventArgumentCaptor.capture(), Mockito.anyInt());
+        verify(eventClientMock).track(eventArgumentCaptor.capture());
         captured = eventArgumentCaptor.getValue();
         Assert.assertThat(captured.properties.size(), org.hamcrest.Matchers.is(2));
         Assert.assertThat((Integer) captured.properties.get("ok_property"), org.hamcrest.Matchers.is(123));
@@ -1089,13 +1089,13 @@ public class SplitClientImplTest {
 
         properties.clear();
         Mockito.reset(eventClientMock);
-        Mockito.when(eventClientMock.track((Event) Mockito.any(), Mockito.anyInt())).thenReturn(true);
+        Mockito.when(eventClientMock.track((Event) Mockito.any())).thenReturn(true);
         properties.put("ok_property", 123);
         properties.put("some_property", new HashMap<String, Number>());
         Assert.assertThat(client.track("key1", "user", "purchase", properties),
                 org.hamcrest.Matchers.is(true));
         eventArgumentCaptor = ArgumentCaptor.forClass(Event.class);
-        verify(eventClientMock).track(eventArgumentCaptor.capture(), Mockito.anyInt());
+        verify(eventClientMock).track(eventArgumentCaptor.capture());
         captured = eventArgumentCaptor.getValue();
         Assert.assertThat(captured.properties.size(), org.hamcrest.Matchers.is(2));
         Assert.assertThat((Integer) captured.properties.get("ok_property"), org.hamcrest.Matchers.is(123));
@@ -1103,12 +1103,12 @@ public class SplitClientImplTest {
 
         properties.clear();
         Mockito.reset(eventClientMock);
-        Mockito.when(eventClientMock.track((Event) Mockito.any(), Mockito.anyInt())).thenReturn(true);
+        Mockito.when(eventClientMock.track((Event) Mockito.any())).thenReturn(true);
         properties.put("ok_property", 123);
         Assert.assertThat(client.track("key1", "user", "purchase", 123, properties),
                 org.hamcrest.Matchers.is(true));
         eventArgumentCaptor = ArgumentCaptor.forClass(Event.class);
-        verify(eventClientMock).track(eventArgumentCaptor.capture(), Mockito.anyInt());
+        verify(eventClientMock).track(eventArgumentCaptor.capture());
         captured = eventArgumentCaptor.getValue();
         Assert.assertThat(captured.value, org.hamcrest.Matchers.is(123.0));
         Assert.assertThat(captured.trafficTypeName,org.hamcrest.Matchers.is("user"));
@@ -1119,7 +1119,7 @@ public class SplitClientImplTest {
 
         properties.clear();
         Mockito.reset(eventClientMock);
-        Mockito.when(eventClientMock.track((Event) Mockito.any(), Mockito.anyInt())).thenReturn(true);
+        Mockito.when(eventClientMock.track((Event) Mockito.any())).thenReturn(true);
         properties.put("prop1", 1);
         properties.put("prop2", 2L);
         properties.put("prop3", 7.56);
@@ -1129,7 +1129,7 @@ public class SplitClientImplTest {
         Assert.assertThat(client.track("key1", "user", "purchase", properties),
                 org.hamcrest.Matchers.is(true));
         eventArgumentCaptor = ArgumentCaptor.forClass(Event.class);
-        verify(eventClientMock).track(eventArgumentCaptor.capture(), Mockito.anyInt());
+        verify(eventClientMock).track(eventArgumentCaptor.capture());
         captured = eventArgumentCaptor.getValue();
         Assert.assertThat(captured.properties.size(), org.hamcrest.Matchers.is(6));
         Assert.assertThat((Integer) captured.properties.get("prop1"), org.hamcrest.Matchers.is(1));
@@ -8,6 +8,9 @@ import junit.framework.TestCase;
 import org.junit.Test;
 import org.mockito.Mockito;
 
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.net.URISyntaxException;
@@ -107,17 +110,111 @@ public class SplitFactoryImplTest extends TestCase {
 
         SplitFactoryImpl splitFactory = new SplitFactoryImpl(API_KEY, splitClientConfig);
         //Before destroy we replace telemetryStorage via reflection.
-        Field factoryDestroy = SplitFactoryImpl.class.getDeclaredField("_telemetryStorage");
+        Field syncCore = SplitFactoryImpl.class.getDeclaredField("_syncCore");
+        syncCore.setAccessible(true);
+        Field factoryDestroy = SplitSyncCore.class.getDeclaredField("_telemetryStorage");
         factoryDestroy.setAccessible(true);
         Field modifiersField = Field.class.getDeclaredField("modifiers");
         modifiersField.setAccessible(true);
         modifiersField.setInt(factoryDestroy, factoryDestroy.getModifiers() & ~Modifier.FINAL);
 
-        factoryDestroy.set(splitFactory, telemetryStorage);
+        factoryDestroy.set(syncCore.get(splitFactory), telemetryStorage);
         splitFactory.destroy();
 
         assertTrue(splitFactory.isDestroyed());
         Mockito.verify(telemetryStorage, Mockito.times(1)).recordSessionLength(Mockito.anyLong());
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testFactoriesShareSyncCore() throws Exception {
+        SplitClientConfig splitClientConfig = SplitClientConfig.builder()
+                .enableDebug()
+                .impressionsMode(ImpressionsManager.Mode.DEBUG)
+                .impressionsRefreshRate(1)
+                .endpoint(ENDPOINT,EVENTS_ENDPOINT)
+                .telemetryURL(SplitClientConfig.TELEMETRY_ENDPOINT)
+                .authServiceURL(AUTH_SERVICE)
+                .setBlockUntilReadyTimeout(10000)
+                .sharedSyncCoreEnabled(true)
+                .build();
+
+        SplitFactoryImpl first = new SplitFactoryImpl(API_KEY, splitClientConfig);
+        SplitFactoryImpl second = new SplitFactoryImpl(API_KEY, splitClientConfig);
+        Field syncCore = SplitFactoryImpl.class.getDeclaredField("_syncCore");
+        syncCore.setAccessible(true);
+        SplitSyncCore core = (SplitSyncCore) syncCore.get(first);
+
+        assertSame(core, syncCore.get(second));
+        assertNotSame(first.client(), second.client());
+        assertEquals(2, core.references());
+
+        first.destroy();
+        assertEquals(1, core.references());
+        assertFalse(second.isDestroyed());
+
+        second.destroy();
+        assertEquals(0, core.references());
+
+        SplitFactoryImpl third = new SplitFactoryImpl(API_KEY, splitClientConfig);
+        assertNotSame(core, syncCore.get(third));
+        third.destroy();
+    }
+
+    @Test
+    public void testFactoriesWithDifferentSyncSettingsDontShareSyncCore() throws Exception {
+        SplitClientConfig.Builder builder = SplitClientConfig.builder()
+                .enableDebug()
+                .impressionsMode(ImpressionsManager.Mode.DEBUG)
+                .impressionsRefreshRate(1)
+                .endpoint(ENDPOINT,EVENTS_ENDPOINT)
+                .telemetryURL(SplitClientConfig.TELEMETRY_ENDPOINT)
+                .authServiceURL(AUTH_SERVICE)
+                .setBlockUntilReadyTimeout(10000)
+                .sharedSyncCoreEnabled(true);
+
+        SplitFactoryImpl first = new SplitFactoryImpl(API_KEY, builder.featuresRefreshRate(60).build());
+        SplitFactoryImpl second = new SplitFactoryImpl(API_KEY, builder.featuresRefreshRate(120).build());
+        Field syncCore = SplitFactoryImpl.class.getDeclaredField("_syncCore");
+        syncCore.setAccessible(true);
+        SplitSyncCore firstCore = (SplitSyncCore) syncCore.get(first);
+        SplitSyncCore secondCore = (SplitSyncCore) syncCore.get(second);
+
+        assertNotSame(firstCore, secondCore);
+        assertEquals(1, firstCore.references());
+        assertEquals(1, secondCore.references());
+
+        second.destroy();
+        assertEquals(1, firstCore.references());
+        assertFalse(first.isDestroyed());
+        first.destroy();
+        assertEquals(0, firstCore.references());
+    }
+
+    @Test
+    public void testEachFactoryRegistersItsOwnMonitors() throws Exception {
+        SplitClientConfig splitClientConfig = SplitClientConfig.builder()
+                .enableDebug()
+                .impressionsMode(ImpressionsManager.Mode.DEBUG)
+                .impressionsRefreshRate(1)
+                .endpoint(ENDPOINT,EVENTS_ENDPOINT)
+                .telemetryURL(SplitClientConfig.TELEMETRY_ENDPOINT)
+                .authServiceURL(AUTH_SERVICE)
+                .setBlockUntilReadyTimeout(1000)
+                .splitStatsEnabled(true)
+                .jmxStatsEnabled(true)
+                .build();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName pattern = new ObjectName("io.split.client:*");
+        int before = server.queryNames(pattern, null).size();
+
+        SplitFactoryImpl first = new SplitFactoryImpl(API_KEY, splitClientConfig);
+        SplitFactoryImpl second = new SplitFactoryImpl(API_KEY, splitClientConfig);
+        assertEquals(before + 4, server.queryNames(pattern, null).size());
+
+        first.destroy();
+        assertEquals(before + 2, server.queryNames(pattern, null).size());
+
+        second.destroy();
+        assertEquals(before, server.queryNames(pattern, null).size());
+    }
+}
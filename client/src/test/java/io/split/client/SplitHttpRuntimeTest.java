@@ -0,0 +1,46 @@
+package io.split.client;
+
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SplitHttpRuntimeTest {
+
+    @Test
+    public void poolsAreSizedFromBuilder() {
+        SplitHttpRuntime runtime = SplitHttpRuntime.builder()
+                .maxConnections(300)
+                .maxConnectionsPerRoute(75)
+                .maxStreamingConnections(40)
+                .build();
+
+        PoolingHttpClientConnectionManager connectionManager = runtime.connectionManager();
+        Assert.assertEquals(300, connectionManager.getMaxTotal());
+        Assert.assertEquals(75, connectionManager.getDefaultMaxPerRoute());
+
+        PoolingHttpClientConnectionManager streamingConnectionManager = runtime.streamingConnectionManager();
+        Assert.assertEquals(40, streamingConnectionManager.getMaxTotal());
+        Assert.assertEquals(40, streamingConnectionManager.getDefaultMaxPerRoute());
+
+        runtime.close();
+    }
+
+    @Test
+    public void runtimeIsPassedThroughConfig() {
+        SplitHttpRuntime runtime = SplitHttpRuntime.builder().build();
+        SplitClientConfig config = SplitClientConfig.builder()
+                .httpRuntime(runtime)
+                .build();
+
+        Assert.assertSame(runtime, config.httpRuntime());
+        Assert.assertNull(SplitClientConfig.builder().build().httpRuntime());
+        runtime.close();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void cannotSetMaxConnectionsToZero() {
+        SplitHttpRuntime.builder()
+                .maxConnections(0)
+                .build();
+    }
+}
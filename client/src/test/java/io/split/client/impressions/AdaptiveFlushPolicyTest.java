@@ -0,0 +1,54 @@
+package io.split.client.impressions;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AdaptiveFlushPolicyTest {
+
+    @Test
+    public void waitsTheLongestUntilImpressionsAreTracked() {
+        AdaptiveFlushPolicy policy = new AdaptiveFlushPolicy(1000, 1000, 60000);
+        Assert.assertEquals(60000, policy.nextDelayMillis());
+
+        policy.recordFlush(0, 0, 10, false);
+        policy.recordFlush(60000, 0, 10, false);
+        Assert.assertEquals(60000, policy.nextDelayMillis());
+    }
+
+    @Test
+    public void flushesBeforeTheQueueIsHalfFull() {
+        AdaptiveFlushPolicy policy = new AdaptiveFlushPolicy(10000, 1000, 60000);
+        policy.recordFlush(0, 0, 0, false);
+        policy.recordFlush(10000, 1000, 0, false); // 100 impressions per second
+
+        Assert.assertEquals(50000, policy.nextDelayMillis());
+    }
+
+    @Test
+    public void accountsForFlushDuration() {
+        AdaptiveFlushPolicy policy = new AdaptiveFlushPolicy(10000, 1000, 60000);
+        policy.recordFlush(0, 0, 10000, false);
+        policy.recordFlush(10000, 1000, 10000, false);
+
+        Assert.assertTrue(policy.nextDelayMillis() < 50000);
+    }
+
+    @Test
+    public void speedsUpWhenTheQueueWasFull() {
+        AdaptiveFlushPolicy policy = new AdaptiveFlushPolicy(10000, 1000, 60000);
+        policy.recordFlush(0, 0, 0, false);
+        policy.recordFlush(10000, 1000, 0, false);
+        long delay = policy.nextDelayMillis();
+
+        policy.recordFlush(20000, 10000, 0, true);
+        Assert.assertTrue(policy.nextDelayMillis() < delay);
+        Assert.assertTrue(policy.nextDelayMillis() >= 1000);
+    }
+
+    @Test
+    public void highWatermarkIsThreeQuartersOfCapacity() {
+        AdaptiveFlushPolicy policy = new AdaptiveFlushPolicy(1000, 1000, 60000);
+        Assert.assertFalse(policy.isAboveHighWatermark(749));
+        Assert.assertTrue(policy.isAboveHighWatermark(750));
+    }
+}
@@ -0,0 +1,136 @@
+package io.split.client.impressions;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class BatchingImpressionListenerTest {
+
+    @Test
+    public void deliversFullBatchesWithoutWaitingForLatency() throws InterruptedException {
+        RecordingListener delegate = new RecordingListener(2);
+        BatchingImpressionListener listener = new BatchingImpressionListener(delegate, 100, 5, 60000L, Executors.newSingleThreadExecutor());
+
+        for (int i = 0; i < 10; i++) {
+            listener.log(impression(i));
+        }
+
+        Assert.assertTrue(delegate._batchesDelivered.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(5, delegate._batches.get(0).size());
+        Assert.assertEquals(5, delegate._batches.get(1).size());
+        Assert.assertEquals("key0", delegate._batches.get(0).get(0).key());
+        Assert.assertEquals("key9", delegate._batches.get(1).get(4).key());
+        listener.close();
+    }
+
+    @Test
+    public void deliversPartialBatchesAfterMaxLatency() throws InterruptedException {
+        RecordingListener delegate = new RecordingListener(1);
+        BatchingImpressionListener listener = new BatchingImpressionListener(delegate, 100, 50, 50L, Executors.newSingleThreadExecutor());
+
+        listener.log(impression(1));
+        listener.log(impression(2));
+
+        Assert.assertTrue(delegate._batchesDelivered.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(2, delegate._batches.get(0).size());
+        listener.close();
+    }
+
+    @Test
+    public void closeDeliversBufferedImpressions() {
+        RecordingListener delegate = new RecordingListener(1);
+        BatchingImpressionListener listener = new BatchingImpressionListener(delegate, 100, 50, 60000L, Executors.newSingleThreadExecutor());
+
+        for (int i = 0; i < 7; i++) {
+            listener.log(impression(i));
+        }
+        listener.close();
+
+        int delivered = 0;
+        for (List<Impression> batch : delegate._batches) {
+            delivered += batch.size();
+        }
+        Assert.assertEquals(7, delivered);
+        Assert.assertTrue(delegate._closed);
+    }
+
+    @Test
+    public void countsImpressionsDroppedWhenFull() throws InterruptedException {
+        CountDownLatch blocked = new CountDownLatch(1);
+        RecordingListener delegate = new RecordingListener(1) {
+            @Override
+            public void logBatch(List<Impression> impressions) {
+                super.logBatch(impressions);
+                try {
+                    blocked.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        BatchingImpressionListener listener = new BatchingImpressionListener(delegate, 4, 1, 60000L, Executors.newSingleThreadExecutor());
+
+        listener.log(impression(0));
+        Assert.assertTrue(delegate._batchesDelivered.await(5, TimeUnit.SECONDS)); // The consumer is now blocked
+        for (int i = 1; i <= 10; i++) {
+            listener.log(impression(i));
+        }
+
+        Assert.assertEquals(6, listener.dropped());
+        blocked.countDown();
+        listener.close();
+    }
+
+    @Test
+    public void adaptsSingleImpressionListeners() {
+        List<Impression> logged = new ArrayList<>();
+        BatchedImpressionListener adapted = BatchedImpressionListener.adapt(new ImpressionListener() {
+            @Override
+            public void log(Impression impression) {
+                logged.add(impression);
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+
+        List<Impression> batch = new ArrayList<>();
+        batch.add(impression(1));
+        batch.add(impression(2));
+        adapted.logBatch(batch);
+
+        Assert.assertEquals(batch, logged);
+    }
+
+    private static Impression impression(int i) {
+        return new Impression("key" + i, null, "feature", "on", i, "label", 1L, null);
+    }
+
+    private static class RecordingListener implements BatchedImpressionListener {
+        final List<List<Impression>> _batches = new CopyOnWriteArrayList<>();
+        final CountDownLatch _batchesDelivered;
+        volatile boolean _closed;
+
+        RecordingListener(int expectedBatches) {
+            _batchesDelivered = new CountDownLatch(expectedBatches);
+        }
+
+        @Override
+        public void logBatch(List<Impression> impressions) {
+            _batches.add(new ArrayList<>(impressions));
+            _batchesDelivered.countDown();
+        }
+
+        @Override
+        public void close() {
+            _closed = true;
+        }
+    }
+}
@@ -107,6 +107,43 @@ public class ImpressionCounterTest {
         assertThat(counted.get(new ImpressionCounter.Key("feature2", ImpressionUtils.truncateTimeframe(nextHourTimestamp))), is(equalTo(iterations * 3)));
     }
 
+    @Test
+    public void countsFromThreadsThatEndedAreKept() throws InterruptedException {
+        final long timestamp = makeTimestamp(2020, 9, 2, 10, 10, 12);
+        ImpressionCounter counter = new ImpressionCounter();
+        for (int i = 0; i < 50; i++) {
+            Thread thread = new Thread(() -> counter.inc("feature1", timestamp, 1));
+            thread.start();
+            thread.join();
+        }
+
+        Map<ImpressionCounter.Key, Integer> counted = counter.popAll();
+        assertThat(counted.get(new ImpressionCounter.Key("feature1", ImpressionUtils.truncateTimeframe(timestamp))), is(equalTo(50)));
+
+        // Features are forgotten once popped, and counted again from scratch
+        counter.inc("feature2", timestamp, 3);
+        counted = counter.popAll();
+        assertThat(counted.size(), is(equalTo(1)));
+        assertThat(counted.get(new ImpressionCounter.Key("feature2", ImpressionUtils.truncateTimeframe(timestamp))), is(equalTo(3)));
+        assertThat(counter.isEmpty(), is(true));
+    }
+
+    @Test
+    public void writersOfThreadsThatEndedArePrunedBetweenPops() throws InterruptedException {
+        final long timestamp = makeTimestamp(2020, 9, 2, 10, 10, 12);
+        ImpressionCounter counter = new ImpressionCounter();
+        for (int i = 0; i < 5000; i++) {
+            Thread thread = new Thread(() -> counter.inc("feature1", timestamp, 1));
+            thread.start();
+            thread.join();
+            assertThat(counter.writerCount(), is(lessThan(65)));
+        }
+
+        Map<ImpressionCounter.Key, Integer> counted = counter.popAll();
+        assertThat(counted.get(new ImpressionCounter.Key("feature1", ImpressionUtils.truncateTimeframe(timestamp))), is(equalTo(5000)));
+        assertThat(counter.writerCount(), is(equalTo(0)));
+    }
+
     @Test
     public void manyConcurrentCallsWithConcurrentPops() throws InterruptedException {
         final int iterations = 10000000;
@@ -185,4 +222,38 @@ public class ImpressionCounterTest {
         assertThat(feature2TSCount, is(both(greaterThan(lowerBound)).and(lessThan(upperBound))));
         assertThat(feature2NextTSCount, is(both(greaterThan(lowerBound)).and(lessThan(upperBound))));
     }
+
+    @Test
+    public void growsAndPopsWithoutLosingCounts() throws InterruptedException {
+        final int iterations = 200000;
+        final int features = 1000;
+        final long timestamp = makeTimestamp(2020, 9, 2, 10, 10, 12);
+        ImpressionCounter counter = new ImpressionCounter();
+        Runnable writer = () -> {
+            for (int i = 0; i < iterations; i++) {
+                counter.inc("feature" + (i % features), timestamp, 1);
+            }
+        };
+        Thread t1 = new Thread(writer);
+        Thread t2 = new Thread(writer);
+        Thread t3 = new Thread(writer);
+
+        List<Map<ImpressionCounter.Key, Integer>> pops = new ArrayList<>();
+        t1.start(); t2.start(); t3.start();
+        while (t1.isAlive() || t2.isAlive() || t3.isAlive()) {
+            pops.add(counter.popAll());
+        }
+        t1.join(); t2.join(); t3.join();
+        pops.add(counter.popAll());
+
+        long total = 0;
+        for (Map<ImpressionCounter.Key, Integer> pop : pops) {
+            for (Map.Entry<ImpressionCounter.Key, Integer> entry : pop.entrySet()) {
+                assertThat(entry.getKey().timeFrame(), is(equalTo(ImpressionUtils.truncateTimeframe(timestamp))));
+                total += entry.getValue();
+            }
+        }
+        assertThat(total, is(equalTo(3L * iterations)));
+        assertThat(counter.isEmpty(), is(true));
+    }
 }
@@ -78,6 +78,25 @@ public class ImpressionHasherTest {
         assertThat(ImpressionHasher.process(imp1), not(equalTo(ImpressionHasher.process(imp2))));
     }
 
+    @Test
+    public void streamingMatchesFormattedHash() {
+        String[] keys = {"someKey", null, "ñandú", "emoji \uD83D\uDE00", "unpaired \uD83D"};
+        Long[] changeNumbers = {123L, null, 0L, -5L, Long.MAX_VALUE, Long.MIN_VALUE};
+        for (String key : keys) {
+            for (Long changeNumber : changeNumbers) {
+                Impression imp = new Impression(key,
+                        null,
+                        "someFeature",
+                        "someTreatment",
+                        System.currentTimeMillis(),
+                        key == null ? null : "someLabel",
+                        changeNumber,
+                        null);
+                assertEquals(ImpressionHasher.processFormatted(imp), ImpressionHasher.process(imp));
+            }
+        }
+    }
+
     @Test
     public void doesNotCrash() {
         Impression imp1 = new Impression("someKey",
@@ -0,0 +1,95 @@
+package io.split.client.impressions;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import io.split.client.SplitClientConfig;
+import io.split.client.dtos.TestImpressions;
+import io.split.telemetry.storage.InMemoryTelemetryStorage;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ImpressionsFlushLoadTest {
+
+    private static final int IMPRESSIONS = 20000;
+    private static final int BULK_SIZE = 1000;
+    private static final int MAX_IN_FLIGHT = 4;
+    private static final long ENDPOINT_LATENCY_MS = 200;
+
+    @Test
+    public void slowEndpointGetsBulksConcurrently() throws Exception {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        AtomicInteger received = new AtomicInteger();
+        AtomicInteger requests = new AtomicInteger();
+        AtomicInteger maxBulkSize = new AtomicInteger();
+
+        MockWebServer server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(ENDPOINT_LATENCY_MS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                List<TestImpressions> bulk = new Gson().fromJson(request.getBody().readUtf8(), new TypeToken<List<TestImpressions>>() { }.getType());
+                int count = 0;
+                for (TestImpressions impressions : bulk) {
+                    count += impressions.keyImpressions.size();
+                }
+                maxBulkSize.accumulateAndGet(count, Math::max);
+                received.addAndGet(count);
+                requests.incrementAndGet();
+                inFlight.decrementAndGet();
+                return new MockResponse().setResponseCode(200);
+            }
+        });
+        server.start();
+
+        String url = String.format("http://%s:%s", server.getHostName(), server.getPort());
+        SplitClientConfig config = SplitClientConfig.builder()
+                .endpoint(url, url)
+                .impressionsMode(ImpressionsManager.Mode.DEBUG)
+                .impressionsQueueSize(IMPRESSIONS)
+                .impressionsBulkSize(BULK_SIZE)
+                .impressionsMaxInFlightBulks(MAX_IN_FLIGHT)
+                .build();
+        CloseableHttpClient client = HttpClients.custom()
+                .setConnectionManager(PoolingHttpClientConnectionManagerBuilder.create()
+                        .setMaxConnTotal(MAX_IN_FLIGHT + 1)
+                        .setMaxConnPerRoute(MAX_IN_FLIGHT + 1)
+                        .build())
+                .build();
+        ImpressionsManagerImpl manager = ImpressionsManagerImpl.instance(client, config, null, new InMemoryTelemetryStorage());
+
+        try {
+            long now = System.currentTimeMillis();
+            for (int i = 0; i < IMPRESSIONS; i++) {
+                manager.track(new Impression("key_" + i, null, "feature_" + (i % 10), "on", now, "label", 1L, null));
+            }
+
+            manager.sendImpressions();
+            manager.close();
+
+            Assert.assertEquals(IMPRESSIONS, received.get());
+            Assert.assertEquals(IMPRESSIONS / BULK_SIZE, requests.get());
+            Assert.assertTrue(maxInFlight.get() > 1);
+            Assert.assertTrue(maxInFlight.get() <= MAX_IN_FLIGHT);
+            Assert.assertTrue(maxBulkSize.get() <= BULK_SIZE);
+        } finally {
+            client.close();
+            server.shutdown();
+        }
+    }
+}
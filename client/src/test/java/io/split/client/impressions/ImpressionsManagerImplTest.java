@@ -3,13 +3,16 @@ package io.split.client.impressions;
 import io.split.client.SplitClientConfig;
 import io.split.client.dtos.KeyImpression;
 import io.split.client.dtos.TestImpressions;
+import io.split.client.utils.PostResult;
 
 import io.split.telemetry.domain.enums.ImpressionsDataTypeEnum;
 import io.split.telemetry.storage.InMemoryTelemetryStorage;
 import io.split.telemetry.storage.TelemetryStorage;
 import org.junit.Before;
 import org.junit.Ignore;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
@@ -20,6 +23,11 @@ import java.net.URISyntaxException;
 import java.util.AbstractMap;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.assertThat;
@@ -32,6 +40,9 @@ import static org.mockito.Mockito.*;
 public class ImpressionsManagerImplTest {
     private static TelemetryStorage TELEMETRY_STORAGE = Mockito.mock(InMemoryTelemetryStorage.class);
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     @Before
     public void setUp() {
         TELEMETRY_STORAGE = Mockito.mock(InMemoryTelemetryStorage.class);
@@ -43,6 +54,9 @@ public class ImpressionsManagerImplTest {
     @Captor
     private ArgumentCaptor<HashMap<ImpressionCounter.Key, Integer>> impressionCountCaptor;
 
+    @Captor
+    private ArgumentCaptor<Map<String, List<String>>> uniqueKeysCaptor;
+
     @Test
     public void works() throws URISyntaxException {
 
@@ -281,4 +295,204 @@ public class ImpressionsManagerImplTest {
         treatmentLog.sendImpressionCounters();
         verify(senderMock, Mockito.times(0)).postCounters(Mockito.any());
     }
+
+    @Test
+    public void testImpressionsNoneMode() throws URISyntaxException {
+        SplitClientConfig config = SplitClientConfig.builder()
+                .impressionsQueueSize(10)
+                .endpoint("nowhere.com", "nowhere.com")
+                .impressionsMode(ImpressionsManager.Mode.NONE)
+                .build();
+
+        ImpressionsSender senderMock = Mockito.mock(ImpressionsSender.class);
+
+        ImpressionsManagerImpl treatmentLog = ImpressionsManagerImpl.instanceForTest(null, config, senderMock, null, TELEMETRY_STORAGE);
+
+        treatmentLog.track(new Impression("adil", null, "test1", "on", 1L, null, 1L, null));
+        treatmentLog.track(new Impression("adil", null, "test1", "on", 2L, null, 1L, null));
+        treatmentLog.track(new Impression("pato", null, "test1", "on", 3L, null, 1L, null));
+        treatmentLog.track(new Impression("pato", null, "test2", "off", 4L, null, 1L, null));
+        treatmentLog.sendImpressions();
+
+        // No impression is ever queued
+        verify(senderMock, never()).postImpressionsBulk(Mockito.any());
+
+        treatmentLog.sendImpressionCounters();
+        verify(senderMock).postCounters(impressionCountCaptor.capture());
+        HashMap<ImpressionCounter.Key, Integer> capturedCounts = impressionCountCaptor.getValue();
+        assertThat(capturedCounts.entrySet(), containsInAnyOrder(
+                new AbstractMap.SimpleEntry<>(new ImpressionCounter.Key("test1", 0), 3),
+                new AbstractMap.SimpleEntry<>(new ImpressionCounter.Key("test2", 0), 1)));
+
+        treatmentLog.sendUniqueKeys();
+        verify(senderMock).postUniqueKeys(uniqueKeysCaptor.capture());
+        Map<String, List<String>> capturedKeys = uniqueKeysCaptor.getValue();
+        assertThat(capturedKeys.size(), is(equalTo(2)));
+        assertThat(capturedKeys.get("test1"), containsInAnyOrder("adil", "pato"));
+        assertThat(capturedKeys.get("test2"), org.hamcrest.Matchers.contains("pato"));
+
+        // Assert that the sender is never called if there are no keys.
+        Mockito.reset(senderMock);
+        treatmentLog.sendUniqueKeys();
+        verify(senderMock, Mockito.times(0)).postUniqueKeys(Mockito.any());
+    }
+
+    @Test
+    public void testUniqueKeysAreSentOnceTheConfiguredMaxSizeIsReached() throws URISyntaxException {
+        SplitClientConfig config = SplitClientConfig.builder()
+                .endpoint("nowhere.com", "nowhere.com")
+                .impressionsMode(ImpressionsManager.Mode.NONE)
+                .uniqueKeysMaxSize(2)
+                .build();
+
+        ImpressionsSender senderMock = Mockito.mock(ImpressionsSender.class);
+        ImpressionsManagerImpl treatmentLog = ImpressionsManagerImpl.instanceForTest(null, config, senderMock, null, TELEMETRY_STORAGE);
+
+        treatmentLog.track(new Impression("adil", null, "test1", "on", 1L, null, 1L, null));
+        treatmentLog.track(new Impression("pato", null, "test2", "on", 2L, null, 1L, null));
+
+        verify(senderMock, timeout(5000)).postUniqueKeys(uniqueKeysCaptor.capture());
+        assertThat(uniqueKeysCaptor.getValue().keySet(), containsInAnyOrder("test1", "test2"));
+        treatmentLog.close();
+    }
+
+    @Test
+    public void testHighWatermarkTriggersEarlyFlush() throws URISyntaxException, InterruptedException {
+        SplitClientConfig config = SplitClientConfig.builder()
+                .impressionsQueueSize(100)
+                .endpoint("nowhere.com", "nowhere.com")
+                .impressionsMode(ImpressionsManager.Mode.DEBUG)
+                .impressionsAdaptiveFlushEnabled(true)
+                .build();
+
+        ImpressionsSender senderMock = Mockito.mock(ImpressionsSender.class);
+        Mockito.when(senderMock.postImpressionsBulk(Mockito.any())).thenReturn(PostResult.ACCEPTED);
+
+        ImpressionsManagerImpl treatmentLog = ImpressionsManagerImpl.instanceForTest(null, config, senderMock, null, TELEMETRY_STORAGE);
+
+        for (int i = 0; i < 74; i++) {
+            treatmentLog.track(new Impression("key" + i, null, "test1", "on", i, null, 1L, null));
+        }
+        Thread.sleep(500);
+        verify(senderMock, never()).postImpressionsBulk(Mockito.any());
+
+        // The 75th impression reaches the high watermark, impressions are flushed long before the first scheduled flush
+        treatmentLog.track(new Impression("key74", null, "test1", "on", 74L, null, 1L, null));
+        verify(senderMock, timeout(5000)).postImpressionsBulk(impressionsCaptor.capture());
+        assertThat(impressionsCaptor.getValue().get(0).keyImpressions.size(), is(equalTo(75)));
+    }
+
+    @Test
+    public void testOverflowIsSpooledByTheFlusher() throws Exception {
+        SplitClientConfig config = SplitClientConfig.builder()
+                .impressionsQueueSize(1)
+                .endpoint("nowhere.com", "nowhere.com")
+                .impressionsMode(ImpressionsManager.Mode.DEBUG)
+                .spoolDirectory(folder.getRoot().getAbsolutePath())
+                .build();
+
+        AtomicInteger posted = new AtomicInteger();
+        ImpressionsSender senderMock = Mockito.mock(ImpressionsSender.class);
+        Mockito.when(senderMock.postImpressionsBulk(Mockito.any())).thenAnswer(invocation -> {
+            posted.addAndGet(countImpressions(invocation.getArguments()[0]));
+            return PostResult.ACCEPTED;
+        });
+
+        ImpressionsManagerImpl treatmentLog = ImpressionsManagerImpl.instanceForTest(null, config, senderMock, null, TELEMETRY_STORAGE);
+        for (int i = 0; i < 3; i++) {
+            treatmentLog.track(new Impression("key" + i, null, "test1", "on", i, null, 1L, null));
+        }
+        verify(TELEMETRY_STORAGE, times(3)).recordImpressionStats(ImpressionsDataTypeEnum.IMPRESSIONS_QUEUED, 1);
+
+        // The one in the queue is posted, the two that didn't fit are spooled and replayed
+        treatmentLog.sendImpressions();
+        assertThat(treatmentLog.overflowDepth(), is(equalTo(0L)));
+        awaitPosted(posted, 3);
+        treatmentLog.close();
+    }
+
+    @Test
+    public void testOverflowWhileEarlyFlushIsPendingIsNotLeftForTheScheduledFlush() throws Exception {
+        SplitClientConfig config = SplitClientConfig.builder()
+                .impressionsQueueSize(1)
+                .impressionsMaxInFlightBulks(1)
+                .endpoint("nowhere.com", "nowhere.com")
+                .impressionsMode(ImpressionsManager.Mode.DEBUG)
+                .spoolDirectory(folder.getRoot().getAbsolutePath())
+                .build();
+
+        // The first post hangs until released, so the next early flush waits for the only sender holding the flush lock
+        CountDownLatch posting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean first = new AtomicBoolean(true);
+        AtomicInteger posted = new AtomicInteger();
+        ImpressionsSender senderMock = Mockito.mock(ImpressionsSender.class);
+        Mockito.when(senderMock.postImpressionsBulk(Mockito.any())).thenAnswer(invocation -> {
+            if (first.compareAndSet(true, false)) {
+                posting.countDown();
+                release.await(10, TimeUnit.SECONDS);
+            }
+            posted.addAndGet(countImpressions(invocation.getArguments()[0]));
+            return PostResult.ACCEPTED;
+        });
+
+        ImpressionsManagerImpl treatmentLog = ImpressionsManagerImpl.instanceForTest(null, config, senderMock, null, TELEMETRY_STORAGE);
+        treatmentLog.track(new Impression("key0", null, "test1", "on", 0, null, 1L, null));
+        treatmentLog.track(new Impression("key1", null, "test1", "on", 1, null, 1L, null)); // Overflows, the early flush posts key0
+        assertThat(posting.await(5, TimeUnit.SECONDS), is(true));
+
+        treatmentLog.track(new Impression("key2", null, "test1", "on", 2, null, 1L, null));
+        treatmentLog.track(new Impression("key3", null, "test1", "on", 3, null, 1L, null)); // Overflows, the early flush waits for a sender
+        awaitOverflowDrained(treatmentLog);
+        treatmentLog.track(new Impression("key4", null, "test1", "on", 4, null, 1L, null)); // Overflows with the early flush pending
+        release.countDown();
+
+        // The scheduled flush is 10 seconds away
+        awaitPosted(posted, 5);
+        treatmentLog.close();
+    }
+
+    private static int countImpressions(Object bulk) {
+        int count = 0;
+        for (TestImpressions impressions : (List<TestImpressions>) bulk) {
+            count += impressions.keyImpressions.size();
+        }
+        return count;
+    }
+
+    private static void awaitPosted(AtomicInteger posted, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (posted.get() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertThat(posted.get(), is(equalTo(expected)));
+    }
+
+    private static void awaitOverflowDrained(ImpressionsManagerImpl treatmentLog) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (treatmentLog.overflowDepth() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(treatmentLog.overflowDepth(), is(equalTo(0L)));
+    }
+
+    @Test
+    public void testCloseDoesNotWaitForTheNextAdaptiveFlush() throws URISyntaxException {
+        SplitClientConfig config = SplitClientConfig.builder()
+                .impressionsQueueSize(100)
+                .endpoint("nowhere.com", "nowhere.com")
+                .impressionsMode(ImpressionsManager.Mode.DEBUG)
+                .impressionsAdaptiveFlushEnabled(true)
+                .waitBeforeShutdown(10000)
+                .build();
+
+        ImpressionsSender senderMock = Mockito.mock(ImpressionsSender.class);
+        ImpressionsManagerImpl treatmentLog = ImpressionsManagerImpl.instanceForTest(null, config, senderMock, null, TELEMETRY_STORAGE);
+        treatmentLog.track(new Impression("key", null, "test1", "on", 1L, null, 1L, null));
+
+        long start = System.currentTimeMillis();
+        treatmentLog.close();
+        assertThat(System.currentTimeMillis() - start, is(lessThan(2000L)));
+        verify(senderMock).postImpressionsBulk(impressionsCaptor.capture());
+    }
 }
@@ -0,0 +1,65 @@
+package io.split.client.impressions;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class LastSeenTableTest {
+
+    @Test
+    public void testReturnsPreviousTime() {
+        LastSeenTable table = new LastSeenTable(100);
+        Assert.assertEquals(LastSeenTable.NOT_SEEN, table.testAndSet(123L, 1000L));
+        Assert.assertEquals(1000L, table.testAndSet(123L, 2000L));
+        Assert.assertEquals(2000L, table.testAndSet(123L, 3000L));
+        Assert.assertEquals(LastSeenTable.NOT_SEEN, table.testAndSet(0L, 1000L));
+        Assert.assertEquals(1000L, table.testAndSet(0L, 1000L));
+
+        Assert.assertEquals(3, table.hits());
+        Assert.assertEquals(2, table.misses());
+    }
+
+    @Test
+    public void testMemoryIsBoundedAndRecentHashesAreKept() {
+        LastSeenTable table = new LastSeenTable(1000);
+        long memory = table.memoryUsageInBytes();
+        for (long i = 1; i <= 100000; i++) {
+            table.testAndSet(i * 0x9E3779B97F4A7C15L, i);
+        }
+        Assert.assertEquals(memory, table.memoryUsageInBytes());
+        Assert.assertTrue(table.capacity() >= 1000);
+
+        // A hash seen again on every round survives the ones seen just once
+        LastSeenTable hot = new LastSeenTable(70);
+        long hash = 42L << 40;
+        hot.testAndSet(hash, 0);
+        for (long i = 1; i <= 10000; i++) {
+            Assert.assertTrue(hot.testAndSet(hash, i) != LastSeenTable.NOT_SEEN);
+            hot.testAndSet(i * 0x9E3779B97F4A7C15L, i);
+        }
+    }
+
+    @Test
+    public void testConcurrentThreadsSeeEachHashAsNewOnce() throws InterruptedException {
+        LastSeenTable table = new LastSeenTable(100000);
+        AtomicInteger firstSeen = new AtomicInteger();
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                for (long i = 1; i <= 10000; i++) {
+                    if (table.testAndSet(i * 0x9E3779B97F4A7C15L, i) == LastSeenTable.NOT_SEEN) {
+                        firstSeen.incrementAndGet();
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        Assert.assertEquals(10000, firstSeen.get());
+    }
+}
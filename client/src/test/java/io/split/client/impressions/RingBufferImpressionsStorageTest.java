@@ -0,0 +1,107 @@
+package io.split.client.impressions;
+
+import io.split.client.dtos.KeyImpression;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class RingBufferImpressionsStorageTest {
+
+    @Test
+    public void testBasicUsage() {
+        RingBufferImpressionsStorage storage = new RingBufferImpressionsStorage(10);
+        for (int i = 0; i < 15; i++) {
+            if (i < 10) {
+                Assert.assertTrue(storage.put(new KeyImpression()));
+            } else {
+                Assert.assertFalse(storage.put(new KeyImpression()));
+            }
+        }
+
+        Assert.assertTrue(storage.isFull());
+        List<KeyImpression> res = storage.pop(15);
+        Assert.assertEquals(10, res.size());
+        Assert.assertFalse(storage.isFull());
+        Assert.assertTrue(storage.pop().isEmpty());
+    }
+
+    @Test
+    public void testPopKeepsOrderAndWrapsAround() {
+        RingBufferImpressionsStorage storage = new RingBufferImpressionsStorage(5);
+        long next = 0;
+        long expected = 0;
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 4; i++) {
+                Assert.assertTrue(storage.put(impression(next++)));
+            }
+            for (KeyImpression imp : storage.pop(3)) {
+                Assert.assertEquals(expected++, imp.time);
+            }
+            for (KeyImpression imp : storage.pop()) {
+                Assert.assertEquals(expected++, imp.time);
+            }
+        }
+        Assert.assertEquals(next, expected);
+    }
+
+    @Test
+    public void testStripesShareTheCapacity() {
+        RingBufferImpressionsStorage storage = new RingBufferImpressionsStorage(10, 4);
+        int accepted = 0;
+        for (int i = 0; i < 20; i++) {
+            if (storage.put(new KeyImpression())) {
+                accepted++;
+            }
+        }
+
+        Assert.assertEquals(10, accepted);
+        Assert.assertTrue(storage.isFull());
+        Assert.assertEquals(10, storage.pop().size());
+    }
+
+    @Test
+    public void testConcurrentProducers() throws InterruptedException {
+        int producers = 8;
+        int perProducer = 10000;
+        RingBufferImpressionsStorage storage = new RingBufferImpressionsStorage(producers * perProducer, 4);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch done = new CountDownLatch(producers);
+        for (int p = 0; p < producers; p++) {
+            long base = (long) p * perProducer;
+            executor.execute(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    storage.put(impression(base + i));
+                }
+                done.countDown();
+            });
+        }
+
+        Set<Long> seen = new HashSet<>();
+        List<KeyImpression> popped = new ArrayList<>();
+        while (done.getCount() > 0 || storage.size() > 0) {
+            popped.addAll(storage.pop(1000));
+        }
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+
+        for (KeyImpression imp : popped) {
+            seen.add(imp.time);
+        }
+        Assert.assertEquals(producers * perProducer, popped.size());
+        Assert.assertEquals(producers * perProducer, seen.size());
+    }
+
+    private static KeyImpression impression(long time) {
+        KeyImpression imp = new KeyImpression();
+        imp.time = time;
+        return imp;
+    }
+}
@@ -0,0 +1,91 @@
+package io.split.client.impressions;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class UniqueKeysTrackerTest {
+
+    @Test
+    public void tracksDistinctKeysPerFeature() {
+        UniqueKeysTracker tracker = new UniqueKeysTracker(100);
+        tracker.track("feature1", "key1");
+        tracker.track("feature1", "key1");
+        tracker.track("feature1", "key2");
+        tracker.track("feature2", "key1");
+
+        Map<String, List<String>> popped = tracker.popAll();
+        Assert.assertEquals(2, popped.size());
+        Assert.assertEquals(new HashSet<>(Arrays.asList("key1", "key2")), new HashSet<>(popped.get("feature1")));
+        Assert.assertEquals(Arrays.asList("key1"), popped.get("feature2"));
+        Assert.assertTrue(tracker.isEmpty());
+        Assert.assertTrue(tracker.popAll().isEmpty());
+    }
+
+    @Test
+    public void asksToBePoppedWhenFull() {
+        UniqueKeysTracker tracker = new UniqueKeysTracker(3);
+        Assert.assertFalse(tracker.track("feature1", "key1"));
+        Assert.assertFalse(tracker.track("feature2", "key1"));
+        Assert.assertFalse(tracker.track("feature2", "key1"));
+        Assert.assertTrue(tracker.track("feature1", "key2"));
+
+        tracker.popAll();
+        Assert.assertFalse(tracker.track("feature1", "key1"));
+    }
+
+    @Test
+    public void removesFeaturesWithoutKeys() {
+        UniqueKeysTracker tracker = new UniqueKeysTracker(100);
+        tracker.track("feature1", "key1");
+        tracker.track("feature2", "key1");
+        tracker.popAll();
+        Assert.assertEquals(0, tracker.featureCount());
+
+        tracker.track("feature1", "key2");
+        Assert.assertEquals(Arrays.asList("key2"), tracker.popAll().get("feature1"));
+        Assert.assertEquals(0, tracker.featureCount());
+        Assert.assertTrue(tracker.isEmpty());
+    }
+
+    @Test
+    public void noKeyIsLostWhilePopping() throws Exception {
+        UniqueKeysTracker tracker = new UniqueKeysTracker(Integer.MAX_VALUE);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> writers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            final int thread = t;
+            writers.add(executor.submit(() -> {
+                for (int i = 0; i < 50000; i++) {
+                    tracker.track("feature" + (i % 10), "key-" + thread + "-" + i);
+                }
+            }));
+        }
+
+        Set<String> seen = new HashSet<>();
+        int total = 0;
+        boolean done = false;
+        while (!done) {
+            done = writers.stream().allMatch(Future::isDone);
+            for (Map.Entry<String, List<String>> entry : tracker.popAll().entrySet()) {
+                for (String key : entry.getValue()) {
+                    Assert.assertTrue(seen.add(entry.getKey() + key));
+                    total++;
+                }
+            }
+        }
+        executor.shutdown();
+
+        Assert.assertEquals(4 * 50000, total);
+        Assert.assertTrue(tracker.isEmpty());
+    }
+}
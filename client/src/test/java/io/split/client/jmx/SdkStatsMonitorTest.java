@@ -0,0 +1,69 @@
+package io.split.client.jmx;
+
+import com.google.common.collect.ImmutableMap;
+import io.split.cache.InMemoryCacheImp;
+import io.split.cache.SegmentCache;
+import io.split.cache.SegmentCacheInMemoryImpl;
+import io.split.telemetry.domain.enums.EventsDataRecordsEnum;
+import io.split.telemetry.domain.enums.ImpressionsDataTypeEnum;
+import io.split.telemetry.domain.enums.LastSynchronizationRecordsEnum;
+import io.split.telemetry.domain.enums.MethodEnum;
+import io.split.telemetry.storage.InMemoryTelemetryStorage;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.TabularData;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+public class SdkStatsMonitorTest {
+
+    @Test
+    public void attributesReflectTheSdkState() throws Exception {
+        SegmentCache segmentCache = new SegmentCacheInMemoryImpl();
+        segmentCache.updateSegment("employees", Arrays.asList("a", "b", "c"), Arrays.asList());
+        segmentCache.setChangeNumber("employees", 42);
+        InMemoryTelemetryStorage telemetry = new InMemoryTelemetryStorage();
+        telemetry.recordImpressionStats(ImpressionsDataTypeEnum.IMPRESSIONS_QUEUED, 3);
+        telemetry.recordImpressionStats(ImpressionsDataTypeEnum.IMPRESSIONS_DEDUPED, 1);
+        telemetry.recordEventStats(EventsDataRecordsEnum.EVENTS_DROPPED, 2);
+        telemetry.recordSuccessfulSync(LastSynchronizationRecordsEnum.SPLITS, System.currentTimeMillis() - 2000);
+        telemetry.recordLatency(MethodEnum.TREATMENT, TimeUnit.MILLISECONDS.toNanos(3));
+        PoolingHttpClientConnectionManager pool = PoolingHttpClientConnectionManagerBuilder.create().build();
+
+        SdkStatsMonitor monitor = new SdkStatsMonitor(new InMemoryCacheImp(), segmentCache, telemetry, () -> 5, () -> 7,
+                () -> ImmutableMap.of("employees", 0L), pool, () -> true);
+
+        Assert.assertEquals(1, monitor.getSegmentCount());
+        Assert.assertEquals(3, monitor.getSegmentKeyCount());
+        Assert.assertEquals(Long.valueOf(42), monitor.getSegmentChangeNumbers().get("employees"));
+        Assert.assertTrue(monitor.getSplitsSyncAgeSeconds() >= 2);
+        Assert.assertTrue(Double.isNaN(monitor.getSegmentSyncAgeSeconds().get("employees")));
+        Assert.assertEquals(5, monitor.getImpressionsQueueDepth());
+        Assert.assertEquals(0.25, monitor.getImpressionsDedupeRate(), 0);
+        Assert.assertEquals(7, monitor.getEventsQueueDepth());
+        Assert.assertEquals(2, monitor.getEventsDropped());
+        Assert.assertEquals(0, monitor.getHttpConnectionsLeased());
+        Assert.assertTrue(monitor.isStreaming());
+        long p99 = monitor.getEvaluationLatencyP99Micros().get(MethodEnum.TREATMENT.getMethod());
+        Assert.assertTrue(p99 >= 3000 && p99 <= 3200);
+
+        // Registered through JmxMonitor, the bean must be a valid MXBean whose maps are exposed as open types
+        JmxMonitor.getInstance().registerMonitor("io.split.client.test", SdkStatsMonitor.MONITOR_TYPE, monitor);
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = server.queryNames(new ObjectName("io.split.client.test:*"), null).iterator().next();
+            Assert.assertEquals(Long.valueOf(3), server.getAttribute(name, "SegmentKeyCount"));
+            Assert.assertEquals(Boolean.TRUE, server.getAttribute(name, "Streaming"));
+            Assert.assertTrue(server.getAttribute(name, "SegmentChangeNumbers") instanceof TabularData);
+        } finally {
+            JmxMonitor.getInstance().unregisterMonitor("io.split.client.test", SdkStatsMonitor.MONITOR_TYPE);
+            pool.close();
+        }
+    }
+}
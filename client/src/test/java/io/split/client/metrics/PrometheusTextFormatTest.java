@@ -0,0 +1,59 @@
+package io.split.client.metrics;
+
+import com.google.common.collect.ImmutableMap;
+import io.split.telemetry.utils.LatencyHistogram;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class PrometheusTextFormatTest {
+
+    @Test
+    public void rendersCountersAndGaugesGroupedByName() {
+        List<Metric> metrics = new ArrayList<>();
+        metrics.add(Metric.counter("split_events_total", "Events", ImmutableMap.of("status", "queued"), () -> 10));
+        metrics.add(Metric.gauge("split_events_queue_depth", "Depth", Collections.emptyMap(), () -> 2.5));
+        metrics.add(Metric.counter("split_events_total", "Events", ImmutableMap.of("status", "dropped"), () -> 1));
+
+        String rendered = PrometheusTextFormat.render(new SdkMetrics(metrics));
+
+        Assert.assertEquals("# HELP split_events_total Events\n" +
+                "# TYPE split_events_total counter\n" +
+                "split_events_total{status=\"queued\"} 10\n" +
+                "split_events_total{status=\"dropped\"} 1\n" +
+                "# HELP split_events_queue_depth Depth\n" +
+                "# TYPE split_events_queue_depth gauge\n" +
+                "split_events_queue_depth 2.5\n", rendered);
+    }
+
+    @Test
+    public void rendersHistogramsAsSummariesInSeconds() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(1));
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(3));
+
+        String rendered = PrometheusTextFormat.render(new SdkMetrics(Collections.singletonList(
+                Metric.histogram("split_evaluation_latency_seconds", "Latency", ImmutableMap.of("method", "getTreatment"), histogram::snapshot))));
+
+        Assert.assertTrue(rendered.contains("# TYPE split_evaluation_latency_seconds summary\n"));
+        Assert.assertTrue(rendered.contains("split_evaluation_latency_seconds{method=\"getTreatment\",quantile=\"0.5\"} 0.00"));
+        Assert.assertTrue(rendered.contains("split_evaluation_latency_seconds{method=\"getTreatment\",quantile=\"0.999\"} 0.00"));
+        Assert.assertTrue(rendered.contains("split_evaluation_latency_seconds_sum{method=\"getTreatment\"} 0.004\n"));
+        Assert.assertTrue(rendered.contains("split_evaluation_latency_seconds_count{method=\"getTreatment\"} 2\n"));
+    }
+
+    @Test
+    public void escapesLabelValuesAndFormatsSpecialValues() {
+        String rendered = PrometheusTextFormat.render(new SdkMetrics(Collections.singletonList(
+                Metric.gauge("split_sync_staleness_seconds", "Staleness\nof syncs", ImmutableMap.of("resource", "a\"b\\c"), () -> Double.NaN))));
+
+        Assert.assertTrue(rendered.contains("# HELP split_sync_staleness_seconds Staleness\\nof syncs\n"));
+        Assert.assertTrue(rendered.contains("split_sync_staleness_seconds{resource=\"a\\\"b\\\\c\"} NaN\n"));
+        Assert.assertEquals("+Inf", PrometheusTextFormat.formatValue(Double.POSITIVE_INFINITY));
+        Assert.assertEquals("1.0E-5", PrometheusTextFormat.formatValue(0.00001));
+    }
+}
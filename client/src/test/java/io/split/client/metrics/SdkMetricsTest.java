@@ -0,0 +1,59 @@
+package io.split.client.metrics;
+
+import io.split.cache.InMemoryCacheImp;
+import io.split.cache.SegmentCacheInMemoryImpl;
+import io.split.telemetry.domain.enums.EventsDataRecordsEnum;
+import io.split.telemetry.domain.enums.HTTPLatenciesEnum;
+import io.split.telemetry.domain.enums.LastSynchronizationRecordsEnum;
+import io.split.telemetry.domain.enums.MethodEnum;
+import io.split.telemetry.storage.InMemoryTelemetryStorage;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class SdkMetricsTest {
+
+    @Test
+    public void metricsAreLive() {
+        InMemoryTelemetryStorage telemetry = new InMemoryTelemetryStorage();
+        SegmentCacheInMemoryImpl segmentCache = new SegmentCacheInMemoryImpl();
+        AtomicBoolean streaming = new AtomicBoolean();
+        SdkMetrics metrics = SdkMetrics.create(telemetry, new InMemoryCacheImp(), segmentCache, () -> 7, streaming::get);
+
+        Assert.assertEquals(0, find(metrics, "split_evaluation_latency_seconds", "method", "getTreatment").snapshot().count());
+        Assert.assertTrue(Double.isNaN(find(metrics, "split_sync_staleness_seconds", "resource", "splits").value()));
+
+        telemetry.recordLatency(MethodEnum.TREATMENT, TimeUnit.MICROSECONDS.toNanos(250));
+        telemetry.recordSyncLatency(HTTPLatenciesEnum.SPLITS, TimeUnit.MILLISECONDS.toNanos(40));
+        telemetry.recordEventStats(EventsDataRecordsEnum.EVENTS_DROPPED, 3);
+        telemetry.recordPayloadSize(1000, 200);
+        telemetry.recordSuccessfulSync(LastSynchronizationRecordsEnum.SPLITS, System.currentTimeMillis() - 5000);
+        segmentCache.updateSegment("employees", Arrays.asList("a", "b"), Arrays.asList());
+        streaming.set(true);
+
+        Assert.assertEquals(1, find(metrics, "split_evaluation_latency_seconds", "method", "getTreatment").snapshot().count());
+        Assert.assertEquals(1, find(metrics, "split_sync_latency_seconds", "resource", "splits").snapshot().count());
+        Assert.assertEquals(3, find(metrics, "split_events_total", "status", "dropped").value(), 0);
+        Assert.assertEquals(7, find(metrics, "split_events_queue_depth", null, null).value(), 0);
+        Assert.assertEquals(1000, find(metrics, "split_payload_bytes_total", "encoding", "uncompressed").value(), 0);
+        Assert.assertEquals(200, find(metrics, "split_payload_bytes_total", "encoding", "compressed").value(), 0);
+        Assert.assertEquals(5, find(metrics, "split_sync_staleness_seconds", "resource", "splits").value(), 1);
+        Assert.assertEquals(1, find(metrics, "split_cache_segments", null, null).value(), 0);
+        Assert.assertEquals(2, find(metrics, "split_cache_segment_keys", null, null).value(), 0);
+        Assert.assertEquals(1, find(metrics, "split_streaming_connected", null, null).value(), 0);
+    }
+
+    private static Metric find(SdkMetrics metrics, String name, String label, String value) {
+        for (Metric metric : metrics.metrics()) {
+            Map<String, String> labels = metric.labels();
+            if (metric.name().equals(name) && (label == null || value.equals(labels.get(label)))) {
+                return metric;
+            }
+        }
+        throw new AssertionError("No metric " + name);
+    }
+}
@@ -0,0 +1,165 @@
+package io.split.client.spool;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+
+public class SpoolLogTest {
+
+    private static final int SEGMENT_SIZE = 1024;
+    private static final long TTL = 60 * 1000L;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void readsRecordsInOrderAcrossSegments() throws IOException {
+        SpoolLog log = SpoolLog.open(folder.getRoot(), SEGMENT_SIZE, 100 * SEGMENT_SIZE, TTL);
+        for (int i = 0; i < 100; i++) {
+            Assert.assertTrue(log.append(bytes("record-" + i), 1000L));
+        }
+        Assert.assertTrue(log.sizeInBytes() > SEGMENT_SIZE);
+
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals("record-" + i, string(log.peek(1000L)));
+            Assert.assertEquals("record-" + i, string(log.peek(1000L)));
+            log.advance();
+        }
+        Assert.assertNull(log.peek(1000L));
+        Assert.assertEquals(SEGMENT_SIZE, log.sizeInBytes());
+        log.close();
+    }
+
+    @Test
+    public void deletesSegmentsOnceRead() throws IOException {
+        SpoolLog log = SpoolLog.open(folder.getRoot(), SEGMENT_SIZE, 100 * SEGMENT_SIZE, TTL);
+        byte[] payload = new byte[SEGMENT_SIZE / 2];
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 10; i++) {
+                Assert.assertTrue(log.append(payload, 1000L));
+            }
+            int read = 0;
+            while (log.peek(1000L) != null) {
+                log.advance();
+                read++;
+            }
+            Assert.assertEquals(10, read);
+            // Only the segment being appended to is left, the others were unmapped and deleted
+            Assert.assertEquals(1, folder.getRoot().listFiles((dir, name) -> name.endsWith(".log")).length);
+        }
+        log.close();
+    }
+
+    @Test
+    public void resumesFromCursorAfterReopening() throws IOException {
+        SpoolLog log = SpoolLog.open(folder.getRoot(), SEGMENT_SIZE, 100 * SEGMENT_SIZE, TTL);
+        for (int i = 0; i < 50; i++) {
+            log.append(bytes("record-" + i), 1000L);
+        }
+        for (int i = 0; i < 20; i++) {
+            log.peek(1000L);
+            log.advance();
+        }
+        log.peek(1000L); // Read but not handled, must be read again
+        log.close();
+
+        log = SpoolLog.open(folder.getRoot(), SEGMENT_SIZE, 100 * SEGMENT_SIZE, TTL);
+        log.append(bytes("after"), 1000L);
+        for (int i = 20; i < 50; i++) {
+            Assert.assertEquals("record-" + i, string(log.peek(1000L)));
+            log.advance();
+        }
+        Assert.assertEquals("after", string(log.peek(1000L)));
+        log.advance();
+        Assert.assertNull(log.peek(1000L));
+        log.close();
+    }
+
+    @Test
+    public void ignoresTornRecord() throws IOException {
+        SpoolLog log = SpoolLog.open(folder.getRoot(), SEGMENT_SIZE, 100 * SEGMENT_SIZE, TTL);
+        log.append(bytes("first"), 1000L);
+        log.append(bytes("second"), 1000L);
+        log.close();
+
+        // Corrupt the payload of the second record
+        File segment = folder.getRoot().listFiles((dir, name) -> name.endsWith(".log"))[0];
+        try (RandomAccessFile raf = new RandomAccessFile(segment, "rw")) {
+            raf.seek(16 + 5 + 16);
+            raf.write('X');
+        }
+
+        log = SpoolLog.open(folder.getRoot(), SEGMENT_SIZE, 100 * SEGMENT_SIZE, TTL);
+        Assert.assertEquals("first", string(log.peek(1000L)));
+        log.advance();
+        Assert.assertNull(log.peek(1000L));
+        log.close();
+    }
+
+    @Test
+    public void dropsOldestSegmentsToStayWithinBudget() throws IOException {
+        SpoolLog log = SpoolLog.open(folder.getRoot(), SEGMENT_SIZE, 4 * SEGMENT_SIZE, TTL);
+        byte[] payload = new byte[SEGMENT_SIZE / 2];
+        for (int i = 0; i < 20; i++) {
+            Assert.assertTrue(log.append(payload, 1000L));
+        }
+
+        Assert.assertEquals(4 * SEGMENT_SIZE, log.sizeInBytes());
+        Assert.assertEquals(16, log.dropped());
+        int read = 0;
+        while (log.peek(1000L) != null) {
+            log.advance();
+            read++;
+        }
+        Assert.assertEquals(4, read);
+        log.close();
+    }
+
+    @Test
+    public void skipsExpiredRecords() throws IOException {
+        SpoolLog log = SpoolLog.open(folder.getRoot(), SEGMENT_SIZE, 100 * SEGMENT_SIZE, TTL);
+        log.append(bytes("old"), 1000L);
+        log.append(bytes("new"), 1000L + TTL);
+
+        Assert.assertEquals("new", string(log.peek(2000L + TTL)));
+        Assert.assertEquals(1, log.expired());
+        log.close();
+    }
+
+    @Test
+    public void rejectsRecordsLargerThanASegment() throws IOException {
+        SpoolLog log = SpoolLog.open(folder.getRoot(), SEGMENT_SIZE, 100 * SEGMENT_SIZE, TTL);
+        Assert.assertFalse(log.append(new byte[SEGMENT_SIZE], 1000L));
+        Assert.assertNull(log.peek(1000L));
+        log.close();
+    }
+
+    @Test
+    public void cantBeOpenedTwice() throws IOException {
+        SpoolLog log = SpoolLog.open(folder.getRoot(), SEGMENT_SIZE, 100 * SEGMENT_SIZE, TTL);
+        try {
+            SpoolLog.open(folder.getRoot(), SEGMENT_SIZE, 100 * SEGMENT_SIZE, TTL);
+            Assert.fail("Opened a spool directory that was already in use");
+        } catch (IOException e) {
+            // Expected
+        }
+        log.close();
+
+        log = SpoolLog.open(folder.getRoot(), SEGMENT_SIZE, 100 * SEGMENT_SIZE, TTL);
+        log.close();
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(byte[] value) {
+        return value == null ? null : new String(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,44 @@
+package io.split.client.spool;
+
+import io.split.client.utils.PostResult;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class SpoolTest {
+
+    private static final int SEGMENT_SIZE = 1024;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void replayDropsRejectedBatchesAndStopsAtRetryableOnes() throws IOException {
+        Spool<String> spool = new Spool<>(SpoolLog.open(folder.getRoot(), SEGMENT_SIZE, 10 * SEGMENT_SIZE, 60 * 1000L), String.class);
+        for (String batch : new String[] {"ok-1", "rejected", "ok-2", "retryable", "ok-3"}) {
+            Assert.assertTrue(spool.offer(batch));
+        }
+
+        List<String> posted = new ArrayList<>();
+        Assert.assertEquals(2, spool.replay(10, batch -> {
+            posted.add(batch);
+            return batch.startsWith("ok") ? PostResult.ACCEPTED : PostResult.valueOf(batch.toUpperCase());
+        }));
+        Assert.assertEquals(4, posted.size());
+
+        // The batch that failed with a retryable error is sent again
+        posted.clear();
+        Assert.assertEquals(2, spool.replay(10, batch -> {
+            posted.add(batch);
+            return PostResult.ACCEPTED;
+        }));
+        Assert.assertEquals("retryable", posted.get(0));
+        Assert.assertEquals("ok-3", posted.get(1));
+        spool.close();
+    }
+}
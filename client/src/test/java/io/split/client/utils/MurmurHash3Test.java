@@ -0,0 +1,48 @@
+package io.split.client.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+public class MurmurHash3Test {
+
+    @Test
+    public void testHasherMatchesArrayVersionForAllTailLengths() {
+        Random random = new Random(42);
+        MurmurHash3.Hasher128x64 hasher = new MurmurHash3.Hasher128x64();
+        for (int length = 0; length <= 40; length++) {
+            byte[] data = new byte[length];
+            random.nextBytes(data);
+
+            hasher.reset(0);
+            for (byte b : data) {
+                hasher.putByte(b);
+            }
+            Assert.assertEquals("length " + length, MurmurHash3.hash128x64(data)[0], hasher.hash64());
+        }
+    }
+
+    @Test
+    public void testUtf8MatchesStringBytes() {
+        String[] values = {"", "a", "someKey", "ñandú", "日本語のキー", "emoji 😀 key", "unpaired \uD83D key",
+                "unpaired \uDE00 key", "trailing \uD83D"};
+        MurmurHash3.Hasher128x64 hasher = new MurmurHash3.Hasher128x64();
+        for (String value : values) {
+            Assert.assertEquals(value, MurmurHash3.hash128x64(value.getBytes(StandardCharsets.UTF_8))[0],
+                    hasher.reset(0).putUtf8(value).hash64());
+        }
+    }
+
+    @Test
+    public void testDecimalMatchesLongToString() {
+        long[] values = {0, 1, 9, 10, 123, -1, -10, -123456789, 1599999999999L, Long.MAX_VALUE, Long.MIN_VALUE, Long.MIN_VALUE + 1};
+        MurmurHash3.Hasher128x64 hasher = new MurmurHash3.Hasher128x64();
+        for (long value : values) {
+            Assert.assertEquals(String.valueOf(value),
+                    MurmurHash3.hash128x64(Long.toString(value).getBytes(StandardCharsets.UTF_8))[0],
+                    hasher.reset(0).putDecimal(value).hash64());
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package io.split.client.utils;
+
+import io.split.telemetry.domain.enums.PayloadSizeEnum;
+import io.split.telemetry.storage.InMemoryTelemetryStorage;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+public class StreamingJsonEntityTest {
+
+    @Test
+    public void testWritesSameJsonAsToJson() throws IOException {
+        List<Map<String, Object>> payload = payload(10);
+        InMemoryTelemetryStorage telemetryStorage = new InMemoryTelemetryStorage();
+        StreamingJsonEntity entity = new StreamingJsonEntity(payload, false, telemetryStorage);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        entity.writeTo(out);
+
+        Assert.assertEquals(Json.toJson(payload), new String(out.toByteArray(), StandardCharsets.UTF_8));
+        Assert.assertNull(entity.getContentEncoding());
+        Assert.assertTrue(entity.isChunked());
+        Assert.assertEquals(out.size(), telemetryStorage.getPayloadSize(PayloadSizeEnum.UNCOMPRESSED));
+        Assert.assertEquals(out.size(), telemetryStorage.getPayloadSize(PayloadSizeEnum.COMPRESSED));
+    }
+
+    @Test
+    public void testGzipsJsonAndReportsBothSizes() throws IOException {
+        List<Map<String, Object>> payload = payload(5000);
+        InMemoryTelemetryStorage telemetryStorage = new InMemoryTelemetryStorage();
+        StreamingJsonEntity entity = new StreamingJsonEntity(payload, true, telemetryStorage);
+        String expected = Json.toJson(payload);
+
+        // Twice, as the HTTP client does when it retries a request, which is only reported once
+        for (int i = 1; i <= 2; i++) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            entity.writeTo(out);
+
+            Assert.assertEquals(expected, gunzip(out.toByteArray()));
+            Assert.assertEquals("gzip", entity.getContentEncoding());
+            Assert.assertEquals(expected.getBytes(StandardCharsets.UTF_8).length, telemetryStorage.getPayloadSize(PayloadSizeEnum.UNCOMPRESSED));
+            Assert.assertEquals(out.size(), telemetryStorage.getPayloadSize(PayloadSizeEnum.COMPRESSED));
+            Assert.assertEquals(out.size(), entity.bytesSent());
+            Assert.assertTrue(out.size() < expected.length() / 5);
+        }
+    }
+
+    @Test
+    public void testGetContentMatchesWhatIsWritten() throws IOException {
+        List<Map<String, Object>> payload = payload(3);
+        InMemoryTelemetryStorage telemetryStorage = new InMemoryTelemetryStorage();
+        StreamingJsonEntity entity = new StreamingJsonEntity(payload, true, telemetryStorage);
+        try (InputStream content = entity.getContent()) {
+            Assert.assertEquals(Json.toJson(payload), gunzip(readAll(content)));
+        }
+        Assert.assertEquals(0, telemetryStorage.getPayloadSize(PayloadSizeEnum.UNCOMPRESSED));
+    }
+
+    private static List<Map<String, Object>> payload(int size) {
+        List<Map<String, Object>> payload = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            Map<String, Object> item = new HashMap<>();
+            item.put("keyName", "key_" + i);
+            item.put("treatment", i % 2 == 0 ? "on" : "off");
+            item.put("label", "ñandú 😀");
+            item.put("time", 1600000000000L + i);
+            payload.add(item);
+        }
+        return payload;
+    }
+
+    private static String gunzip(byte[] data) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            return new String(readAll(in), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,111 @@
+package io.split.engine.common;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AdaptivePollingTaskTest {
+
+    private final SDKScheduler _scheduler = new SDKScheduler(null, null, false);
+    private final ScheduledExecutorService _executor = _scheduler.newScheduledExecutor("test", 1);
+
+    @After
+    public void tearDown() {
+        _executor.shutdownNow();
+        _scheduler.shutdown();
+    }
+
+    @Test
+    public void stopEndsPolling() throws InterruptedException {
+        AtomicInteger polls = new AtomicInteger();
+        CountDownLatch polled = new CountDownLatch(3);
+        AdaptivePollingTask task = new AdaptivePollingTask("test", _executor, () -> {
+            polls.incrementAndGet();
+            polled.countDown();
+            return false;
+        }, 0L, 0L);
+
+        task.start();
+        Assert.assertTrue(polled.await(5, TimeUnit.SECONDS));
+        task.stop();
+        Assert.assertFalse(task.isRunning());
+
+        int pollsAfterStop = polls.get();
+        Thread.sleep(100);
+        Assert.assertTrue(polls.get() <= pollsAfterStop + 1); // One poll may have been in flight
+    }
+
+    @Test
+    public void delayDoublesUpToTheUpperBound() throws InterruptedException {
+        CountDownLatch polled = new CountDownLatch(1);
+        AtomicBoolean hold = new AtomicBoolean();
+        CountDownLatch release = new CountDownLatch(1);
+        AdaptivePollingTask task = new AdaptivePollingTask("test", _executor, () -> {
+            polled.countDown();
+            if (hold.get()) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return false;
+        }, 10L, 25L);
+
+        task.start();
+        Assert.assertTrue(polled.await(5, TimeUnit.SECONDS));
+        awaitDelay(task, 20L);
+        task.stop();
+
+        // Restarting goes back to the lower bound. Hold the immediate poll so that it can't double the delay first.
+        hold.set(true);
+        task.start();
+        Assert.assertEquals(10L, task.currentDelaySeconds());
+        task.stop();
+        release.countDown();
+    }
+
+    @Test
+    public void changesKeepTheLowerBound() throws InterruptedException {
+        CountDownLatch polled = new CountDownLatch(1);
+        AdaptivePollingTask task = new AdaptivePollingTask("test", _executor, () -> {
+            polled.countDown();
+            return true;
+        }, 10L, 80L);
+
+        task.start();
+        Assert.assertTrue(polled.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        Assert.assertEquals(10L, task.currentDelaySeconds());
+        task.stop();
+    }
+
+    @Test
+    public void fixedDelayWhenBoundsAreEqual() throws InterruptedException {
+        CountDownLatch polled = new CountDownLatch(1);
+        AdaptivePollingTask task = new AdaptivePollingTask("test", _executor, () -> {
+            polled.countDown();
+            return false;
+        }, 10L, 10L);
+
+        task.start();
+        Assert.assertTrue(polled.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        Assert.assertEquals(10L, task.currentDelaySeconds());
+        task.stop();
+    }
+
+    private static void awaitDelay(AdaptivePollingTask task, long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (task.currentDelaySeconds() != expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(expected, task.currentDelaySeconds());
+    }
+}
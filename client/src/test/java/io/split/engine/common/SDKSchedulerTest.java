@@ -0,0 +1,116 @@
+package io.split.engine.common;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SDKSchedulerTest {
+
+    private final SDKScheduler _scheduler = new SDKScheduler(null, null, false);
+
+    @After
+    public void tearDown() {
+        _scheduler.shutdown();
+    }
+
+    @Test
+    public void parallelismIsEnforced() throws InterruptedException {
+        ScheduledExecutorService executor = _scheduler.newScheduledExecutor("test", 2);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(10);
+
+        for (int i = 0; i < 10; i++) {
+            executor.execute(() -> {
+                int current = running.incrementAndGet();
+                maxRunning.accumulateAndGet(current, Math::max);
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                done.countDown();
+            });
+        }
+
+        Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+        Assert.assertTrue(maxRunning.get() <= 2);
+    }
+
+    @Test
+    public void periodicTasksRunUntilShutdown() throws InterruptedException {
+        ScheduledExecutorService executor = _scheduler.newScheduledExecutor("test", 1);
+        CountDownLatch executions = new CountDownLatch(3);
+        ScheduledFuture<?> future = executor.scheduleWithFixedDelay(executions::countDown, 0, 10, TimeUnit.MILLISECONDS);
+
+        Assert.assertTrue(executions.await(5, TimeUnit.SECONDS));
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        Assert.assertTrue(future.isCancelled());
+        Assert.assertTrue(executor.isTerminated());
+    }
+
+    @Test
+    public void shutdownNowInterruptsRunningTasks() throws InterruptedException {
+        ExecutorService executor = _scheduler.newLongRunningExecutor("test");
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        executor.submit(() -> {
+            started.countDown();
+            try {
+                Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+        });
+
+        Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+        executor.shutdownNow();
+        Assert.assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        Assert.assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void boundedExecutorRejectsWhenFull() throws InterruptedException {
+        ScheduledExecutorService executor = _scheduler.newBoundedExecutor("test", 1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        executor.execute(() -> { });
+
+        try {
+            executor.execute(() -> { });
+            Assert.fail("Expected the task to be rejected");
+        } catch (RejectedExecutionException expected) {
+        }
+
+        release.countDown();
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void rejectsTasksAfterShutdown() {
+        ScheduledExecutorService executor = _scheduler.newScheduledExecutor("test", 1);
+        executor.shutdown();
+        try {
+            executor.schedule(() -> { }, 1, TimeUnit.SECONDS);
+            Assert.fail("Expected the task to be rejected");
+        } catch (RejectedExecutionException expected) {
+        }
+    }
+}
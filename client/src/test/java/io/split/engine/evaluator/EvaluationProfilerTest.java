@@ -0,0 +1,114 @@
+package io.split.engine.evaluator;
+
+import com.google.common.collect.Lists;
+import io.split.cache.InMemoryCacheImp;
+import io.split.cache.SplitCache;
+import io.split.client.api.EvaluationProfile;
+import io.split.client.dtos.ConditionType;
+import io.split.client.dtos.MatcherCombiner;
+import io.split.client.dtos.Partition;
+import io.split.engine.experiments.ParsedCondition;
+import io.split.engine.experiments.ParsedSplit;
+import io.split.engine.matchers.AttributeMatcher;
+import io.split.engine.matchers.CombiningMatcher;
+import io.split.engine.matchers.DependencyMatcher;
+import io.split.engine.matchers.strings.EndsWithAnyOfMatcher;
+import io.split.engine.matchers.strings.WhitelistMatcher;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+public class EvaluationProfilerTest {
+    private static final String WHITELIST_LABEL = "whitelisted";
+    private static final String ROLLOUT_LABEL = "in rollout";
+    private static final String DEPENDENCY_LABEL = "depends on split_1";
+
+    @Test
+    public void profilesConditionsAndMatchersOfEverySampledEvaluation() {
+        EvaluationProfiler profiler = new EvaluationProfiler(1);
+        Evaluator evaluator = buildEvaluator(profiler);
+
+        Assert.assertEquals("on", evaluator.evaluateFeature("admin", null, "split_1", null).treatment);
+        Assert.assertEquals("on", evaluator.evaluateFeature("someone@test.io", null, "split_1", null).treatment);
+        Assert.assertEquals("off", evaluator.evaluateFeature("someone", null, "split_1", null).treatment);
+
+        EvaluationProfile split1 = profiler.get("split_1");
+        Assert.assertEquals("split_1", split1.split());
+        Assert.assertEquals(3, split1.evaluation().count());
+        Assert.assertEquals(3, split1.conditions().get(WHITELIST_LABEL).count());
+        Assert.assertEquals(2, split1.conditions().get(ROLLOUT_LABEL).count());
+        Assert.assertEquals(3, split1.matchers().get("WhitelistMatcher").count());
+        Assert.assertEquals(2, split1.matchers().get("EndsWithAnyOfMatcher").count());
+        // Traffic allocation is 100, so the splitter only hashes for the 2 treatments of matching conditions
+        Assert.assertEquals(2, split1.splitter().count());
+        Assert.assertTrue(split1.evaluation().maxNanos() <= split1.evaluation().totalNanos());
+
+        // The dependency matcher includes the evaluation of split_1, which gets its own profile
+        Assert.assertEquals("on", evaluator.evaluateFeature("admin", null, "dependent", null).treatment);
+        EvaluationProfile dependent = profiler.get("dependent");
+        Assert.assertEquals(1, dependent.matchers().get("DependencyMatcher").count());
+        Assert.assertEquals(1, dependent.conditions().get(DEPENDENCY_LABEL).count());
+        Assert.assertEquals(4, profiler.get("split_1").evaluation().count());
+
+        Assert.assertNull(profiler.get("missing"));
+        Assert.assertEquals(2, profiler.size());
+    }
+
+    @Test
+    public void topRanksByProfiledTime() {
+        EvaluationProfiler profiler = new EvaluationProfiler(1);
+        Evaluator evaluator = buildEvaluator(profiler);
+
+        evaluator.evaluateFeature("admin", null, "dependent", null);
+
+        List<EvaluationProfile> top = profiler.top(10);
+        Assert.assertEquals(2, top.size());
+        // dependent includes the time of split_1
+        Assert.assertEquals("dependent", top.get(0).split());
+        Assert.assertEquals(1, profiler.top(1).size());
+        Assert.assertTrue(profiler.top(0).isEmpty());
+    }
+
+    @Test
+    public void skipsUnsampledEvaluations() {
+        EvaluationProfiler profiler = new EvaluationProfiler(Integer.MAX_VALUE);
+        Evaluator evaluator = buildEvaluator(profiler);
+
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals("on", evaluator.evaluateFeature("admin", null, "split_1", null).treatment);
+        }
+        // 1 in Integer.MAX_VALUE, so there is practically no chance of any being sampled
+        Assert.assertNull(profiler.get("split_1"));
+        Assert.assertEquals(0, profiler.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void sampleRateMustBePositive() {
+        new EvaluationProfiler(0);
+    }
+
+    private Evaluator buildEvaluator(EvaluationProfiler profiler) {
+        SplitCache splitCache = new InMemoryCacheImp();
+
+        Partition partition = new Partition();
+        partition.treatment = "on";
+        partition.size = 100;
+        List<Partition> partitions = Lists.newArrayList(partition);
+
+        AttributeMatcher whitelistMatcher = AttributeMatcher.vanilla(new WhitelistMatcher(Lists.newArrayList("admin")));
+        AttributeMatcher endsWithMatcher = AttributeMatcher.vanilla(new EndsWithAnyOfMatcher(Lists.newArrayList("@test.io")));
+        List<ParsedCondition> conditions = Lists.newArrayList(
+                new ParsedCondition(ConditionType.WHITELIST, new CombiningMatcher(MatcherCombiner.AND, Lists.newArrayList(whitelistMatcher)), partitions, WHITELIST_LABEL),
+                new ParsedCondition(ConditionType.ROLLOUT, new CombiningMatcher(MatcherCombiner.AND, Lists.newArrayList(endsWithMatcher)), partitions, ROLLOUT_LABEL));
+
+        AttributeMatcher dependencyMatcher = AttributeMatcher.vanilla(new DependencyMatcher("split_1", Lists.newArrayList("on")));
+        List<ParsedCondition> dependentConditions = Lists.newArrayList(
+                new ParsedCondition(ConditionType.ROLLOUT, new CombiningMatcher(MatcherCombiner.AND, Lists.newArrayList(dependencyMatcher)), partitions, DEPENDENCY_LABEL));
+
+        splitCache.put(new ParsedSplit("split_1", 0, false, "off", conditions, "tt", 1, 100, 0, 2, null));
+        splitCache.put(new ParsedSplit("dependent", 0, false, "off", dependentConditions, "tt", 1, 100, 0, 2, null));
+
+        return new EvaluatorImp(splitCache, null, profiler);
+    }
+}
@@ -0,0 +1,122 @@
+package io.split.engine.evaluator;
+
+import com.google.common.collect.Lists;
+import io.split.cache.InMemoryCacheImp;
+import io.split.cache.SplitCache;
+import io.split.client.api.SplitEvaluationStats;
+import io.split.client.dtos.ConditionType;
+import io.split.client.dtos.MatcherCombiner;
+import io.split.client.dtos.Partition;
+import io.split.engine.experiments.ParsedCondition;
+import io.split.engine.experiments.ParsedSplit;
+import io.split.engine.matchers.AttributeMatcher;
+import io.split.engine.matchers.CombiningMatcher;
+import io.split.engine.matchers.strings.EndsWithAnyOfMatcher;
+import io.split.engine.matchers.strings.WhitelistMatcher;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+public class SplitStatsTableTest {
+    private static final String WHITELIST_LABEL = "whitelisted";
+    private static final String ROLLOUT_LABEL = "in rollout";
+
+    @Test
+    public void recordsEvaluationsOfEachSplit() {
+        SplitCache splitCache = buildSplitCache();
+        SplitStatsTable table = new SplitStatsTable(splitCache);
+        Evaluator evaluator = new EvaluatorImp(splitCache, table);
+
+        evaluator.evaluateFeature("admin", null, "split_1", null);
+        evaluator.evaluateFeature("someone", null, "split_1", null);
+        evaluator.evaluateFeature("someone@test.io", null, "split_1", null);
+        evaluator.evaluateFeature("admin", null, "split_2", null);
+        evaluator.evaluateFeature("admin", null, "killed", null);
+        evaluator.evaluateFeature("admin", null, "missing", null);
+
+        Assert.assertEquals(3, table.size());
+        Assert.assertNull(table.get("missing"));
+
+        SplitEvaluationStats split1 = table.get("split_1");
+        Assert.assertEquals("split_1", split1.split());
+        Assert.assertEquals(3, split1.evaluations());
+        // 1 for the whitelisted key, 2 for each of the others
+        Assert.assertEquals(5, split1.matcherEvaluations());
+        Assert.assertEquals(3, split1.latency().count());
+        Assert.assertEquals(split1.totalTimeNanos(), split1.latency().sum());
+        Assert.assertEquals(Long.valueOf(1), split1.labels().get(WHITELIST_LABEL));
+        Assert.assertEquals(Long.valueOf(1), split1.labels().get(ROLLOUT_LABEL));
+        Assert.assertEquals(Long.valueOf(1), split1.labels().get(Labels.DEFAULT_RULE));
+
+        SplitEvaluationStats killed = table.get("killed");
+        Assert.assertEquals(0, killed.matcherEvaluations());
+        Assert.assertEquals(Long.valueOf(1), killed.labels().get(Labels.KILLED));
+    }
+
+    @Test
+    public void topRanksHighestFirst() {
+        SplitCache splitCache = buildSplitCache();
+        SplitStatsTable table = new SplitStatsTable(splitCache);
+        Evaluator evaluator = new EvaluatorImp(splitCache, table);
+
+        for (int i = 0; i < 3; i++) {
+            evaluator.evaluateFeature("admin", null, "split_1", null);
+        }
+        evaluator.evaluateFeature("someone", null, "split_2", null);
+        evaluator.evaluateFeature("someone", null, "split_2", null);
+        evaluator.evaluateFeature("admin", null, "killed", null);
+
+        List<SplitEvaluationStats> byEvaluations = table.top(2, SplitEvaluationStats.Rank.EVALUATIONS);
+        Assert.assertEquals(2, byEvaluations.size());
+        Assert.assertEquals("split_1", byEvaluations.get(0).split());
+        Assert.assertEquals("split_2", byEvaluations.get(1).split());
+
+        List<SplitEvaluationStats> byMatchers = table.top(10, SplitEvaluationStats.Rank.MATCHER_EVALUATIONS);
+        Assert.assertEquals(3, byMatchers.size());
+        Assert.assertEquals("split_2", byMatchers.get(0).split());
+        Assert.assertEquals("killed", byMatchers.get(2).split());
+
+        Assert.assertTrue(table.top(0, SplitEvaluationStats.Rank.TOTAL_TIME).isEmpty());
+    }
+
+    @Test
+    public void dropsSplitsRemovedFromTheCache() {
+        SplitCache splitCache = buildSplitCache();
+        SplitStatsTable table = new SplitStatsTable(splitCache);
+        Evaluator evaluator = new EvaluatorImp(splitCache, table);
+
+        evaluator.evaluateFeature("admin", null, "split_1", null);
+        evaluator.evaluateFeature("admin", null, "split_2", null);
+        evaluator.evaluateFeature("admin", null, "killed", null);
+        splitCache.remove("split_1");
+        splitCache.remove("killed");
+
+        Assert.assertNull(table.get("split_1"));
+        List<SplitEvaluationStats> top = table.top(10, SplitEvaluationStats.Rank.EVALUATIONS);
+        Assert.assertEquals(1, top.size());
+        Assert.assertEquals("split_2", top.get(0).split());
+        Assert.assertEquals(1, table.size());
+    }
+
+    private SplitCache buildSplitCache() {
+        SplitCache splitCache = new InMemoryCacheImp();
+
+        Partition partition = new Partition();
+        partition.treatment = "on";
+        partition.size = 100;
+        List<Partition> partitions = Lists.newArrayList(partition);
+
+        AttributeMatcher whitelistMatcher = AttributeMatcher.vanilla(new WhitelistMatcher(Lists.newArrayList("admin")));
+        AttributeMatcher endsWithMatcher = AttributeMatcher.vanilla(new EndsWithAnyOfMatcher(Lists.newArrayList("@test.io")));
+        List<ParsedCondition> conditions = Lists.newArrayList(
+                new ParsedCondition(ConditionType.WHITELIST, new CombiningMatcher(MatcherCombiner.AND, Lists.newArrayList(whitelistMatcher)), partitions, WHITELIST_LABEL),
+                new ParsedCondition(ConditionType.ROLLOUT, new CombiningMatcher(MatcherCombiner.AND, Lists.newArrayList(endsWithMatcher)), partitions, ROLLOUT_LABEL));
+
+        splitCache.put(new ParsedSplit("split_1", 0, false, "off", conditions, "tt", 1, 100, 0, 2, null));
+        splitCache.put(new ParsedSplit("split_2", 0, false, "off", conditions, "tt", 1, 100, 0, 2, null));
+        splitCache.put(new ParsedSplit("killed", 0, true, "off", conditions, "tt", 1, 100, 0, 2, null));
+
+        return splitCache;
+    }
+}
@@ -134,4 +134,21 @@ public class SegmentSynchronizationTaskImpTest {
         boolean fetch = fetchers.fetchAllSynchronous();
         Assert.assertEquals(true, fetch);
     }
+
+    @Test
+    public void closeCancelsPendingPolls() throws InterruptedException {
+        SDKReadinessGates gates = new SDKReadinessGates();
+        SegmentCache segmentCache = Mockito.mock(SegmentCache.class);
+        SegmentChangeFetcher segmentChangeFetcher = Mockito.mock(SegmentChangeFetcher.class);
+        final SegmentSynchronizationTaskImp fetchers = new SegmentSynchronizationTaskImp(segmentChangeFetcher, 60L, 1, gates, segmentCache, TELEMETRY_STORAGE);
+
+        fetchers.getFetcher("foo");
+        fetchers.startPeriodicFetching();
+        Thread.sleep(100);
+
+        // The next poll is a minute away; close must not wait for it
+        long start = System.currentTimeMillis();
+        fetchers.close();
+        Assert.assertTrue(System.currentTimeMillis() - start < 1000);
+    }
 }
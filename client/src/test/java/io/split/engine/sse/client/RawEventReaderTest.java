@@ -0,0 +1,76 @@
+package io.split.engine.sse.client;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+public class RawEventReaderTest {
+
+    @Test
+    public void readsEventsAndSkipsKeepAlives() throws IOException {
+        String stream = ":keepalive\n\n" +
+                "id: 123\nevent: message\ndata: {\"a\":\"b\"}\n\n" +
+                ":keepalive\n\n" +
+                "event: error\ndata: {\"message\":\"Token expired\"}\n\n";
+        RawEventReader reader = new RawEventReader(new ByteArrayInputStream(stream.getBytes(StandardCharsets.UTF_8)));
+
+        RawEvent first = reader.next();
+        Assert.assertEquals("123", first.id());
+        Assert.assertEquals("message", first.event());
+        Assert.assertEquals("{\"a\":\"b\"}", first.data());
+        Assert.assertNull(first.clientId());
+
+        RawEvent second = reader.next();
+        Assert.assertEquals("error", second.event());
+        Assert.assertEquals("{\"message\":\"Token expired\"}", second.data());
+        Assert.assertEquals(2, reader.keepAlives());
+    }
+
+    @Test
+    public void dispatchesMessagesWithoutKnownFields() throws IOException {
+        String stream = ":initializing\n\n" +
+                "\n" +
+                ":keepalive\n\n" +
+                "unknown: field\n\n";
+        RawEventReader reader = new RawEventReader(new ByteArrayInputStream(stream.getBytes(StandardCharsets.UTF_8)));
+
+        RawEvent comment = reader.next();
+        Assert.assertNull(comment.event());
+        Assert.assertNull(comment.data());
+
+        RawEvent unknown = reader.next();
+        Assert.assertNull(unknown.id());
+        Assert.assertEquals(1, reader.keepAlives());
+    }
+
+    @Test
+    public void handlesLinesSpanningReadsAndCrLf() throws IOException {
+        String data = "{\"channel\":\"xxxx_xxxx_splits\",\"data\":\"áéí\"}";
+        String stream = "event: message\r\nclientId: abc\r\ndata: " + data + "\r\n\r\n";
+        RawEventReader reader = new RawEventReader(new ByteArrayInputStream(stream.getBytes(StandardCharsets.UTF_8)), 4);
+
+        RawEvent event = reader.next();
+        Assert.assertEquals("message", event.event());
+        Assert.assertEquals("abc", event.clientId());
+        Assert.assertEquals(data, event.data());
+        Assert.assertEquals(0, reader.keepAlives());
+    }
+
+    @Test
+    public void behavesLikeFromString() throws IOException {
+        String message = "id: 1\nevent: message\nunknown: field\ndata: {\"x\":1}\n";
+        RawEventReader reader = new RawEventReader(new ByteArrayInputStream((message + "\n").getBytes(StandardCharsets.UTF_8)));
+
+        Assert.assertEquals(RawEvent.fromString(message).toString(), reader.next().toString());
+    }
+
+    @Test(expected = EOFException.class)
+    public void throwsWhenStreamEnds() throws IOException {
+        RawEventReader reader = new RawEventReader(new ByteArrayInputStream(":keepalive\n\n".getBytes(StandardCharsets.UTF_8)));
+        reader.next();
+    }
+}
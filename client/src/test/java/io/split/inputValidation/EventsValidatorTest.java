@@ -1,5 +1,6 @@
 package io.split.inputValidation;
 
+import com.google.common.base.Strings;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -50,4 +51,20 @@ public class EventsValidatorTest {
         result = EventsValidator.typeIsValid("aksdjas!@#$@%#^$&%", "test");
         Assert.assertFalse(result);
     }
+
+    @Test
+    public void typeCheckAgreesWithPattern() {
+        String[] eventTypes = {
+                "a", "A", "0", "event_type_id", "event-type.id:1", "-event", "_event", ".event", ":event",
+                "event type", "evént", "event!", "event/type", "\u0000",
+                Strings.repeat("a", 80), Strings.repeat("a", 81), "a" + Strings.repeat("-", 79), "a" + Strings.repeat("-", 80)
+        };
+        for (String eventType : eventTypes) {
+            Assert.assertEquals(eventType, EventsValidator.EVENT_TYPE_MATCHER.matcher(eventType).find(),
+                    EventsValidator.matchesEventTypePattern(eventType));
+        }
+
+        // The pattern's $ lets a trailing line break through, the check doesn't
+        Assert.assertFalse(EventsValidator.matchesEventTypePattern("event\n"));
+    }
 }
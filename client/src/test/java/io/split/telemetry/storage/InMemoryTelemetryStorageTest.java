@@ -36,6 +36,10 @@ public class InMemoryTelemetryStorageTest{
         Assert.assertEquals(0, latencies.get_treatmentWithConfig().stream().mapToInt(Long::intValue).sum());
         Assert.assertEquals(0, latencies.get_track().stream().mapToInt(Long::intValue).sum());
 
+        //Histograms aren't reset by popping
+        Assert.assertEquals(2, telemetryStorage.getLatencySnapshot(MethodEnum.TREATMENT).count());
+        Assert.assertEquals(2000l * 1000, telemetryStorage.getLatencySnapshot(MethodEnum.TREATMENT).max(), 2000l * 1000 / 16);
+
         //HttpLatencies
         telemetryStorage.recordSyncLatency(HTTPLatenciesEnum.TELEMETRY, 1500l * 1000);
         telemetryStorage.recordSyncLatency(HTTPLatenciesEnum.TELEMETRY, 2000l * 1000);
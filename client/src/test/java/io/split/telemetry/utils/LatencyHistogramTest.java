@@ -0,0 +1,65 @@
+package io.split.telemetry.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void bucketsKeepRelativeErrorBounded() {
+        for (long value = 1; value < LatencyHistogram.MAX_TRACKABLE_NANOS; value = value * 3 / 2 + 1) {
+            long readBack = LatencyHistogram.highestValueIn(LatencyHistogram.bucketFor(value));
+            Assert.assertTrue(readBack >= value);
+            Assert.assertTrue((readBack - value) <= value / 16);
+        }
+        Assert.assertEquals(0, LatencyHistogram.bucketFor(-5));
+        Assert.assertEquals(LatencyHistogram.BUCKET_COUNT - 1, LatencyHistogram.bucketFor(Long.MAX_VALUE));
+        Assert.assertEquals(LatencyHistogram.BUCKET_COUNT - 1, LatencyHistogram.bucketFor(LatencyHistogram.MAX_TRACKABLE_NANOS));
+    }
+
+    @Test
+    public void computesPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(i));
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        Assert.assertEquals(1000, snapshot.count());
+        Assert.assertEquals(TimeUnit.MICROSECONDS.toNanos(500500), snapshot.sum());
+        Assert.assertEquals(500, snapshot.valueAtPercentile(50, TimeUnit.MICROSECONDS), 500 / 16);
+        Assert.assertEquals(990, snapshot.valueAtPercentile(99, TimeUnit.MICROSECONDS), 990 / 16);
+        Assert.assertEquals(999, snapshot.valueAtPercentile(99.9, TimeUnit.MICROSECONDS), 999 / 16);
+        Assert.assertEquals(1000, snapshot.max() / 1000, 1000 / 16);
+    }
+
+    @Test
+    public void emptySnapshot() {
+        LatencyHistogram.Snapshot snapshot = new LatencyHistogram().snapshot();
+        Assert.assertEquals(0, snapshot.count());
+        Assert.assertEquals(0, snapshot.valueAtPercentile(99));
+        Assert.assertEquals(0, snapshot.max());
+    }
+
+    @Test
+    public void recordsFromManyThreads() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            threads.add(new Thread(() -> {
+                for (int j = 0; j < 10000; j++) {
+                    histogram.record(j);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertEquals(80000, histogram.snapshot().count());
+    }
+}
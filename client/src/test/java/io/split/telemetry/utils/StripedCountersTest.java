@@ -0,0 +1,68 @@
+package io.split.telemetry.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class StripedCountersTest {
+
+    @Test
+    public void countersAreIndependent() {
+        StripedCounters counters = new StripedCounters(3, 4);
+        counters.increment(0);
+        counters.add(1, 5);
+        counters.add(1, 2);
+
+        Assert.assertEquals(1, counters.sum(0));
+        Assert.assertEquals(7, counters.sum(1));
+        Assert.assertEquals(0, counters.sum(2));
+
+        Assert.assertEquals(7, counters.sumThenReset(1));
+        Assert.assertEquals(0, counters.sum(1));
+        Assert.assertEquals(1, counters.sum(0));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void rejectsUnknownCounters() {
+        new StripedCounters(3, 4).increment(3);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsStripesThatArentPowersOfTwo() {
+        new StripedCounters(3, 3);
+    }
+
+    @Test
+    public void noCountsLostWhilePopping() throws InterruptedException {
+        StripedCounters counters = new StripedCounters(1, 8);
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicLong popped = new AtomicLong();
+        Thread popper = new Thread(() -> {
+            while (!done.get()) {
+                popped.addAndGet(counters.sumThenReset(0));
+            }
+        });
+        popper.start();
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            threads.add(new Thread(() -> {
+                for (int j = 0; j < 100000; j++) {
+                    counters.increment(0);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        done.set(true);
+        popper.join();
+
+        Assert.assertEquals(800000, popped.get() + counters.sumThenReset(0));
+    }
+}